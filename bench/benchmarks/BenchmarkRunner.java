@@ -0,0 +1,52 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark in this package and writes the results as JSON, so that runs from different
+ * commits can be diffed. Must be run from the project folder, as the level loading benchmarks read
+ * from the levels folder.
+ *
+ * <p>
+ * Any standard JMH option may be given, for example -p size=512 to change the maze size, or
+ * a benchmark name to only run that benchmark. Results are written to jmh-result.json unless
+ * -rff is given.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Where results are written if no file is given.
+	 */
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	/**
+	 * @param args Standard JMH command line options.
+	 * @throws RunnerException If a benchmark fails.
+	 * @throws CommandLineOptionException If the options cannot be parsed.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd)
+				.jvmArgsAppend("-Djava.awt.headless=true", "-Dchaps.headless=true");
+		if(cmd.getIncludes().isEmpty()) {
+			options.include(BenchmarkRunner.class.getPackage().getName() + "\\..*Benchmark\\..*");
+		}
+		if(!cmd.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+		if(!cmd.getResult().hasValue()) {
+			options.result(DEFAULT_RESULT_FILE);
+		}
+		new Runner(options.build()).run();
+	}
+
+}
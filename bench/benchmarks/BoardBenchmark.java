@@ -0,0 +1,122 @@
+package benchmarks;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.game.Board;
+import domain.game.BoardSnapshot;
+import domain.game.PackedBoard;
+import domain.game.Position;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * Measures Board.getAdjacentTiles over random cells, including those on the edge of the maze, against
+ * the allocation-free forEachAdjacentTile and getNeighbours, looking a Tile up through a new Position
+ * against looking it up by coordinates, and a scan of every cell of a Board against the same scan of
+ * a PackedBoard.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardBenchmark {
+
+	/**
+	 * The number of cells cycled through. Must be a power of two.
+	 */
+	private static final int QUERIES = 1024;
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"32", "128"})
+	public int size;
+
+	private Board board;
+	private PackedBoard packed;
+	private final int[] neighbours = new int[4];
+	private Position[] positions = new Position[QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		SyntheticBoard layout = new SyntheticBoard(size, size, 0.1);
+		board = layout.toBoard();
+		packed = layout.toPackedBoard();
+		List<Position> open = layout.randomOpenPositions(QUERIES);
+		for(int i = 0; i < QUERIES; i++) {
+			positions[i] = open.get(i);
+		}
+	}
+
+	@Benchmark
+	public HashSet<Tile> getAdjacentTiles() {
+		return board.getAdjacentTiles(positions[next++ & (QUERIES - 1)]);
+	}
+
+	@Benchmark
+	public int forEachAdjacentTile() {
+		int[] count = new int[1];
+		board.forEachAdjacentTile(positions[next++ & (QUERIES - 1)], t -> count[0]++);
+		return count[0];
+	}
+
+	@Benchmark
+	public int getNeighbours() {
+		Position pos = positions[next++ & (QUERIES - 1)];
+		return board.getNeighbours(board.indexOf(pos), neighbours);
+	}
+
+	@Benchmark
+	public Tile getTileAtNewPosition() {
+		Position pos = positions[next++ & (QUERIES - 1)];
+		return board.getTileAt(new Position(pos.getX(), pos.getY()));
+	}
+
+	@Benchmark
+	public Tile getTileAtCoordinates() {
+		Position pos = positions[next++ & (QUERIES - 1)];
+		return board.getTileAt(pos.getX(), pos.getY());
+	}
+
+	@Benchmark
+	public int countWalls() {
+		int walls = 0;
+		for(int cell = 0; cell < size * size; cell++) {
+			if(board.getTileAtIndex(cell) instanceof WallTile) {
+				walls++;
+			}
+		}
+		return walls;
+	}
+
+	@Benchmark
+	public int countWallsPacked() {
+		int walls = 0;
+		for(int cell = 0; cell < size * size; cell++) {
+			if(packed.getKind(cell) == BoardSnapshot.WALL) {
+				walls++;
+			}
+		}
+		return walls;
+	}
+
+}
@@ -0,0 +1,154 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.actors.BugEnemy;
+import domain.actors.BugEnemy.ChaseStrategy;
+import domain.ecs.World;
+import domain.game.Board;
+import domain.game.Game;
+import domain.game.Level;
+import domain.game.Player;
+import domain.game.Position;
+import domain.tiles.Tile;
+import domain.vision.FieldOfView;
+
+/**
+ * Measures one tick of Level.moveAllEnemies with a configurable number of BugEnemies, each of
+ * which looks for Chap and chases him with the given ChaseStrategy. The BugEnemies start where
+ * they can see Chap where there is room, and Chap moves to a random free Tile near where he
+ * started before each tick, so they are always chasing a moving target rather than wandering. The
+ * cost of Chap's move is included.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnemyBenchmark {
+
+	/**
+	 * How far Chap may wander from where he started along either axis.
+	 */
+	private static final int ROAM = 8;
+
+	/**
+	 * How far Chap may move along either axis each tick. In the game Chap moves more often than the
+	 * enemies do.
+	 */
+	private static final int STEPS = 4;
+
+	/**
+	 * How many Tiles Chap tries before staying where he is for a tick.
+	 */
+	private static final int ATTEMPTS = 16;
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"32", "128"})
+	public int size;
+
+	/**
+	 * The chance of each cell being a wall.
+	 */
+	@Param({"0.1"})
+	public double density;
+
+	/**
+	 * The number of BugEnemies in the maze.
+	 */
+	@Param({"1", "16", "64"})
+	public int bugs;
+
+	/**
+	 * How the BugEnemies find their way to Chap.
+	 */
+	@Param({"FLOW_FIELD", "SEARCH", "INCREMENTAL"})
+	public ChaseStrategy strategy;
+
+	private Level level;
+	private Board board;
+	private Player player;
+	private Position start;
+	private final Random random = new Random(SyntheticBoard.DEFAULT_SEED);
+
+	@Setup
+	public void setup() {
+		SyntheticBoard layout = new SyntheticBoard(size, size, density);
+		board = layout.toBoard();
+		level = new Level(0, 0, board);
+		Position chap = layout.getPlayer();
+		start = chap;
+		player = new Player(board.getTileAt(chap));
+		new Game(level, player);
+		BugEnemy.setChaseStrategy(strategy);
+		//BugEnemies start in sight of Chap where they can, so they track him from the first tick, and
+		//the rest start close by
+		FieldOfView fov = level.getFieldOfView();
+		List<Position> homes = layout.openPositionsNear(chap, Level.VISION_RADIUS);
+		int placed = 0;
+		for(int pass = 0; pass < 2; pass++) {
+			for(Position pos : homes) {
+				Tile t = board.getTileAt(pos);
+				boolean seen = fov.isVisible(pos.getX(), pos.getY(), chap.getX(), chap.getY());
+				if(placed < bugs && !t.hasActor() && (seen || pass == 1)) {
+					new BugEnemy(t);
+					placed++;
+				}
+			}
+		}
+		if(placed < bugs) {
+			throw new IllegalStateException("Only room for " + placed + " of " + bugs + " BugEnemies near Chap.");
+		}
+	}
+
+	@Benchmark
+	public Level moveAllEnemies() {
+		//Chap jumps to a free Tile a few steps away, so BugEnemies next to him can not hold him still
+		for(int attempt = 0; attempt < ATTEMPTS; attempt++) {
+			Position from = player.getPosition();
+			int x = from.getX() + random.nextInt(2 * STEPS + 1) - STEPS;
+			int y = from.getY() + random.nextInt(2 * STEPS + 1) - STEPS;
+			if(x < 0 || y < 0 || x >= board.getWidth() || y >= board.getHeight() || (x == from.getX() && y == from.getY())) {
+				continue;
+			}
+			Tile t = board.getTileAt(x, y);
+			if(t.canMoveOnto() && near(t.getPosition())) {
+				player.teleportMove(t);
+				//teleportMove goes around the World, so Chap's components are made again
+				World world = level.getWorld();
+				world.removeEntity(player.getChap().getId());
+				world.addEntity(player.getChap());
+				break;
+			}
+		}
+		level.moveAllEnemies();
+		return level;
+	}
+
+	/**
+	 * @return True if the given Position is within ROAM of where Chap started.
+	 */
+	private boolean near(Position pos) {
+		return Math.abs(pos.getX() - start.getX()) <= ROAM && Math.abs(pos.getY() - start.getY()) <= ROAM;
+	}
+
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.astar.HierarchicalPathfinder;
+import domain.game.Board;
+import domain.game.Position;
+
+/**
+ * Measures HierarchicalPathfinder queries between random open cells of a synthetic maze, both
+ * finding the waypoints alone and refining them into a full path. The abstract graph is built
+ * once, outside of the measurement.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchicalBenchmark {
+
+	/**
+	 * The number of start and end pairs cycled through. Must be a power of two.
+	 */
+	private static final int QUERIES = 256;
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"256", "1024"})
+	public int size;
+
+	/**
+	 * The chance of each cell being a wall.
+	 */
+	@Param({"0.1", "0.3"})
+	public double density;
+
+	/**
+	 * The width and height of each cluster.
+	 */
+	@Param({"16", "32", "64"})
+	public int clusterSize;
+
+	private HierarchicalPathfinder hierarchy;
+	private int[] starts = new int[QUERIES];
+	private int[] ends = new int[QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		SyntheticBoard layout = new SyntheticBoard(size, size, density);
+		Board board = layout.toBoard();
+		hierarchy = new HierarchicalPathfinder(board, clusterSize);
+		List<Position> positions = layout.randomOpenPositions(QUERIES * 2);
+		for(int i = 0; i < QUERIES; i++) {
+			starts[i] = board.indexOf(positions.get(2 * i));
+			ends[i] = board.indexOf(positions.get(2 * i + 1));
+		}
+	}
+
+	@Benchmark
+	public int[] findWaypoints() {
+		int i = next++ & (QUERIES - 1);
+		return hierarchy.findWaypoints(starts[i], ends[i]);
+	}
+
+	@Benchmark
+	public int[] search() {
+		int i = next++ & (QUERIES - 1);
+		return hierarchy.search(starts[i], ends[i]);
+	}
+
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.game.Game;
+import domain.game.Level;
+import persistency.LevelReader;
+import persistency.XMLReader;
+
+/**
+ * Measures loading a synthetic maze from disk with each of the level readers. The level files are
+ * written into the levels folder before the run and removed afterwards, so the benchmarks must be
+ * run from the project folder.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadingBenchmark {
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"20", "64"})
+	public int size;
+
+	/**
+	 * The chance of each cell being a wall.
+	 */
+	@Param({"0.2"})
+	public double density;
+
+	private File xmlFile;
+	private File levelFile;
+
+	@Setup
+	public void setup() throws IOException {
+		SyntheticBoard layout = new SyntheticBoard(size, size, density);
+		xmlFile = new File(XMLReader.resourcePath + "bench_xml_" + size + ".xml");
+		levelFile = new File(XMLReader.resourcePath + "bench_level_" + size + ".xml");
+		layout.writeXML(xmlFile);
+		layout.writeLevelXML(levelFile);
+	}
+
+	@TearDown
+	public void tearDown() {
+		xmlFile.delete();
+		levelFile.delete();
+	}
+
+	@Benchmark
+	public Level xmlReader() {
+		return new XMLReader(xmlFile.getName()).getLevel();
+	}
+
+	@Benchmark
+	public Game levelReader() {
+		return new LevelReader(levelFile.getName()).getGame();
+	}
+
+}
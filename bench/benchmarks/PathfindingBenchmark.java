@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.astar.AStarSearch;
+import domain.astar.NoPathFoundException;
+import domain.game.Board;
+import domain.game.Position;
+import domain.tiles.Tile;
+
+/**
+ * Measures AStarSearch.pathfind between random open cells of a synthetic maze.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathfindingBenchmark {
+
+	/**
+	 * The number of start and end pairs cycled through. Must be a power of two.
+	 */
+	private static final int QUERIES = 256;
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"32", "128"})
+	public int size;
+
+	/**
+	 * The chance of each cell being a wall.
+	 */
+	@Param({"0.1", "0.3"})
+	public double density;
+
+	private Board board;
+	private Position[] starts = new Position[QUERIES];
+	private Position[] ends = new Position[QUERIES];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		SyntheticBoard layout = new SyntheticBoard(size, size, density);
+		board = layout.toBoard();
+		List<Position> positions = layout.randomOpenPositions(QUERIES * 2);
+		for(int i = 0; i < QUERIES; i++) {
+			starts[i] = positions.get(2 * i);
+			ends[i] = positions.get(2 * i + 1);
+		}
+	}
+
+	@Benchmark
+	public ArrayDeque<Tile> pathfind() {
+		int i = next++ & (QUERIES - 1);
+		try {
+			return AStarSearch.pathfind(board, starts[i], ends[i], false);
+		} catch (NoPathFoundException e) {
+			return null; //walled off pairs are part of the workload
+		}
+	}
+
+}
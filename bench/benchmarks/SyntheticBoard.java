@@ -0,0 +1,242 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import domain.game.Board;
+import domain.game.BoardSnapshot;
+import domain.game.PackedBoard;
+import domain.game.Position;
+import domain.tiles.FreeTile;
+import domain.tiles.WallTile;
+
+/**
+ * A SyntheticBoard is a randomly generated maze layout used by the benchmarks. The same size, wall
+ * density and seed always produce the same layout, so results can be compared between commits.
+ *
+ * <p>
+ * The layout can be turned into a Board directly, or written out in either of the level file formats
+ * so that loading can be measured.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class SyntheticBoard {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The seed used when none is given.
+	 */
+	public static final long DEFAULT_SEED = 225;
+
+	/**
+	 * The width of the maze.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the maze.
+	 */
+	private final int height;
+
+	/**
+	 * The cells holding a WallTile, indexed by x + y * width.
+	 */
+	private final BitSet walls = new BitSet();
+
+	/**
+	 * Chap's starting position. Always an open cell.
+	 */
+	private final Position player;
+
+	/**
+	 * The source of every random choice made for this layout, so later choices such as where to
+	 * place enemies are reproducible too.
+	 */
+	private final Random random;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Generates a new layout with DEFAULT_SEED.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @param wallDensity The chance, from 0 to 1, of each cell being a wall.
+	 */
+	public SyntheticBoard(int width, int height, double wallDensity) {
+		this(width, height, wallDensity, DEFAULT_SEED);
+	}
+
+	/**
+	 * Generates a new layout.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @param wallDensity The chance, from 0 to 1, of each cell being a wall.
+	 * @param seed The seed for the layout.
+	 */
+	public SyntheticBoard(int width, int height, double wallDensity, long seed) {
+		this.width = width;
+		this.height = height;
+		this.random = new Random(seed);
+		for(int cell = 0; cell < width * height; cell++) {
+			if(random.nextDouble() < wallDensity) {
+				walls.set(cell);
+			}
+		}
+		//keep Chap's starting cell open, even on a maze of nothing but walls
+		int start = random.nextInt(width * height);
+		walls.clear(start);
+		this.player = new Position(start % width, start / width);
+	}
+
+	//===================================================================
+	// Conversion
+	//===================================================================
+
+	/**
+	 * @return A new Board with this layout.
+	 */
+	public Board toBoard() {
+		Board board = new Board(width, height);
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				if(walls.get(x + y * width)) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * @return A new PackedBoard with this layout. No Tile objects are created, so this works for
+	 * 			mazes far too large for toBoard().
+	 */
+	public PackedBoard toPackedBoard() {
+		PackedBoard board = new PackedBoard(width, height);
+		for(int cell = 0; cell < width * height; cell++) {
+			board.setKind(cell, walls.get(cell) ? BoardSnapshot.WALL : BoardSnapshot.FREE);
+		}
+		return board;
+	}
+
+	/**
+	 * Writes this layout in the format read by XMLReader.
+	 *
+	 * @param file The file to write to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void writeXML(File file) throws IOException {
+		try(Writer out = new FileWriter(file)) {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Board>\n\t<Header>\n");
+			out.write("\t\t<Dimensions>" + width + " " + height + "</Dimensions>\n");
+			out.write("\t\t<Player>" + player.getX() + " " + player.getY() + "</Player>\n");
+			out.write("\t\t<Time>60</Time>\n\t</Header>\n\t<Tiles>\n");
+			for(int cell = walls.nextSetBit(0); cell >= 0; cell = walls.nextSetBit(cell + 1)) {
+				out.write("\t\t<Tile>Wall " + (cell % width) + " " + (cell / width) + "</Tile>\n");
+			}
+			out.write("\t</Tiles>\n\t<Items>\n\t</Items>\n\t<Gates>\n\t</Gates>\n</Board>\n");
+		}
+	}
+
+	/**
+	 * Writes this layout in the format read by LevelReader.
+	 *
+	 * @param file The file to write to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void writeLevelXML(File file) throws IOException {
+		try(Writer out = new FileWriter(file)) {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Board>\n\t<Header>\n\t\t<Stage>1</Stage>\n");
+			out.write("\t\t<Dimensions>" + width + " " + height + "</Dimensions>\n");
+			out.write("\t\t<Player>" + player.getX() + " " + player.getY() + "</Player>\n");
+			out.write("\t\t<Time>60</Time>\n\t</Header>\n\t<Tiles>\n\t\t<Exits>\n\t\t</Exits>\n\t\t<Helps>\n\t\t</Helps>\n\t\t<Walls>\n");
+			for(int cell = walls.nextSetBit(0); cell >= 0; cell = walls.nextSetBit(cell + 1)) {
+				out.write("\t\t\t<Wall>" + (cell % width) + " " + (cell / width) + "</Wall>\n");
+			}
+			out.write("\t\t</Walls>\n\t</Tiles>\n\t<Items>\n\t\t<Keys>\n\t\t</Keys>\n\t\t<Treasures>\n\t\t</Treasures>\n\t</Items>\n");
+			out.write("\t<Gates>\n\t\t<KeyGates>\n\t\t</KeyGates>\n\t\t<TreasureGates>\n\t\t</TreasureGates>\n\t</Gates>\n");
+			out.write("\t<NonPlayerActors>\n\t\t<BugEnemies>\n\t\t</BugEnemies>\n\t</NonPlayerActors>\n</Board>\n");
+		}
+	}
+
+	//===================================================================
+	// Queries
+	//===================================================================
+
+	/**
+	 * Lists every open Position within the given distance of a centre along both axes, in a random
+	 * order. The centre itself is left out.
+	 *
+	 * @param centre The Position to search around.
+	 * @param radius How far from the centre to look.
+	 * @return The open Positions in the square around the centre, shuffled.
+	 */
+	public List<Position> openPositionsNear(Position centre, int radius) {
+		List<Position> positions = new ArrayList<Position>();
+		for(int y = Math.max(0, centre.getY() - radius); y <= Math.min(height - 1, centre.getY() + radius); y++) {
+			for(int x = Math.max(0, centre.getX() - radius); x <= Math.min(width - 1, centre.getX() + radius); x++) {
+				if(!walls.get(x + y * width) && (x != centre.getX() || y != centre.getY())) {
+					positions.add(new Position(x, y));
+				}
+			}
+		}
+		Collections.shuffle(positions, random);
+		return positions;
+	}
+
+	/**
+	 * Picks random open Positions from this layout. Successive calls continue the same sequence.
+	 *
+	 * @param count The number of Positions to pick.
+	 * @return The Positions, which may repeat.
+	 */
+	public List<Position> randomOpenPositions(int count) {
+		List<Position> positions = new ArrayList<Position>(count);
+		while(positions.size() < count) {
+			int cell = random.nextInt(width * height);
+			if(!walls.get(cell)) {
+				positions.add(new Position(cell % width, cell / width));
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * @return Chap's starting position.
+	 */
+	public Position getPlayer() {
+		return player;
+	}
+
+	/**
+	 * @return The width of the maze.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The height of the maze.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import domain.game.Level;
+import domain.game.Position;
+import domain.vision.FieldOfView;
+import domain.vision.OpacityMap;
+import domain.vision.Sightline;
+
+/**
+ * Measures the vision checks BugEnemies make when looking for Chap - a lookup in the Level's
+ * FieldOfView, a ray cast by a Sightline, and filling in the FieldOfView for every Tile, as
+ * happens bit by bit as BugEnemies look around.
+ *
+ * @author Michael Dasan 300130610
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VisionBenchmark {
+
+	/**
+	 * The number of looker and target pairs cycled through. Must be a power of two.
+	 */
+	private static final int QUERIES = 1024;
+
+	/**
+	 * The width and height of the maze.
+	 */
+	@Param({"32", "128"})
+	public int size;
+
+	/**
+	 * The chance of each cell being a wall.
+	 */
+	@Param({"0.1", "0.3"})
+	public double density;
+
+	private Level level;
+	private OpacityMap map;
+	private FieldOfView fov;
+	private Sightline sightline = new Sightline();
+	private int[] pairs = new int[QUERIES * 4];
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		SyntheticBoard layout = new SyntheticBoard(size, size, density);
+		level = new Level(0, 0, layout.toBoard());
+		map = level.getOpacityMap();
+		fov = level.getFieldOfView();
+		//targets are near their lookers, as BugEnemies only look as far as they can see
+		Random random = new Random(SyntheticBoard.DEFAULT_SEED);
+		int reach = Level.VISION_RADIUS + 2;
+		List<Position> lookers = layout.randomOpenPositions(QUERIES);
+		for(int i = 0; i < QUERIES; i++) {
+			Position p = lookers.get(i);
+			pairs[4 * i] = p.getX();
+			pairs[4 * i + 1] = p.getY();
+			pairs[4 * i + 2] = Math.max(0, Math.min(size - 1, p.getX() + random.nextInt(2 * reach + 1) - reach));
+			pairs[4 * i + 3] = Math.max(0, Math.min(size - 1, p.getY() + random.nextInt(2 * reach + 1) - reach));
+		}
+	}
+
+	@Benchmark
+	public boolean fieldOfView() {
+		int i = (next++ & (QUERIES - 1)) * 4;
+		return fov.isVisible(pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3]);
+	}
+
+	@Benchmark
+	public boolean sightline() {
+		int i = (next++ & (QUERIES - 1)) * 4;
+		return sightline.canSee(map, pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3], Level.VISION_RADIUS);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public FieldOfView buildFieldOfView() {
+		FieldOfView built = new FieldOfView(map, Level.VISION_RADIUS);
+		for(int y = 0; y < size; y++) {
+			for(int x = 0; x < size; x++) {
+				built.isVisible(x, y, x, y);
+			}
+		}
+		return built;
+	}
+
+}
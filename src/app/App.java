@@ -11,16 +11,18 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Image;
+import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.HashMap;
+import java.util.Map;
 import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JDialog;
+import javax.swing.JLayeredPane;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JMenu;
@@ -29,11 +31,14 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.border.Border;
 import persistency.XMLReader;
 import persistency.XMLReader.LevelChoice;
 import persistency.XMLWriter;
+import rendering.ActiveRenderer;
+import rendering.FrameStats;
 import rendering.Renderer;
 
 /** 
@@ -67,10 +72,13 @@ public class App extends Observer {
   private JLabel redKey;
   private JLabel greenKey;
   private JLabel totalKeys;
-  private HashMap<Colour, Integer> allKeys;
+  private Map<Colour, Integer> allKeys;
 
   //General game components
   private Renderer renderer = null;
+  private ActiveRenderer activeRenderer = null; //only used with -Dchaps.activeRendering=true
+  private FrameStats frameStats = null; //frame times of the last render thread
+  private final UIAssets assets = new UIAssets("data/"); //images and fonts, scaled once
   private Game game = null;
   private boolean firstLoad = false;
   private boolean isResumed = false;
@@ -92,10 +100,15 @@ public class App extends Observer {
 
   @Override
   public void update() {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      //moves are made on the game's simulation thread, but Swing may only be used from this one
+      SwingUtilities.invokeLater(this::update);
+      return;
+    }
     if (game != null) {
       cheeseLabelUpdate();
       levelLabelUpdate();
-      allKeys = Game.getPlayer().getAllKeys();
+      allKeys = Game.getSnapshot().getAllKeys();
       blueKeyUpdate(allKeys.get(Colour.BLUE));
       redKeyUpdate(allKeys.get(Colour.RED));
       greenKeyUpdate(allKeys.get(Colour.GREEN));
@@ -104,12 +117,18 @@ public class App extends Observer {
           allKeys.get(Colour.RED)
           +
           allKeys.get(Colour.GREEN));
-      renderer.draw(getGraphics());
+      if (activeRenderer == null) {
+        renderer.draw(getGraphics());
+      }
     }
   }
 
   @Override
   public void updateWithMessage(String message) {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(() -> updateWithMessage(message));
+      return;
+    }
     gameMsg = new JDialog();
     gameMsg.setSize(new Dimension(300, 100));
     gameMsg.setLocationRelativeTo(this);
@@ -188,6 +207,7 @@ public class App extends Observer {
       reader = new XMLReader("level" + level + ".xml");
     }
     if (reader != null) {
+      stopActiveRendering(); //the old render thread must not draw the new level with the old level's size
       if (game != null) {
         game.restart(game.getLevel(), game.getPlayer());
       }
@@ -203,6 +223,9 @@ public class App extends Observer {
       renderer = new Renderer(game, game.getPlayer());
       add(renderer);
       renderer.setVisible(true);
+      if (Boolean.getBoolean("chaps.activeRendering")) {
+        startActiveRendering();
+      }
     }
     makeLoadingScreen();
     if (timer == null) {
@@ -217,6 +240,31 @@ public class App extends Observer {
     }
   }
 
+  /**
+   * Draws the maze from its own render thread onto a canvas over the maze area, instead of on each update.
+   * The frame rate aimed for is set with -Dchaps.targetFps, 0 meaning as fast as the screen allows.
+   */
+  private void startActiveRendering() {
+    activeRenderer = new ActiveRenderer(renderer);
+    activeRenderer.setTargetFps(Integer.getInteger("chaps.targetFps", ActiveRenderer.DEFAULT_TARGET_FPS));
+    Point origin = SwingUtilities.convertPoint(this, 36, 82, getLayeredPane());
+    activeRenderer.setLocation(origin);
+    getLayeredPane().add(activeRenderer, JLayeredPane.PALETTE_LAYER);
+    activeRenderer.start();
+  }
+
+  /**
+   * Stops the render thread, if there is one, keeping how long its frames took for getFrameStats().
+   */
+  private void stopActiveRendering() {
+    if (activeRenderer != null) {
+      activeRenderer.stop();
+      getLayeredPane().remove(activeRenderer);
+      frameStats = activeRenderer.getFrameStats();
+      activeRenderer = null;
+    }
+  }
+
   /**
    * Displays the rules for Chaps Challenge.
    */
@@ -278,6 +326,7 @@ public class App extends Observer {
     }
   
     setIsPaused();
+    Game.pause();
     timer.stop();
     makePauseScreen();
 
@@ -303,8 +352,7 @@ public class App extends Observer {
    * Creates a pause screen.  
    */
   public void makePauseScreen() {
-    Image image = scaleBackground(new ImageIcon("data/icon_pause.png"), 50, 50).getImage(); 
-    ImageIcon icon = new ImageIcon(image); 
+    ImageIcon icon = assets.getIcon("icon_pause", 50, 50, this); 
     JLabel pauseIcon = new JLabel();
     pauseIcon.setIcon(icon);
     pauseIcon.setVisible(true);
@@ -331,9 +379,9 @@ public class App extends Observer {
     }
     pauseScreen.setVisible(false);
     setIsPaused();
+    Game.resume();
 
-    Image image = scaleBackground(new ImageIcon("data/icon_play.png"), 50, 50).getImage(); 
-    ImageIcon icon = new ImageIcon(image); 
+    ImageIcon icon = assets.getIcon("icon_play", 50, 50, this); 
     JLabel playIcon = new JLabel();
     playIcon.setIcon(icon);
     playIcon.setVisible(true);
@@ -402,6 +450,7 @@ public class App extends Observer {
         JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE, null, buttons, buttons[0]);
     if (ans == 0) {
       setLastLevel(game.getLevel().getStage()); //remembering last level.
+      stopActiveRendering();
       game = null;
       renderer = null;
     }
@@ -467,12 +516,27 @@ public class App extends Observer {
     return game;
   }
     
+  /**
+   * @return the images and fonts used by the GUI.
+   */
+  public UIAssets getAssets() {
+    return assets;
+  }
+    
   /**
    * @return the renderer.
    */
   public Renderer getRenderer() {
     return renderer;
   }
+
+  /**
+   * @return how long the frames of the render thread took, or of the last one if it has stopped.
+   *     Null if active rendering has not been used.
+   */
+  public FrameStats getFrameStats() {
+    return activeRenderer != null ? activeRenderer.getFrameStats() : frameStats;
+  }
     
   /**
    * Creates a GUI with all of its components.
@@ -490,9 +554,7 @@ public class App extends Observer {
     background = new JPanel() {
       private static final long serialVersionUID = 1L;
       public void paintComponent(Graphics g) {
-        Image image = null;
-        image = scaleBackground(
-            new ImageIcon("data/Background.png"), FRAME_WIDTH, FRAME_HEIGHT).getImage();
+        Image image = assets.getImage("Background", FRAME_WIDTH, FRAME_HEIGHT, this);
         Dimension bgSize = new Dimension(FRAME_WIDTH, FRAME_HEIGHT);
         setMinimumSize(new Dimension(bgSize));
         setMaximumSize(new Dimension(bgSize));
@@ -506,6 +568,8 @@ public class App extends Observer {
     background.add(side);
     add(background);
     setJMenuBar(addMenu());
+    //moving to a screen with a different scale means the icons need rescaling
+    addPropertyChangeListener("graphicsConfiguration", e -> refreshIcons());
     setLocationRelativeTo(null); //setting location to center screen.
     setVisible(true); //making other swing features apparent before adding the maze.
     Object[] levelChooser = {"Level 1", "Level 2"};
@@ -545,12 +609,12 @@ public class App extends Observer {
   }
 
   /**
-   * Scales the background image.
- 
-   * @return background image icon.
+   * Sets the key icons again from the asset cache, which rescales them if the screen's scale has changed.
    */ 
-  public ImageIcon scaleBackground(ImageIcon icon, int width, int height) {
-    return new ImageIcon(icon.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH));
+  private void refreshIcons() {
+    blueKey.setIcon(assets.getIcon("key_blue_single", 50, 50, this));
+    redKey.setIcon(assets.getIcon("key_red_single", 50, 50, this));
+    greenKey.setIcon(assets.getIcon("key_green_single", 50, 50, this));
   }
     
   /**
@@ -558,9 +622,7 @@ public class App extends Observer {
   */
   public void makeLoadingScreen() {
     JDialog loadingScreen = new JDialog();
-    Image image = scaleBackground(
-        new ImageIcon("data/loading_screen.png"), FRAME_WIDTH, FRAME_HEIGHT).getImage(); 
-    ImageIcon icon = new ImageIcon(image); 
+    ImageIcon icon = assets.getIcon("loading_screen", FRAME_WIDTH, FRAME_HEIGHT, this); 
     JLabel loadingIcon = new JLabel();
     loadingIcon.setIcon(icon);
     loadingIcon.setVisible(true);
@@ -663,17 +725,17 @@ public class App extends Observer {
 
     levelLabel = new JLabel();
     levelLabel.setForeground(orange);
-    levelLabel.setFont(new Font("Lucida Bright", Font.BOLD, 30));
+    levelLabel.setFont(assets.getFont(Font.BOLD, 30));
     levelLabel.setText("   0");
     
     timerLabel = new JLabel();
     timerLabel.setForeground(orange);
-    timerLabel.setFont(new Font("Lucida Bright", Font.BOLD, 30));
+    timerLabel.setFont(assets.getFont(Font.BOLD, 30));
     timerLabel.setText("00:00");
 
     cheeseLabel = new JLabel();
     cheeseLabel.setForeground(orange);
-    cheeseLabel.setFont(new Font("Lucida Bright", Font.BOLD, 30)); 
+    cheeseLabel.setFont(assets.getFont(Font.BOLD, 30)); 
     cheeseLabel.setText("   0"); 
 
     sideBar.add(Box.createRigidArea(new Dimension(80, 10)));
@@ -754,43 +816,38 @@ public class App extends Observer {
     keysPanel.setBorder(edge);
 
     blueKey = new JLabel();
-    Image imageBlue = scaleBackground(
-        new ImageIcon("data/key_blue_single.png"), 50, 50).getImage(); 
-    ImageIcon iconBlue = new ImageIcon(imageBlue); 
+    ImageIcon iconBlue = assets.getIcon("key_blue_single", 50, 50, this); 
     blueKey.setIcon(iconBlue);
     blueKey.setIconTextGap(13);
     blueKey.setForeground(orange);
-    blueKey.setFont(new Font("Lucida Bright", Font.BOLD, 15));
+    blueKey.setFont(assets.getFont(Font.BOLD, 15));
     blueKey.setText("0");
     blueKey.setVerticalTextPosition(JLabel.BOTTOM);
     blueKey.setHorizontalTextPosition(JLabel.CENTER);
 
     redKey = new JLabel();
-    Image imageRed = scaleBackground(new ImageIcon("data/key_red_single.png"), 50, 50).getImage(); 
-    ImageIcon iconRed = new ImageIcon(imageRed); 
+    ImageIcon iconRed = assets.getIcon("key_red_single", 50, 50, this); 
     redKey.setIcon(iconRed);
     redKey.setIconTextGap(13);
     redKey.setForeground(orange);
-    redKey.setFont(new Font("Lucida Bright", Font.BOLD, 15));
+    redKey.setFont(assets.getFont(Font.BOLD, 15));
     redKey.setText("0");
     redKey.setVerticalTextPosition(JLabel.BOTTOM);
     redKey.setHorizontalTextPosition(JLabel.CENTER);
 
     greenKey = new JLabel();
-    Image imageGreen = scaleBackground(
-        new ImageIcon("data/key_green_single.png"), 50, 50).getImage(); 
-    ImageIcon iconGreen = new ImageIcon(imageGreen); 
+    ImageIcon iconGreen = assets.getIcon("key_green_single", 50, 50, this); 
     greenKey.setIcon(iconGreen);
     greenKey.setIconTextGap(13);
     greenKey.setForeground(orange);
-    greenKey.setFont(new Font("Lucida Bright", Font.BOLD, 15));
+    greenKey.setFont(assets.getFont(Font.BOLD, 15));
     greenKey.setText("0");
     greenKey.setVerticalTextPosition(JLabel.BOTTOM);
     greenKey.setHorizontalTextPosition(JLabel.CENTER);
 
     totalKeys = new JLabel();
     totalKeys.setForeground(orange);
-    totalKeys.setFont(new Font("Lucida Bright", Font.BOLD, 30));
+    totalKeys.setFont(assets.getFont(Font.BOLD, 30));
     totalKeys.setText("0");
     Border tkBorder = BorderFactory.createEmptyBorder(0, 5, 45, 0);
     totalKeys.setBorder(tkBorder);
@@ -844,7 +901,6 @@ public class App extends Observer {
    * @return game key listener.
    */
   public KeyListener keyListener(Game game) {
-    Game currentGame = game;
     KeyListener keyListener = new KeyListener() {
 
       @Override
@@ -917,7 +973,7 @@ public class App extends Observer {
 
       /** 
        * Checks if the key pressed was a player movement.
-       * Calls domain method in game class which moves player.
+       * Queues the move in the game class, which moves the player on its next tick.
 
        * @return if it was a player move.
        */
@@ -926,19 +982,19 @@ public class App extends Observer {
           return false; 
         }
         if (key == KeyEvent.VK_UP) {
-          currentGame.movePlayer(Direction.UP);
+          Game.queueMove(Direction.UP);
           return true;
         }
         else if (key == KeyEvent.VK_DOWN) {
-          currentGame.movePlayer(Direction.DOWN);
+          Game.queueMove(Direction.DOWN);
           return true;
         }
         else if (key == KeyEvent.VK_LEFT) {
-          currentGame.movePlayer(Direction.LEFT);
+          Game.queueMove(Direction.LEFT);
           return true;
         }
         else if (key == KeyEvent.VK_RIGHT) {
-          currentGame.movePlayer(Direction.RIGHT);
+          Game.queueMove(Direction.RIGHT);
           return true;
         }
         return false;
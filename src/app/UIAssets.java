@@ -0,0 +1,217 @@
+package app;
+
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/** 
+ * Caches the images and fonts used by the GUI, so they are read and scaled once rather than on every paint.
+ * Each image is kept at the size it was last asked for, prescaled into the screen's own format. It is only
+ * scaled again when it is asked for at a different size, or the screen's scale (DPI) has changed.
+ * On a scaled screen images are kept at the screen's resolution, so they stay sharp.
+ * Must only be used on the event dispatch thread.
+ * 
+ * @author Nina Wong [300525169]
+ */
+public class UIAssets {
+
+  //the font used throughout the GUI
+  private static final String FONT_NAME = "Lucida Bright";
+
+  private final String resourcePath;
+  private final Map<String, BufferedImage> sources = new HashMap<>();
+  private final Map<String, Scaled> images = new HashMap<>();
+  private final Map<Integer, Font> fonts = new HashMap<>();
+  private int rebuildCount = 0;
+
+  /**
+   * Creates an empty cache.
+
+   * @param resourcePath the folder the images are read from.
+   */
+  public UIAssets(String resourcePath) {
+    this.resourcePath = resourcePath;
+  }
+
+  /**
+   * Returns the named image scaled to the given size, scaling it only if it has not been scaled to that size
+   * for the screen the component is on.
+
+   * @param name the image's file name, without the folder or .png.
+   * @param width the width to draw it at.
+   * @param height the height to draw it at.
+   * @param c the component it will be drawn on, or null for the default screen.
+   * @return the scaled image. Transparent if the image could not be read.
+   */
+  public Image getImage(String name, int width, int height, Component c) {
+    double scale = scaleOf(c);
+    Scaled s = images.get(name);
+    if (s == null || s.width != width || s.height != height || s.scale != scale) {
+      s = new Scaled(width, height, scale, scale(getSource(name), width, height, scale, c));
+      images.put(name, s);
+      rebuildCount++;
+    }
+    return s.image;
+  }
+
+  /**
+   * Returns the named image as an icon, see getImage.
+
+   * @return the scaled icon.
+   */
+  public ImageIcon getIcon(String name, int width, int height, Component c) {
+    return new ImageIcon(getImage(name, width, height, c));
+  }
+
+  /**
+   * Returns the GUI's font in the given style and size, creating it only the first time it is asked for.
+
+   * @param style the font style, such as Font.BOLD.
+   * @param size the point size.
+   * @return the font.
+   */
+  public Font getFont(int style, int size) {
+    return fonts.computeIfAbsent(style << 16 | size, k -> new Font(FONT_NAME, style, size));
+  }
+
+  /**
+   * @return the number of times an image has been scaled, whether for the first time or because of a
+   *     resize or change of screen scale. Stays the same while the GUI is only being repainted.
+   */
+  public int getRebuildCount() {
+    return rebuildCount;
+  }
+
+  /**
+   * Forgets every image and font, so they are read and scaled again when next asked for.
+   */
+  public void clear() {
+    sources.clear();
+    images.clear();
+    fonts.clear();
+  }
+
+  /**
+   * Reads the named image, only the first time it is asked for.
+   */
+  private BufferedImage getSource(String name) {
+    if (!sources.containsKey(name)) {
+      BufferedImage image = null;
+      try {
+        image = ImageIO.read(new File(resourcePath + name + ".png"));
+      } catch (IOException e) {
+        //drawn as nothing, like a missing ImageIcon
+      }
+      sources.put(name, image);
+    }
+    return sources.get(name);
+  }
+
+  /**
+   * Scales an image to the given size. On a scaled screen, the result also holds a copy at the screen's
+   * resolution, which is drawn in place of the base image.
+   */
+  private static Image scale(BufferedImage source, int width, int height, double scale, Component c) {
+    BufferedImage base = resize(source, width, height, c);
+    if (scale == 1) {
+      return base;
+    }
+    BufferedImage sharp = resize(source, (int) Math.ceil(width * scale), (int) Math.ceil(height * scale), c);
+    return new BaseMultiResolutionImage(base, sharp);
+  }
+
+  /**
+   * Resizes an image into a new image in the screen's format. Large reductions are made in halves,
+   * as one bilinear step would skip over most of the source's pixels.
+   */
+  private static BufferedImage resize(BufferedImage source, int width, int height, Component c) {
+    BufferedImage result = createImage(width, height, c);
+    if (source == null) {
+      return result;
+    }
+    BufferedImage current = source;
+    int w = source.getWidth();
+    int h = source.getHeight();
+    while (w / 2 >= width && h / 2 >= height) {
+      w /= 2;
+      h /= 2;
+      current = draw(current, new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB));
+    }
+    return draw(current, result);
+  }
+
+  /**
+   * Draws one image over the whole of another, smoothly, and returns the other.
+   */
+  private static BufferedImage draw(BufferedImage from, BufferedImage to) {
+    Graphics2D g = to.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    g.drawImage(from, 0, 0, to.getWidth(), to.getHeight(), null);
+    g.dispose();
+    return to;
+  }
+
+  /**
+   * Creates a transparent image in the format of the component's screen, or a plain one if there is no screen.
+   */
+  private static BufferedImage createImage(int width, int height, Component c) {
+    GraphicsConfiguration gc = configurationOf(c);
+    if (gc == null) {
+      return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+    return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+  }
+
+  /**
+   * @return how many pixels the component's screen uses for each unit drawn, 1 if it is not scaled.
+   */
+  private static double scaleOf(Component c) {
+    GraphicsConfiguration gc = configurationOf(c);
+    return gc == null ? 1 : gc.getDefaultTransform().getScaleX();
+  }
+
+  /**
+   * @return the configuration of the component's screen, the default screen if it is not showing, or null
+   *     if there is no screen.
+   */
+  private static GraphicsConfiguration configurationOf(Component c) {
+    if (GraphicsEnvironment.isHeadless()) {
+      return null;
+    }
+    if (c != null && c.getGraphicsConfiguration() != null) {
+      return c.getGraphicsConfiguration();
+    }
+    return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+  }
+
+  /**
+   * An image as last scaled, and what it was scaled for.
+   */
+  private static class Scaled {
+    private final int width;
+    private final int height;
+    private final double scale;
+    private final Image image;
+
+    private Scaled(int width, int height, double scale, Image image) {
+      this.width = width;
+      this.height = height;
+      this.scale = scale;
+      this.image = image;
+    }
+  }
+}
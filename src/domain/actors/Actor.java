@@ -1,7 +1,11 @@
 package domain.actors;
 
+import java.awt.image.BufferedImage;
+
+import domain.game.Game;
 import domain.game.Game.Direction;
 import domain.game.GameObject;
+import domain.game.Level;
 import domain.game.Position;
 import domain.tiles.Tile;
 import domain.tiles.WallTile;
@@ -30,6 +34,12 @@ public abstract class Actor extends GameObject{
 	 */
 	protected Direction direction = Direction.RIGHT;
 	
+	/**
+	 * The images of this Actor facing each Direction, indexed by Direction.ordinal(). Each is
+	 * loaded the first time it is asked for.
+	 */
+	private final BufferedImage[] facing = new BufferedImage[Direction.values().length];
+	
 	//===================================================================
 	// Constructors
 	//===================================================================
@@ -85,6 +95,23 @@ public abstract class Actor extends GameObject{
 		assert this.tile.equals(t);
 	}
 	
+	/**
+	 * Moves this Actor out of its current Tile and into the given Tile, and tells the Level so its
+	 * ActorIndex stays up to date.
+	 *
+	 * @param t The Tile to move into.
+	 */
+	protected void changeTile(Tile t) {
+		Tile from = tile;
+		from.setActor(null);
+		this.tile = t;
+		t.setActor(this);
+		Level level = Game.getLevel();
+		if(level != null) {
+			level.actorMoved(this, from, t);
+		}
+	}
+	
 	//===================================================================
 	// Direction controls
 	//===================================================================
@@ -108,38 +135,23 @@ public abstract class Actor extends GameObject{
 	}
 	
 	//===================================================================
-	// Comparison methods
+	// Image controls
 	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((direction == null) ? 0 : direction.hashCode());
-		result = prime * result + ((tile == null) ? 0 : tile.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!(obj instanceof Actor)) {
-			return false;
-		}
-		Actor other = (Actor) obj;
-		if (direction != other.direction) {
-			return false;
-		}
-		if (tile == null) {
-			if (other.tile != null) {
-				return false;
-			}
-		} else if (!tile.equals(other.tile)) {
-			return false;
+	
+	/**
+	 * Returns the image of this Actor facing in the given Direction. The image is named after
+	 * this Actor's image, followed by _up, _down, _left or _right.
+	 *
+	 * @param d The Direction this Actor is facing.
+	 * @return The image of this Actor facing in that Direction, or null if there is none.
+	 */
+	protected BufferedImage getImageFacing(Direction d) {
+		BufferedImage image = facing[d.ordinal()];
+		if(image == null) {
+			image = loadImage(getImageName() + "_" + d.name().toLowerCase());
+			facing[d.ordinal()] = image;
 		}
-		return true;
+		return image;
 	}
-
+	
 }
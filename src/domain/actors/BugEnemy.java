@@ -1,17 +1,10 @@
 package domain.actors;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.util.ArrayDeque;
 
-import javax.imageio.ImageIO;
-
-import domain.astar.AStarSearch;
-import domain.astar.NoPathFoundException;
 import domain.game.Game;
+import domain.game.Level;
 import domain.game.Position;
-import domain.item.Treasure;
 import domain.tiles.Tile;
 
 /**
@@ -20,7 +13,8 @@ import domain.tiles.Tile;
  * level impossible to complete, rather to suck up enough of the players time that the level timer runs out.
  * 
  * <p>
- * Sadly, BugEnemy is currently non-functional.
+ * A BugEnemy is an entity of its Level's World, which keeps its AI state in components. Its behaviour
+ * is carried out by the ChaseSystem.
  * </p>
  *
  * @author Michael Dasan 300130610
@@ -36,7 +30,7 @@ public class BugEnemy extends Actor implements NonPlayerActor {
 	 *
 	 * @author Michael Dasan
 	 */
-	enum State {
+	public enum State {
 		/**
 		 * A returning BugEnemy is moving back to its home Tile, either because it has lost sight
 		 * of Chap, or because it has stolen a treasure from Chap.
@@ -54,39 +48,38 @@ public class BugEnemy extends Actor implements NonPlayerActor {
 		TRACKING
 	}
 	
-	//===================================================================
-	// Fields
-	//===================================================================
-	
-	/**
-	 * A BugEnemy's state controls its AI. See the State enum for more details.
-	 */
-	private State state = State.SEARCHING;
-	
-	/**
-	 * A stack representing the path of tiles this Actor is currently moving on.
-	 */
-	private ArrayDeque<Tile> path;
-	
 	/**
-	 * Contains an image of this actor facing up.
-	 */
-	private BufferedImage imgUp;
-	
-	/**
-	 * Contains an image of this actor facing down.
+	 * The ways a tracking BugEnemy can find its way to Chap.
+	 *
+	 * @author Michael Dasan
 	 */
-	private BufferedImage imgDown;
+	public enum ChaseStrategy {
+		/**
+		 * Every BugEnemy follows the FlowField kept by the Level, which is computed once for all 
+		 * enemies whenever Chap moves.
+		 */
+		FLOW_FIELD,
+		
+		/**
+		 * Each BugEnemy performs its own A* search to Chap.
+		 */
+		SEARCH,
+		
+		/**
+		 * Each BugEnemy keeps its own DStarLite planner, which repairs its path to Chap as Chap moves
+		 * rather than searching again.
+		 */
+		INCREMENTAL
+	}
 	
-	/**
-	 * Contains an image of this actor facing left.
-	 */
-	private BufferedImage imgLeft;
+	//===================================================================
+	// Fields
+	//===================================================================
 	
 	/**
-	 * Contains an image of this actor facing right.
+	 * How every BugEnemy finds its way to Chap while tracking him.
 	 */
-	private BufferedImage imgRight;
+	private static ChaseStrategy chaseStrategy = ChaseStrategy.FLOW_FIELD;
 	
 	/**
 	 * The number of tiles away this enemy can see. Given that no more than a 9x9 chunk of the maze is
@@ -96,12 +89,7 @@ public class BugEnemy extends Actor implements NonPlayerActor {
 	 * Also controls how far the BugEnemy can move from its home.
 	 * </p>
 	 */
-	private int vision = 8;
-	
-	/**
-	 * True if this is carrying a treasure.
-	 */
-	private boolean hasTreasure = false;
+	private int vision = Level.VISION_RADIUS;
 	
 	/**
 	 * The "home" tile for this enemy - the location it returns to if it has lost sight of its target.
@@ -123,52 +111,12 @@ public class BugEnemy extends Actor implements NonPlayerActor {
 		filename = "bug";
 		this.home = t.getPosition();
 		Game.addEnemy(this);
-		setImage();
-		setAllImages();
 	}
 	
 	//===================================================================
 	// Image controls
 	//===================================================================
 	
-	/**
-	 * Sets the images associated with each direction this actor can face. The standard
-	 * img field is retained as a default.
-	 */
-	private void setAllImages() {
-		//Set up image
-		File image = new File(resourcePath + filename + "_up" + filetype);
-		try {
-			imgUp = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on BugEnemy: " + e);
-		}
-		
-		//Set down image
-		image = new File(resourcePath + filename + "_down" + filetype);
-		try {
-			imgDown = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on BugEnemy: " + e);
-		}
-		
-		//Set left image
-		image = new File(resourcePath + filename + "_left" + filetype);
-		try {
-			imgLeft = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on BugEnemy: " + e);
-		}
-		
-		//Set right image
-		image = new File(resourcePath + filename + "_right" + filetype);
-		try {
-			imgRight = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on BugEnemy: " + e);
-		}
-	}
-	
 	/**
 	 * Allows GUI and Renderer to obtain an image of this actor facing in the direction it
 	 * last moved.
@@ -177,218 +125,79 @@ public class BugEnemy extends Actor implements NonPlayerActor {
 	 */
 	@Override
 	public BufferedImage getImage() {
-		switch(direction) {
-			case UP:
-				return imgUp;
-			case DOWN:
-				return imgDown;
-			case LEFT:
-				return imgLeft;
-			case RIGHT:
-				return imgRight;
-			default:
-				return img;
+		if(direction == null) {
+			return super.getImage();
 		}
+		return getImageFacing(direction);
 	}
 	
 	//===================================================================
 	// Movement controls
 	//===================================================================
 
-	@Override
-	public void move() {
-		if(state == State.RETURNING) {
-			returnMove();
-		}else if(state == State.SEARCHING) {
-			searchMove();
-		}else if(state == State.TRACKING) {
-			trackMove();
-		}
-	}
-	
-	/**
-	 * Used when the BugEnemy is returning to its home.
-	 */
-	public void returnMove() {
-		//A* search from current pos to home
-		if(path.peek() == null) {
-			try {
-				path = AStarSearch.pathfind(getPosition(), home, false);
-			} catch (NoPathFoundException e) {
-				// This shouldn't be able to happen.
-				throw new IllegalStateException("BugEnemy unable to return home.");
-			}
-		}
-		//move to next tile in path if able
-		if(!path.peek().hasActor()) {
-			moveTo(path.poll());
-		}
-		//if at home, drop treasure and disappear (if carrying treasure)
-		if(tile.getPosition().equals(home)) {
-			if(hasTreasure) {
-				tile.setItem(new Treasure(tile));
-				destruct();
-			}
-			//otherwise, begin searching
-			state = State.SEARCHING;
-		}else {
-			//not at home, see if chap is visible
-			searchMove();
-		}
-	}
-	
 	/**
-	 * Used in two instances:<p>
-	 * 1) The BugEnemy is looking for an enemy, but otherwise idle.<p>
-	 * 2) The BugEnemy is returning home, and looking for Chap as it does so.
-	 * </p></p>
+	 * Moves this BugEnemy once, by running the ChaseSystem of the Level's World on it.
 	 */
-	public void searchMove() {
-		//Identify if Chap is visible (within range and vision not blocked)
-		if(canSeeChap()) {
-			try {
-				path = AStarSearch.pathfind(getPosition(), getChapPosition(), false);
-				state = State.TRACKING;
-			} catch (NoPathFoundException e) {
-				// This shouldn't be able to happen.
-				throw new IllegalStateException("BugEnemy unable to path to Chap.");
-			}
-		}
-		
-	}
-	
-	/**
-	 * Used when the BugEnemy has located an enemy, and is moving to attack.
-	 */
-	public void trackMove() {
-		//A* to target.
-		if(path.peek() == null) {
-			try {
-				path = AStarSearch.pathfind(getPosition(), getChapPosition(), false);
-			} catch (NoPathFoundException e) {
-				// This shouldn't be able to happen.
-				throw new IllegalStateException("BugEnemy unable to path to Chap.");
-			}
-		}
-		//move along path
-		if(!path.peek().hasActor()) {
-			moveTo(path.poll());
-		}
-		if(path.peek().hasActor() && path.peek().getActor() instanceof Chap) {
-			//Next to Chap, steal treasure
-			if(Game.getPlayer().hasTreasure()) {
-				takeTreasure();
-			}
-			returnHome();
-			return;
-		}else if(AStarSearch.getDistBetween(getPosition(), home) >= vision * 1.5) {
-			//Next step out of range, return home instead
-			returnHome();
-			return;
-		}
-		//check if have lost sight of chap
-		if(!canSeeChap()) {
-			returnHome();
+	@Override
+	public void move() {
+		Level level = Game.getLevel();
+		if(level != null && getId() != NO_ID) {
+			level.getWorld().moveEnemy(getId());
 		}
 	}
 	
 	/**
-	 * Moves the BugEnemy from its current Tile into the given Tile.
+	 * Moves the BugEnemy from its current Tile into the given Tile, facing the way it moved. Used by
+	 * the World, which keeps the BugEnemy's components up to date.
 	 *
 	 * @param t The Tile to move onto.
 	 */
-	private void moveTo(Tile t) {
+	public void moveTo(Tile t) {
 		direction = getPosition().getDirectionTo(t.getPosition());
-		tile.setActor(null);
-		this.tile = t;
-		t.setActor(this);
+		changeTile(t);
 	}
 	
 	/**
-	 * Tells the BugEnemy to begin returning to its home Tile.
+	 * Takes this Actor out of its Tile. Used by the World once the BugEnemy has been removed from
+	 * its Level.
 	 */
-	private void returnHome() {
-		try {
-			path = AStarSearch.pathfind(getPosition(), home, false);
-			this.state = State.RETURNING;
-		} catch (NoPathFoundException e) {
-			// This shouldn't be able to happen.
-			throw new IllegalStateException("BugEnemy unable to pathfind home.");
-		}
+	public void destruct() {
+		tile.setActor(null);
+		tile = null;
 	}
 	
-	/**
-	 * @return Chap's position.
-	 */
-	private Position getChapPosition() {
-		return Game.getPlayer().getPosition();
-	}
+	//===================================================================
+	// Getters and setters
+	//===================================================================
 	
 	/**
-	 * Steals a treasure from the player.
+	 * @return The Position of the Tile this BugEnemy returns to.
 	 */
-	private void takeTreasure() {
-		Game.getPlayer().takeTreasure();
-		hasTreasure = true;
+	public Position getHome() {
+		return home;
 	}
 	
 	/**
-	 * Checks if the BugEnenmy can see Chap.
-	 *
-	 * @return True if Chap is within vision range and not blocked by a Wall or Gate.
+	 * @return The number of tiles away this BugEnemy can see.
 	 */
-	private boolean canSeeChap() {
-		if(chapWithinRange()) {
-			return !visionBlocked();
-		}
-		return false;
+	public int getVision() {
+		return vision;
 	}
 	
 	/**
-	 * Used to find if Chap is within vision range of the BugEnemy. Note that this does not take
-	 * into account whether or not an object is blocking line of sight.
-	 *
-	 * @return True if Chap is within vision range, otherwise false.
+	 * @return How every BugEnemy finds its way to Chap while tracking him.
 	 */
-	private boolean chapWithinRange() {
-		return AStarSearch.getDistBetween(this.getPosition(), getChapPosition()) <= vision;
+	public static ChaseStrategy getChaseStrategy() {
+		return chaseStrategy;
 	}
 	
 	/**
-	 * Checks if the BugEnemys vision of Chap is blocked by an object. Gates and WallTiles block 
-	 * vision.
+	 * Sets how every BugEnemy finds its way to Chap while tracking him.
 	 *
-	 * @return True if vision is blocked, otherwise false.
-	 */
-	private boolean visionBlocked() {
-		try {
-			ArrayDeque<Tile> sightline = AStarSearch.pathfind(getPosition(), getChapPosition(), true);
-			while(sightline.peek() != null) {
-				if(sightline.pop().blocksVision()) {
-					return true;
-				}
-			}
-		}catch (NoPathFoundException e) {
-			//No path to target, consume exception and idle
-			return true;
-		}
-		return false;
-	}
-	
-	/**
-	 * Removes this Actor from the Game.
-	 */
-	private void destruct() {
-		tile.setActor(null);
-		tile = null;
-		Game.getLevel().removeEnemy(this);
-	}
-	
-	/**
-	 * @return The current path the BugEnemy is on, as a stack of Tiles.
+	 * @param strategy The ChaseStrategy to use.
 	 */
-	public ArrayDeque<Tile> getPath() {
-		return path;
+	public static void setChaseStrategy(ChaseStrategy strategy) {
+		chaseStrategy = strategy;
 	}
 
 }
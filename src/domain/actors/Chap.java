@@ -1,10 +1,6 @@
 package domain.actors;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 import domain.game.Game.Direction;
 import domain.tiles.Tile;
@@ -16,30 +12,6 @@ import domain.tiles.Tile;
  */
 public class Chap extends Actor {
 	
-	//===================================================================
-	// Fields
-	//===================================================================
-	
-	/**
-	 * Contains an image of Chap facing up.
-	 */
-	private BufferedImage imgUp;
-	
-	/**
-	 * Contains an image of Chap facing down.
-	 */
-	private BufferedImage imgDown;
-	
-	/**
-	 * Contains an image of Chap facing left.
-	 */
-	private BufferedImage imgLeft;
-	
-	/**
-	 * Contains an image of Chap facing right.
-	 */
-	private BufferedImage imgRight;
-	
 	//===================================================================
 	// Constructors
 	//===================================================================
@@ -51,8 +23,6 @@ public class Chap extends Actor {
 	public Chap() {
 		super();
 		filename = "player";
-		setImage();
-		setAllImages();
 	}
 	
 	/**
@@ -63,8 +33,6 @@ public class Chap extends Actor {
 	public Chap(Tile t) {
 		super(t);
 		filename = "player";
-		setImage();
-		setAllImages();
 	}
 	
 	//===================================================================
@@ -78,9 +46,7 @@ public class Chap extends Actor {
 	 * @param d The Direction Chap will move in, and be facing afterwards.
 	 */
 	public void move(Tile t, Direction d) {
-		tile.setActor(null);
-		this.tile = t;
-		t.setActor(this);
+		changeTile(t);
 		this.direction = d;
 	}
 	
@@ -96,56 +62,10 @@ public class Chap extends Actor {
 	 */
 	@Override
 	public BufferedImage getImage() {
-		switch(direction) {
-			case UP:
-				return imgUp;
-			case DOWN:
-				return imgDown;
-			case LEFT:
-				return imgLeft;
-			case RIGHT:
-				return imgRight;
-			default:
-				return img;
+		if(direction == null) {
+			return super.getImage();
 		}
+		return getImageFacing(direction);
 	}
 	
-	/**
-	 * Sets the images associated with each direction Chap can face. The standard
-	 * img field is retained as a default.
-	 */
-	private void setAllImages() {
-		//Set up image
-		File image = new File(resourcePath + filename + "_up" + filetype);
-		try {
-			imgUp = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on Chap: " + e);
-		}
-		
-		//Set down image
-		image = new File(resourcePath + filename + "_down" + filetype);
-		try {
-			imgDown = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on Chap: " + e);
-		}
-		
-		//Set left image
-		image = new File(resourcePath + filename + "_left" + filetype);
-		try {
-			imgLeft = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on Chap: " + e);
-		}
-		
-		//Set right image
-		image = new File(resourcePath + filename + "_right" + filetype);
-		try {
-			imgRight = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on Chap: " + e);
-		}
-	}
-
 }
@@ -1,9 +1,8 @@
 package domain.astar;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
-import java.util.PriorityQueue;
 
+import domain.game.Board;
 import domain.game.Game;
 import domain.game.Position;
 import domain.tiles.Tile;
@@ -50,6 +49,11 @@ public abstract class AStarSearch {
 	/**
 	 * Attempts to find a path of Tiles between start and end. If direct is true, this will ignore
 	 * blockages such as Walls and Gates. If direct is false, this will path around them.
+	 * 
+	 * <p>
+	 * The search itself is performed by GridAStar on cell indices, and only the finished path is
+	 * converted back into Tiles.
+	 * </p>
 	 *
 	 * @param start
 	 * @param end
@@ -58,53 +62,46 @@ public abstract class AStarSearch {
 	 * @throws NoPathFoundException
 	 */
 	public static ArrayDeque<Tile> pathfind(Position start, Position end, boolean direct) throws NoPathFoundException {
-		PriorityQueue<AStarElement> fringe = new PriorityQueue<AStarElement>();
-		fringe.offer(new AStarElement(Game.getLevel().getTileAt(start), null, 0d, getDistBetween(start, end)));
-		HashSet<Tile> visited = new HashSet<Tile>();
-		while(fringe.peek() != null) {
-			AStarElement currFringe = fringe.poll();
-			Tile currTile = currFringe.start;
-			if(!visited.contains(currTile)) {
-				//System.out.println("Visiting tile...");
-				visited.add(currTile);
-				//System.out.println("Setting prev...");
-				currTile.setPrev(currFringe.prev);
-				if(currTile.equals(Game.getLevel().getTileAt(end))) {
-					//System.out.println("Path found, calculating...");
-					return calculatePath(currTile);
-				}
-				for(Tile t : Game.getLevel().getBoard().getAdjacentTiles(currTile.getPosition())) {
-					if(!direct && t.blocksVision()) {
-						break;
-					}
-					if(!visited.contains(t)) {
-						//System.out.println("Tile unvisited, adding to fringe...");
-						double g = currFringe.g + 1; //Constant +1 as adjacent tiles are 1 distance away
-						double f = g + getDistBetween(t, Game.getLevel().getTileAt(end));
-						fringe.offer(new AStarElement(t, currTile, g, f));
-					}
-				}
-			}
+		return pathfind(Game.getLevel().getBoard(), start, end, direct);
+	}
+	
+	/**
+	 * Attempts to find a path of Tiles between start and end on the given Board. See 
+	 * pathfind(Position, Position, boolean) for more details.
+	 * 
+	 * <p>
+	 * This method does not modify the Board or its Tiles, and may be called from any number of 
+	 * threads at once.
+	 * </p>
+	 *
+	 * @param board The Board to search.
+	 * @param start
+	 * @param end
+	 * @param direct True if this search is to ignore Walls and Gates
+	 * @return A stack of tiles representing a path from start to end
+	 * @throws NoPathFoundException
+	 */
+	public static ArrayDeque<Tile> pathfind(Board board, Position start, Position end, boolean direct) throws NoPathFoundException {
+		int[] cells = GridAStar.search(board, board.indexOf(start), board.indexOf(end), direct);
+		if(cells == null) {
+			throw new NoPathFoundException("No path found.");
 		}
-		throw new NoPathFoundException("No path found.");
+		return calculatePath(board, cells);
 	}
 	
 	/**
-	 * Traverses the prev field of Tiles to build a stack leading to goal.
+	 * Converts the cell indices found by GridAStar into a stack of Tiles.
 	 *
-	 * @param goal The end destination.
+	 * @param board The Board that was searched.
+	 * @param cells The cell indices of the path, from the start to the goal.
 	 * @return A stack of tiles leading from the location of whatever object initiated this A* search,
-	 * 			to goal.
+	 * 			to the goal.
 	 */
-	private static ArrayDeque<Tile> calculatePath(Tile goal) {
-		ArrayDeque<Tile> path = new ArrayDeque<Tile>();
-		//System.out.println("Adding initial tile to path...");
-		path.push(goal);
-		while(path.peek().getPrev() != null) {
-			//System.out.println("Adding tile to path...");
-			path.push(path.peek().getPrev());
+	private static ArrayDeque<Tile> calculatePath(Board board, int[] cells) {
+		ArrayDeque<Tile> path = new ArrayDeque<Tile>(cells.length);
+		for(int i = cells.length - 1; i >= 0; i--) {
+			path.push(board.getTileAtIndex(cells[i]));
 		}
-		//System.out.println("Returning path...");
 		return path;
 	}
 
@@ -3,16 +3,29 @@ package domain.astar;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
 import domain.game.Board;
+import domain.game.GameObject.Colour;
 import domain.game.Game;
 import domain.game.Level;
 import domain.game.Player;
 import domain.game.Position;
+import domain.gate.KeyGate;
 import domain.tiles.FreeTile;
 import domain.tiles.Tile;
+import domain.tiles.WallTile;
 
 /**
  * @author Michael Dasan 300130610
@@ -40,4 +53,496 @@ class AStarTests {
 		assertTrue(path.peek() != null);
 	}
 
+	@Test
+	void pathsAroundWalls() {
+		Board board = walledBoard();
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(4, 0));
+		new Game(level, player);
+		ArrayDeque<Tile> path = null;
+		try {
+			path = AStarSearch.pathfind(new Position(0, 0), new Position(4, 0), false);
+		} catch (NoPathFoundException e) {
+			fail();
+		}
+		assertEquals(new Position(0, 0), path.peekFirst().getPosition());
+		assertEquals(new Position(4, 0), path.peekLast().getPosition());
+		assertEquals(9, path.size());
+		Tile prev = null;
+		for(Tile t : path) {
+			assertFalse(t instanceof WallTile);
+			if(prev != null) {
+				assertEquals(1, Math.abs(prev.getPosition().getX() - t.getPosition().getX())
+						+ Math.abs(prev.getPosition().getY() - t.getPosition().getY()));
+			}
+			prev = t;
+		}
+	}
+	
+	@Test
+	void throwsWhenNoPath() {
+		Board board = new Board(3, 1);
+		board.put(new FreeTile(0, 0));
+		board.put(new WallTile(1, 0));
+		board.put(new FreeTile(2, 0));
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(2, 0));
+		new Game(level, player);
+		assertThrows(NoPathFoundException.class, () -> AStarSearch.pathfind(new Position(0, 0), new Position(2, 0), false));
+	}
+
+	@Test
+	void concurrentSearchesOnOneBoard() throws Exception {
+		int width = 40;
+		int height = 40;
+		Random random = new Random(225);
+		Board board = randomBoard(width, height, 0.25, random);
+		int searches = 400;
+		int threads = 16;
+		CountDownLatch ready = new CountDownLatch(threads);
+		CountDownLatch go = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for(int t = 0; t < threads; t++) {
+			long seed = random.nextLong();
+			results.add(pool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					Random r = new Random(seed);
+					ready.countDown();
+					go.await();
+					int checked = 0;
+					for(int i = 0; i < searches / threads; i++) {
+						Position start = new Position(r.nextInt(width), r.nextInt(height));
+						Position end = new Position(r.nextInt(width), r.nextInt(height));
+						int expected = bfsDistance(board, start, end);
+						try {
+							ArrayDeque<Tile> path = AStarSearch.pathfind(board, start, end, false);
+							assertTrue(expected >= 0, "Found a path where none exists");
+							assertEquals(expected + 1, path.size());
+							assertEquals(start, path.peekFirst().getPosition());
+							assertEquals(end, path.peekLast().getPosition());
+							Tile prev = null;
+							for(Tile step : path) {
+								assertTrue(step == path.peekFirst() || !step.blocksVision());
+								if(prev != null) {
+									assertEquals(1, Math.abs(prev.getPosition().getX() - step.getPosition().getX())
+											+ Math.abs(prev.getPosition().getY() - step.getPosition().getY()));
+								}
+								prev = step;
+							}
+						} catch (NoPathFoundException e) {
+							assertEquals(-1, expected, "Missed an existing path");
+						}
+						checked++;
+					}
+					return checked;
+				}
+			}));
+		}
+		ready.await();
+		go.countDown();
+		int total = 0;
+		for(Future<Integer> f : results) {
+			total += f.get();
+		}
+		pool.shutdown();
+		assertEquals(searches, total);
+	}
+	
+	@Test
+	void flowFieldLeadsToChap() {
+		Board board = walledBoard();
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(4, 0));
+		new Game(level, player);
+		FlowField field = level.getChaseField();
+		assertSame(field, level.getChaseField());
+		for(int x = 0; x < 5; x++) {
+			for(int y = 0; y < 3; y++) {
+				Position pos = new Position(x, y);
+				assertEquals(bfsDistance(board, player.getPosition(), pos), field.getDistance(board.indexOf(pos)));
+			}
+		}
+		//following the field from the far corner reaches Chap in the shortest number of steps
+		Tile t = board.getTileAt(0, 0);
+		int steps = 0;
+		while(field.nextStep(t) != null) {
+			t = field.nextStep(t);
+			steps++;
+		}
+		assertSame(player.getTile(), t);
+		assertEquals(8, steps);
+		//a change in layout means the field must be recomputed
+		int version = field.getVersion();
+		level.tileChanged(new Position(2, 0));
+		assertNotEquals(version, level.getChaseField().getVersion());
+	}
+
+	@Test
+	void pathCacheReusesAndRepairsPaths() throws NoPathFoundException {
+		Board board = walledBoard();
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(4, 0));
+		new Game(level, player);
+		PathCache cache = level.getPathCache();
+		Position start = new Position(0, 0);
+		int version = level.getTopologyVersion();
+		
+		ArrayDeque<Tile> first = cache.find(start, new Position(4, 0), version);
+		assertEquals(1, cache.getMisses());
+		ArrayDeque<Tile> second = cache.find(start, new Position(4, 0), version);
+		assertEquals(1, cache.getHits());
+		assertNotSame(first, second);
+		assertEquals(new ArrayList<Tile>(first), new ArrayList<Tile>(second));
+		
+		//the goal has moved one Tile, so the cached path is extended rather than searched again
+		ArrayDeque<Tile> moved = cache.find(start, new Position(4, 1), version);
+		assertEquals(1, cache.getRepairs());
+		assertEquals(1, cache.getMisses());
+		assertSame(board.getTileAt(4, 1), moved.peekLast());
+		assertTrue(moved.size() - 1 <= bfsDistance(board, start, new Position(4, 1)) + 2);
+		
+		//a path that already passes through the new goal is cut short there
+		ArrayDeque<Tile> path = new ArrayDeque<Tile>(first);
+		Tile back = board.getTileAt(3, 2);
+		assertTrue(path.contains(back));
+		assertTrue(PathCache.repair(path, back));
+		assertSame(back, path.peekLast());
+		assertEquals(bfsDistance(board, start, back.getPosition()) + 1, path.size());
+		//a goal that is not next to the end of the path cannot be repaired
+		assertFalse(PathCache.repair(path, board.getTileAt(0, 2)));
+		assertFalse(PathCache.repair(path, board.getTileAt(2, 0)));
+		
+		//once the layout changes, cached paths are no longer used
+		level.tileChanged(new Position(2, 0));
+		version = level.getTopologyVersion();
+		cache.find(start, new Position(4, 0), version);
+		assertEquals(2, cache.getMisses());
+		
+		//a goal that keeps moving is only followed by repairs for so long, then searched for again
+		PathCache chase = new PathCache(board);
+		chase.find(start, new Position(0, 2), version);
+		for(int x = 1; x <= PathCache.MAX_REPAIRS; x++) {
+			chase.find(start, new Position(x, 2), version);
+		}
+		assertEquals(PathCache.MAX_REPAIRS, chase.getRepairs());
+		assertEquals(1, chase.getMisses());
+		ArrayDeque<Tile> fresh = chase.find(start, new Position(4, 1), version);
+		assertEquals(PathCache.MAX_REPAIRS, chase.getRepairs());
+		assertEquals(2, chase.getMisses());
+		assertEquals(bfsDistance(board, start, new Position(4, 1)) + 1, fresh.size());
+	}
+
+	@Test
+	void incrementalPlannerFollowsMovingTarget() {
+		int width = 30;
+		int height = 30;
+		Random random = new Random(8);
+		Board board = randomBoard(width, height, 0.2, random);
+		List<Tile> gates = new ArrayList<Tile>();
+		for(int cell = 0; cell < width * height; cell++) {
+			Tile t = board.getTileAtIndex(cell);
+			if(!(t instanceof WallTile) && random.nextInt(8) == 0) {
+				new KeyGate(t, Colour.RED);
+				gates.add(t);
+			}
+		}
+		Level level = new Level(0, 0, board);
+		Position agent = randomOpen(board, random);
+		Position target = randomOpen(board, random);
+		DStarLite planner = new DStarLite(board);
+		//told which cells changed, rather than checking them all
+		DStarLite logged = new DStarLite(board);
+		for(int tick = 0; tick < 300; tick++) {
+			if(tick == 100 || tick == 150) {
+				//a few Gates open, then the rest at once, more than the Level remembers
+				List<Tile> opening = tick == 100 ? gates.subList(0, 5) : gates.subList(5, gates.size());
+				for(Tile t : opening) {
+					t.setGate(null);
+					level.tileChanged(t.getPosition());
+				}
+			}
+			int version = level.getTopologyVersion();
+			int from = board.indexOf(agent);
+			int to = board.indexOf(target);
+			int next = planner.nextStep(from, to, version);
+			int expected = bfsDistance(board, agent, target);
+			assertEquals(expected, planner.getDistance(from));
+			logged.nextStep(from, to, version, level.getChangesSince(logged.getVersion()));
+			assertEquals(expected, logged.getDistance(from));
+			if(expected > 0) {
+				assertEquals(expected - 1, bfsDistance(board, board.getTileAtIndex(next).getPosition(), target));
+				agent = board.getTileAtIndex(next).getPosition();
+			}else {
+				assertEquals(-1, next);
+				agent = randomOpen(board, random);
+			}
+			if(tick % 2 == 0) {
+				target = randomStep(board, target, random);
+			}
+		}
+	}
+
+	@Test
+	void jumpPointSearchFindsShortestPaths() {
+		Random random = new Random(61);
+		for(int density = 0; density < 5; density++) {
+			Board board = randomBoard(25, 25, density / 10.0, random);
+			for(int i = 0; i < 50; i++) {
+				Position start = randomOpen(board, random);
+				Position end = randomOpen(board, random);
+				int expected = bfsDistance(board, start, end);
+				int[] path = JumpPointSearch.search(board, board.indexOf(start), board.indexOf(end));
+				if(expected == -1) {
+					assertNull(path);
+					continue;
+				}
+				assertEquals(expected + 1, path.length);
+				assertEquals(board.indexOf(start), path[0]);
+				assertEquals(board.indexOf(end), path[path.length - 1]);
+				for(int j = 1; j < path.length; j++) {
+					assertEquals(1, AStarSearch.getDistBetween(board.getTileAtIndex(path[j - 1]), board.getTileAtIndex(path[j])));
+					assertFalse(board.getTileAtIndex(path[j]).blocksVision());
+				}
+			}
+		}
+	}
+	
+	@Test
+	void jumpPointSearchExpandsFewerCellsOnOpenMaps() {
+		//mostly open, with a few lines of wall like the hand made levels
+		Board board = new Board(40, 40);
+		for(int x = 0; x < 40; x++) {
+			for(int y = 0; y < 40; y++) {
+				boolean wall = (x == 12 && y > 5 && y < 30) || (y == 20 && x > 18 && x < 36) || (x == 28 && y < 14);
+				if(wall) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		SearchContext context = new SearchContext();
+		Random random = new Random(4);
+		long astar = 0;
+		long jps = 0;
+		for(int i = 0; i < 100; i++) {
+			int start = board.indexOf(randomOpen(board, random));
+			int end = board.indexOf(randomOpen(board, random));
+			int length = GridAStar.search(board, start, end, false, context).length;
+			astar += context.getExpanded();
+			assertEquals(length, JumpPointSearch.search(board, start, end, context).length);
+			jps += context.getExpanded();
+		}
+		assertTrue(jps * 2 < astar, "A* expanded " + astar + ", JPS expanded " + jps);
+	}
+
+	@Test
+	void hierarchicalPathsAreValid() {
+		Random random = new Random(17);
+		Board board = randomBoard(37, 29, 0.25, random);
+		HierarchicalPathfinder hpa = new HierarchicalPathfinder(board, 8);
+		assertTrue(hpa.getNodeCount() > 0);
+		long found = 0;
+		long optimal = 0;
+		for(int i = 0; i < 200; i++) {
+			Position start = randomOpen(board, random);
+			Position end = randomOpen(board, random);
+			int expected = bfsDistance(board, start, end);
+			int[] path = hpa.search(board.indexOf(start), board.indexOf(end));
+			if(expected == -1) {
+				assertNull(path);
+				continue;
+			}
+			assertNotNull(path);
+			assertEquals(board.indexOf(start), path[0]);
+			assertEquals(board.indexOf(end), path[path.length - 1]);
+			for(int j = 1; j < path.length; j++) {
+				assertEquals(1, AStarSearch.getDistBetween(board.getTileAtIndex(path[j - 1]), board.getTileAtIndex(path[j])));
+				assertFalse(board.getTileAtIndex(path[j]).blocksVision());
+			}
+			assertTrue(path.length - 1 >= expected);
+			found += path.length - 1;
+			optimal += expected;
+			
+			//refining lazily gives the same cells
+			HierarchicalPathfinder.Path lazy = hpa.find(board.indexOf(start), board.indexOf(end));
+			for(int j = 1; j < path.length; j++) {
+				assertEquals(path[j], lazy.next());
+			}
+			assertEquals(-1, lazy.next());
+		}
+		//paths are near optimal overall
+		assertTrue(found < optimal * 1.2, found + " steps against " + optimal);
+	}
+	
+	@Test
+	void concurrentHierarchicalSearches() throws Exception {
+		Random random = new Random(31);
+		Board board = randomBoard(64, 64, 0.25, random);
+		HierarchicalPathfinder hpa = new HierarchicalPathfinder(board, 8);
+		int searches = 100;
+		int[] starts = new int[searches];
+		int[] ends = new int[searches];
+		int[][] expected = new int[searches][];
+		for(int i = 0; i < searches; i++) {
+			starts[i] = board.indexOf(randomOpen(board, random));
+			ends[i] = board.indexOf(randomOpen(board, random));
+			expected[i] = hpa.search(starts[i], ends[i]);
+		}
+		
+		//every thread has its own Query, so each finds the same paths as one thread alone
+		int threads = 8;
+		CountDownLatch go = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for(int t = 0; t < threads; t++) {
+			results.add(pool.submit(new Callable<Integer>() {
+				@Override
+				public Integer call() throws Exception {
+					go.await();
+					for(int i = 0; i < searches; i++) {
+						assertArrayEquals(expected[i], hpa.search(starts[i], ends[i]));
+					}
+					return searches;
+				}
+			}));
+		}
+		go.countDown();
+		int total = 0;
+		for(Future<Integer> f : results) {
+			total += f.get();
+		}
+		pool.shutdown();
+		assertEquals(searches * threads, total);
+	}
+	
+	@Test
+	void openingGateRebuildsCluster() {
+		//a wall across the board at y = 32, with a gate on the cluster border
+		Board board = new Board(40, 40);
+		for(int x = 0; x < 40; x++) {
+			for(int y = 0; y < 40; y++) {
+				if(y == 32 && x != 36) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		new KeyGate(board.getTileAt(36, 32), Colour.BLUE);
+		Level level = new Level(0, 0, board);
+		HierarchicalPathfinder hpa = level.getHierarchicalPathfinder();
+		int start = board.indexOf(new Position(2, 2));
+		int end = board.indexOf(new Position(2, 38));
+		assertNull(hpa.search(start, end));
+		
+		board.getTileAt(36, 32).setGate(null);
+		level.tileChanged(new Position(36, 32));
+		int[] path = hpa.search(start, end);
+		assertNotNull(path);
+		assertTrue(IntStream.of(path).anyMatch(c -> c == board.indexOf(new Position(36, 32))));
+		assertEquals(bfsDistance(board, new Position(2, 2), new Position(2, 38)) + 1, path.length);
+	}
+
+	/**
+	 * Builds a 5x3 Board with a wall down the middle column, open only at the bottom.
+	 */
+	private static Board walledBoard() {
+		Board board = new Board(5, 3);
+		for(int x = 0; x < 5; x++) {
+			for(int y = 0; y < 3; y++) {
+				if(x == 2 && y < 2) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Builds a Board of the given size where each cell is a Wall with the given chance, and is
+	 * otherwise free.
+	 */
+	private static Board randomBoard(int width, int height, double density, Random random) {
+		Board board = new Board(width, height);
+		for(int x = 0; x < width; x++) {
+			for(int y = 0; y < height; y++) {
+				if(random.nextDouble() < density) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		return board;
+	}
+
+	/**
+	 * Picks a random Position on the Board that does not block vision.
+	 */
+	private static Position randomOpen(Board board, Random random) {
+		while(true) {
+			Position pos = new Position(random.nextInt(board.getWidth()), random.nextInt(board.getHeight()));
+			if(!board.getTileAt(pos).blocksVision()) {
+				return pos;
+			}
+		}
+	}
+
+	/**
+	 * Moves one Tile from the given Position in a random direction, if that Tile does not block vision.
+	 */
+	private static Position randomStep(Board board, Position pos, Random random) {
+		int[][] offsets = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+		int[] o = offsets[random.nextInt(4)];
+		int x = pos.getX() + o[0];
+		int y = pos.getY() + o[1];
+		if(x < 0 || y < 0 || x >= board.getWidth() || y >= board.getHeight() || board.getTileAt(x, y).blocksVision()) {
+			return pos;
+		}
+		return new Position(x, y);
+	}
+
+	/**
+	 * Finds the length of the shortest path between two Positions with a plain breadth-first
+	 * search, used to check the paths found by AStarSearch.
+	 *
+	 * @return The number of steps between start and end, or -1 if end cannot be reached.
+	 */
+	private static int bfsDistance(Board board, Position start, Position end) {
+		int width = board.getWidth();
+		int height = board.getHeight();
+		int[] dist = new int[width * height];
+		Arrays.fill(dist, -1);
+		int[] queue = new int[width * height];
+		int head = 0;
+		int tail = 0;
+		int s = start.getX() + start.getY() * width;
+		dist[s] = 0;
+		queue[tail++] = s;
+		int[][] offsets = {{0, -1}, {0, 1}, {-1, 0}, {1, 0}};
+		while(head < tail) {
+			int cell = queue[head++];
+			int x = cell % width;
+			int y = cell / width;
+			for(int[] o : offsets) {
+				int nx = x + o[0];
+				int ny = y + o[1];
+				if(nx < 0 || ny < 0 || nx >= width || ny >= height) {
+					continue;
+				}
+				int n = nx + ny * width;
+				if(dist[n] == -1 && !board.getTileAt(nx, ny).blocksVision()) {
+					dist[n] = dist[cell] + 1;
+					queue[tail++] = n;
+				}
+			}
+		}
+		return dist[end.getX() + end.getY() * width];
+	}
+
 }
@@ -0,0 +1,508 @@
+package domain.astar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import domain.game.Board;
+import domain.tiles.Tile;
+
+/**
+ * A DStarLite planner keeps a shortest path from one agent to a moving target up to date across
+ * many ticks. Unlike GridAStar, which starts every search from scratch, it keeps its distances
+ * between calls and only repairs the part of them that was invalidated - when the agent moves, when
+ * the target moves, or when a Tile changes such as a Gate being opened.
+ *
+ * <p>
+ * Distances are measured from the target, and the search is focused toward the agent with a Manhattan
+ * heuristic. The agent moving is handled by the key modifier km, as in Koenig and Likhachev's D* Lite.
+ * The target moving only changes the expected distance of the old and new target cells, so those two
+ * cells are updated and the changes spread outward as far as they need to. Likewise, when the layout
+ * changes only the cells that changed, and their neighbours, are updated, if the caller says which
+ * they were. Otherwise every cell is checked.
+ * </p>
+ *
+ * <p>
+ * Each planner belongs to a single agent and is not safe for use by more than one thread at a time.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class DStarLite {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The distance given to cells that cannot reach the target.
+	 */
+	private static final int INF = Integer.MAX_VALUE / 2;
+
+	/**
+	 * The Board being planned over.
+	 */
+	private final Board board;
+
+	/**
+	 * The width of the Board.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the Board.
+	 */
+	private final int height;
+
+	/**
+	 * The current distance estimate from each cell to the target.
+	 */
+	private final int[] g;
+
+	/**
+	 * The one-step lookahead distance of each cell - 0 for the target, otherwise one more than the
+	 * lowest g of its neighbours. A cell is consistent when its g and rhs are equal.
+	 */
+	private final int[] rhs;
+
+	/**
+	 * The cells that cannot be passed through, as of the last call to nextStep.
+	 */
+	private final BitSet blocked = new BitSet();
+
+	/**
+	 * The key each cell is queued with, or -1 if it is not in the queue. Heap entries whose key no
+	 * longer matches are stale, and skipped when polled.
+	 */
+	private final long[] queued;
+
+	/**
+	 * The keys of the priority queue, as a binary min-heap. Each holds k1 in its upper 32 bits and
+	 * k2 in its lower 32 bits.
+	 */
+	private long[] heapKeys = new long[64];
+
+	/**
+	 * The cell of each entry in heapKeys.
+	 */
+	private int[] heapCells = new int[64];
+
+	/**
+	 * The number of entries in the heap.
+	 */
+	private int heapSize = 0;
+
+	/**
+	 * Added to every key to account for the agent having moved since the keys were computed.
+	 */
+	private int km = 0;
+
+	/**
+	 * The cell the agent was in when the last path was planned.
+	 */
+	private int start = -1;
+
+	/**
+	 * The cell the planner leads to.
+	 */
+	private int goal = -1;
+
+	/**
+	 * The layout version the planner was last updated for. See Level.getTopologyVersion().
+	 */
+	private int version;
+
+	/**
+	 * The number of cells expanded in total since this planner was created.
+	 */
+	private long expanded = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a new DStarLite planner for a single agent on the given Board.
+	 *
+	 * @param board The Board to plan over.
+	 */
+	public DStarLite(Board board) {
+		this.board = board;
+		this.width = board.getWidth();
+		this.height = board.getHeight();
+		int size = width * height;
+		this.g = new int[size];
+		this.rhs = new int[size];
+		this.queued = new long[size];
+	}
+
+	//===================================================================
+	// Planning
+	//===================================================================
+
+	/**
+	 * Finds the next Tile the agent should move onto to follow a shortest path to the target,
+	 * repairing the plan for whatever has changed since the last call.
+	 *
+	 * @param from The Tile the agent is in.
+	 * @param to The Tile the agent is trying to reach.
+	 * @param version The current layout version of the Board. See Level.getTopologyVersion().
+	 * @return An adjacent Tile one step closer to the target, or null if the agent is already there
+	 * 			or cannot reach it.
+	 */
+	public Tile nextStep(Tile from, Tile to, int version) {
+		return nextStep(from, to, version, null);
+	}
+
+	/**
+	 * As nextStep(Tile, Tile, int), but only checking the given cells for changes to the layout.
+	 *
+	 * @param from The Tile the agent is in.
+	 * @param to The Tile the agent is trying to reach.
+	 * @param version The current layout version of the Board. See Level.getTopologyVersion().
+	 * @param changed The cell indices that have changed since getVersion(), or null if not known.
+	 * @return An adjacent Tile one step closer to the target, or null if the agent is already there
+	 * 			or cannot reach it.
+	 */
+	public Tile nextStep(Tile from, Tile to, int version, int[] changed) {
+		int next = nextStep(board.indexOf(from.getPosition()), board.indexOf(to.getPosition()), version, changed);
+		return next == -1 ? null : board.getTileAtIndex(next);
+	}
+
+	/**
+	 * Finds the next cell the agent should move onto to follow a shortest path to the target,
+	 * repairing the plan for whatever has changed since the last call.
+	 *
+	 * @param from The cell index the agent is in.
+	 * @param to The cell index the agent is trying to reach.
+	 * @param version The current layout version of the Board. See Level.getTopologyVersion().
+	 * @return The index of an adjacent cell one step closer to the target, or -1 if the agent is
+	 * 			already there or cannot reach it.
+	 */
+	public int nextStep(int from, int to, int version) {
+		return nextStep(from, to, version, null);
+	}
+
+	/**
+	 * As nextStep(int, int, int), but only checking the given cells for changes to the layout.
+	 *
+	 * @param from The cell index the agent is in.
+	 * @param to The cell index the agent is trying to reach.
+	 * @param version The current layout version of the Board. See Level.getTopologyVersion().
+	 * @param changed The cell indices that have changed since getVersion(), or null if not known.
+	 * @return The index of an adjacent cell one step closer to the target, or -1 if the agent is
+	 * 			already there or cannot reach it.
+	 */
+	public int nextStep(int from, int to, int version, int[] changed) {
+		if(goal == -1) {
+			reset(from, to, version);
+		}else {
+			if(from != start) {
+				km += heuristic(start, from);
+				start = from;
+			}
+			if(to != goal) {
+				int old = goal;
+				goal = to;
+				updateVertex(to);
+				updateVertex(old);
+			}
+			if(version != this.version) {
+				this.version = version;
+				updateLayout(changed);
+			}
+		}
+		computeShortestPath();
+		if(from == goal || g[from] >= INF) {
+			return -1;
+		}
+		int best = -1;
+		int bestCost = INF;
+		int x = from % width;
+		int y = from / width;
+		if(y > 0 && g[from - width] < bestCost) {
+			best = from - width;
+			bestCost = g[best];
+		}
+		if(y < height - 1 && g[from + width] < bestCost) {
+			best = from + width;
+			bestCost = g[best];
+		}
+		if(x > 0 && g[from - 1] < bestCost) {
+			best = from - 1;
+			bestCost = g[best];
+		}
+		if(x < width - 1 && g[from + 1] < bestCost) {
+			best = from + 1;
+			bestCost = g[best];
+		}
+		return best;
+	}
+
+	/**
+	 * Discards all planning state and starts again from the given agent and target cells.
+	 */
+	private void reset(int from, int to, int version) {
+		Arrays.fill(g, INF);
+		Arrays.fill(rhs, INF);
+		Arrays.fill(queued, -1);
+		heapSize = 0;
+		km = 0;
+		start = from;
+		goal = to;
+		this.version = version;
+		blocked.clear();
+		for(int cell = 0; cell < g.length; cell++) {
+			if(!passable(cell)) {
+				blocked.set(cell);
+			}
+		}
+		rhs[goal] = 0;
+		push(goal, key(goal));
+	}
+
+	/**
+	 * Finds the cells whose passability has changed since the last update, and updates them and
+	 * their neighbours. Only the distances that depended on those cells are then repaired.
+	 *
+	 * @param changed The cells that may have changed, or null to check every cell.
+	 */
+	private void updateLayout(int[] changed) {
+		if(changed == null) {
+			for(int cell = 0; cell < g.length; cell++) {
+				updateCell(cell);
+			}
+			return;
+		}
+		for(int cell : changed) {
+			updateCell(cell);
+		}
+	}
+
+	/**
+	 * Updates a cell and its neighbours if its passability has changed since the last update.
+	 */
+	private void updateCell(int cell) {
+		boolean nowBlocked = !passable(cell);
+		if(nowBlocked == blocked.get(cell)) {
+			return;
+		}
+		blocked.set(cell, nowBlocked);
+		updateVertex(cell);
+		updateNeighbours(cell);
+	}
+
+	/**
+	 * Expands inconsistent cells in order of their keys until the agent's cell is consistent, and no
+	 * cell that could shorten its path remains queued.
+	 */
+	private void computeShortestPath() {
+		while(heapSize > 0) {
+			long top = heapKeys[0];
+			int u = heapCells[0];
+			if(queued[u] != top) {
+				pop(); //stale entry
+				continue;
+			}
+			if(top >= key(start) && rhs[start] == g[start]) {
+				return;
+			}
+			pop();
+			queued[u] = -1;
+			long fresh = key(u);
+			if(top < fresh) {
+				push(u, fresh); //the agent has moved since u was queued
+			}else if(g[u] > rhs[u]) {
+				g[u] = rhs[u];
+				expanded++;
+				updateNeighbours(u);
+			}else {
+				g[u] = INF;
+				expanded++;
+				updateVertex(u);
+				updateNeighbours(u);
+			}
+		}
+	}
+
+	/**
+	 * Calls updateVertex on each of the four neighbours of the given cell.
+	 */
+	private void updateNeighbours(int u) {
+		int x = u % width;
+		int y = u / width;
+		if(y > 0) {
+			updateVertex(u - width);
+		}
+		if(y < height - 1) {
+			updateVertex(u + width);
+		}
+		if(x > 0) {
+			updateVertex(u - 1);
+		}
+		if(x < width - 1) {
+			updateVertex(u + 1);
+		}
+	}
+
+	/**
+	 * Recomputes the rhs of the given cell from its neighbours, and queues it if it is now
+	 * inconsistent.
+	 */
+	private void updateVertex(int u) {
+		if(u == goal) {
+			rhs[u] = blocked.get(u) ? INF : 0;
+		}else if(blocked.get(u)) {
+			rhs[u] = INF;
+		}else {
+			int best = INF;
+			int x = u % width;
+			int y = u / width;
+			if(y > 0) {
+				best = Math.min(best, cost(u - width));
+			}
+			if(y < height - 1) {
+				best = Math.min(best, cost(u + width));
+			}
+			if(x > 0) {
+				best = Math.min(best, cost(u - 1));
+			}
+			if(x < width - 1) {
+				best = Math.min(best, cost(u + 1));
+			}
+			rhs[u] = best;
+		}
+		if(g[u] != rhs[u]) {
+			long k = key(u);
+			if(queued[u] != k) {
+				push(u, k);
+			}
+		}else {
+			queued[u] = -1;
+		}
+	}
+
+	/**
+	 * The cost of reaching the target through the given neighbour.
+	 */
+	private int cost(int neighbour) {
+		if(blocked.get(neighbour) || g[neighbour] >= INF) {
+			return INF;
+		}
+		return g[neighbour] + 1;
+	}
+
+	/**
+	 * Computes the key of the given cell, packed with k1 in the upper 32 bits and k2 in the lower.
+	 */
+	private long key(int u) {
+		int k2 = Math.min(g[u], rhs[u]);
+		int k1 = k2 >= INF ? INF : k2 + heuristic(start, u) + km;
+		return ((long) k1 << 32) | k2;
+	}
+
+	/**
+	 * The Manhattan distance between two cells.
+	 */
+	private int heuristic(int a, int b) {
+		return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+	}
+
+	/**
+	 * Checks if the given cell can be passed through.
+	 */
+	private boolean passable(int cell) {
+		Tile t = board.getTileAtIndex(cell);
+		return t != null && !t.blocksVision();
+	}
+
+	//===================================================================
+	// Priority queue
+	//===================================================================
+
+	/**
+	 * Adds the given cell to the queue with the given key. Any older entry for the cell is left in
+	 * the heap, and is skipped as stale when reached.
+	 */
+	private void push(int cell, long k) {
+		queued[cell] = k;
+		if(heapSize == heapKeys.length) {
+			heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+			heapCells = Arrays.copyOf(heapCells, heapSize * 2);
+		}
+		int i = heapSize++;
+		while(i > 0) {
+			int p = (i - 1) >>> 1;
+			if(heapKeys[p] <= k) {
+				break;
+			}
+			heapKeys[i] = heapKeys[p];
+			heapCells[i] = heapCells[p];
+			i = p;
+		}
+		heapKeys[i] = k;
+		heapCells[i] = cell;
+	}
+
+	/**
+	 * Removes the entry with the lowest key from the heap.
+	 */
+	private void pop() {
+		long lastKey = heapKeys[--heapSize];
+		int lastCell = heapCells[heapSize];
+		int i = 0;
+		int half = heapSize >>> 1;
+		while(i < half) {
+			int c = 2 * i + 1;
+			if(c + 1 < heapSize && heapKeys[c + 1] < heapKeys[c]) {
+				c++;
+			}
+			if(lastKey <= heapKeys[c]) {
+				break;
+			}
+			heapKeys[i] = heapKeys[c];
+			heapCells[i] = heapCells[c];
+			i = c;
+		}
+		if(heapSize > 0) {
+			heapKeys[i] = lastKey;
+			heapCells[i] = lastCell;
+		}
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @param cell A cell index.
+	 * @return The planner's current distance from cell to the target. Only guaranteed to be exact
+	 * 			for the agent's cell, straight after nextStep.
+	 */
+	public int getDistance(int cell) {
+		return g[cell] >= INF ? FlowField.UNREACHABLE : g[cell];
+	}
+
+	/**
+	 * @return The number of cells expanded in total since this planner was created. Used to compare
+	 * 			the work done against searching from scratch each tick.
+	 */
+	public long getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * @return The Board this planner covers.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * @return The layout version the planner was last updated for, or the version it was first
+	 * 			used with. See Level.getTopologyVersion().
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+}
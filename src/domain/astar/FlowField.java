@@ -0,0 +1,205 @@
+package domain.astar;
+
+import java.util.Arrays;
+
+import domain.game.Board;
+import domain.tiles.Tile;
+
+/**
+ * A FlowField stores the distance from every cell of a Board to a single target cell, found with one
+ * breadth-first search outward from the target. Once computed, any number of NonPlayerActors can
+ * find their next step toward the target by looking at their four neighbours, so the cost of chasing
+ * a target no longer depends on how many Actors are chasing it.
+ *
+ * <p>
+ * Cells are identified by their index, x + y * width, as in GridAStar. Walls and Gates cannot be
+ * passed through, so they are never given a distance.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class FlowField {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * Marks a cell that cannot reach the target.
+	 */
+	public static final int UNREACHABLE = -1;
+
+	/**
+	 * The Board this field covers.
+	 */
+	private final Board board;
+
+	/**
+	 * The number of steps from each cell to the target, or UNREACHABLE.
+	 */
+	private final int[] dist;
+
+	/**
+	 * The queue used by the breadth-first search. Kept between computations to avoid reallocating it.
+	 */
+	private final int[] queue;
+
+	/**
+	 * The cell index the field leads to.
+	 */
+	private int target = -1;
+
+	/**
+	 * The version of the Board's layout this field was computed for. See Level.getTopologyVersion().
+	 */
+	private int version = -1;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a new, uncomputed FlowField for the given Board.
+	 *
+	 * @param board The Board this field will cover.
+	 */
+	public FlowField(Board board) {
+		this.board = board;
+		int size = board.getWidth() * board.getHeight();
+		this.dist = new int[size];
+		this.queue = new int[size];
+	}
+
+	//===================================================================
+	// Computation
+	//===================================================================
+
+	/**
+	 * Recomputes the distance from every cell to the given target.
+	 *
+	 * @param target The cell index the field will lead to.
+	 * @param version The version of the Board's layout being computed for.
+	 */
+	public void compute(int target, int version) {
+		int width = board.getWidth();
+		int height = board.getHeight();
+		Arrays.fill(dist, UNREACHABLE);
+		this.target = target;
+		this.version = version;
+		int head = 0;
+		int tail = 0;
+		dist[target] = 0;
+		queue[tail++] = target;
+		while(head < tail) {
+			int cell = queue[head++];
+			int x = cell % width;
+			int y = cell / width;
+			int d = dist[cell] + 1;
+			if(y > 0 && visit(cell - width, d)) {
+				queue[tail++] = cell - width;
+			}
+			if(y < height - 1 && visit(cell + width, d)) {
+				queue[tail++] = cell + width;
+			}
+			if(x > 0 && visit(cell - 1, d)) {
+				queue[tail++] = cell - 1;
+			}
+			if(x < width - 1 && visit(cell + 1, d)) {
+				queue[tail++] = cell + 1;
+			}
+		}
+	}
+
+	/**
+	 * Gives the cell the given distance if it has not yet been reached, and can be passed through.
+	 *
+	 * @return True if the cell was reached for the first time.
+	 */
+	private boolean visit(int cell, int d) {
+		if(dist[cell] != UNREACHABLE) {
+			return false;
+		}
+		Tile t = board.getTileAtIndex(cell);
+		if(t == null || t.blocksVision()) {
+			return false;
+		}
+		dist[cell] = d;
+		return true;
+	}
+
+	//===================================================================
+	// Queries
+	//===================================================================
+
+	/**
+	 * Finds the next Tile to move onto to get one step closer to the target.
+	 *
+	 * @param from The Tile to move from.
+	 * @return An adjacent Tile that is one step closer to the target, or null if from is the target
+	 * 			or cannot reach it.
+	 */
+	public Tile nextStep(Tile from) {
+		int next = nextStep(board.indexOf(from.getPosition()));
+		return next == -1 ? null : board.getTileAtIndex(next);
+	}
+
+	/**
+	 * Finds the next cell to move onto to get one step closer to the target.
+	 *
+	 * @param cell The cell index to move from.
+	 * @return The index of an adjacent cell that is one step closer to the target, or -1 if cell is
+	 * 			the target or cannot reach it.
+	 */
+	public int nextStep(int cell) {
+		int d = dist[cell];
+		if(d <= 0) {
+			return -1;
+		}
+		int width = board.getWidth();
+		int x = cell % width;
+		int y = cell / width;
+		if(y > 0 && dist[cell - width] == d - 1) {
+			return cell - width;
+		}
+		if(y < board.getHeight() - 1 && dist[cell + width] == d - 1) {
+			return cell + width;
+		}
+		if(x > 0 && dist[cell - 1] == d - 1) {
+			return cell - 1;
+		}
+		if(x < width - 1 && dist[cell + 1] == d - 1) {
+			return cell + 1;
+		}
+		return -1; //should be unreachable
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The number of steps from cell to the target, or UNREACHABLE.
+	 */
+	public int getDistance(int cell) {
+		return dist[cell];
+	}
+
+	/**
+	 * @return The cell index this field leads to.
+	 */
+	public int getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return The version of the Board's layout this field was computed for.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return The Board this field covers.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+}
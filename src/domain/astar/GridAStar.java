@@ -0,0 +1,118 @@
+package domain.astar;
+
+import domain.game.Board;
+import domain.game.Game.Direction;
+import domain.tiles.Tile;
+
+/**
+ * GridAStar performs A* searches directly on the cell indices of a Board, where the index of
+ * the cell at (x, y) is x + y * width. No objects are created per expanded cell - the open set
+ * is a binary heap of primitive longs, and the g-scores and parents are kept in int arrays.
+ *
+ * <p>
+ * All search state lives in a SearchContext rather than in the Board or its Tiles, so searches
+ * are reentrant - any number of threads may search the same Board at once.
+ * </p>
+ *
+ * <p>
+ * This class is declared abstract to prevent creation of instances. All methods are static
+ * and should be accessed that way.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public abstract class GridAStar {
+
+	/**
+	 * Every Direction a search steps in, in the order of their bits in a Board's neighbour mask.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	//===================================================================
+	// Searching
+	//===================================================================
+
+	/**
+	 * Attempts to find a path of cells between start and goal. If direct is true, this will ignore
+	 * blockages such as Walls and Gates. If direct is false, this will path around them.
+	 *
+	 * @param board The Board to search.
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @param direct True if this search is to ignore Walls and Gates.
+	 * @return The cell indices of the path, where [0] is start and the last element is goal, or
+	 * 			null if there is no path.
+	 */
+	public static int[] search(Board board, int start, int goal, boolean direct) {
+		return search(board, start, goal, direct, SearchContext.forCurrentThread());
+	}
+
+	/**
+	 * Performs the same search as search(Board, int, int, boolean), using the given SearchContext to
+	 * hold the search state. The context must not be in use by another thread.
+	 *
+	 * @param board The Board to search.
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @param direct True if this search is to ignore Walls and Gates.
+	 * @param s The context to hold the state of this search.
+	 * @return The cell indices of the path, where [0] is start and the last element is goal, or
+	 * 			null if there is no path.
+	 */
+	public static int[] search(Board board, int start, int goal, boolean direct, SearchContext s) {
+		int width = board.getWidth();
+		int size = width * board.getHeight();
+		s.prepare(size);
+		int goalX = goal % width;
+		int goalY = goal / width;
+
+		s.open(start, 0, heuristic(start, width, goalX, goalY));
+		while(s.heapSize > 0) {
+			int curr = s.poll();
+			if(s.closed.get(curr)) {
+				continue; //stale heap entry, cell was already reached more cheaply
+			}
+			s.closed.set(curr);
+			s.expanded++;
+			if(curr == goal) {
+				return s.buildPath(goal);
+			}
+			int g = s.g[curr] + 1; //Constant +1 as adjacent cells are 1 distance away
+			int mask = board.getNeighbourMask(curr);
+			for(int d = 0; d < DIRECTIONS.length; d++) {
+				if((mask & 1 << d) != 0) {
+					relax(board, s, curr, curr + board.getOffset(DIRECTIONS[d]), g, direct, width, goalX, goalY);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the given neighbour to the open set if it can be entered, and this is the cheapest way
+	 * of reaching it found so far.
+	 */
+	private static void relax(Board board, SearchContext s, int from, int to, int g, boolean direct, int width, int goalX, int goalY) {
+		if(s.closed.get(to)) {
+			return;
+		}
+		if(s.reached(to) && s.g[to] <= g) {
+			return;
+		}
+		Tile t = board.getTileAtIndex(to);
+		if(t == null || (!direct && t.blocksVision())) {
+			return;
+		}
+		s.parent[to] = from;
+		s.open(to, g, g + heuristic(to, width, goalX, goalY));
+	}
+
+	/**
+	 * The Manhattan distance from the given cell to the goal. As Actors can only move orthogonally,
+	 * this never overestimates the true distance.
+	 */
+	private static int heuristic(int cell, int width, int goalX, int goalY) {
+		return Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY);
+	}
+
+}
@@ -0,0 +1,1109 @@
+package domain.astar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import domain.game.Board;
+import domain.tiles.Tile;
+
+/**
+ * A HierarchicalPathfinder finds paths on very large Boards without searching every cell in
+ * between, following Botea, Muller and Schaeffer's HPA*. The Board is split into square clusters.
+ * Where two neighbouring clusters can be crossed between, entrance nodes are placed on either side of
+ * the border, and the distance between every pair of nodes in the same cluster is found once when
+ * the pathfinder is built. A query then only searches this much smaller graph of entrances.
+ *
+ * <p>
+ * The abstract path found is a list of waypoints, each in the same cluster as the next or just
+ * across a border from it. The cells between waypoints are only found when they are needed - see
+ * Path. Paths are close to, but not always exactly, the shortest possible.
+ * </p>
+ *
+ * <p>
+ * When a Tile changes, such as a Gate being opened, only the cluster holding it is rebuilt, along
+ * with any neighbour it shares a border cell with.
+ * </p>
+ *
+ * <p>
+ * Cells are identified by their index, x + y * width, as in GridAStar. As with GridAStar's
+ * SearchContext, the state of a query is kept apart from the graph, one Query per thread, so any
+ * number of threads may search at once. Only rebuilding the graph after a Tile changes has to wait
+ * for those searches to finish.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class HierarchicalPathfinder {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The width and height of each cluster, if none is given. Smaller clusters give more nodes to
+	 * search, larger ones make each local search and each cluster's edges dearer. 32 suited a
+	 * maze of 1024 by 1024 best - see HierarchicalBenchmark.
+	 */
+	public static final int DEFAULT_CLUSTER_SIZE = 32;
+
+	/**
+	 * The abstract search's heuristic is raised by one part in this many, so paths may be up to
+	 * that much longer than the shortest through the abstract graph. On a maze of 1024 by 1024 this
+	 * expands a tenth to a third as many nodes, for paths a few percent longer.
+	 */
+	private static final int HEURISTIC_SLACK = 8;
+
+	/**
+	 * Entrances at least this wide are given a node at each end, rather than one in the middle.
+	 */
+	private static final int WIDE_ENTRANCE = 6;
+
+	/**
+	 * The Board being searched.
+	 */
+	private final Board board;
+
+	/**
+	 * The width of the Board.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the Board.
+	 */
+	private final int height;
+
+	/**
+	 * The width and height of each cluster.
+	 */
+	private final int size;
+
+	/**
+	 * The number of clusters across the Board.
+	 */
+	private final int clustersWide;
+
+	/**
+	 * The number of clusters down the Board.
+	 */
+	private final int clustersHigh;
+
+	/**
+	 * The cells that can be passed through, kept up to date by tileChanged(int).
+	 */
+	private final BitSet walkable;
+
+	/**
+	 * The entrance node in each cell, or -1 if there is none.
+	 */
+	private final int[] nodeAt;
+
+	/**
+	 * The cell each node is in.
+	 */
+	private int[] nodeCell = new int[64];
+
+	/**
+	 * The column of the cell each node is in, kept so the heuristic needs no division.
+	 */
+	private int[] nodeX = new int[64];
+
+	/**
+	 * The row of the cell each node is in.
+	 */
+	private int[] nodeY = new int[64];
+
+	/**
+	 * The cluster each node is in.
+	 */
+	private int[] nodeCluster = new int[64];
+
+	/**
+	 * The connected part of the abstract graph each node is in. Two nodes with different
+	 * components can not reach each other, so a query between them fails without searching.
+	 */
+	private int[] nodeComponent = new int[64];
+
+	/**
+	 * The number of border crossings using each node. A node is removed when this reaches zero.
+	 */
+	private int[] nodeRefs = new int[64];
+
+	/**
+	 * The edges from each node to the other nodes in its cluster, stored as neighbour and distance pairs.
+	 */
+	private int[][] intra = new int[64][];
+
+	/**
+	 * The edges from each node across a border, stored as neighbour and distance pairs.
+	 */
+	private int[][] inter = new int[64][];
+
+	/**
+	 * The number of ints in use in each array of intra.
+	 */
+	private int[] intraLen = new int[64];
+
+	/**
+	 * The number of ints in use in each array of inter.
+	 */
+	private int[] interLen = new int[64];
+
+	/**
+	 * The number of node ids that have been handed out.
+	 */
+	private int nodeCount = 0;
+
+	/**
+	 * Node ids that have been removed, and can be handed out again.
+	 */
+	private int[] freeNodes = new int[16];
+
+	/**
+	 * The number of ids in freeNodes.
+	 */
+	private int freeCount = 0;
+
+	/**
+	 * The pairs of nodes crossing each border, as node ids a0, b0, a1, b1...
+	 * Border 2k is between cluster k and the cluster to its right, and border 2k + 1 is between
+	 * cluster k and the cluster below it.
+	 */
+	private final int[][] borders;
+
+	/**
+	 * The nodes in each cluster.
+	 */
+	private final int[][] clusterNodes;
+
+	/**
+	 * Held for reading by every query, and for writing while the graph is being rebuilt.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * The Query belonging to each thread.
+	 */
+	private final ThreadLocal<Query> queries = ThreadLocal.withInitial(Query::new);
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Builds the abstract graph of the given Board with clusters of DEFAULT_CLUSTER_SIZE.
+	 *
+	 * @param board The Board to be searched.
+	 */
+	public HierarchicalPathfinder(Board board) {
+		this(board, DEFAULT_CLUSTER_SIZE);
+	}
+
+	/**
+	 * Builds the abstract graph of the given Board.
+	 *
+	 * @param board The Board to be searched.
+	 * @param size The width and height of each cluster.
+	 */
+	public HierarchicalPathfinder(Board board, int size) {
+		this.board = board;
+		this.width = board.getWidth();
+		this.height = board.getHeight();
+		this.size = size;
+		this.clustersWide = (width + size - 1) / size;
+		this.clustersHigh = (height + size - 1) / size;
+		int clusters = clustersWide * clustersHigh;
+		this.walkable = new BitSet(width * height);
+		for(int cell = 0; cell < width * height; cell++) {
+			Tile t = board.getTileAtIndex(cell);
+			walkable.set(cell, t != null && !t.blocksVision());
+		}
+		this.nodeAt = new int[width * height];
+		Arrays.fill(nodeAt, -1);
+		this.borders = new int[clusters * 2][];
+		this.clusterNodes = new int[clusters][];
+		for(int k = 0; k < clusters; k++) {
+			buildBorder(2 * k);
+			buildBorder(2 * k + 1);
+		}
+		Query q = queries.get();
+		for(int k = 0; k < clusters; k++) {
+			buildCluster(q, k);
+		}
+		labelComponents();
+	}
+
+	//===================================================================
+	// Building
+	//===================================================================
+
+	/**
+	 * Places the entrance nodes along the given border. Each run of cells that can be crossed is
+	 * given a single crossing in its middle, or one at each end if it is wide.
+	 */
+	private void buildBorder(int border) {
+		borders[border] = new int[0];
+		int k = border >> 1;
+		int cx = k % clustersWide;
+		int cy = k / clustersWide;
+		boolean down = (border & 1) == 1;
+		if((!down && cx + 1 >= clustersWide) || (down && cy + 1 >= clustersHigh)) {
+			return;
+		}
+		int length = down ? Math.min(size, width - cx * size) : Math.min(size, height - cy * size);
+		int runStart = -1;
+		for(int i = 0; i <= length; i++) {
+			boolean open = i < length && walkable(borderCell(cx, cy, down, i, false)) && walkable(borderCell(cx, cy, down, i, true));
+			if(open && runStart == -1) {
+				runStart = i;
+			}else if(!open && runStart != -1) {
+				int runEnd = i - 1;
+				if(runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+					addCrossing(border, borderCell(cx, cy, down, runStart, false), borderCell(cx, cy, down, runStart, true));
+					addCrossing(border, borderCell(cx, cy, down, runEnd, false), borderCell(cx, cy, down, runEnd, true));
+				}else {
+					int mid = (runStart + runEnd) / 2;
+					addCrossing(border, borderCell(cx, cy, down, mid, false), borderCell(cx, cy, down, mid, true));
+				}
+				runStart = -1;
+			}
+		}
+	}
+
+	/**
+	 * Finds the i-th cell along a border, on the near side if far is false, or across the border if
+	 * far is true.
+	 */
+	private int borderCell(int cx, int cy, boolean down, int i, boolean far) {
+		if(down) {
+			int y = (cy + 1) * size - (far ? 0 : 1);
+			return cx * size + i + y * width;
+		}
+		int x = (cx + 1) * size - (far ? 0 : 1);
+		return x + (cy * size + i) * width;
+	}
+
+	/**
+	 * Adds a crossing between two cells on either side of a border, creating their nodes if needed.
+	 */
+	private void addCrossing(int border, int a, int b) {
+		int na = acquireNode(a);
+		int nb = acquireNode(b);
+		int[] pairs = borders[border];
+		pairs = Arrays.copyOf(pairs, pairs.length + 2);
+		pairs[pairs.length - 2] = na;
+		pairs[pairs.length - 1] = nb;
+		borders[border] = pairs;
+		addEdge(inter, interLen, na, nb, 1);
+		addEdge(inter, interLen, nb, na, 1);
+	}
+
+	/**
+	 * Removes every crossing of the given border, and any node no longer used by a crossing.
+	 */
+	private void clearBorder(int border) {
+		int[] pairs = borders[border];
+		for(int i = 0; i < pairs.length; i += 2) {
+			removeEdge(pairs[i], pairs[i + 1]);
+			removeEdge(pairs[i + 1], pairs[i]);
+			releaseNode(pairs[i]);
+			releaseNode(pairs[i + 1]);
+		}
+		borders[border] = new int[0];
+	}
+
+	/**
+	 * Finds the nodes in the given cluster, and the distance between each pair of them.
+	 */
+	private void buildCluster(Query q, int k) {
+		int x0 = (k % clustersWide) * size;
+		int y0 = (k / clustersWide) * size;
+		int x1 = Math.min(width, x0 + size);
+		int y1 = Math.min(height, y0 + size);
+		int[] nodes = new int[0];
+		for(int y = y0; y < y1; y++) {
+			for(int x = x0; x < x1; x++) {
+				int n = nodeAt[x + y * width];
+				if(n != -1) {
+					nodes = Arrays.copyOf(nodes, nodes.length + 1);
+					nodes[nodes.length - 1] = n;
+				}
+			}
+		}
+		clusterNodes[k] = nodes;
+		for(int n : nodes) {
+			intraLen[n] = 0;
+		}
+		for(int n : nodes) {
+			q.localSearch(k, nodeCell[n]);
+			for(int m : nodes) {
+				int d = q.localDist[local(k, nodeCell[m])];
+				if(m != n && d > 0) {
+					addEdge(intra, intraLen, n, m, d);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Called when the Tile at the given cell has changed whether it can be passed through. The
+	 * cluster holding the cell is rebuilt. If the cell lies on a border, the crossings of that
+	 * border are placed again, and the cluster on its far side is rebuilt as well. Waits for any
+	 * searches in progress to finish first.
+	 *
+	 * @param cell The index of the cell that changed.
+	 */
+	public void tileChanged(int cell) {
+		lock.writeLock().lock();
+		try {
+			Tile t = board.getTileAtIndex(cell);
+			walkable.set(cell, t != null && !t.blocksVision());
+			int x = cell % width;
+			int y = cell / width;
+			int cx = x / size;
+			int cy = y / size;
+			int k = cx + cy * clustersWide;
+			int[] affected = {k, -1, -1, -1, -1};
+			int count = 1;
+			if(x % size == size - 1 && cx + 1 < clustersWide) {
+				count = rebuildBorder(2 * k, k + 1, affected, count);
+			}
+			if(x % size == 0 && cx > 0) {
+				count = rebuildBorder(2 * (k - 1), k - 1, affected, count);
+			}
+			if(y % size == size - 1 && cy + 1 < clustersHigh) {
+				count = rebuildBorder(2 * k + 1, k + clustersWide, affected, count);
+			}
+			if(y % size == 0 && cy > 0) {
+				count = rebuildBorder(2 * (k - clustersWide) + 1, k - clustersWide, affected, count);
+			}
+			Query q = queries.get();
+			for(int i = 0; i < count; i++) {
+				buildCluster(q, affected[i]);
+			}
+			labelComponents();
+		}finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Gives every node the component of the nodes it can reach, by flooding the abstract graph
+	 * from each node not yet given one.
+	 */
+	private void labelComponents() {
+		if(nodeComponent.length < nodeCell.length) {
+			nodeComponent = new int[nodeCell.length];
+		}
+		Arrays.fill(nodeComponent, -1);
+		int[] stack = new int[nodeCount];
+		int components = 0;
+		for(int n = 0; n < nodeCount; n++) {
+			if(nodeAt[nodeCell[n]] != n || nodeComponent[n] != -1) {
+				continue; //removed, or already reached
+			}
+			int top = 0;
+			stack[top++] = n;
+			nodeComponent[n] = components;
+			while(top > 0) {
+				int u = stack[--top];
+				top = flood(intra[u], intraLen[u], components, stack, top);
+				top = flood(inter[u], interLen[u], components, stack, top);
+			}
+			components++;
+		}
+	}
+
+	/**
+	 * Gives the neighbours along the given edges the given component, pushing any not yet reached.
+	 */
+	private int flood(int[] edges, int len, int component, int[] stack, int top) {
+		for(int i = 0; i < len; i += 2) {
+			int m = edges[i];
+			if(nodeComponent[m] == -1) {
+				nodeComponent[m] = component;
+				stack[top++] = m;
+			}
+		}
+		return top;
+	}
+
+	/**
+	 * Places the crossings of a border again, and adds the cluster across it to the affected list.
+	 */
+	private int rebuildBorder(int border, int neighbour, int[] affected, int count) {
+		clearBorder(border);
+		buildBorder(border);
+		affected[count] = neighbour;
+		return count + 1;
+	}
+
+	//===================================================================
+	// Searching
+	//===================================================================
+
+	/**
+	 * Finds the waypoints of a path between start and goal that avoids Walls and Gates. Each
+	 * waypoint is in the same cluster as the next, or next to it across a border.
+	 *
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @return The cell indices of the waypoints, where [0] is start and the last element is goal,
+	 * 			or null if there is no path.
+	 */
+	public int[] findWaypoints(int start, int goal) {
+		lock.readLock().lock();
+		try {
+			return queries.get().findWaypoints(start, goal);
+		}finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the full path of cells between start and goal, refining every waypoint at once.
+	 *
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @return The cell indices of the path, where [0] is start and the last element is goal, or
+	 * 			null if there is no path.
+	 */
+	public int[] search(int start, int goal) {
+		lock.readLock().lock();
+		try {
+			Query q = queries.get();
+			int[] waypoints = q.findWaypoints(start, goal);
+			if(waypoints == null) {
+				return null;
+			}
+			int[] path = new int[] {start};
+			for(int i = 1; i < waypoints.length; i++) {
+				int[] segment = q.refine(waypoints[i - 1], waypoints[i]);
+				if(segment == null) {
+					return null;
+				}
+				int old = path.length;
+				path = Arrays.copyOf(path, old + segment.length - 1);
+				System.arraycopy(segment, 1, path, old, segment.length - 1);
+			}
+			return path;
+		}finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds a path whose cells are only found as they are reached. See Path.
+	 *
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @return The path, or null if there is none.
+	 */
+	public Path find(int start, int goal) {
+		int[] waypoints = findWaypoints(start, goal);
+		return waypoints == null ? null : new Path(waypoints);
+	}
+
+	/**
+	 * Finds the cells between two consecutive waypoints.
+	 *
+	 * @return The cell indices from a to b inclusive, or null if b can no longer be reached from a.
+	 */
+	int[] refine(int a, int b) {
+		lock.readLock().lock();
+		try {
+			return queries.get().refine(a, b);
+		}finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	//===================================================================
+	// Nodes and edges
+	//===================================================================
+
+	/**
+	 * Finds the node in the given cell, creating it if there is none, and counts one more use of it.
+	 */
+	private int acquireNode(int cell) {
+		int n = nodeAt[cell];
+		if(n == -1) {
+			if(freeCount > 0) {
+				n = freeNodes[--freeCount];
+			}else {
+				n = nodeCount++;
+				if(n == nodeCell.length) {
+					int capacity = n * 2;
+					nodeCell = Arrays.copyOf(nodeCell, capacity);
+					nodeX = Arrays.copyOf(nodeX, capacity);
+					nodeY = Arrays.copyOf(nodeY, capacity);
+					nodeCluster = Arrays.copyOf(nodeCluster, capacity);
+					nodeRefs = Arrays.copyOf(nodeRefs, capacity);
+					intra = Arrays.copyOf(intra, capacity);
+					inter = Arrays.copyOf(inter, capacity);
+					intraLen = Arrays.copyOf(intraLen, capacity);
+					interLen = Arrays.copyOf(interLen, capacity);
+				}
+			}
+			nodeAt[cell] = n;
+			nodeCell[n] = cell;
+			nodeX[n] = cell % width;
+			nodeY[n] = cell / width;
+			nodeCluster[n] = clusterOf(cell);
+			nodeRefs[n] = 0;
+			intraLen[n] = 0;
+			interLen[n] = 0;
+		}
+		nodeRefs[n]++;
+		return n;
+	}
+
+	/**
+	 * Counts one less use of the given node, removing it once it is no longer used.
+	 */
+	private void releaseNode(int n) {
+		if(--nodeRefs[n] > 0) {
+			return;
+		}
+		nodeAt[nodeCell[n]] = -1;
+		intraLen[n] = 0;
+		interLen[n] = 0;
+		if(freeCount == freeNodes.length) {
+			freeNodes = Arrays.copyOf(freeNodes, freeCount * 2);
+		}
+		freeNodes[freeCount++] = n;
+	}
+
+	/**
+	 * Adds an edge from one node to another.
+	 */
+	private static void addEdge(int[][] edges, int[] lengths, int from, int to, int cost) {
+		int[] list = edges[from];
+		int len = lengths[from];
+		if(list == null) {
+			list = new int[8];
+		}else if(len == list.length) {
+			list = Arrays.copyOf(list, len * 2);
+		}
+		list[len] = to;
+		list[len + 1] = cost;
+		edges[from] = list;
+		lengths[from] = len + 2;
+	}
+
+	/**
+	 * Removes one crossing edge from one node to another.
+	 */
+	private void removeEdge(int from, int to) {
+		int[] list = inter[from];
+		int len = interLen[from];
+		for(int i = 0; i < len; i += 2) {
+			if(list[i] == to) {
+				list[i] = list[len - 2];
+				list[i + 1] = list[len - 1];
+				interLen[from] = len - 2;
+				return;
+			}
+		}
+	}
+
+	//===================================================================
+	// Helpers
+	//===================================================================
+
+	/**
+	 * @return The cluster holding the given cell.
+	 */
+	private int clusterOf(int cell) {
+		return (cell % width) / size + (cell / width) / size * clustersWide;
+	}
+
+	/**
+	 * @return The index of the given cell within the local arrays of cluster k.
+	 */
+	private int local(int k, int cell) {
+		return (cell % width) - (k % clustersWide) * size + ((cell / width) - (k / clustersWide) * size) * size;
+	}
+
+	/**
+	 * Checks if the given cell can be passed through.
+	 */
+	private boolean walkable(int cell) {
+		return walkable.get(cell);
+	}
+
+	/**
+	 * The Manhattan distance between two cells.
+	 */
+	private int manhattan(int a, int b) {
+		return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+	}
+
+	/**
+	 * @return The number of entrance nodes in the abstract graph.
+	 */
+	public int getNodeCount() {
+		lock.readLock().lock();
+		try {
+			return nodeCount - freeCount;
+		}finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return The number of nodes expanded by the most recent abstract search on the calling thread.
+	 */
+	public int getExpanded() {
+		return queries.get().expanded;
+	}
+
+	/**
+	 * @return The Board this pathfinder covers.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	//===================================================================
+	// Queries
+	//===================================================================
+
+	/**
+	 * The state of one thread's searches - the scratch arrays of the local breadth-first searches
+	 * and of the abstract A*. Only used while the graph is locked for reading or writing.
+	 *
+	 * <p>
+	 * As in SearchContext, every abstract search is given a new generation number, and a node's
+	 * g-score is only considered valid if its stamp matches the current generation.
+	 * </p>
+	 *
+	 * @author Michael Dasan 300130610
+	 */
+	private final class Query {
+
+		/**
+		 * The distance from the cell a local search began at to each cell in its cluster, or -1.
+		 */
+		private final int[] localDist = new int[size * size];
+
+		/**
+		 * The cell each cell was reached from in the last local search.
+		 */
+		private final int[] localParent = new int[size * size];
+
+		/**
+		 * The queue used by local searches.
+		 */
+		private final int[] localQueue = new int[size * size];
+
+		/**
+		 * The g-scores of the abstract search. The start and goal are given ids just past the last node.
+		 */
+		private int[] absG = new int[0];
+
+		/**
+		 * The node each node was reached from in the abstract search.
+		 */
+		private int[] absParent = new int[0];
+
+		/**
+		 * The generation each entry of absG was written in.
+		 */
+		private int[] absStamp = new int[0];
+
+		/**
+		 * The distance from each node to the goal, if it is in the goal's cluster, valid when
+		 * goalStamp matches the current generation.
+		 */
+		private int[] goalCost = new int[0];
+
+		/**
+		 * The generation each entry of goalCost was written in.
+		 */
+		private int[] goalStamp = new int[0];
+
+		/**
+		 * The current abstract search's generation.
+		 */
+		private int generation = 0;
+
+		/**
+		 * The nodes expanded in the current abstract search.
+		 */
+		private final BitSet closed = new BitSet();
+
+		/**
+		 * The open set of the abstract search, as f-score and g-score pairs packed into longs.
+		 * Among entries of equal f-score, the one with the greater g-score comes first, so the
+		 * search follows one of many equally short routes to the goal rather than widening out
+		 * over all of them.
+		 */
+		private long[] heap = new long[64];
+
+		/**
+		 * The node of each entry in the heap.
+		 */
+		private int[] heapNode = new int[64];
+
+		/**
+		 * The number of entries in the heap.
+		 */
+		private int heapSize = 0;
+
+		/**
+		 * The number of nodes expanded by the most recent abstract search.
+		 */
+		private int expanded = 0;
+
+		/**
+		 * See HierarchicalPathfinder.findWaypoints(int, int).
+		 */
+		private int[] findWaypoints(int start, int goal) {
+			if(!walkable(start) || !walkable(goal)) {
+				return null;
+			}
+			if(start == goal) {
+				return new int[] {start};
+			}
+			int ks = clusterOf(start);
+			int kg = clusterOf(goal);
+			prepare();
+			int s = nodeCell.length;
+			int g = s + 1;
+			if(ks == kg) {
+				localSearch(ks, start);
+				if(localDist[local(ks, goal)] != -1) {
+					return new int[] {start, goal};
+				}
+			}
+			localSearch(kg, goal);
+			int component = -1;
+			for(int n : clusterNodes[kg]) {
+				int d = localDist[local(kg, nodeCell[n])];
+				if(d != -1) {
+					goalCost[n] = d;
+					goalStamp[n] = generation;
+					component = nodeComponent[n];
+				}
+			}
+			localSearch(ks, start);
+			if(!reaches(ks, component)) {
+				return null;
+			}
+			int goalX = goal % width;
+			int goalY = goal / width;
+			int h = manhattan(start, goal);
+			open(s, 0, h + h / HEURISTIC_SLACK);
+			while(heapSize > 0) {
+				int u = poll();
+				if(closed.get(u)) {
+					continue;
+				}
+				closed.set(u);
+				expanded++;
+				if(u == g) {
+					return buildWaypoints(start, goal, s, g);
+				}
+				int gu = absG[u];
+				if(u == s) {
+					for(int n : clusterNodes[ks]) {
+						int d = localDist[local(ks, nodeCell[n])];
+						if(d != -1) {
+							relax(u, n, gu + d, goalX, goalY);
+						}
+					}
+					continue;
+				}
+				//the distances within a cluster are already the shortest, so only a node that was
+				//reached from across a border has anything to gain from its cluster's other nodes
+				int[] edges = intra[u];
+				int p = absParent[u];
+				if(p != s && nodeCluster[p] != nodeCluster[u]) {
+					for(int i = 0; i < intraLen[u]; i += 2) {
+						relax(u, edges[i], gu + edges[i + 1], goalX, goalY);
+					}
+				}
+				edges = inter[u];
+				for(int i = 0; i < interLen[u]; i += 2) {
+					relax(u, edges[i], gu + edges[i + 1], goalX, goalY);
+				}
+				if(goalStamp[u] == generation) {
+					relax(u, g, gu + goalCost[u], goalX, goalY);
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Checks if the last local search, of cluster k, reached a node of the given component.
+		 */
+		private boolean reaches(int k, int component) {
+			for(int n : clusterNodes[k]) {
+				if(localDist[local(k, nodeCell[n])] != -1) {
+					return nodeComponent[n] == component;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * See HierarchicalPathfinder.refine(int, int).
+		 */
+		private int[] refine(int a, int b) {
+			if(a == b) {
+				return new int[] {a};
+			}
+			if(manhattan(a, b) == 1) {
+				return new int[] {a, b};
+			}
+			int k = clusterOf(a);
+			if(k != clusterOf(b)) {
+				return null;
+			}
+			localSearch(k, a);
+			int d = localDist[local(k, b)];
+			if(d == -1) {
+				return null;
+			}
+			int[] path = new int[d + 1];
+			int cell = b;
+			for(int i = d; i > 0; i--) {
+				path[i] = cell;
+				cell = localParent[local(k, cell)];
+			}
+			path[0] = a;
+			return path;
+		}
+
+		/**
+		 * Follows the parent of each node back from the goal to list the waypoints.
+		 */
+		private int[] buildWaypoints(int start, int goal, int s, int g) {
+			int count = 0;
+			for(int u = absParent[g]; u != s; u = absParent[u]) {
+				count++;
+			}
+			int[] waypoints = new int[count + 2];
+			waypoints[count + 1] = goal;
+			int i = count;
+			for(int u = absParent[g]; u != s; u = absParent[u]) {
+				waypoints[i--] = nodeCell[u];
+			}
+			waypoints[0] = start;
+			return waypoints;
+		}
+
+		/**
+		 * Adds the given node to the open set, if this is the cheapest way of reaching it so far.
+		 * The goal is the only id past the last node, and is its own heuristic's zero.
+		 */
+		private void relax(int from, int to, int g, int goalX, int goalY) {
+			if(closed.get(to)) {
+				return;
+			}
+			if(absStamp[to] == generation && absG[to] <= g) {
+				return;
+			}
+			absParent[to] = from;
+			int h = to >= nodeCell.length ? 0 : Math.abs(nodeX[to] - goalX) + Math.abs(nodeY[to] - goalY);
+			open(to, g, g + h + h / HEURISTIC_SLACK);
+		}
+
+		/**
+		 * Readies the scratch arrays for a new abstract search.
+		 */
+		private void prepare() {
+			int ids = nodeCell.length + 2;
+			if(absG.length < ids) {
+				absG = new int[ids];
+				absParent = new int[ids];
+				absStamp = new int[ids];
+				goalCost = new int[ids];
+				goalStamp = new int[ids];
+				generation = 0;
+			}
+			generation++;
+			if(generation == 0) {
+				Arrays.fill(absStamp, 0);
+				Arrays.fill(goalStamp, 0);
+				generation = 1;
+			}
+			closed.clear();
+			heapSize = 0;
+			expanded = 0;
+		}
+
+		/**
+		 * Records the g-score of a node, and adds it to the open set with the given f-score.
+		 */
+		private void open(int node, int g, int f) {
+			absG[node] = g;
+			absStamp[node] = generation;
+			if(heapSize == heap.length) {
+				heap = Arrays.copyOf(heap, heapSize * 2);
+				heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+			}
+			long entry = ((long) f << 32) | (Integer.MAX_VALUE - g);
+			int i = heapSize++;
+			while(i > 0) {
+				int p = (i - 1) >>> 1;
+				if(heap[p] <= entry) {
+					break;
+				}
+				heap[i] = heap[p];
+				heapNode[i] = heapNode[p];
+				i = p;
+			}
+			heap[i] = entry;
+			heapNode[i] = node;
+		}
+
+		/**
+		 * Removes the entry with the lowest f-score from the open set.
+		 */
+		private int poll() {
+			int top = heapNode[0];
+			long last = heap[--heapSize];
+			int lastNode = heapNode[heapSize];
+			int i = 0;
+			int half = heapSize >>> 1;
+			while(i < half) {
+				int c = 2 * i + 1;
+				if(c + 1 < heapSize && heap[c + 1] < heap[c]) {
+					c++;
+				}
+				if(last <= heap[c]) {
+					break;
+				}
+				heap[i] = heap[c];
+				heapNode[i] = heapNode[c];
+				i = c;
+			}
+			if(heapSize > 0) {
+				heap[i] = last;
+				heapNode[i] = lastNode;
+			}
+			return top;
+		}
+
+		/**
+		 * Runs a breadth-first search from the given cell that stays inside cluster k, filling in
+		 * localDist and localParent. The queue holds local indices, so no cell is divided back into
+		 * its column and row.
+		 */
+		private void localSearch(int k, int from) {
+			int x0 = (k % clustersWide) * size;
+			int y0 = (k / clustersWide) * size;
+			int w = Math.min(width, x0 + size) - x0;
+			int h = Math.min(height, y0 + size) - y0;
+			int origin = x0 + y0 * width;
+			Arrays.fill(localDist, -1);
+			int head = 0;
+			int tail = 0;
+			int start = local(k, from);
+			localDist[start] = 0;
+			localQueue[tail++] = start;
+			while(head < tail) {
+				int l = localQueue[head++];
+				int lx = l % size;
+				int ly = l / size;
+				int cell = origin + lx + ly * width;
+				int d = localDist[l] + 1;
+				if(ly > 0) {
+					tail = visit(l - size, cell, cell - width, d, tail);
+				}
+				if(ly < h - 1) {
+					tail = visit(l + size, cell, cell + width, d, tail);
+				}
+				if(lx > 0) {
+					tail = visit(l - 1, cell, cell - 1, d, tail);
+				}
+				if(lx < w - 1) {
+					tail = visit(l + 1, cell, cell + 1, d, tail);
+				}
+			}
+		}
+
+		/**
+		 * Reaches the given cell in a local search, if it has not been reached and can be passed through.
+		 */
+		private int visit(int l, int from, int cell, int d, int tail) {
+			if(localDist[l] != -1 || !walkable(cell)) {
+				return tail;
+			}
+			localDist[l] = d;
+			localParent[l] = from;
+			localQueue[tail] = l;
+			return tail + 1;
+		}
+	}
+
+	//===================================================================
+	// Paths
+	//===================================================================
+
+	/**
+	 * A path found by a HierarchicalPathfinder, whose cells between waypoints are only found when
+	 * the previous waypoint is reached. An Actor that gives up on a path part of the way along never
+	 * pays for refining the rest of it.
+	 *
+	 * @author Michael Dasan 300130610
+	 */
+	public final class Path {
+
+		/**
+		 * The waypoints of the path, from start to goal.
+		 */
+		private final int[] waypoints;
+
+		/**
+		 * The waypoint the current segment begins at.
+		 */
+		private int segment = 0;
+
+		/**
+		 * The cells of the current segment, or null if it has not been refined.
+		 */
+		private int[] cells;
+
+		/**
+		 * The position within cells of the last cell returned.
+		 */
+		private int pos = 0;
+
+		private Path(int[] waypoints) {
+			this.waypoints = waypoints;
+		}
+
+		/**
+		 * Moves one cell along the path.
+		 *
+		 * @return The index of the next cell, or -1 if the goal has been reached or can no longer be reached.
+		 */
+		public int next() {
+			while(cells == null || pos == cells.length - 1) {
+				if(segment >= waypoints.length - 1) {
+					return -1;
+				}
+				cells = refine(waypoints[segment], waypoints[segment + 1]);
+				segment++;
+				pos = 0;
+				if(cells == null) {
+					segment = waypoints.length;
+					return -1;
+				}
+			}
+			return cells[++pos];
+		}
+
+		/**
+		 * @return The cell indices of the waypoints, from start to goal.
+		 */
+		public int[] getWaypoints() {
+			return waypoints.clone();
+		}
+	}
+
+}
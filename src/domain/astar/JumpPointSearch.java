@@ -0,0 +1,207 @@
+package domain.astar;
+
+import java.util.Arrays;
+
+import domain.game.Board;
+import domain.tiles.Tile;
+
+/**
+ * JumpPointSearch finds the same shortest paths as GridAStar, but on open areas of the Board it
+ * expands far fewer cells. Rather than adding every neighbour to the open set, it scans in a straight
+ * line from each cell and only stops at jump points - the goal, or cells where a Wall or Gate beside
+ * the line opens up a new way that could not have been reached as cheaply by another route. The
+ * many equally short paths across an open room are never explored one by one.
+ *
+ * <p>
+ * As Actors only move orthogonally, this is the four-connected form of Jump Point Search. A vertical
+ * scan also stops at any cell from which a horizontal scan finds a jump point, since paths can only
+ * turn at jump points.
+ * </p>
+ *
+ * <p>
+ * Searches share SearchContext with GridAStar, and are reentrant in the same way.
+ * </p>
+ *
+ * <p>
+ * This class is declared abstract to prevent creation of instances. All methods are static
+ * and should be accessed that way.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public abstract class JumpPointSearch {
+
+	//===================================================================
+	// Searching
+	//===================================================================
+
+	/**
+	 * Attempts to find a path of cells between start and goal that avoids Walls and Gates.
+	 *
+	 * @param board The Board to search.
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @return The cell indices of the path, where [0] is start and the last element is goal, or
+	 * 			null if there is no path.
+	 */
+	public static int[] search(Board board, int start, int goal) {
+		return search(board, start, goal, SearchContext.forCurrentThread());
+	}
+
+	/**
+	 * Performs the same search as search(Board, int, int), using the given SearchContext to hold the
+	 * search state. The context must not be in use by another thread.
+	 *
+	 * @param board The Board to search.
+	 * @param start The cell index to begin at.
+	 * @param goal The cell index to find a path to.
+	 * @param s The context to hold the state of this search.
+	 * @return The cell indices of the path, where [0] is start and the last element is goal, or
+	 * 			null if there is no path.
+	 */
+	public static int[] search(Board board, int start, int goal, SearchContext s) {
+		int width = board.getWidth();
+		s.prepare(width * board.getHeight());
+		s.parent[start] = start;
+		s.open(start, 0, heuristic(board, start, goal));
+		while(s.heapSize > 0) {
+			int curr = s.poll();
+			if(s.closed.get(curr)) {
+				continue; //stale heap entry, cell was already reached more cheaply
+			}
+			s.closed.set(curr);
+			s.expanded++;
+			if(curr == goal) {
+				return buildPath(board, s, start, goal);
+			}
+			int x = curr % width;
+			int y = curr / width;
+			int p = s.parent[curr];
+			int dx = Integer.signum(x - p % width);
+			int dy = Integer.signum(y - p / width);
+			if(dx == 0 && dy == 0) {
+				//the start cell has no direction, so scan every way
+				successor(board, s, curr, jumpVertical(board, x, y - 1, -1, goal), goal);
+				successor(board, s, curr, jumpVertical(board, x, y + 1, 1, goal), goal);
+				successor(board, s, curr, jumpHorizontal(board, x - 1, y, -1, goal), goal);
+				successor(board, s, curr, jumpHorizontal(board, x + 1, y, 1, goal), goal);
+			}else if(dx != 0) {
+				//a horizontal scan only stops where it can turn, so carry on and turn both ways
+				successor(board, s, curr, jumpHorizontal(board, x + dx, y, dx, goal), goal);
+				successor(board, s, curr, jumpVertical(board, x, y - 1, -1, goal), goal);
+				successor(board, s, curr, jumpVertical(board, x, y + 1, 1, goal), goal);
+			}else {
+				successor(board, s, curr, jumpVertical(board, x, y + dy, dy, goal), goal);
+				successor(board, s, curr, jumpHorizontal(board, x - 1, y, -1, goal), goal);
+				successor(board, s, curr, jumpHorizontal(board, x + 1, y, 1, goal), goal);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the given jump point to the open set, if one was found, and this is the cheapest way of
+	 * reaching it so far. Jump points are always in a straight line from the cell they were found
+	 * from, so the cost between them is their Manhattan distance.
+	 */
+	private static void successor(Board board, SearchContext s, int from, int jump, int goal) {
+		if(jump == -1 || s.closed.get(jump)) {
+			return;
+		}
+		int g = s.g[from] + heuristic(board, from, jump);
+		if(s.reached(jump) && s.g[jump] <= g) {
+			return;
+		}
+		s.parent[jump] = from;
+		s.open(jump, g, g + heuristic(board, jump, goal));
+	}
+
+	/**
+	 * Scans horizontally from (x, y) in the direction dx, until a jump point is found or the scan
+	 * is blocked.
+	 *
+	 * @return The cell index of the jump point, or -1 if there is none.
+	 */
+	private static int jumpHorizontal(Board board, int x, int y, int dx, int goal) {
+		int width = board.getWidth();
+		while(walkable(board, x, y)) {
+			int cell = x + y * width;
+			if(cell == goal) {
+				return cell;
+			}
+			//a cell above or below is open, but the one behind it is not - it can only be reached through here
+			if((walkable(board, x, y - 1) && !walkable(board, x - dx, y - 1))
+					|| (walkable(board, x, y + 1) && !walkable(board, x - dx, y + 1))) {
+				return cell;
+			}
+			x += dx;
+		}
+		return -1;
+	}
+
+	/**
+	 * Scans vertically from (x, y) in the direction dy, until a jump point is found or the scan is
+	 * blocked. A cell is also a jump point if a horizontal scan from it finds one.
+	 *
+	 * @return The cell index of the jump point, or -1 if there is none.
+	 */
+	private static int jumpVertical(Board board, int x, int y, int dy, int goal) {
+		int width = board.getWidth();
+		while(walkable(board, x, y)) {
+			int cell = x + y * width;
+			if(cell == goal) {
+				return cell;
+			}
+			if((walkable(board, x - 1, y) && !walkable(board, x - 1, y - dy))
+					|| (walkable(board, x + 1, y) && !walkable(board, x + 1, y - dy))) {
+				return cell;
+			}
+			if(jumpHorizontal(board, x + 1, y, 1, goal) != -1 || jumpHorizontal(board, x - 1, y, -1, goal) != -1) {
+				return cell;
+			}
+			y += dy;
+		}
+		return -1;
+	}
+
+	/**
+	 * Follows the parents of each jump point back from goal, filling in the straight lines between
+	 * them to build the full path.
+	 */
+	private static int[] buildPath(Board board, SearchContext s, int start, int goal) {
+		int width = board.getWidth();
+		int[] path = new int[s.g[goal] + 1];
+		int i = path.length - 1;
+		int cell = goal;
+		while(cell != start) {
+			int p = s.parent[cell];
+			int step = Math.abs(cell - p) < width ? Integer.signum(p - cell) : Integer.signum(p - cell) * width;
+			for(int c = cell; c != p; c += step) {
+				path[i--] = c;
+			}
+			cell = p;
+		}
+		path[i] = start;
+		return i == 0 ? path : Arrays.copyOfRange(path, i, path.length);
+	}
+
+	/**
+	 * Checks if the cell at (x, y) is on the Board, and can be passed through.
+	 */
+	private static boolean walkable(Board board, int x, int y) {
+		if(x < 0 || y < 0 || x >= board.getWidth() || y >= board.getHeight()) {
+			return false;
+		}
+		Tile t = board.getTileAtIndex(x + y * board.getWidth());
+		return t != null && !t.blocksVision();
+	}
+
+	/**
+	 * The Manhattan distance between two cells.
+	 */
+	private static int heuristic(Board board, int a, int b) {
+		int width = board.getWidth();
+		return Math.abs(a % width - b % width) + Math.abs(a / width - b / width);
+	}
+
+}
@@ -0,0 +1,339 @@
+package domain.astar;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import domain.game.Board;
+import domain.game.Position;
+import domain.tiles.Tile;
+
+/**
+ * A PathCache remembers the paths found between pairs of cells on one Board, so that repeated requests
+ * for the same path do not have to search again. Entries are keyed by their start and goal cells, and
+ * record the layout version they were found under - an entry found before a Gate was opened is never
+ * returned after it. When the cache is full, the least recently used entry is evicted.
+ *
+ * <p>
+ * If there is no entry for a request, but there is one for the same start and a goal one Tile away,
+ * that path is repaired rather than searching again. See repair(ArrayDeque, Tile). As each repair
+ * can add a detour, a path is only repaired MAX_REPAIRS times in a row before a new search is made.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class PathCache {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * How many paths a cache holds if no capacity is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * How many repairs a cached path can be built from before a new search is made instead. Each
+	 * repair can make a path up to two steps longer than the shortest one.
+	 */
+	public static final int MAX_REPAIRS = 4;
+
+	/**
+	 * The Board the cached paths are on.
+	 */
+	private final Board board;
+
+	/**
+	 * The cached paths, in order from least to most recently used.
+	 */
+	private final LinkedHashMap<Long, Entry> entries;
+
+	/**
+	 * The number of requests answered straight from the cache.
+	 */
+	private final AtomicLong hits = new AtomicLong();
+
+	/**
+	 * The number of requests answered by repairing a cached path.
+	 */
+	private final AtomicLong repairs = new AtomicLong();
+
+	/**
+	 * The number of requests that needed a new search.
+	 */
+	private final AtomicLong misses = new AtomicLong();
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty PathCache for the given Board, holding up to DEFAULT_CAPACITY paths.
+	 *
+	 * @param board The Board the cached paths will be on.
+	 */
+	public PathCache(Board board) {
+		this(board, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty PathCache for the given Board.
+	 *
+	 * @param board The Board the cached paths will be on.
+	 * @param capacity The greatest number of paths to hold at once.
+	 */
+	public PathCache(Board board, int capacity) {
+		this.board = board;
+		this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	//===================================================================
+	// Path controls
+	//===================================================================
+
+	/**
+	 * Finds a path of Tiles between start and goal that avoids Walls and Gates, using a cached path
+	 * if there is one for the given layout version.
+	 *
+	 * @param start
+	 * @param goal
+	 * @param version The current layout version of the Board. See Level.getTopologyVersion().
+	 * @return A stack of Tiles from start to goal, in the same form as AStarSearch.pathfind.
+	 * @throws NoPathFoundException If there is no path from start to goal.
+	 */
+	public ArrayDeque<Tile> find(Position start, Position goal, int version) throws NoPathFoundException {
+		int s = board.indexOf(start);
+		int g = board.indexOf(goal);
+		synchronized(entries) {
+			Entry e = lookup(s, g, version);
+			if(e != null) {
+				hits.incrementAndGet();
+				return toTiles(e.cells);
+			}
+			e = repairNearby(s, g, version);
+			if(e != null) {
+				repairs.incrementAndGet();
+				entries.put(key(s, g), e);
+				return toTiles(e.cells);
+			}
+		}
+		misses.incrementAndGet();
+		int[] cells = GridAStar.search(board, s, g, false);
+		if(cells == null) {
+			throw new NoPathFoundException("No path found.");
+		}
+		synchronized(entries) {
+			entries.put(key(s, g), new Entry(cells, version, 0));
+		}
+		return toTiles(cells);
+	}
+
+	/**
+	 * Finds the cached path between two cells, if it was found under the given version.
+	 */
+	private Entry lookup(int s, int g, int version) {
+		Long k = key(s, g);
+		Entry e = entries.get(k);
+		if(e == null) {
+			return null;
+		}
+		if(e.version != version) {
+			entries.remove(k); //the layout has changed, this path can never be used again
+			return null;
+		}
+		return e;
+	}
+
+	/**
+	 * Looks for a cached path from s to a cell next to g that has not been repaired too often, and
+	 * repairs it to end at g.
+	 */
+	private Entry repairNearby(int s, int g, int version) {
+		Tile goal = board.getTileAtIndex(g);
+		if(goal == null || goal.blocksVision()) {
+			return null;
+		}
+		int width = board.getWidth();
+		int x = g % width;
+		int y = g / width;
+		int[] near = new int[4];
+		int n = 0;
+		if(y > 0) {
+			near[n++] = g - width;
+		}
+		if(y < board.getHeight() - 1) {
+			near[n++] = g + width;
+		}
+		if(x > 0) {
+			near[n++] = g - 1;
+		}
+		if(x < width - 1) {
+			near[n++] = g + 1;
+		}
+		for(int i = 0; i < n; i++) {
+			Entry e = lookup(s, near[i], version);
+			if(e != null && e.repairs < MAX_REPAIRS) {
+				return new Entry(repair(e.cells, g), version, e.repairs + 1);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Repairs a path of cells whose last cell is next to newGoal, so that it ends at newGoal instead.
+	 * If the path already passes through newGoal, it is cut short there. Otherwise newGoal is added
+	 * to the end.
+	 */
+	private static int[] repair(int[] cells, int newGoal) {
+		for(int i = cells.length - 1; i >= 0; i--) {
+			if(cells[i] == newGoal) {
+				return Arrays.copyOf(cells, i + 1);
+			}
+		}
+		int[] extended = Arrays.copyOf(cells, cells.length + 1);
+		extended[cells.length] = newGoal;
+		return extended;
+	}
+
+	/**
+	 * Repairs a path that led to a target which has since moved onto newGoal, instead of searching
+	 * again. If the path already passes through newGoal, everything after it is removed. Otherwise,
+	 * if newGoal is next to the end of the path and can be entered, it is added to the end.
+	 *
+	 * <p>
+	 * Each repair can make the path at most two steps longer than the shortest one, so it is only
+	 * suited to a target that moves one Tile at a time, such as Chap.
+	 * </p>
+	 *
+	 * @param path The path to repair, modified in place.
+	 * @param newGoal The Tile the path should now lead to.
+	 * @return True if the path was repaired. If false, the path is unchanged and a new search is needed.
+	 */
+	public static boolean repair(ArrayDeque<Tile> path, Tile newGoal) {
+		if(path.isEmpty() || newGoal.blocksVision()) {
+			return false;
+		}
+		Iterator<Tile> it = path.descendingIterator();
+		int fromEnd = 0;
+		while(it.hasNext()) {
+			if(it.next() == newGoal) {
+				for(int i = 0; i < fromEnd; i++) {
+					path.pollLast();
+				}
+				return true;
+			}
+			fromEnd++;
+		}
+		Position last = path.peekLast().getPosition();
+		Position next = newGoal.getPosition();
+		if(Math.abs(last.getX() - next.getX()) + Math.abs(last.getY() - next.getY()) != 1) {
+			return false;
+		}
+		path.addLast(newGoal);
+		return true;
+	}
+
+	/**
+	 * Converts a path of cell indices into a stack of Tiles.
+	 */
+	private ArrayDeque<Tile> toTiles(int[] cells) {
+		ArrayDeque<Tile> path = new ArrayDeque<Tile>(cells.length);
+		for(int cell : cells) {
+			path.addLast(board.getTileAtIndex(cell));
+		}
+		return path;
+	}
+
+	/**
+	 * Packs a start and goal cell into a single key.
+	 */
+	private static Long key(int s, int g) {
+		return ((long) s << 32) | (g & 0xffffffffL);
+	}
+
+	/**
+	 * Removes every cached path.
+	 */
+	public void clear() {
+		synchronized(entries) {
+			entries.clear();
+		}
+	}
+
+	//===================================================================
+	// Statistics
+	//===================================================================
+
+	/**
+	 * @return The number of requests answered straight from the cache.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of requests answered by repairing a cached path to a nearby goal.
+	 */
+	public long getRepairs() {
+		return repairs.get();
+	}
+
+	/**
+	 * @return The number of requests that needed a new search.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The number of paths currently cached.
+	 */
+	public int size() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	//===================================================================
+	// Entries
+	//===================================================================
+
+	/**
+	 * A cached path, the layout version it was found under, and how many repairs it is from a search.
+	 */
+	private static final class Entry {
+
+		/**
+		 * The cell indices of the path, from start to goal.
+		 */
+		final int[] cells;
+
+		/**
+		 * The layout version the path was found under.
+		 */
+		final int version;
+
+		/**
+		 * The number of repairs made since the path was last searched for.
+		 */
+		final int repairs;
+
+		Entry(int[] cells, int version, int repairs) {
+			this.cells = cells;
+			this.version = version;
+			this.repairs = repairs;
+		}
+	}
+
+}
@@ -0,0 +1,208 @@
+package domain.astar;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A SearchContext holds all of the state of a single GridAStar search - the g-scores, the parent of
+ * each cell, the closed set and the open set. Keeping this state out of the Tiles means any number
+ * of searches can run on the same Board at the same time, as long as each uses its own context.
+ *
+ * <p>
+ * A context may be reused for any number of searches, but by only one thread at a time. Callers
+ * that do not want to manage contexts themselves can use forCurrentThread(), which hands out one
+ * context per thread.
+ * </p>
+ *
+ * <p>
+ * Rather than clearing its arrays before each search, every search is given a new generation
+ * number, and a cell's g-score and parent are only considered valid if the stamp for that cell
+ * matches the current generation.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public final class SearchContext {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The context belonging to each thread, used when a search is not given a context.
+	 */
+	private static final ThreadLocal<SearchContext> POOL = ThreadLocal.withInitial(SearchContext::new);
+
+	/**
+	 * The cheapest known distance from the start to each cell.
+	 */
+	int[] g = new int[0];
+
+	/**
+	 * The cell each cell was reached from.
+	 */
+	int[] parent = new int[0];
+
+	/**
+	 * The generation in which g and parent were last written for each cell.
+	 */
+	int[] stamp = new int[0];
+
+	/**
+	 * The current search's generation.
+	 */
+	int generation = 0;
+
+	/**
+	 * The cells that have been expanded in the current search.
+	 */
+	final BitSet closed = new BitSet();
+
+	/**
+	 * The open set, as a binary min-heap. Each entry holds the f-score in the upper 32 bits
+	 * and the cell index in the lower 32 bits, so entries order by f-score.
+	 */
+	long[] heap = new long[64];
+
+	/**
+	 * The number of entries in the heap.
+	 */
+	int heapSize = 0;
+	
+	/**
+	 * The number of cells expanded by the most recent search.
+	 */
+	int expanded = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a new, empty SearchContext. Its arrays are sized on first use.
+	 */
+	public SearchContext() {}
+
+	/**
+	 * @return The SearchContext belonging to the calling thread.
+	 */
+	public static SearchContext forCurrentThread() {
+		return POOL.get();
+	}
+
+	//===================================================================
+	// Search controls
+	//===================================================================
+
+	/**
+	 * Readies the arrays for a new search over a Board with the given number of cells.
+	 *
+	 * @param size The number of cells in the Board being searched.
+	 */
+	void prepare(int size) {
+		if(stamp.length < size) {
+			g = new int[size];
+			parent = new int[size];
+			stamp = new int[size];
+			generation = 0;
+		}
+		generation++;
+		if(generation == 0) {
+			//generation has wrapped around, old stamps could be mistaken for current ones
+			Arrays.fill(stamp, 0);
+			generation = 1;
+		}
+		closed.clear();
+		heapSize = 0;
+		expanded = 0;
+	}
+	
+	/**
+	 * @return The number of cells expanded by the most recent search in this context.
+	 */
+	public int getExpanded() {
+		return expanded;
+	}
+
+	/**
+	 * Checks if the given cell has been reached in the current search.
+	 *
+	 * @param cell The cell index to check.
+	 * @return True if the g-score of cell is valid for this search.
+	 */
+	boolean reached(int cell) {
+		return stamp[cell] == generation;
+	}
+
+	/**
+	 * Records the g-score of the given cell, and adds it to the open set with the given f-score.
+	 *
+	 * @param cell The cell index being opened.
+	 * @param gScore The distance from the start to cell.
+	 * @param f The estimated length of a path through cell.
+	 */
+	void open(int cell, int gScore, int f) {
+		g[cell] = gScore;
+		stamp[cell] = generation;
+		if(heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+		}
+		long entry = ((long) f << 32) | cell;
+		int i = heapSize++;
+		while(i > 0) {
+			int p = (i - 1) >>> 1;
+			if(heap[p] <= entry) {
+				break;
+			}
+			heap[i] = heap[p];
+			i = p;
+		}
+		heap[i] = entry;
+	}
+
+	/**
+	 * Removes the entry with the lowest f-score from the open set.
+	 *
+	 * @return The cell index of that entry.
+	 */
+	int poll() {
+		long top = heap[0];
+		long last = heap[--heapSize];
+		int i = 0;
+		int half = heapSize >>> 1;
+		while(i < half) {
+			int c = 2 * i + 1;
+			if(c + 1 < heapSize && heap[c + 1] < heap[c]) {
+				c++;
+			}
+			if(last <= heap[c]) {
+				break;
+			}
+			heap[i] = heap[c];
+			i = c;
+		}
+		if(heapSize > 0) {
+			heap[i] = last;
+		}
+		return (int) top;
+	}
+
+	/**
+	 * Follows the parent of each cell back from goal to build the path.
+	 *
+	 * @param goal The cell the search ended at.
+	 * @return The cell indices of the path, where the last element is goal.
+	 */
+	int[] buildPath(int goal) {
+		int length = g[goal] + 1;
+		int[] path = new int[length];
+		int cell = goal;
+		for(int i = length - 1; i > 0; i--) {
+			path[i] = cell;
+			cell = parent[cell];
+		}
+		path[0] = cell;
+		return path;
+	}
+
+}
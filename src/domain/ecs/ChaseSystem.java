@@ -0,0 +1,313 @@
+package domain.ecs;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import domain.actors.Actor;
+import domain.actors.BugEnemy;
+import domain.actors.BugEnemy.ChaseStrategy;
+import domain.actors.BugEnemy.State;
+import domain.actors.Chap;
+import domain.astar.AStarSearch;
+import domain.astar.DStarLite;
+import domain.astar.NoPathFoundException;
+import domain.astar.PathCache;
+import domain.game.Level;
+import domain.game.Position;
+import domain.tiles.Tile;
+
+/**
+ * ChaseSystem moves each enemy one step, according to its AI. A searching enemy waits until it can
+ * see Chap, then tracks him until it reaches him, steals a Treasure if he has one, and returns home.
+ * An enemy that loses sight of Chap, or strays too far from home, returns home too. An enemy that
+ * gets home with a Treasure drops it and leaves the maze.
+ *
+ * <p>
+ * The path each enemy is following, and the DStarLite planner of each enemy using the INCREMENTAL
+ * ChaseStrategy, are kept here rather than in a component, as they are not ints.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class ChaseSystem implements EntitySystem {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * Every State, indexed by ordinal.
+	 */
+	private static final State[] STATES = State.values();
+
+	/**
+	 * The Tiles each enemy is moving along, indexed by id. Null if it has no path.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ArrayDeque<Tile>[] paths = new ArrayDeque[16];
+
+	/**
+	 * The planner of each enemy using the INCREMENTAL ChaseStrategy, indexed by id.
+	 */
+	private DStarLite[] planners = new DStarLite[16];
+
+	//===================================================================
+	// EntitySystem methods
+	//===================================================================
+
+	@Override
+	public Set<Component> reads() {
+		return EnumSet.of(Component.SIGHT, Component.GATE);
+	}
+
+	@Override
+	public Set<Component> writes() {
+		return EnumSet.of(Component.POSITION, Component.DIRECTION, Component.AI, Component.INVENTORY, Component.ITEM);
+	}
+
+	@Override
+	public void update(World world) {
+		ComponentStore ai = world.getStore(Component.AI);
+		for(int slot = 0; slot < ai.size(); slot++) {
+			step(world, ai.entityAt(slot));
+		}
+	}
+
+	//===================================================================
+	// Movement controls
+	//===================================================================
+
+	/**
+	 * Moves a single enemy one step. Its SIGHT must be up to date.
+	 *
+	 * @param world The World holding the enemy.
+	 * @param entity The id of the enemy.
+	 */
+	void step(World world, int entity) {
+		State state = STATES[world.get(entity, Component.AI, Component.STATE)];
+		if(state == State.RETURNING) {
+			returnMove(world, entity);
+		}else if(state == State.SEARCHING) {
+			if(world.get(entity, Component.SIGHT, Component.SEES) != 0) {
+				track(world, entity);
+			}
+		}else if(state == State.TRACKING) {
+			trackMove(world, entity);
+		}
+	}
+
+	/**
+	 * Used when the enemy is returning to its home.
+	 */
+	private void returnMove(World world, int entity) {
+		ArrayDeque<Tile> path = getPath(entity);
+		if(path == null || path.peek() == null) {
+			path = pathTo(world, entity, getHome(world, entity));
+			if(path == null) {
+				// This shouldn't be able to happen.
+				throw new IllegalStateException("BugEnemy unable to return home.");
+			}
+			setPath(entity, path);
+		}
+		//move to next tile in path if able
+		if(path.peek() != null && world.getLevel().getActorAt(path.peek()) == null) {
+			world.moveEnemy(entity, path.poll());
+		}
+		//if at home, drop treasure and disappear (if carrying treasure)
+		if(world.getCell(entity) == world.get(entity, Component.AI, Component.HOME)) {
+			if(world.get(entity, Component.AI, Component.CARRYING) != 0) {
+				world.dropTreasure(getTile(world, entity));
+				world.removeEnemy(entity);
+				return;
+			}
+			//otherwise, begin searching
+			setState(world, entity, State.SEARCHING);
+		}else if(world.canSeeChap(entity)) {
+			//not at home, but Chap is visible
+			track(world, entity);
+		}
+	}
+
+	/**
+	 * Used when the enemy has located Chap, and is moving to steal a Treasure.
+	 */
+	private void trackMove(World world, int entity) {
+		Tile next = nextStepToChap(world, entity);
+		if(next == null) {
+			//No way through to Chap
+			returnHome(world, entity);
+			return;
+		}
+		Actor occupant = world.getLevel().getActorAt(next);
+		if(occupant instanceof Chap) {
+			//Next to Chap, steal treasure
+			int chap = world.getChap();
+			if(world.get(chap, Component.INVENTORY, Component.TREASURES) > 0) {
+				world.addToInventory(chap, Component.TREASURES, -1);
+				setAI(world, entity, Component.CARRYING, 1);
+			}
+			returnHome(world, entity);
+			return;
+		}
+		//move along path
+		if(occupant == null) {
+			world.moveEnemy(entity, next);
+			ArrayDeque<Tile> path = getPath(entity);
+			if(path != null && path.peek() == next) {
+				path.poll();
+			}
+		}
+		Position pos = getTile(world, entity).getPosition();
+		int vision = world.get(entity, Component.AI, Component.VISION);
+		if(AStarSearch.getDistBetween(pos, getHome(world, entity)) >= vision * 1.5) {
+			//Next step out of range, return home instead
+			returnHome(world, entity);
+			return;
+		}
+		//check if have lost sight of chap
+		if(!world.canSeeChap(entity)) {
+			returnHome(world, entity);
+		}
+	}
+
+	/**
+	 * Finds the next Tile to move onto to get closer to Chap, using the current ChaseStrategy.
+	 *
+	 * @return The next Tile toward Chap, or null if Chap cannot be reached.
+	 */
+	private Tile nextStepToChap(World world, int entity) {
+		Level level = world.getLevel();
+		Tile from = getTile(world, entity);
+		Tile chap = world.getPlayer().getTile();
+		ChaseStrategy strategy = BugEnemy.getChaseStrategy();
+		if(strategy == ChaseStrategy.FLOW_FIELD) {
+			return level.getChaseField().nextStep(from);
+		}
+		if(strategy == ChaseStrategy.INCREMENTAL) {
+			if(entity >= planners.length) {
+				planners = Arrays.copyOf(planners, Math.max(entity + 1, planners.length * 2));
+			}
+			if(planners[entity] == null || planners[entity].getBoard() != level.getBoard()) {
+				planners[entity] = new DStarLite(level.getBoard());
+			}
+			DStarLite planner = planners[entity];
+			return planner.nextStep(from, chap, level.getTopologyVersion(), level.getChangesSince(planner.getVersion()));
+		}
+		ArrayDeque<Tile> path = getPath(entity);
+		if(path == null || path.peek() == null) {
+			path = pathTo(world, entity, chap.getPosition());
+		}else if(path.peekLast() != chap && !PathCache.repair(path, chap)) {
+			//Chap has moved further than the path can be repaired for, search again
+			path = pathTo(world, entity, chap.getPosition());
+		}
+		setPath(entity, path);
+		return path == null ? null : path.peek();
+	}
+
+	/**
+	 * Tells the enemy to begin tracking Chap. The route to Chap is found when it next moves.
+	 */
+	private void track(World world, int entity) {
+		setPath(entity, null);
+		setState(world, entity, State.TRACKING);
+	}
+
+	/**
+	 * Tells the enemy to begin returning to its home Tile.
+	 */
+	private void returnHome(World world, int entity) {
+		ArrayDeque<Tile> path = pathTo(world, entity, getHome(world, entity));
+		if(path == null) {
+			// This shouldn't be able to happen.
+			throw new IllegalStateException("BugEnemy unable to pathfind home.");
+		}
+		setPath(entity, path);
+		setState(world, entity, State.RETURNING);
+	}
+
+	/**
+	 * Finds a path from the enemy to the given Position, avoiding Walls and Gates. Paths are shared
+	 * through the Level's PathCache, so trips that have been made before are not searched again.
+	 *
+	 * @return A stack of Tiles leading to target, not including the Tile the enemy is in, or null if
+	 * 			there is no path.
+	 */
+	private ArrayDeque<Tile> pathTo(World world, int entity, Position target) {
+		try {
+			Level level = world.getLevel();
+			ArrayDeque<Tile> p = level.getPathCache().find(getTile(world, entity).getPosition(), target, level.getTopologyVersion());
+			p.poll(); //first Tile is the one the enemy is already in
+			return p;
+		} catch (NoPathFoundException e) {
+			return null;
+		}
+	}
+
+	//===================================================================
+	// Getters and setters
+	//===================================================================
+
+	/**
+	 * Discards the path and planner of an entity that has left the World.
+	 *
+	 * @param entity The id of the entity.
+	 */
+	void forget(int entity) {
+		if(entity >= 0 && entity < paths.length) {
+			paths[entity] = null;
+		}
+		if(entity >= 0 && entity < planners.length) {
+			planners[entity] = null;
+		}
+	}
+
+	/**
+	 * @param entity The id of an enemy.
+	 * @return The path the enemy is moving along, as a stack of Tiles, or null if it has none.
+	 */
+	public ArrayDeque<Tile> getPath(int entity) {
+		return entity >= 0 && entity < paths.length ? paths[entity] : null;
+	}
+
+	/**
+	 * Sets the path the enemy is moving along.
+	 */
+	private void setPath(int entity, ArrayDeque<Tile> path) {
+		if(entity >= paths.length) {
+			paths = Arrays.copyOf(paths, Math.max(entity + 1, paths.length * 2));
+		}
+		paths[entity] = path;
+	}
+
+	/**
+	 * Sets the State of the enemy's AI.
+	 */
+	private static void setState(World world, int entity, State state) {
+		setAI(world, entity, Component.STATE, state.ordinal());
+	}
+
+	/**
+	 * Sets a column of the enemy's AI.
+	 */
+	private static void setAI(World world, int entity, int column, int value) {
+		ComponentStore ai = world.getStore(Component.AI);
+		ai.set(ai.slotOf(entity), column, value);
+	}
+
+	/**
+	 * @return The Position of the enemy's home.
+	 */
+	private static Position getHome(World world, int entity) {
+		return world.getBoard().positionOfIndex(world.get(entity, Component.AI, Component.HOME));
+	}
+
+	/**
+	 * @return The Tile the enemy is in.
+	 */
+	private static Tile getTile(World world, int entity) {
+		return world.getBoard().getTileAtIndex(world.getCell(entity));
+	}
+
+}
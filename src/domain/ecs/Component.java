@@ -0,0 +1,137 @@
+package domain.ecs;
+
+import domain.game.GameObject.Colour;
+
+/**
+ * The kinds of component an entity can have. Each component is a fixed number of int columns,
+ * held by a ComponentStore, and the constants below name the column each value is kept in.
+ *
+ * @author Michael Dasan 300130610
+ */
+public enum Component {
+
+	/**
+	 * The cell an entity is in, as a cell index of the Board.
+	 */
+	POSITION(1),
+
+	/**
+	 * The Direction an Actor is facing, as Direction.ordinal().
+	 */
+	DIRECTION(1),
+
+	/**
+	 * The Direction an Actor is trying to move in this tick, as Direction.ordinal(). Removed once
+	 * the move has been made.
+	 */
+	MOVE(1),
+
+	/**
+	 * The state of an enemy's AI - what it is doing, where its home is, whether it is carrying a
+	 * Treasure and how far it can see.
+	 */
+	AI(4),
+
+	/**
+	 * Whether an enemy can see Chap, worked out at the start of each enemy move.
+	 */
+	SIGHT(1),
+
+	/**
+	 * The Treasures and keys of each Colour an entity holds.
+	 */
+	INVENTORY(1 + Colour.values().length),
+
+	/**
+	 * What Item an entity is, as a BoardSnapshot item code.
+	 */
+	ITEM(1),
+
+	/**
+	 * What Gate an entity is, as a BoardSnapshot gate code, and what it takes to open.
+	 */
+	GATE(2);
+
+	//===================================================================
+	// Columns
+	//===================================================================
+
+	/**
+	 * Column of POSITION holding the cell index.
+	 */
+	public static final int CELL = 0;
+
+	/**
+	 * Column of DIRECTION and MOVE holding the Direction.
+	 */
+	public static final int FACING = 0;
+
+	/**
+	 * Column of AI holding BugEnemy.State.ordinal().
+	 */
+	public static final int STATE = 0;
+
+	/**
+	 * Column of AI holding the cell index of the enemy's home.
+	 */
+	public static final int HOME = 1;
+
+	/**
+	 * Column of AI holding 1 if the enemy is carrying a Treasure, otherwise 0.
+	 */
+	public static final int CARRYING = 2;
+
+	/**
+	 * Column of AI holding how many Tiles away the enemy can see.
+	 */
+	public static final int VISION = 3;
+
+	/**
+	 * Column of SIGHT holding 1 if the enemy can see Chap, otherwise 0.
+	 */
+	public static final int SEES = 0;
+
+	/**
+	 * Column of INVENTORY holding the number of Treasures.
+	 */
+	public static final int TREASURES = 0;
+
+	/**
+	 * First column of INVENTORY holding keys. Keys of Colour c are at KEYS + c.ordinal().
+	 */
+	public static final int KEYS = 1;
+
+	/**
+	 * Column of ITEM and GATE holding the item or gate code.
+	 */
+	public static final int CODE = 0;
+
+	/**
+	 * Column of GATE holding the Treasures needed to open a TreasureGate.
+	 */
+	public static final int NEEDED = 1;
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The number of int columns this component has.
+	 */
+	private final int columns;
+
+	/**
+	 * @param columns The number of int columns this component has.
+	 */
+	private Component(int columns) {
+		this.columns = columns;
+	}
+
+	/**
+	 * @return The number of int columns this component has.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+}
@@ -0,0 +1,212 @@
+package domain.ecs;
+
+import java.util.Arrays;
+
+/**
+ * A ComponentStore holds one Component for every entity that has it. The values are kept densely,
+ * one int array per column, with the entities packed at the front in no particular order, so a
+ * system working through every entity with the component reads each array from start to end.
+ *
+ * <p>
+ * A sparse array indexed by entity id gives the slot of each entity, so an entity's component can
+ * also be found, added and removed in constant time. Removing an entity moves the last entity into
+ * its slot, so code removing entities while working through the store should work from the last
+ * slot down.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class ComponentStore {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The component held.
+	 */
+	private final Component component;
+
+	/**
+	 * The values of each column, indexed by slot.
+	 */
+	private final int[][] columns;
+
+	/**
+	 * The entity in each slot. Only the first size are used.
+	 */
+	private int[] entities;
+
+	/**
+	 * The slot of each entity, indexed by id, or -1 if it does not have the component.
+	 */
+	private int[] slots;
+
+	/**
+	 * The number of entities with the component.
+	 */
+	private int size = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty store of the given component.
+	 *
+	 * @param component The component held.
+	 */
+	public ComponentStore(Component component) {
+		this.component = component;
+		this.columns = new int[component.getColumns()][16];
+		this.entities = new int[16];
+		this.slots = new int[16];
+		Arrays.fill(slots, -1);
+	}
+
+	//===================================================================
+	// Entity controls
+	//===================================================================
+
+	/**
+	 * Gives the entity this component, with every column set to 0. Does nothing if it already has it.
+	 *
+	 * @param entity The id of the entity.
+	 * @return The slot of the entity.
+	 * @throws IllegalArgumentException If the id is negative.
+	 */
+	public int add(int entity) throws IllegalArgumentException {
+		if(entity < 0) {
+			throw new IllegalArgumentException("Error - id less than 0. (id: " + entity + ")");
+		}
+		if(entity >= slots.length) {
+			int length = slots.length;
+			slots = Arrays.copyOf(slots, Math.max(entity + 1, length * 2));
+			Arrays.fill(slots, length, slots.length, -1);
+		}
+		if(slots[entity] >= 0) {
+			return slots[entity];
+		}
+		if(size == entities.length) {
+			entities = Arrays.copyOf(entities, size * 2);
+			for(int c = 0; c < columns.length; c++) {
+				columns[c] = Arrays.copyOf(columns[c], size * 2);
+			}
+		}
+		int slot = size++;
+		entities[slot] = entity;
+		slots[entity] = slot;
+		for(int c = 0; c < columns.length; c++) {
+			columns[c][slot] = 0;
+		}
+		return slot;
+	}
+
+	/**
+	 * Takes this component away from the entity. The last entity is moved into its slot.
+	 *
+	 * @param entity The id of the entity.
+	 * @return True if the entity had the component.
+	 */
+	public boolean remove(int entity) {
+		int slot = slotOf(entity);
+		if(slot < 0) {
+			return false;
+		}
+		int last = --size;
+		if(slot != last) {
+			entities[slot] = entities[last];
+			slots[entities[slot]] = slot;
+			for(int c = 0; c < columns.length; c++) {
+				columns[c][slot] = columns[c][last];
+			}
+		}
+		slots[entity] = -1;
+		return true;
+	}
+
+	/**
+	 * Takes this component away from every entity.
+	 */
+	public void clear() {
+		for(int slot = 0; slot < size; slot++) {
+			slots[entities[slot]] = -1;
+		}
+		size = 0;
+	}
+
+	//===================================================================
+	// Getters and setters
+	//===================================================================
+
+	/**
+	 * @param entity The id of an entity.
+	 * @return The slot of that entity, or -1 if it does not have this component.
+	 */
+	public int slotOf(int entity) {
+		if(entity < 0 || entity >= slots.length) {
+			return -1;
+		}
+		return slots[entity];
+	}
+
+	/**
+	 * @param entity The id of an entity.
+	 * @return True if the entity has this component.
+	 */
+	public boolean has(int entity) {
+		return slotOf(entity) >= 0;
+	}
+
+	/**
+	 * @param slot A slot, from 0 to size() - 1.
+	 * @return The id of the entity in that slot.
+	 */
+	public int entityAt(int slot) {
+		return entities[slot];
+	}
+
+	/**
+	 * @param slot A slot, from 0 to size() - 1.
+	 * @param column A column of this component.
+	 * @return The value of that column for the entity in that slot.
+	 */
+	public int get(int slot, int column) {
+		return columns[column][slot];
+	}
+
+	/**
+	 * @param slot A slot, from 0 to size() - 1.
+	 * @param column A column of this component.
+	 * @param value The new value of that column for the entity in that slot.
+	 */
+	public void set(int slot, int column, int value) {
+		columns[column][slot] = value;
+	}
+
+	/**
+	 * Returns the values of a column, so a system can work through them directly. Only the first
+	 * size() are used, and the array is replaced when the store grows, so it should not be kept.
+	 *
+	 * @param column A column of this component.
+	 * @return The values of that column, indexed by slot.
+	 */
+	public int[] column(int column) {
+		return columns[column];
+	}
+
+	/**
+	 * @return The number of entities with this component.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The component held.
+	 */
+	public Component getComponent() {
+		return component;
+	}
+
+}
@@ -0,0 +1,282 @@
+package domain.ecs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import domain.actors.Actor;
+import domain.actors.BugEnemy;
+import domain.game.Board;
+import domain.game.Game;
+import domain.game.Game.Direction;
+import domain.game.GameObject;
+import domain.game.GameObject.Colour;
+import domain.game.Level;
+import domain.game.Player;
+import domain.gate.Gate;
+import domain.gate.KeyGate;
+import domain.gate.TreasureGate;
+import domain.item.Item;
+import domain.item.Key;
+import domain.item.Treasure;
+import domain.tiles.FreeTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class EcsTests {
+
+	@Test
+	void storeMovesLastEntityIntoRemovedSlot() {
+		ComponentStore store = new ComponentStore(Component.GATE);
+		for(int entity = 0; entity < 40; entity += 2) {
+			store.set(store.add(entity), Component.CODE, entity * 10);
+		}
+		assertEquals(20, store.size());
+		assertTrue(store.remove(4));
+		assertFalse(store.remove(4));
+		assertFalse(store.has(4));
+		//the last entity now sits where 4 was, and keeps its values
+		assertEquals(38, store.entityAt(2));
+		assertEquals(380, store.get(store.slotOf(38), Component.CODE));
+		assertEquals(19, store.size());
+		store.clear();
+		assertEquals(0, store.size());
+		assertFalse(store.has(38));
+		assertThrows(IllegalArgumentException.class, () -> store.add(-1));
+	}
+
+	@Test
+	void systemsThatDoNotConflictShareAStage() {
+		AtomicInteger runs = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		SystemScheduler scheduler = new SystemScheduler(executor);
+		scheduler.add(new Counter(EnumSet.of(Component.POSITION), EnumSet.of(Component.SIGHT), runs));
+		scheduler.add(new Counter(EnumSet.of(Component.POSITION), EnumSet.of(Component.ITEM), runs));
+		scheduler.add(new Counter(EnumSet.of(Component.SIGHT), EnumSet.of(Component.AI), runs));
+		List<List<EntitySystem>> stages = scheduler.getStages();
+		assertEquals(2, stages.size());
+		assertEquals(2, stages.get(0).size());
+		scheduler.run(null);
+		assertEquals(3, runs.get());
+
+		//a failure on another thread is passed on once the stage has finished
+		scheduler.add(new Counter(EnumSet.of(Component.GATE), EnumSet.of(Component.MOVE), null));
+		assertThrows(NullPointerException.class, () -> scheduler.run(null));
+		assertEquals(6, runs.get());
+		executor.shutdown();
+
+		//the game's own systems all depend on the one before
+		Board board = new Board(1, 1);
+		board.put(new FreeTile(0, 0));
+		World world = new World(new Level(0, 0, board), null);
+		assertEquals(3, world.getMoveSystems().getStages().size());
+		assertEquals(2, world.getEnemySystems().getStages().size());
+	}
+
+	@Test
+	void chapPicksUpItemsAndOpensGates() {
+		Board board = new Board(6, 1);
+		for(int x = 0; x < 6; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		new Key(board.getTileAt(1, 0), Colour.RED);
+		new KeyGate(board.getTileAt(2, 0), Colour.RED);
+		new Treasure(board.getTileAt(3, 0));
+		new TreasureGate(board.getTileAt(4, 0), 1);
+		Player player = new Player(board.getTileAt(0, 0));
+		Level level = new Level(0, 0, board);
+		new Game(level, player);
+		World world = level.getWorld();
+		assertEquals(2, world.getStore(Component.ITEM).size());
+		assertEquals(2, world.getStore(Component.GATE).size());
+
+		Game.queueMove(Direction.RIGHT);
+		Game.tick();
+		assertEquals(1, player.getNumberOfKeys(Colour.RED));
+		assertEquals(1, world.get(world.getChap(), Component.INVENTORY, Component.KEYS + Colour.RED.ordinal()));
+		assertNull(board.getTileAt(1, 0).getItem());
+
+		//the key is used up opening its Gate, and the Treasure opens the TreasureGate
+		for(int i = 0; i < 4; i++) {
+			Game.queueMove(Direction.RIGHT);
+		}
+		Game.tick();
+		assertEquals(board.positionOf(5, 0), player.getPosition());
+		assertEquals(5, world.getCell(world.getChap()));
+		assertEquals(0, player.getNumberOfKeys(Colour.RED));
+		assertEquals(1, player.getNumTreasures());
+		assertEquals(0, world.getStore(Component.ITEM).size());
+		assertEquals(0, world.getStore(Component.GATE).size());
+		assertFalse(board.getTileAt(4, 0).hasGate());
+		//Chap can walk back over the Tiles he has left
+		Game.queueMove(Direction.LEFT);
+		Game.tick();
+		assertEquals(board.positionOf(4, 0), player.getPosition());
+	}
+
+	@Test
+	void bugStealsTreasure() {
+		Board board = new Board(4, 1);
+		for(int x = 0; x < 4; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		BugEnemy bug = new BugEnemy(board.getTileAt(3, 0));
+		Player player = new Player(board.getTileAt(0, 0));
+		player.addTreasure();
+		Level level = new Level(0, 0, board);
+		new Game(level, player);
+		World world = level.getWorld();
+
+		//sees Chap, moves next to him over two moves, then steals
+		for(int i = 0; i < 4; i++) {
+			level.moveAllEnemies();
+		}
+		assertSame(board.getTileAt(1, 0), bug.getTile());
+		assertEquals(1, world.getCell(bug.getId()));
+		assertEquals(0, player.getNumTreasures());
+		assertEquals(0, world.get(world.getChap(), Component.INVENTORY, Component.TREASURES));
+		assertEquals(1, world.get(bug.getId(), Component.AI, Component.CARRYING));
+		assertEquals(BugEnemy.State.RETURNING.ordinal(), world.get(bug.getId(), Component.AI, Component.STATE));
+	}
+
+	@Test
+	void eachEnemyCastsItsOwnSightline() {
+		//bug, Chap, wall, bug in a row, with vision too short for the FieldOfView to answer
+		Board board = new Board(6, 1);
+		for(int x = 0; x < 6; x++) {
+			board.put(x == 3 ? new WallTile(x, 0) : new FreeTile(x, 0));
+		}
+		BugEnemy near = new BugEnemy(board.getTileAt(0, 0));
+		BugEnemy far = new BugEnemy(board.getTileAt(5, 0));
+		Player player = new Player(board.getTileAt(2, 0));
+		Level level = new Level(0, 0, board);
+		new Game(level, player);
+		World world = level.getWorld();
+		ComponentStore ai = world.getStore(Component.AI);
+		ai.set(ai.slotOf(near.getId()), Component.VISION, 3);
+		ai.set(ai.slotOf(far.getId()), Component.VISION, 3);
+
+		for(int i = 0; i < 2; i++) {
+			assertTrue(world.canSeeChap(near.getId()));
+			assertFalse(world.canSeeChap(far.getId()));
+		}
+		world.removeEntity(far.getId());
+		assertFalse(world.canSeeChap(far.getId()));
+		assertTrue(world.canSeeChap(near.getId()));
+	}
+
+	@Test
+	void removalsWaitForTheStageToFinish() {
+		Board board = new Board(3, 1);
+		for(int x = 0; x < 3; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		new Treasure(board.getTileAt(0, 0));
+		new TreasureGate(board.getTileAt(1, 0), 0);
+		Player player = new Player(board.getTileAt(0, 0));
+		Level level = new Level(0, 0, board);
+		new Game(level, player);
+		World world = level.getWorld();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		SystemScheduler scheduler = new SystemScheduler(executor);
+		//each reads the positions while the other system of its stage is taking things out of the maze
+		AtomicInteger checks = new AtomicInteger();
+		scheduler.add(new GateSystem());
+		scheduler.add(new PositionCheck(checks));
+		scheduler.add(new PickupSystem());
+		scheduler.add(new PositionCheck(checks));
+		assertEquals(2, scheduler.getStages().size());
+		assertEquals(2, scheduler.getStages().get(0).size());
+		assertEquals(2, scheduler.getStages().get(1).size());
+
+		ComponentStore moves = world.getStore(Component.MOVE);
+		moves.set(moves.add(world.getChap()), Component.FACING, Direction.RIGHT.ordinal());
+		scheduler.run(world);
+		executor.shutdown();
+		assertEquals(2, checks.get());
+		assertFalse(board.getTileAt(1, 0).hasGate());
+		assertNull(board.getTileAt(0, 0).getItem());
+		assertEquals(1, player.getNumTreasures());
+		assertEquals(0, world.getStore(Component.GATE).size());
+		assertEquals(0, world.getStore(Component.ITEM).size());
+		//Chap, and nothing else
+		assertEquals(1, world.getStore(Component.POSITION).size());
+	}
+
+	/**
+	 * A system that checks every entity with a POSITION is still where its GameObject is.
+	 */
+	private static class PositionCheck implements EntitySystem {
+
+		private final AtomicInteger checks;
+
+		PositionCheck(AtomicInteger checks) {
+			this.checks = checks;
+		}
+
+		@Override
+		public Set<Component> reads() {
+			return EnumSet.of(Component.POSITION);
+		}
+
+		@Override
+		public Set<Component> writes() {
+			return EnumSet.noneOf(Component.class);
+		}
+
+		@Override
+		public void update(World world) {
+			ComponentStore positions = world.getStore(Component.POSITION);
+			for(int slot = 0; slot < positions.size(); slot++) {
+				GameObject o = world.getObject(positions.entityAt(slot));
+				Tile t = o instanceof Actor ? ((Actor) o).getTile() : o instanceof Item ? ((Item) o).getTile() : ((Gate) o).getTile();
+				assertSame(world.getBoard().getTileAtIndex(positions.get(slot, Component.CELL)), t);
+			}
+			checks.incrementAndGet();
+		}
+
+	}
+
+	/**
+	 * A system that counts how many times it has run, and fails if it has nothing to count with.
+	 */
+	private static class Counter implements EntitySystem {
+
+		private final Set<Component> reads;
+		private final Set<Component> writes;
+		private final AtomicInteger runs;
+
+		Counter(Set<Component> reads, Set<Component> writes, AtomicInteger runs) {
+			this.reads = reads;
+			this.writes = writes;
+			this.runs = runs;
+		}
+
+		@Override
+		public Set<Component> reads() {
+			return reads;
+		}
+
+		@Override
+		public Set<Component> writes() {
+			return writes;
+		}
+
+		@Override
+		public void update(World world) {
+			runs.incrementAndGet();
+		}
+
+	}
+
+}
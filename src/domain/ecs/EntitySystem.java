@@ -0,0 +1,44 @@
+package domain.ecs;
+
+import java.util.Set;
+
+/**
+ * An EntitySystem is one rule of the game, applied to every entity with the components it works on.
+ * Each system declares which components it reads and which it writes, so a SystemScheduler knows
+ * which systems could be run at the same time. Only components are declared, so systems that also
+ * change GameObjects, as those of a World do, must be run on one thread.
+ *
+ * <p>
+ * A system may only change the components it declares it writes, and must not read components it
+ * has not declared. The layout of the maze counts as part of GATE, as opening a Gate changes it.
+ * </p>
+ *
+ * <p>
+ * Entities a system takes out of the maze, such as an Item picked up or a Gate opened, are only
+ * removed once every system of its stage has finished. Until then they keep all their components,
+ * so removing one never moves other entities about in a store another system is reading, and the
+ * Tiles and Level only change while no system is running.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public interface EntitySystem {
+
+	/**
+	 * @return The components this system reads but does not change.
+	 */
+	public Set<Component> reads();
+
+	/**
+	 * @return The components this system changes.
+	 */
+	public Set<Component> writes();
+
+	/**
+	 * Applies this system to every entity it works on.
+	 *
+	 * @param world The World holding the entities.
+	 */
+	public void update(World world);
+
+}
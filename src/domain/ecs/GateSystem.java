@@ -0,0 +1,70 @@
+package domain.ecs;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import domain.game.BoardSnapshot;
+
+/**
+ * GateSystem opens the Gate in the way of each entity trying to move, if it holds what the Gate
+ * needs - a key of the matching Colour, which is used up, for a KeyGate, or enough Treasures for a
+ * TreasureGate.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class GateSystem implements EntitySystem {
+
+	@Override
+	public Set<Component> reads() {
+		return EnumSet.of(Component.POSITION, Component.MOVE);
+	}
+
+	@Override
+	public Set<Component> writes() {
+		return EnumSet.of(Component.GATE, Component.INVENTORY);
+	}
+
+	@Override
+	public void update(World world) {
+		ComponentStore moves = world.getStore(Component.MOVE);
+		ComponentStore inventory = world.getStore(Component.INVENTORY);
+		for(int slot = 0; slot < moves.size(); slot++) {
+			int entity = moves.entityAt(slot);
+			int held = inventory.slotOf(entity);
+			if(held < 0) {
+				continue; //only entities carrying things can open Gates
+			}
+			int target = world.getBoard().getNeighbour(world.getCell(entity), World.DIRECTIONS[moves.get(slot, Component.FACING)]);
+			if(target >= 0) {
+				open(world, entity, held, target);
+			}
+		}
+	}
+
+	/**
+	 * Opens the Gate in the given cell, if there is one and the entity holds what it needs.
+	 */
+	private void open(World world, int entity, int held, int target) {
+		ComponentStore gates = world.getStore(Component.GATE);
+		ComponentStore positions = world.getStore(Component.POSITION);
+		ComponentStore inventory = world.getStore(Component.INVENTORY);
+		for(int slot = 0; slot < gates.size(); slot++) {
+			int gate = gates.entityAt(slot);
+			if(positions.get(positions.slotOf(gate), Component.CELL) != target) {
+				continue;
+			}
+			int code = gates.get(slot, Component.CODE);
+			if(World.isKeyGate(code)) {
+				int keys = Component.KEYS + code - BoardSnapshot.KEY_GATE;
+				if(inventory.get(held, keys) > 0) {
+					world.addToInventory(entity, keys, -1);
+					world.openGate(gate);
+				}
+			}else if(inventory.get(held, Component.TREASURES) >= gates.get(slot, Component.NEEDED)) {
+				world.openGate(gate);
+			}
+			return; //there is only one Gate to a Tile
+		}
+	}
+
+}
@@ -0,0 +1,66 @@
+package domain.ecs;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import domain.actors.Chap;
+import domain.game.Game.Direction;
+import domain.tiles.Tile;
+
+/**
+ * MovementSystem makes the move of each entity trying to move, then clears its MOVE. Only Chap is
+ * moved by the Player - he moves onto the next Tile if it is free, and the Tile is entered, which
+ * may send him on through a TeleportTile or end the Game at the exit. Enemies are moved by the
+ * ChaseSystem instead.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class MovementSystem implements EntitySystem {
+
+	@Override
+	public Set<Component> reads() {
+		return EnumSet.of(Component.GATE, Component.INVENTORY);
+	}
+
+	@Override
+	public Set<Component> writes() {
+		return EnumSet.of(Component.POSITION, Component.DIRECTION, Component.MOVE);
+	}
+
+	/**
+	 * @throws IllegalArgumentException If Chap is moving off the edge of the maze.
+	 * @throws IllegalStateException If Chap has entered a Tile he should not be able to.
+	 */
+	@Override
+	public void update(World world) throws IllegalArgumentException, IllegalStateException {
+		ComponentStore moves = world.getStore(Component.MOVE);
+		for(int slot = moves.size() - 1; slot >= 0; slot--) {
+			int entity = moves.entityAt(slot);
+			Direction d = World.DIRECTIONS[moves.get(slot, Component.FACING)];
+			moves.remove(entity);
+			if(entity == world.getChap()) {
+				moveChap(world, entity, d);
+			}
+		}
+	}
+
+	/**
+	 * Moves Chap one Tile in the given Direction, if the Tile is free.
+	 */
+	private void moveChap(World world, int entity, Direction d) {
+		int cell = world.getCell(entity);
+		int width = world.getBoard().getWidth();
+		Tile t = world.getLevel().getTileInDirection(cell % width, cell / width, d);
+		if(!t.canMoveOnto()) {
+			return;
+		}
+		try {
+			((Chap) world.getObject(entity)).move(t, d);
+			t.onEntry();
+		}finally {
+			//Chap may have been teleported on, or entered a Tile he should not have
+			world.refresh(entity);
+		}
+	}
+
+}
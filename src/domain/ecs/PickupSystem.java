@@ -0,0 +1,50 @@
+package domain.ecs;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import domain.game.BoardSnapshot;
+
+/**
+ * PickupSystem gives each entity that carries things the Item in the Tile it is in, taking the Item
+ * out of the maze.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class PickupSystem implements EntitySystem {
+
+	@Override
+	public Set<Component> reads() {
+		return EnumSet.of(Component.POSITION);
+	}
+
+	@Override
+	public Set<Component> writes() {
+		return EnumSet.of(Component.ITEM, Component.INVENTORY);
+	}
+
+	@Override
+	public void update(World world) {
+		ComponentStore inventory = world.getStore(Component.INVENTORY);
+		ComponentStore items = world.getStore(Component.ITEM);
+		ComponentStore positions = world.getStore(Component.POSITION);
+		for(int held = 0; held < inventory.size(); held++) {
+			int entity = inventory.entityAt(held);
+			int cell = world.getCell(entity);
+			for(int slot = 0; slot < items.size(); slot++) {
+				int item = items.entityAt(slot);
+				if(positions.get(positions.slotOf(item), Component.CELL) != cell) {
+					continue;
+				}
+				int code = items.get(slot, Component.CODE);
+				if(World.isKey(code)) {
+					world.addToInventory(entity, Component.KEYS + code - BoardSnapshot.KEY, 1);
+				}else {
+					world.addToInventory(entity, Component.TREASURES, 1);
+				}
+				world.removeItem(item);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,207 @@
+package domain.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A SystemScheduler runs a list of EntitySystems in the order they were added, running systems
+ * side by side where it is safe to. Systems are grouped into stages as they are added - a system
+ * joins the last stage unless it conflicts with a system already in it, in which case it starts a
+ * new one. Two systems conflict if either writes a component the other reads or writes.
+ *
+ * <p>
+ * Stages are run one after another. The systems in a stage are run at the same time on the
+ * ExecutorService, with the first run on the calling thread, and the stage ends once they have all
+ * finished. As no two systems in a stage touch the same component, the result is the same as
+ * running them one at a time. If there is no ExecutorService, every system is run on the calling
+ * thread.
+ * </p>
+ *
+ * <p>
+ * By default there is no ExecutorService. The components a system declares are not all it touches -
+ * the systems of a World also change the GameObjects, Tiles and Level behind them, which are not
+ * safe to change from several threads, and which the conflict check knows nothing about. An
+ * ExecutorService should only be given to a scheduler whose systems touch nothing but components.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class SystemScheduler {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The systems to run, grouped into stages that are run one after another.
+	 */
+	private final List<List<EntitySystem>> stages = new ArrayList<List<EntitySystem>>();
+
+	/**
+	 * What the systems of each stage are run on, or null to run everything on the calling thread.
+	 */
+	private ExecutorService executor;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty scheduler running every system on the calling thread.
+	 */
+	public SystemScheduler() {
+		this(null);
+	}
+
+	/**
+	 * Creates an empty scheduler running stages on the given ExecutorService.
+	 *
+	 * @param executor What to run the systems of each stage on, or null to run everything on the
+	 * 			calling thread. Only safe for systems that touch nothing but components.
+	 */
+	public SystemScheduler(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	//===================================================================
+	// Scheduling
+	//===================================================================
+
+	/**
+	 * Adds a system to be run after every system already added, or alongside those in the last
+	 * stage if it does not conflict with any of them.
+	 *
+	 * @param system The system to add.
+	 */
+	public void add(EntitySystem system) {
+		List<EntitySystem> last = stages.isEmpty() ? null : stages.get(stages.size() - 1);
+		if(last != null) {
+			boolean free = true;
+			for(EntitySystem other : last) {
+				if(conflicts(system, other)) {
+					free = false;
+					break;
+				}
+			}
+			if(free) {
+				last.add(system);
+				return;
+			}
+		}
+		List<EntitySystem> stage = new ArrayList<EntitySystem>();
+		stage.add(system);
+		stages.add(stage);
+	}
+
+	/**
+	 * Checks whether two systems may not be run at the same time.
+	 *
+	 * @param a A system.
+	 * @param b Another system.
+	 * @return True if either system writes a component the other reads or writes.
+	 */
+	public static boolean conflicts(EntitySystem a, EntitySystem b) {
+		for(Component c : a.writes()) {
+			if(b.reads().contains(c) || b.writes().contains(c)) {
+				return true;
+			}
+		}
+		for(Component c : b.writes()) {
+			if(a.reads().contains(c)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//===================================================================
+	// Running
+	//===================================================================
+
+	/**
+	 * Runs every system once, stage by stage. Anything the systems of a stage took out of the maze
+	 * is removed once the stage has finished, see World.endStage().
+	 *
+	 * @param world The World the systems are run on.
+	 * @throws RuntimeException Anything thrown by a system, once the rest of its stage has finished.
+	 */
+	public void run(World world) {
+		for(List<EntitySystem> stage : stages) {
+			if(stage.size() == 1 || executor == null) {
+				for(EntitySystem system : stage) {
+					system.update(world);
+				}
+				endStage(world);
+				continue;
+			}
+			List<Future<?>> running = new ArrayList<Future<?>>(stage.size() - 1);
+			for(int i = 1; i < stage.size(); i++) {
+				EntitySystem system = stage.get(i);
+				running.add(executor.submit(() -> system.update(world)));
+			}
+			RuntimeException failure = null;
+			try {
+				stage.get(0).update(world);
+			}catch(RuntimeException e) {
+				failure = e;
+			}
+			for(Future<?> f : running) {
+				try {
+					f.get();
+				}catch(ExecutionException e) {
+					if(e.getCause() instanceof Error) {
+						throw (Error) e.getCause();
+					}
+					if(failure == null) {
+						failure = e.getCause() instanceof RuntimeException
+								? (RuntimeException) e.getCause() : new IllegalStateException(e.getCause());
+					}
+				}catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while running systems.", e);
+				}
+			}
+			if(failure != null) {
+				throw failure;
+			}
+			endStage(world);
+		}
+	}
+
+	/**
+	 * Ends a stage of the given World, if there is one.
+	 */
+	private static void endStage(World world) {
+		if(world != null) {
+			world.endStage();
+		}
+	}
+
+	//===================================================================
+	// Getters and setters
+	//===================================================================
+
+	/**
+	 * @return The stages systems are run in, each a list of systems run at the same time.
+	 */
+	public List<List<EntitySystem>> getStages() {
+		List<List<EntitySystem>> copy = new ArrayList<List<EntitySystem>>(stages.size());
+		for(List<EntitySystem> stage : stages) {
+			copy.add(Collections.unmodifiableList(stage));
+		}
+		return Collections.unmodifiableList(copy);
+	}
+
+	/**
+	 * @param executor What to run the systems of each stage on, or null to run everything on the
+	 * 			calling thread. Only safe for systems that touch nothing but components.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+}
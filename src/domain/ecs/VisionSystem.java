@@ -0,0 +1,33 @@
+package domain.ecs;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * VisionSystem works out whether each enemy can see Chap at the start of its move, storing the
+ * answer in its SIGHT.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class VisionSystem implements EntitySystem {
+
+	@Override
+	public Set<Component> reads() {
+		//Gates block vision, and opening one changes what can be seen
+		return EnumSet.of(Component.POSITION, Component.AI, Component.GATE);
+	}
+
+	@Override
+	public Set<Component> writes() {
+		return EnumSet.of(Component.SIGHT);
+	}
+
+	@Override
+	public void update(World world) {
+		ComponentStore sight = world.getStore(Component.SIGHT);
+		for(int slot = 0; slot < sight.size(); slot++) {
+			sight.set(slot, Component.SEES, world.canSeeChap(sight.entityAt(slot)) ? 1 : 0);
+		}
+	}
+
+}
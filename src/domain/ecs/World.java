@@ -0,0 +1,533 @@
+package domain.ecs;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import domain.actors.Actor;
+import domain.actors.BugEnemy;
+import domain.game.Board;
+import domain.game.BoardSnapshot;
+import domain.game.Game.Direction;
+import domain.game.GameObject;
+import domain.game.GameObject.Colour;
+import domain.game.Level;
+import domain.game.Player;
+import domain.gate.Gate;
+import domain.gate.TreasureGate;
+import domain.item.Item;
+import domain.item.Treasure;
+import domain.tiles.Tile;
+import domain.vision.FieldOfView;
+import domain.vision.Sightline;
+
+/**
+ * A World holds the components of every entity in a Level, and runs the systems that move Chap and
+ * the enemies. Entities are the GameObjects registered with the Level, and share their ids - Chap,
+ * each BugEnemy, and each Key, Treasure, KeyGate and TreasureGate in the maze.
+ *
+ * <p>
+ * The GameObjects are still the source of truth - they are what the maze is made of, and what the
+ * Renderer and the snapshots read. The components are a mirror of the state the game rules need,
+ * kept in dense arrays so the systems can work through it without following references. Systems
+ * change the maze through the methods below rather than by hand, which change the GameObjects
+ * (through the Level, and for Tiles entered and Gates opened, through Game.getLevel() as before)
+ * and then bring the components back in step.
+ * </p>
+ *
+ * <p>
+ * A World is built by its Level when first asked for, and belongs to the simulation thread. Its
+ * systems are run there too, as they change the GameObjects and Tiles, which are not thread safe -
+ * their schedulers must not be given an ExecutorService.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class World {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * Every Direction, indexed by ordinal.
+	 */
+	static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Every Colour, indexed by ordinal.
+	 */
+	static final Colour[] COLOURS = Colour.values();
+
+	/**
+	 * The Level this World holds the entities of.
+	 */
+	private final Level level;
+
+	/**
+	 * The Player playing the Level, or null if there is none.
+	 */
+	private final Player player;
+
+	/**
+	 * The store of each Component, indexed by ordinal.
+	 */
+	private final ComponentStore[] stores = new ComponentStore[Component.values().length];
+
+	/**
+	 * The id of Chap, or GameObject.NO_ID if there is no Player.
+	 */
+	private final int chap;
+
+	/**
+	 * Casts rays to Chap for enemies whose vision differs from the radius of the Level's FieldOfView,
+	 * indexed by id. Each enemy has its own, as a Sightline only remembers the last check made with it.
+	 */
+	private Sightline[] sightlines = new Sightline[16];
+
+	/**
+	 * The Items, Gates and enemies taken out of the maze during the current stage, which are only
+	 * removed once the stage has finished. See endStage().
+	 */
+	private final Queue<GameObject> removals = new ConcurrentLinkedQueue<GameObject>();
+
+	/**
+	 * Moves the enemies, run by moveEnemy(int) for a single enemy.
+	 */
+	private final ChaseSystem chase = new ChaseSystem();
+
+	/**
+	 * The systems run each time Chap moves.
+	 */
+	private final SystemScheduler moveSystems = new SystemScheduler();
+
+	/**
+	 * The systems run each time the enemies move.
+	 */
+	private final SystemScheduler enemySystems = new SystemScheduler();
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a World holding every entity registered with the given Level.
+	 *
+	 * @param level The Level holding the entities.
+	 * @param player The Player playing the Level, or null if there is none.
+	 */
+	public World(Level level, Player player) {
+		this.level = level;
+		this.player = player;
+		for(Component c : Component.values()) {
+			stores[c.ordinal()] = new ComponentStore(c);
+		}
+		this.chap = player == null ? GameObject.NO_ID : level.register(player.getChap());
+		for(GameObject o : level.getEntities()) {
+			addEntity(o);
+		}
+		moveSystems.add(new GateSystem());
+		moveSystems.add(new MovementSystem());
+		moveSystems.add(new PickupSystem());
+		enemySystems.add(new VisionSystem());
+		enemySystems.add(chase);
+	}
+
+	//===================================================================
+	// Entity controls
+	//===================================================================
+
+	/**
+	 * Gives a GameObject registered with the Level the components of what it is. Chap, BugEnemys,
+	 * Items and Gates become entities, anything else is ignored, as is a GameObject that is already
+	 * an entity or not in the maze.
+	 *
+	 * @param o The GameObject.
+	 */
+	public void addEntity(GameObject o) {
+		int entity = o.getId();
+		if(entity == GameObject.NO_ID || getStore(Component.POSITION).has(entity)) {
+			return;
+		}
+		if(o instanceof Actor) {
+			Actor a = (Actor) o;
+			if(a.getTile() == null || (!(a instanceof BugEnemy) && entity != chap)) {
+				return;
+			}
+			getStore(Component.POSITION).add(entity);
+			getStore(Component.DIRECTION).add(entity);
+			refresh(entity);
+			if(entity == chap) {
+				syncInventory(getStore(Component.INVENTORY).add(entity));
+			}else {
+				BugEnemy bug = (BugEnemy) a;
+				ComponentStore ai = getStore(Component.AI);
+				int slot = ai.add(entity);
+				ai.set(slot, Component.STATE, BugEnemy.State.SEARCHING.ordinal());
+				ai.set(slot, Component.HOME, getBoard().indexOf(bug.getHome()));
+				ai.set(slot, Component.VISION, bug.getVision());
+				getStore(Component.SIGHT).add(entity);
+			}
+		}else if(o instanceof Item && ((Item) o).getTile() != null) {
+			Item i = (Item) o;
+			setComponent(entity, Component.POSITION, Component.CELL, getBoard().indexOf(i.getTile().getPosition()));
+			setComponent(entity, Component.ITEM, Component.CODE, BoardSnapshot.itemCode(i));
+		}else if(o instanceof Gate && ((Gate) o).getTile() != null) {
+			Gate g = (Gate) o;
+			setComponent(entity, Component.POSITION, Component.CELL, getBoard().indexOf(g.getTile().getPosition()));
+			setComponent(entity, Component.GATE, Component.CODE, BoardSnapshot.gateCode(g));
+			if(g instanceof TreasureGate) {
+				setComponent(entity, Component.GATE, Component.NEEDED, ((TreasureGate) g).getTreasuresNeeded());
+			}
+		}
+	}
+
+	/**
+	 * Takes every component away from an entity. Called by the Level when a GameObject is removed.
+	 *
+	 * @param entity The id of the entity.
+	 */
+	public void removeEntity(int entity) {
+		for(ComponentStore store : stores) {
+			store.remove(entity);
+		}
+		chase.forget(entity);
+		if(entity >= 0 && entity < sightlines.length) {
+			sightlines[entity] = null;
+		}
+	}
+
+	/**
+	 * Copies the Tile and Direction of an Actor into its POSITION and DIRECTION, after it has moved.
+	 *
+	 * @param entity The id of the Actor.
+	 */
+	void refresh(int entity) {
+		Actor a = (Actor) level.getEntity(entity);
+		Direction d = a.getDirection() == null ? Direction.RIGHT : a.getDirection();
+		setComponent(entity, Component.POSITION, Component.CELL, getBoard().indexOf(a.getTile().getPosition()));
+		setComponent(entity, Component.DIRECTION, Component.FACING, d.ordinal());
+	}
+
+	/**
+	 * Sets a column of a component of an entity, giving it the component if it does not have it.
+	 */
+	private void setComponent(int entity, Component c, int column, int value) {
+		ComponentStore store = getStore(c);
+		int slot = store.add(entity);
+		store.set(slot, column, value);
+	}
+
+	//===================================================================
+	// Maze controls
+	//===================================================================
+
+	/**
+	 * Changes the number of Treasures or keys an entity holds, by no less than it holds. Changes to
+	 * Chap's inventory are made to the Player, so the two always agree.
+	 *
+	 * @param entity The id of an entity with an INVENTORY.
+	 * @param column The column of INVENTORY to change, TREASURES or a column from KEYS on.
+	 * @param amount The number to add, or a negative number to take away.
+	 * @throws IllegalArgumentException If the entity has no INVENTORY.
+	 */
+	public void addToInventory(int entity, int column, int amount) throws IllegalArgumentException {
+		ComponentStore inventory = getStore(Component.INVENTORY);
+		int slot = inventory.slotOf(entity);
+		if(slot < 0) {
+			throw new IllegalArgumentException("Entity has no inventory. (id: " + entity + ")");
+		}
+		if(entity != chap) {
+			inventory.set(slot, column, Math.max(0, inventory.get(slot, column) + amount));
+			return;
+		}
+		for(int i = 0; i < Math.abs(amount); i++) {
+			if(column == Component.TREASURES) {
+				if(amount > 0) {
+					player.addTreasure();
+				}else {
+					player.takeTreasure();
+				}
+			}else if(amount > 0) {
+				player.addKey(COLOURS[column - Component.KEYS]);
+			}else {
+				player.removeKey(COLOURS[column - Component.KEYS]);
+			}
+		}
+		syncInventory(slot);
+	}
+
+	/**
+	 * Copies the Player's Treasures and keys into the given slot of INVENTORY.
+	 */
+	private void syncInventory(int slot) {
+		ComponentStore inventory = getStore(Component.INVENTORY);
+		inventory.set(slot, Component.TREASURES, player.getNumTreasures());
+		for(Colour c : COLOURS) {
+			inventory.set(slot, Component.KEYS + c.ordinal(), player.getNumberOfKeys(c));
+		}
+	}
+
+	/**
+	 * Takes an Item out of the maze once the current stage has finished.
+	 *
+	 * @param entity The id of the Item.
+	 */
+	public void removeItem(int entity) {
+		removals.add(level.getEntity(entity));
+	}
+
+	/**
+	 * Opens a Gate, taking it out of the maze once the current stage has finished.
+	 *
+	 * @param entity The id of the Gate.
+	 */
+	public void openGate(int entity) {
+		removals.add(level.getEntity(entity));
+	}
+
+	/**
+	 * Drops a new Treasure into the given Tile.
+	 *
+	 * @param t The Tile to drop it in.
+	 * @return The id of the Treasure.
+	 */
+	public int dropTreasure(Tile t) {
+		Treasure treasure = new Treasure(t);
+		int entity = level.register(treasure);
+		addEntity(treasure);
+		return entity;
+	}
+
+	/**
+	 * Moves an enemy into the given Tile, facing the way it moved.
+	 *
+	 * @param entity The id of the enemy.
+	 * @param t The Tile to move into.
+	 */
+	public void moveEnemy(int entity, Tile t) {
+		((BugEnemy) level.getEntity(entity)).moveTo(t);
+		refresh(entity);
+	}
+
+	/**
+	 * Takes an enemy out of the maze once the current stage has finished.
+	 *
+	 * @param entity The id of the enemy.
+	 */
+	public void removeEnemy(int entity) {
+		removals.add(level.getEntity(entity));
+	}
+
+	/**
+	 * Takes everything removed during the stage just run out of the maze. Called by the
+	 * SystemScheduler once every system of a stage has finished, so no system is reading a store
+	 * while removing an entity moves the others about in it, or the Tiles and Level while an opened
+	 * Gate changes what can be seen and passed through.
+	 */
+	void endStage() {
+		GameObject o;
+		while((o = removals.poll()) != null) {
+			if(level.getEntity(o.getId()) != o) {
+				continue; //removed twice in the one stage
+			}
+			if(o instanceof Item) {
+				((Item) o).destruct();
+				level.unregister(o);
+			}else if(o instanceof Gate) {
+				((Gate) o).destruct();
+				level.unregister(o);
+			}else if(o instanceof BugEnemy) {
+				level.removeEnemy((BugEnemy) o);
+				((BugEnemy) o).destruct();
+			}
+		}
+	}
+
+	//===================================================================
+	// Vision controls
+	//===================================================================
+
+	/**
+	 * Checks if an enemy can see Chap. This is a lookup in the Level's FieldOfView, unless
+	 * the enemy's vision differs from the radius it was computed for, in which case a ray is cast.
+	 *
+	 * @param entity The id of an entity with an AI.
+	 * @return True if Chap is within the enemy's vision and not blocked by a Wall or Gate.
+	 */
+	public boolean canSeeChap(int entity) {
+		ComponentStore ai = getStore(Component.AI);
+		int slot = ai.slotOf(entity);
+		if(slot < 0 || !getStore(Component.POSITION).has(chap)) {
+			return false;
+		}
+		int width = getBoard().getWidth();
+		int from = getCell(entity);
+		int to = getCell(chap);
+		int vision = ai.get(slot, Component.VISION);
+		FieldOfView fov = level.getFieldOfView();
+		if(fov.getRadius() == vision) {
+			return fov.isVisible(from % width, from / width, to % width, to / width);
+		}
+		return sightlineOf(entity).canSee(level.getOpacityMap(), from % width, from / width, to % width, to / width, vision);
+	}
+
+	/**
+	 * @return The Sightline of the given enemy, creating it if it does not have one yet.
+	 */
+	private Sightline sightlineOf(int entity) {
+		if(entity >= sightlines.length) {
+			sightlines = Arrays.copyOf(sightlines, Math.max(entity + 1, sightlines.length * 2));
+		}
+		if(sightlines[entity] == null) {
+			sightlines[entity] = new Sightline();
+		}
+		return sightlines[entity];
+	}
+
+	//===================================================================
+	// Running
+	//===================================================================
+
+	/**
+	 * Moves Chap one Tile in the given Direction, opening a Gate in the way if he can and picking
+	 * up whatever is in the Tile he ends up in.
+	 *
+	 * @param d The Direction to move in.
+	 * @throws IllegalArgumentException If there is no Tile in the given direction.
+	 * @throws IllegalStateException If Chap has entered a Tile he should not be able to.
+	 */
+	public void moveChap(Direction d) throws IllegalArgumentException, IllegalStateException {
+		if(chap == GameObject.NO_ID) {
+			throw new IllegalStateException("There is no Chap to move.");
+		}
+		setComponent(chap, Component.MOVE, Component.FACING, d.ordinal());
+		moveSystems.run(this);
+	}
+
+	/**
+	 * Moves every enemy once.
+	 */
+	public void moveEnemies() {
+		enemySystems.run(this);
+	}
+
+	/**
+	 * Moves a single enemy once, as moveEnemies() would.
+	 *
+	 * @param entity The id of the enemy.
+	 */
+	public void moveEnemy(int entity) {
+		ComponentStore sight = getStore(Component.SIGHT);
+		int slot = sight.slotOf(entity);
+		if(slot < 0) {
+			return;
+		}
+		sight.set(slot, Component.SEES, canSeeChap(entity) ? 1 : 0);
+		chase.step(this, entity);
+		endStage();
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @param c A Component.
+	 * @return The store holding that Component.
+	 */
+	public ComponentStore getStore(Component c) {
+		return stores[c.ordinal()];
+	}
+
+	/**
+	 * Returns the value of a column of a component of an entity.
+	 *
+	 * @param entity The id of the entity.
+	 * @param c The Component.
+	 * @param column A column of that Component.
+	 * @return The value of that column.
+	 * @throws IllegalArgumentException If the entity does not have the component.
+	 */
+	public int get(int entity, Component c, int column) throws IllegalArgumentException {
+		ComponentStore store = getStore(c);
+		int slot = store.slotOf(entity);
+		if(slot < 0) {
+			throw new IllegalArgumentException("Entity has no " + c + ". (id: " + entity + ")");
+		}
+		return store.get(slot, column);
+	}
+
+	/**
+	 * @param entity The id of an entity with a POSITION.
+	 * @return The cell index of the entity.
+	 */
+	public int getCell(int entity) {
+		return get(entity, Component.POSITION, Component.CELL);
+	}
+
+	/**
+	 * @param entity An id.
+	 * @return The GameObject with that id, or null if there is none.
+	 */
+	public GameObject getObject(int entity) {
+		return level.getEntity(entity);
+	}
+
+	/**
+	 * @return The id of Chap, or GameObject.NO_ID if there is no Player.
+	 */
+	public int getChap() {
+		return chap;
+	}
+
+	/**
+	 * @return The Player playing the Level, or null if there is none.
+	 */
+	public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * @return The Level this World holds the entities of.
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return The maze.
+	 */
+	public Board getBoard() {
+		return level.getBoard();
+	}
+
+	/**
+	 * @return The systems run each time Chap moves.
+	 */
+	public SystemScheduler getMoveSystems() {
+		return moveSystems;
+	}
+
+	/**
+	 * @return The systems run each time the enemies move.
+	 */
+	public SystemScheduler getEnemySystems() {
+		return enemySystems;
+	}
+
+	/**
+	 * @return True if the given gate code is a KeyGate's.
+	 */
+	static boolean isKeyGate(int code) {
+		return code >= BoardSnapshot.KEY_GATE;
+	}
+
+	/**
+	 * @return True if the given item code is a Key's.
+	 */
+	static boolean isKey(int code) {
+		return code >= BoardSnapshot.KEY;
+	}
+
+}
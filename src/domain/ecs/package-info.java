@@ -0,0 +1,11 @@
+/**
+ * The ecs package contains the entity-component-system runtime that updates the things moving about
+ * the maze. Chap, enemies, Items and Gates are entities, numbered by their Level. The GameObjects
+ * remain the model of the maze, and the state the game rules need is mirrored from them into dense
+ * component arrays. Each rule of the game is a system that works through those arrays in order.
+ * Systems that touch different components could be run at the same time, but as the systems of a
+ * World also change the GameObjects they are all run on the simulation thread.
+ * 
+ * @author Michael Dasan 300130610
+ */
+package domain.ecs;
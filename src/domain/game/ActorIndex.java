@@ -0,0 +1,236 @@
+package domain.game;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import domain.actors.Actor;
+
+/**
+ * An ActorIndex records where every Actor in a maze is, so Actors can be found by location without
+ * checking each one. It holds the Actor in each cell, for finding what is in a single cell, and
+ * a uniform grid of buckets, each covering BUCKET_SIZE by BUCKET_SIZE cells, for finding every Actor
+ * in a rectangle. A rectangle query only looks at the buckets it overlaps, so takes time in
+ * proportion to the number of Actors near the rectangle, rather than the number in the maze.
+ *
+ * <p>
+ * The index is kept up to date by the Level as Actors are added, move and are removed. It is not
+ * safe for use by more than one thread at a time - like the Actors themselves, it belongs to the
+ * simulation thread.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class ActorIndex {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The width and height, in cells, of each bucket.
+	 */
+	public static final int BUCKET_SIZE = 8;
+
+	/**
+	 * The width of the maze.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the maze.
+	 */
+	private final int height;
+
+	/**
+	 * The number of buckets across the maze.
+	 */
+	private final int bucketsAcross;
+
+	/**
+	 * The Actor in each cell, or null.
+	 */
+	private final Actor[] cells;
+
+	/**
+	 * The Actors in each bucket. Only the first bucketSizes[b] of bucket b are used.
+	 */
+	private final Actor[][] buckets;
+
+	/**
+	 * The cell each Actor in buckets is in.
+	 */
+	private final int[][] bucketCells;
+
+	/**
+	 * The number of Actors in each bucket.
+	 */
+	private final int[] bucketSizes;
+
+	/**
+	 * The number of Actors in the index.
+	 */
+	private int size = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty index for a maze of the given size.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 */
+	public ActorIndex(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.bucketsAcross = (width + BUCKET_SIZE - 1) / BUCKET_SIZE;
+		int bucketCount = bucketsAcross * ((height + BUCKET_SIZE - 1) / BUCKET_SIZE);
+		this.cells = new Actor[width * height];
+		this.buckets = new Actor[bucketCount][];
+		this.bucketCells = new int[bucketCount][];
+		this.bucketSizes = new int[bucketCount];
+	}
+
+	//===================================================================
+	// Updating
+	//===================================================================
+
+	/**
+	 * Adds an Actor to the index.
+	 *
+	 * @param a The Actor.
+	 * @param cell The cell index the Actor is in.
+	 */
+	public void add(Actor a, int cell) {
+		cells[cell] = a;
+		int b = bucketOf(cell);
+		int n = bucketSizes[b];
+		if(buckets[b] == null) {
+			buckets[b] = new Actor[4];
+			bucketCells[b] = new int[4];
+		}else if(n == buckets[b].length) {
+			buckets[b] = Arrays.copyOf(buckets[b], n * 2);
+			bucketCells[b] = Arrays.copyOf(bucketCells[b], n * 2);
+		}
+		buckets[b][n] = a;
+		bucketCells[b][n] = cell;
+		bucketSizes[b]++;
+		size++;
+	}
+
+	/**
+	 * Removes an Actor from the index. Does nothing if the Actor is not in the given cell.
+	 *
+	 * @param a The Actor.
+	 * @param cell The cell index the Actor is in.
+	 */
+	public void remove(Actor a, int cell) {
+		int b = bucketOf(cell);
+		int n = bucketSizes[b];
+		for(int i = 0; i < n; i++) {
+			if(buckets[b][i] == a) {
+				//fill the gap with the last Actor in the bucket
+				buckets[b][i] = buckets[b][n - 1];
+				bucketCells[b][i] = bucketCells[b][n - 1];
+				buckets[b][n - 1] = null;
+				bucketSizes[b]--;
+				size--;
+				if(cells[cell] == a) {
+					cells[cell] = null;
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Moves an Actor from one cell to another.
+	 *
+	 * @param a The Actor.
+	 * @param from The cell index the Actor was in.
+	 * @param to The cell index the Actor is now in.
+	 */
+	public void move(Actor a, int from, int to) {
+		if(from == to) {
+			return;
+		}
+		int b = bucketOf(from);
+		if(b != bucketOf(to)) {
+			remove(a, from);
+			add(a, to);
+			return;
+		}
+		//same bucket, so only the cell changes
+		for(int i = 0; i < bucketSizes[b]; i++) {
+			if(buckets[b][i] == a) {
+				bucketCells[b][i] = to;
+				if(cells[from] == a) {
+					cells[from] = null;
+				}
+				cells[to] = a;
+				return;
+			}
+		}
+	}
+
+	//===================================================================
+	// Queries
+	//===================================================================
+
+	/**
+	 * @param cell A cell index.
+	 * @return The Actor in that cell, or null if it is empty.
+	 */
+	public Actor getActorAt(int cell) {
+		return cells[cell];
+	}
+
+	/**
+	 * Finds every Actor within a rectangle of cells. The rectangle may extend past the edges of
+	 * the maze.
+	 *
+	 * @param minX The left edge of the rectangle.
+	 * @param minY The top edge of the rectangle.
+	 * @param maxX The right edge of the rectangle, inclusive.
+	 * @param maxY The bottom edge of the rectangle, inclusive.
+	 * @param out Where to add the Actors found.
+	 * @return The number of Actors found.
+	 */
+	public int query(int minX, int minY, int maxX, int maxY, Collection<? super Actor> out) {
+		minX = Math.max(minX, 0);
+		minY = Math.max(minY, 0);
+		maxX = Math.min(maxX, width - 1);
+		maxY = Math.min(maxY, height - 1);
+		int found = 0;
+		for(int by = minY / BUCKET_SIZE; by <= maxY / BUCKET_SIZE && maxX >= minX; by++) {
+			for(int bx = minX / BUCKET_SIZE; bx <= maxX / BUCKET_SIZE; bx++) {
+				int b = bx + by * bucketsAcross;
+				for(int i = 0; i < bucketSizes[b]; i++) {
+					int x = bucketCells[b][i] % width;
+					int y = bucketCells[b][i] / width;
+					if(x >= minX && x <= maxX && y >= minY && y <= maxY) {
+						out.add(buckets[b][i]);
+						found++;
+					}
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * @return The number of Actors in the index.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The bucket covering the given cell.
+	 */
+	private int bucketOf(int cell) {
+		return (cell % width) / BUCKET_SIZE + (cell / width) / BUCKET_SIZE * bucketsAcross;
+	}
+
+}
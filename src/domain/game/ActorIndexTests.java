@@ -0,0 +1,89 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import domain.actors.Actor;
+import domain.actors.Chap;
+import domain.game.Game.Direction;
+import domain.tiles.FreeTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class ActorIndexTests {
+
+	@Test
+	void rectangleQueriesMatchAScan() {
+		int width = 37, height = 21;
+		ActorIndex index = new ActorIndex(width, height);
+		Actor[] placed = new Actor[width * height];
+		Random random = new Random(18);
+		for(int i = 0; i < 60; i++) {
+			int cell = random.nextInt(width * height);
+			if(placed[cell] == null) {
+				placed[cell] = new Chap(new FreeTile(cell % width, cell / width));
+				index.add(placed[cell], cell);
+			}
+		}
+		//move some across bucket edges and some within their bucket, and remove a few
+		for(int i = 0; i < 40; i++) {
+			int from = random.nextInt(width * height);
+			int to = random.nextInt(width * height);
+			if(placed[from] == null || placed[to] != null) {
+				continue;
+			}
+			if(i % 5 == 0) {
+				index.remove(placed[from], from);
+			}else {
+				index.move(placed[from], from, to);
+				placed[to] = placed[from];
+			}
+			placed[from] = null;
+		}
+		Set<Actor> found = new HashSet<Actor>();
+		for(int q = 0; q < 50; q++) {
+			int minX = random.nextInt(width + 4) - 2, minY = random.nextInt(height + 4) - 2;
+			int maxX = minX + random.nextInt(12), maxY = minY + random.nextInt(12);
+			List<Actor> expected = new ArrayList<Actor>();
+			for(int cell = 0; cell < placed.length; cell++) {
+				int x = cell % width, y = cell / width;
+				if(placed[cell] != null && x >= minX && x <= maxX && y >= minY && y <= maxY) {
+					expected.add(placed[cell]);
+				}
+			}
+			found.clear();
+			assertEquals(expected.size(), index.query(minX, minY, maxX, maxY, found));
+			assertTrue(found.containsAll(expected));
+		}
+		for(int cell = 0; cell < placed.length; cell++) {
+			assertSame(placed[cell], index.getActorAt(cell));
+		}
+	}
+
+	@Test
+	void indexFollowsChap() {
+		Board board = new Board(3, 1);
+		for(int x = 0; x < 3; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(0, 0));
+		new Game(level, player);
+		assertSame(player.getChap(), level.getActorAt(board.getTileAt(0, 0)));
+
+		Game.queueMove(Direction.RIGHT);
+		Game.tick();
+		assertNull(level.getActorAt(board.getTileAt(0, 0)));
+		assertSame(player.getChap(), level.getActorAt(board.getTileAt(1, 0)));
+		assertEquals(1, level.getActorIndex().size());
+	}
+
+}
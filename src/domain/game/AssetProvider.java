@@ -0,0 +1,37 @@
+package domain.game;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * An AssetProvider supplies the images GameObjects are drawn with. GameObjects never load their
+ * images themselves - they ask the provider set with GameObject.setAssetProvider() the first time
+ * their image is needed, so a maze that is never drawn never loads an image.
+ *
+ * <p>
+ * Swapping in HEADLESS lets Levels be loaded and played with no image files and no image decoding,
+ * such as in tests and benchmarks.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public interface AssetProvider {
+
+	/**
+	 * Reads images from the data folder, decoding them every time. See SpriteCache.SHARED.
+	 */
+	public static final AssetProvider FILES = new FileAssetProvider("data/", ".png");
+
+	/**
+	 * Provides no images at all. Every GameObject's image is null.
+	 */
+	public static final AssetProvider HEADLESS = name -> null;
+
+	/**
+	 * Finds the image with the given name.
+	 *
+	 * @param name The name of the image, such as "wall" or "key_red", without a folder or file type.
+	 * @return The image, or null if there is no such image.
+	 */
+	public BufferedImage getImage(String name);
+
+}
@@ -0,0 +1,83 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import domain.game.Game.Direction;
+import domain.game.GameObject.Colour;
+import domain.gate.KeyGate;
+import domain.item.Key;
+import domain.tiles.FreeTile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class AssetTests {
+
+	/**
+	 * Puts back the provider in use before each test.
+	 */
+	private final AssetProvider previous = GameObject.getAssetProvider();
+
+	@AfterEach
+	void restoreProvider() {
+		GameObject.setAssetProvider(previous);
+	}
+
+	@Test
+	void levelsLoadWithoutImages() {
+		List<String> asked = new ArrayList<String>();
+		GameObject.setAssetProvider(name -> {
+			asked.add(name);
+			return null;
+		});
+		Board board = new Board(4, 1);
+		board.put(new FreeTile(0, 0));
+		board.put(new WallTile(1, 0));
+		board.put(new FreeTile(2, 0));
+		board.put(new FreeTile(3, 0));
+		new Key(board.getTileAt(2, 0), Colour.RED);
+		new KeyGate(board.getTileAt(3, 0), Colour.GREEN);
+		Player player = new Player(board.getTileAt(0, 0));
+		new Game(new Level(0, 0, board), player);
+		Game.queueMove(Direction.DOWN);
+		Game.tick();
+		assertTrue(asked.isEmpty(), "images were loaded: " + asked);
+		
+		//images are only asked for when something is drawn, by name
+		assertNull(board.getTileAt(2, 0).getImage());
+		assertNull(board.getTileAt(3, 0).getImage());
+		assertNull(player.getPlayerImage());
+		assertEquals(List.of("key_red", "lock_green", "player_right"), asked);
+	}
+
+	@Test
+	void spritesAreDecodedOnce() {
+		AtomicInteger decodes = new AtomicInteger();
+		SpriteCache cache = new SpriteCache(name -> {
+			decodes.incrementAndGet();
+			return name.equals("open_tile") ? new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB) : null;
+		});
+		GameObject.setAssetProvider(cache);
+		BufferedImage first = new FreeTile(0, 0).getImage();
+		assertNotNull(first);
+		for(int i = 1; i < 100; i++) {
+			assertSame(first, new FreeTile(i, 0).getImage());
+		}
+		//missing images are remembered too
+		assertNull(new WallTile(0, 1).getImage());
+		assertNull(new WallTile(1, 1).getImage());
+		assertEquals(2, decodes.get());
+		assertEquals(2, cache.getLoadCount());
+		assertEquals(2, cache.size());
+	}
+
+}
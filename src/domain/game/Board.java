@@ -1,14 +1,21 @@
 package domain.game;
 
 import java.util.HashSet;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import domain.game.Game.Direction;
 import domain.tiles.Tile;
 
 /**
- * Boards represent the maze of each level. The maze is stored as a 2d array of Tiles,
- * where [0, 0] is the top-left corner. Thus, width-1 refers to the right edge of the 
- * maze, and height-1 refers to the bottom of the maze.
+ * Boards represent the maze of each level. The maze is stored as an array of Tiles in row-major
+ * order, indexed by x + y * width, where (0, 0) is the top-left corner. Thus, width-1 refers to 
+ * the right edge of the maze, and height-1 refers to the bottom of the maze. Storing each row 
+ * together means scanning along a row reads neighbouring memory.
+ *
+ * <p>
+ * See PackedBoard for a more compact alternative, suited to very large mazes.
+ * </p>
  *
  * @author Michael Dasan 300130610
  */
@@ -30,9 +37,26 @@ public class Board {
 	
 	
 	/**
-	 * A 2d array of Tiles representing the maze.
+	 * The Tiles of the maze, indexed by x + y * width.
 	 */
-	private Tile[][] board;
+	private Tile[] tiles;
+	
+	/**
+	 * The change in cell index of a step in each Direction, indexed by Direction.ordinal().
+	 */
+	private final int[] offsets = new int[Direction.values().length];
+	
+	/**
+	 * The mask of Directions each cell has a neighbour in, indexed by x + y * width. See
+	 * getNeighbourMask(int).
+	 */
+	private final byte[] neighbourMasks;
+	
+	/**
+	 * The shared Position of each cell, indexed by x + y * width. Created the first time 
+	 * positionOf is called, filled in as cells are asked for, and updated whenever a Tile is put.
+	 */
+	private Position[] positions;
 	
 	//===================================================================
 	// Constructors
@@ -47,7 +71,30 @@ public class Board {
 	public Board(int width, int height) {
 		this.width 		= width;
 		this.height 	= height;
-		this.board 		= new Tile[width][height];
+		this.tiles 		= new Tile[width * height];
+		offsets[Direction.UP.ordinal()] 	= -width;
+		offsets[Direction.DOWN.ordinal()] 	= width;
+		offsets[Direction.LEFT.ordinal()] 	= -1;
+		offsets[Direction.RIGHT.ordinal()] 	= 1;
+		this.neighbourMasks = new byte[width * height];
+		for(int y = 0; y < height; y++) {
+			for(int x = 0; x < width; x++) {
+				int mask = 0;
+				if(y > 0) {
+					mask |= 1 << Direction.UP.ordinal();
+				}
+				if(y < height - 1) {
+					mask |= 1 << Direction.DOWN.ordinal();
+				}
+				if(x > 0) {
+					mask |= 1 << Direction.LEFT.ordinal();
+				}
+				if(x < width - 1) {
+					mask |= 1 << Direction.RIGHT.ordinal();
+				}
+				neighbourMasks[x + y * width] = (byte) mask;
+			}
+		}
 	}
 	
 	//===================================================================
@@ -62,8 +109,8 @@ public class Board {
 	public void put(Tile t) {
 		Position pos = t.getPosition();
 		if(checkPos(pos)) {
-			board[pos.getX()][pos.getY()] = t;
-			assert board[pos.getX()][pos.getY()].equals(t);
+			set(pos.getX() + pos.getY() * width, t);
+			assert tiles[pos.getX() + pos.getY() * width].equals(t);
 		}
 	}
 	
@@ -75,8 +122,8 @@ public class Board {
 	 */
 	public void put(Position pos, Tile t) {
 		if(checkPos(pos)) {
-			board[pos.getX()][pos.getY()] = t;
-			assert board[pos.getX()][pos.getY()].equals(t);
+			set(pos.getX() + pos.getY() * width, t);
+			assert tiles[pos.getX() + pos.getY() * width].equals(t);
 		}
 	}
 	
@@ -88,10 +135,21 @@ public class Board {
 	 * @param t
 	 */
 	public void put(int x, int y, Tile t) {
-		Position pos = new Position(x, y);
-		if(checkPos(pos)) {
-			board[pos.getX()][pos.getY()] = t;
-			assert board[pos.getX()][pos.getY()].equals(t);
+		set(indexOf(x, y), t);
+	}
+	
+	/**
+	 * Puts a Tile in a cell, and makes its Position the shared Position of that cell if positionOf
+	 * has been called. Emptying a cell clears its shared Position, which is created again when
+	 * next asked for.
+	 *
+	 * @param cell A cell index.
+	 * @param t The Tile, or null.
+	 */
+	private void set(int cell, Tile t) {
+		tiles[cell] = t;
+		if(positions != null) {
+			positions[cell] = t != null ? t.getPosition() : null;
 		}
 	}
 	
@@ -108,26 +166,121 @@ public class Board {
 	 */
 	public Tile getTileAt(Position pos) throws IllegalArgumentException {
 		if(checkPos(pos)) {
-			return board[pos.getX()][pos.getY()];
+			return tiles[pos.getX() + pos.getY() * width];
 		}
 		return null; //should be unreachable
 	}
 	
 	/**
-	 * Convenience method to smooth access to getTileAt(Position).
+	 * Convenience method to smooth access to getTileAt(Position). Creates no Positions.
 	 *
 	 * @param x
 	 * @param y
 	 * @return The Tile at Position(x, y)
+	 * @throws IllegalArgumentException From checkPos(int, int).
 	 */
-	public Tile getTileAt(int x, int y) {
-		Position pos = new Position(x, y);
-		return getTileAt(pos);
+	public Tile getTileAt(int x, int y) throws IllegalArgumentException {
+		return tiles[indexOf(x, y)];
 	}
 	
+	/**
+	 * Finds the Tile at a Position packed into a long by Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates.
+	 * @return The Tile at those coordinates.
+	 * @throws IllegalArgumentException From checkPos(int, int).
+	 */
+	public Tile getTileAt(long packed) throws IllegalArgumentException {
+		return getTileAt(Position.unpackX(packed), Position.unpackY(packed));
+	}
+	
+	/**
+	 * Finds the Tile at the given cell index, where index = x + y * width. Unlike getTileAt(Position),
+	 * this performs no bounds checking and creates no Positions, so it is intended for the search
+	 * code in domain.astar which works on cell indices rather than Positions.
+	 *
+	 * @param index The cell index of the Tile, between 0 and width * height - 1.
+	 * @return The Tile at that index. Can be null if the Board has not been fully populated.
+	 */
+	public Tile getTileAtIndex(int index) {
+		return tiles[index];
+	}
+
+	/**
+	 * Converts the given Position into a cell index, as used by getTileAtIndex(int).
+	 *
+	 * @param pos The Position to be converted.
+	 * @return The cell index of pos, equal to x + y * width.
+	 * @throws IllegalArgumentException From checkPos(Position).
+	 */
+	public int indexOf(Position pos) throws IllegalArgumentException {
+		checkPos(pos);
+		return pos.getX() + pos.getY() * width;
+	}
+	
+	/**
+	 * Converts the given coordinates into a cell index, as used by getTileAtIndex(int).
+	 *
+	 * @param x
+	 * @param y
+	 * @return The cell index of (x, y), equal to x + y * width.
+	 * @throws IllegalArgumentException From checkPos(int, int).
+	 */
+	public int indexOf(int x, int y) throws IllegalArgumentException {
+		checkPos(x, y);
+		return x + y * width;
+	}
+	
+	/**
+	 * Returns the shared Position of the given coordinates. Every call with the same coordinates 
+	 * returns the same instance until a Tile is put there, and it is always the Position of the 
+	 * Tile in that cell, if there is one, so code that only needs to name a cell never has to 
+	 * create a Position of its own.
+	 *
+	 * @param x
+	 * @param y
+	 * @return The Position of (x, y) on this Board.
+	 * @throws IllegalArgumentException From checkPos(int, int).
+	 */
+	public Position positionOf(int x, int y) throws IllegalArgumentException {
+		int cell = indexOf(x, y);
+		if(positions == null) {
+			positions = new Position[tiles.length];
+		}
+		Position pos = positions[cell];
+		if(pos == null) {
+			Tile t = tiles[cell];
+			pos = t != null ? t.getPosition() : new Position(x, y);
+			positions[cell] = pos;
+		}
+		return pos;
+	}
+	
+	/**
+	 * Returns the shared Position of coordinates packed into a long by Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates.
+	 * @return The Position of those coordinates on this Board.
+	 * @throws IllegalArgumentException From checkPos(int, int).
+	 */
+	public Position positionOf(long packed) throws IllegalArgumentException {
+		return positionOf(Position.unpackX(packed), Position.unpackY(packed));
+	}
+	
+	/**
+	 * Returns the shared Position of the given cell, see positionOf(int, int).
+	 *
+	 * @param cell A cell index.
+	 * @return The Position of that cell.
+	 */
+	public Position positionOfIndex(int cell) {
+		return positionOf(cell % width, cell / width);
+	}
+
 	/**
 	 * Attempts to find the next Tile over in a given Direction from a given Position. 
-	 * If there is no file in that Direction, throws an exception.
+	 * If there is no file in that Direction, throws an exception. Code that expects to reach the
+	 * edge of the maze should use getNeighbour(int, Direction) instead, which does not throw.
 	 *
 	 * @param pos The position to find from.
 	 * @param d The direction to look in.
@@ -135,58 +288,142 @@ public class Board {
 	 * @throws IllegalArgumentException If there is no tile in the given direction.
 	 */
 	public Tile getTileInDirection(Position pos, Direction d) throws IllegalArgumentException {
-		Tile t = null;
-		switch(d) {
-			case UP:
-				if(pos.getY() <= 0) {
-					throw new IllegalArgumentException("No tile above " + pos.toString());
-				}
-				t = getTileAt(new Position(pos.getX(), pos.getY() - 1));
-				assert t != null;
-				return t;
-			case DOWN:
-				if(pos.getY() >= height) {
-					throw new IllegalArgumentException("No tile below " + pos.toString());
-				}
-				t = getTileAt(new Position(pos.getX(), pos.getY() + 1));
-				assert t != null;
-				return t;
-			case LEFT:
-				if(pos.getX() <= 0) {
-					throw new IllegalArgumentException("No tile to left of " + pos.toString());
-				}
-				t = getTileAt(new Position(pos.getX() - 1, pos.getY()));
-				assert t != null;
-				return t;
-			case RIGHT:
-				if(pos.getX() >= width) {
-					throw new IllegalArgumentException("No tile to the right of " + pos.toString());
-				}
-				t = getTileAt(new Position(pos.getX() + 1, pos.getY()));
-				assert t != null;
-				return t;
-			default:
-				throw new IllegalArgumentException(d + " is not a valid direction."); //should never be reached
+		return getTileInDirection(pos.getX(), pos.getY(), d);
+	}
+	
+	/**
+	 * As getTileInDirection(Position, Direction), but from coordinates, so no Position is needed.
+	 *
+	 * @param x
+	 * @param y
+	 * @param d The direction to look in.
+	 * @return The next Tile over in the given direction if there is one.
+	 * @throws IllegalArgumentException If there is no tile in the given direction.
+	 */
+	public Tile getTileInDirection(int x, int y, Direction d) throws IllegalArgumentException {
+		int next = getNeighbour(indexOf(x, y), d);
+		if(next == -1) {
+			throw new IllegalArgumentException("No tile in direction " + d + " from X: " + x + ", Y: " + y);
 		}
+		Tile t = tiles[next];
+		assert t != null;
+		return t;
+	}
+	
+	/**
+	 * As getTileInDirection(Position, Direction), but from coordinates packed into a long by 
+	 * Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates.
+	 * @param d The direction to look in.
+	 * @return The next Tile over in the given direction if there is one.
+	 * @throws IllegalArgumentException If there is no tile in the given direction.
+	 */
+	public Tile getTileInDirection(long packed, Direction d) throws IllegalArgumentException {
+		return getTileInDirection(Position.unpackX(packed), Position.unpackY(packed), d);
 	}
 	
 	/**
 	 * Finds and returns each Tile that is orthogonally adjacent to the Tile at the 
-	 * given Position, as a HashSet.
+	 * given Position, as a HashSet. Allocates a new set each call - see forEachAdjacentTile for
+	 * a version that does not.
 	 *
 	 * @param pos 
 	 * @return A HashSet of Tiles orthogonally adjacent to the given one.
 	 */
 	public HashSet<Tile> getAdjacentTiles(Position pos) {
 		HashSet<Tile> adjacent = new HashSet<Tile>();
-		for(Direction d : Direction.values()) {
-			try {
-				adjacent.add(getTileInDirection(pos, d));
-			}catch (IllegalArgumentException e) {
-				//no Tile in direction, consume exception and move on
+		forEachAdjacentTile(pos, adjacent::add);
+		return adjacent;
+	}
+	
+	//===================================================================
+	// Neighbour controls
+	//===================================================================
+	
+	/**
+	 * @param d A Direction.
+	 * @return The change in cell index of a step in that Direction.
+	 */
+	public int getOffset(Direction d) {
+		return offsets[d.ordinal()];
+	}
+	
+	/**
+	 * Finds which Directions the given cell has a neighbour in, so neighbours can be visited with
+	 * cell + getOffset(d) without stepping off the edge of the maze. The masks are worked out once,
+	 * when the Board is created.
+	 *
+	 * @param cell A cell index.
+	 * @return A mask with bit d.ordinal() set for each Direction d that is inside the maze.
+	 */
+	public int getNeighbourMask(int cell) {
+		return neighbourMasks[cell];
+	}
+	
+	/**
+	 * Finds the neighbour of a cell in the given Direction.
+	 *
+	 * @param cell A cell index.
+	 * @param d The Direction to step in.
+	 * @return The cell index of the neighbour, or -1 if the step leaves the maze.
+	 */
+	public int getNeighbour(int cell, Direction d) {
+		if((neighbourMasks[cell] & 1 << d.ordinal()) == 0) {
+			return -1;
+		}
+		return cell + offsets[d.ordinal()];
+	}
+	
+	/**
+	 * Writes the cell index of each neighbour of a cell into an array, in Direction order.
+	 *
+	 * @param cell A cell index.
+	 * @param out An array with room for at least four cells.
+	 * @return The number of neighbours written, from 2 to 4 on a maze at least 2 cells across.
+	 */
+	public int getNeighbours(int cell, int[] out) {
+		int mask = getNeighbourMask(cell);
+		int count = 0;
+		for(int d = 0; d < offsets.length; d++) {
+			if((mask & 1 << d) != 0) {
+				out[count++] = cell + offsets[d];
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Passes the cell index of each neighbour of a cell to the given visitor, in Direction order.
+	 *
+	 * @param cell A cell index.
+	 * @param visitor What to do with each neighbour.
+	 */
+	public void forEachNeighbour(int cell, IntConsumer visitor) {
+		int mask = getNeighbourMask(cell);
+		for(int d = 0; d < offsets.length; d++) {
+			if((mask & 1 << d) != 0) {
+				visitor.accept(cell + offsets[d]);
+			}
+		}
+	}
+	
+	/**
+	 * Passes each Tile orthogonally adjacent to the Tile at the given Position to the visitor.
+	 * Missing Tiles are skipped.
+	 *
+	 * @param pos The Position to find from.
+	 * @param visitor What to do with each adjacent Tile.
+	 * @throws IllegalArgumentException From checkPos(Position).
+	 */
+	public void forEachAdjacentTile(Position pos, Consumer<Tile> visitor) throws IllegalArgumentException {
+		int cell = indexOf(pos);
+		int mask = getNeighbourMask(cell);
+		for(int d = 0; d < offsets.length; d++) {
+			if((mask & 1 << d) != 0 && tiles[cell + offsets[d]] != null) {
+				visitor.accept(tiles[cell + offsets[d]]);
 			}
 		}
-		return adjacent;
 	}
 	
 	//===================================================================
@@ -223,11 +460,29 @@ public class Board {
 		if(pos == null) {
 			throw new IllegalArgumentException("Position cannot be null.");
 		}
-		if(pos.getX() >= width) {
-			throw new IllegalArgumentException("Error - Position X value greater than board width. (X: " + pos.getX() + ", width: " + width + ")");
+		return checkPos(pos.getX(), pos.getY());
+	}
+	
+	/**
+	 * As checkPos(Position), but for bare coordinates, which unlike a Position may be negative.
+	 *
+	 * @param x
+	 * @param y
+	 * @return True if the coordinates are valid, otherwise throws an exception.
+	 * @throws IllegalArgumentException If the coordinates are out of bounds.
+	 */
+	private boolean checkPos(int x, int y) throws IllegalArgumentException {
+		if(x < 0) {
+			throw new IllegalArgumentException("Error - X value less than 0.");
+		}
+		if(y < 0) {
+			throw new IllegalArgumentException("Error - Y value less than 0.");
+		}
+		if(x >= width) {
+			throw new IllegalArgumentException("Error - Position X value greater than board width. (X: " + x + ", width: " + width + ")");
 		}
-		if(pos.getY() >= height) {
-			throw new IllegalArgumentException("Error - Position Y value greater than board width. (X: " + pos.getX() + ", width: " + width + ")");
+		if(y >= height) {
+			throw new IllegalArgumentException("Error - Position Y value greater than board width. (X: " + x + ", width: " + width + ")");
 		}
 		return true;
 	}
@@ -0,0 +1,439 @@
+package domain.game;
+
+import domain.actors.Actor;
+import domain.actors.BugEnemy;
+import domain.actors.NonPlayerActor;
+import domain.game.Game.Direction;
+import domain.game.GameObject.Colour;
+import domain.gate.Gate;
+import domain.gate.KeyGate;
+import domain.gate.TreasureGate;
+import domain.item.Item;
+import domain.item.Key;
+import domain.item.Treasure;
+import domain.tiles.ExitTile;
+import domain.tiles.FreeTile;
+import domain.tiles.HelpTile;
+import domain.tiles.TeleportTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * A BoardSnapshot is a compact copy of the maze taken at the end of a simulation tick. Rather than
+ * Tile objects, it holds one byte per cell for each layer - the type of Tile, the Item and Gate in
+ * it, and the Actor standing on it - indexed by x + y * width like the Board.
+ *
+ * <p>
+ * Each snapshot also holds the set of cells that changed during its tick, such as an Actor moving,
+ * an Item being picked up or a Gate being opened, and the tick each cell last changed at. A reader
+ * that skips snapshots can still find everything that changed since the last one it saw. Only the
+ * cells the Level reports as changed are copied into a snapshot, see SnapshotBuffer, so taking one
+ * costs in proportion to what changed rather than to the size of the maze.
+ * </p>
+ *
+ * <p>
+ * Snapshots are written by the simulation thread and handed to readers through a SnapshotBuffer.
+ * Once a snapshot has been handed to a reader it is never written to until the reader has moved on
+ * to a newer one, so to the reader it is immutable. The arrays are reused from tick to tick, so
+ * taking a snapshot allocates nothing.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public final class BoardSnapshot {
+
+	//===================================================================
+	// Codes
+	//===================================================================
+
+	/**
+	 * An empty cell in any layer, or a missing Tile.
+	 */
+	public static final byte NONE = 0;
+
+	/**
+	 * Tile codes of each type of Tile.
+	 */
+	public static final byte FREE = 1, WALL = 2, EXIT = 3, HELP = 4, TELEPORT = 5;
+
+	/**
+	 * Item code of a Treasure.
+	 */
+	public static final byte TREASURE = 1;
+
+	/**
+	 * Item code of a Key. Each Colour has its own code, KEY + Colour.ordinal().
+	 */
+	public static final byte KEY = 2;
+
+	/**
+	 * Gate code of a TreasureGate.
+	 */
+	public static final byte TREASURE_GATE = 1;
+
+	/**
+	 * Gate code of a KeyGate. Each Colour has its own code, KEY_GATE + Colour.ordinal().
+	 */
+	public static final byte KEY_GATE = 2;
+
+	/**
+	 * Actor kind of Chap. Actor codes hold the kind in their upper bits and the Direction the
+	 * Actor is facing in their lowest two, see actorKind(byte) and actorDirection(byte).
+	 */
+	public static final int CHAP = 1;
+
+	/**
+	 * Actor kind of a BugEnemy.
+	 */
+	public static final int BUG = 2;
+
+	/**
+	 * Every Colour, so codes can be turned back into Colours without allocating.
+	 */
+	private static final Colour[] COLOURS = Colour.values();
+
+	/**
+	 * Every Direction, so codes can be turned back into Directions without allocating.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The width of the maze.
+	 */
+	private final int width;
+
+	/**
+	 * The height of the maze.
+	 */
+	private final int height;
+
+	/**
+	 * The type of Tile in each cell.
+	 */
+	private final byte[] tiles;
+
+	/**
+	 * The Item in each cell.
+	 */
+	private final byte[] items;
+
+	/**
+	 * The Gate in each cell.
+	 */
+	private final byte[] gates;
+
+	/**
+	 * The Actor in each cell.
+	 */
+	private final byte[] actors;
+
+	/**
+	 * The tick each cell last changed at.
+	 */
+	private final long[] changedAt;
+
+	/**
+	 * The cells that changed during this snapshot's tick. Only the first changeCount are used.
+	 */
+	private final int[] changes;
+
+	/**
+	 * The number of cells that changed during this snapshot's tick.
+	 */
+	private int changeCount = 0;
+
+	/**
+	 * The cell Chap is in, or -1 if this snapshot has not been taken yet.
+	 */
+	private int chap = -1;
+
+	/**
+	 * The number of the tick this snapshot was taken at, or -1 if it has not been taken yet.
+	 */
+	private long tick = -1;
+
+	/**
+	 * The System.nanoTime() this snapshot was taken at.
+	 */
+	private long captureNanos;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty snapshot of a maze of the given size.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 */
+	BoardSnapshot(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.tiles = new byte[width * height];
+		this.items = new byte[width * height];
+		this.gates = new byte[width * height];
+		this.actors = new byte[width * height];
+		this.changedAt = new long[width * height];
+		this.changes = new int[width * height];
+	}
+
+	//===================================================================
+	// Capturing
+	//===================================================================
+
+	/**
+	 * Brings this snapshot up to date with the maze as it is now, and works out which cells have
+	 * changed since the previous snapshot. Only the given cells are copied from the maze and compared
+	 * against the previous snapshot, the rest being left as they were. Must only be called by the
+	 * simulation thread, on a snapshot no reader holds.
+	 *
+	 * @param level The Level being played.
+	 * @param player The Player playing it.
+	 * @param tick The number of the current tick.
+	 * @param previous The snapshot published before this one, or null if this is the first. It is
+	 * 			only read, so may be held by a reader at the same time.
+	 * @param cells Every cell that may have changed since this snapshot was last captured, including
+	 * 			every cell an Actor is in or has left, or null to copy every cell.
+	 * @param count The number of cells used in cells.
+	 * @param lastChanged The tick each cell last changed at, shared by every snapshot of the maze.
+	 * 			Updated for each cell found to have changed.
+	 */
+	void capture(Level level, Player player, long tick, BoardSnapshot previous, int[] cells, int count, 
+			long[] lastChanged) {
+		Board board = level.getBoard();
+		int n = cells == null ? tiles.length : count;
+		for(int i = 0; i < n; i++) {
+			copyCell(board, cells == null ? i : cells[i]);
+		}
+		//Tiles do not reliably forget Actors that have left them, so the Actors are placed directly
+		for(NonPlayerActor npa : level.getEnemies()) {
+			if(npa instanceof BugEnemy) {
+				Actor a = (Actor) npa;
+				actors[board.indexOf(a.getPosition())] = actorCode(BUG, a.getDirection());
+			}
+		}
+		chap = -1;
+		if(player != null) {
+			chap = board.indexOf(player.getPosition());
+			actors[chap] = actorCode(CHAP, player.getDirection());
+		}
+		this.tick = tick;
+		this.captureNanos = System.nanoTime();
+		changeCount = 0;
+		for(int i = 0; i < n; i++) {
+			int cell = cells == null ? i : cells[i];
+			if(previous == null || tiles[cell] != previous.tiles[cell] || items[cell] != previous.items[cell]
+					|| gates[cell] != previous.gates[cell] || actors[cell] != previous.actors[cell]) {
+				lastChanged[cell] = tick;
+				changes[changeCount++] = cell;
+			}
+			changedAt[cell] = lastChanged[cell];
+		}
+	}
+
+	/**
+	 * Copies the type of Tile, and the Item and Gate in it, from the given cell of the Board, and
+	 * empties the cell of Actors.
+	 */
+	private void copyCell(Board board, int cell) {
+		Tile t = board.getTileAtIndex(cell);
+		actors[cell] = NONE;
+		if(t == null) {
+			tiles[cell] = NONE;
+			items[cell] = NONE;
+			gates[cell] = NONE;
+			return;
+		}
+		tiles[cell] = tileCode(t);
+		items[cell] = itemCode(t.getItem());
+		gates[cell] = gateCode(t.getGate());
+	}
+
+	/**
+	 * @return The code of the type of the given Tile.
+	 */
+	static byte tileCode(Tile t) {
+		if(t instanceof FreeTile) {
+			return FREE;
+		}
+		if(t instanceof WallTile) {
+			return WALL;
+		}
+		if(t instanceof ExitTile) {
+			return EXIT;
+		}
+		if(t instanceof HelpTile) {
+			return HELP;
+		}
+		if(t instanceof TeleportTile) {
+			return TELEPORT;
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return The code of the given Item, or NONE if it is null.
+	 */
+	public static byte itemCode(Item i) {
+		if(i instanceof Treasure) {
+			return TREASURE;
+		}
+		if(i instanceof Key) {
+			return (byte) (KEY + ((Key) i).getColour().ordinal());
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return The code of the given Gate, or NONE if it is null.
+	 */
+	public static byte gateCode(Gate g) {
+		if(g instanceof TreasureGate) {
+			return TREASURE_GATE;
+		}
+		if(g instanceof KeyGate) {
+			return (byte) (KEY_GATE + ((KeyGate) g).getColour().ordinal());
+		}
+		return NONE;
+	}
+
+	/**
+	 * @return The code of an Actor of the given kind facing in the given Direction.
+	 */
+	private static byte actorCode(int kind, Direction d) {
+		return (byte) (kind << 2 | (d == null ? Direction.RIGHT : d).ordinal());
+	}
+
+	//===================================================================
+	// Decoding
+	//===================================================================
+
+	/**
+	 * @param code A Key or KeyGate code.
+	 * @return The Colour of the Key or KeyGate.
+	 */
+	public static Colour colourOf(byte code) {
+		return COLOURS[code - KEY];
+	}
+
+	/**
+	 * @param code An Actor code.
+	 * @return The kind of Actor, CHAP or BUG, or NONE if there is no Actor.
+	 */
+	public static int actorKind(byte code) {
+		return code >> 2;
+	}
+
+	/**
+	 * @param code An Actor code, other than NONE.
+	 * @return The Direction the Actor is facing.
+	 */
+	public static Direction actorDirection(byte code) {
+		return DIRECTIONS[code & 3];
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @param cell A cell index.
+	 * @return The code of the type of Tile in that cell.
+	 */
+	public byte getTile(int cell) {
+		return tiles[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The code of the Item in that cell, or NONE.
+	 */
+	public byte getItem(int cell) {
+		return items[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The code of the Gate in that cell, or NONE.
+	 */
+	public byte getGate(int cell) {
+		return gates[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The code of the Actor in that cell, or NONE.
+	 */
+	public byte getActor(int cell) {
+		return actors[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The tick that cell last changed at. Anything that has drawn the cell since then can
+	 * 			leave it as it is.
+	 */
+	public long getChangeTick(int cell) {
+		return changedAt[cell];
+	}
+
+	/**
+	 * @return The number of cells that changed during this snapshot's tick.
+	 */
+	public int getChangeCount() {
+		return changeCount;
+	}
+
+	/**
+	 * @param i A number from 0 to getChangeCount() - 1.
+	 * @return The index of the i-th cell that changed during this snapshot's tick.
+	 */
+	public int getChangedCell(int i) {
+		if(i < 0 || i >= changeCount) {
+			throw new IndexOutOfBoundsException("Change " + i + " of " + changeCount);
+		}
+		return changes[i];
+	}
+
+	/**
+	 * @return The cell Chap is in, or -1 if this snapshot has not been taken yet.
+	 */
+	public int getChap() {
+		return chap;
+	}
+
+	/**
+	 * @return The number of the tick this snapshot was taken at, or -1 if it has not been taken yet.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The System.nanoTime() this snapshot was taken at, so readers can tell how far the
+	 * 			simulation has moved on since.
+	 */
+	public long getCaptureNanos() {
+		return captureNanos;
+	}
+
+	/**
+	 * @return The width of the maze.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The height of the maze.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+}
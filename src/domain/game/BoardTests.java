@@ -0,0 +1,81 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import domain.game.Game.Direction;
+import domain.tiles.FreeTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class BoardTests {
+
+	@Test
+	void neighboursStopAtTheEdges() {
+		Board board = new Board(3, 2);
+		for(int x = 0; x < 3; x++) {
+			for(int y = 0; y < 2; y++) {
+				board.put(new FreeTile(x, y));
+			}
+		}
+		int[] out = new int[4];
+		//top-left corner
+		assertEquals(2, board.getNeighbours(0, out));
+		assertArrayEquals(new int[] {3, 1}, new int[] {out[0], out[1]});
+		assertEquals(-1, board.getNeighbour(0, Direction.UP));
+		assertEquals(-1, board.getNeighbour(0, Direction.LEFT));
+		//bottom middle
+		int cell = board.indexOf(new Position(1, 1));
+		assertEquals(3, board.getNeighbours(cell, out));
+		assertEquals(-1, board.getNeighbour(cell, Direction.DOWN));
+		assertEquals(1, board.getNeighbour(cell, Direction.UP));
+		//bottom-right corner, where the old checks let DOWN and RIGHT through
+		assertThrows(IllegalArgumentException.class, () -> board.getTileInDirection(new Position(2, 1), Direction.DOWN));
+		assertThrows(IllegalArgumentException.class, () -> board.getTileInDirection(new Position(2, 1), Direction.RIGHT));
+		assertSame(board.getTileAt(1, 1), board.getTileInDirection(new Position(2, 1), Direction.LEFT));
+
+		List<Tile> adjacent = new ArrayList<Tile>();
+		board.forEachAdjacentTile(new Position(2, 1), adjacent::add);
+		assertEquals(2, adjacent.size());
+		assertSame(board.getTileAt(2, 0), adjacent.get(0));
+		assertSame(board.getTileAt(1, 1), adjacent.get(1));
+	}
+
+	@Test
+	void positionsAreShared() {
+		Board board = new Board(3, 2);
+		board.put(new FreeTile(board.positionOf(0, 0)));
+		board.put(new FreeTile(2, 1));
+		assertSame(board.positionOf(0, 0), board.positionOf(0, 0));
+		assertSame(board.getTileAt(0, 0).getPosition(), board.positionOf(0, 0));
+		//a Tile put before its cell was asked for lends the cell its Position
+		assertSame(board.getTileAt(2, 1).getPosition(), board.positionOf(2, 1));
+		assertSame(board.positionOf(1, 1), board.positionOf(Position.pack(1, 1)));
+		assertEquals(new Position(1, 1), board.positionOf(1, 1));
+		assertThrows(IllegalArgumentException.class, () -> board.positionOf(3, 0));
+		assertThrows(IllegalArgumentException.class, () -> board.getTileAt(-1, 0));
+		//a Tile put after its cell was asked for replaces the cell's Position, whichever put is used
+		board.put(new FreeTile(1, 1));
+		assertSame(board.getTileAt(1, 1).getPosition(), board.positionOf(1, 1));
+		board.put(new Position(2, 1), new WallTile(2, 1));
+		assertSame(board.getTileAt(2, 1).getPosition(), board.positionOf(2, 1));
+		board.put(0, 1, new FreeTile(0, 1));
+		board.positionOf(0, 1);
+		board.put(0, 1, new WallTile(0, 1));
+		assertSame(board.getTileAt(0, 1).getPosition(), board.positionOf(0, 1));
+
+		long packed = new Position(7, 5).toLong();
+		assertEquals(7, Position.unpackX(packed));
+		assertEquals(5, Position.unpackY(packed));
+		assertSame(board.getTileAt(2, 1), board.getTileAt(Position.pack(2, 1)));
+		assertSame(board.getTileAt(2, 1), board.getTileInDirection(Position.pack(2, 0), Direction.DOWN));
+	}
+
+}
@@ -0,0 +1,172 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import domain.game.Game.Direction;
+import domain.tiles.FreeTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class ClockTests {
+
+	@Test
+	void stepsByHand() {
+		AtomicInteger count = new AtomicInteger();
+		SimulationClock clock = new SimulationClock(() -> {
+			count.incrementAndGet();
+			sleep(3);
+		}, 1000, 1);
+		for(int i = 0; i < 5; i++) {
+			clock.step();
+		}
+		assertEquals(5, count.get());
+		assertEquals(5, clock.getTickCount());
+		//each tick took 3ms, against a tick length of 1ms
+		assertEquals(5, clock.getOverrunCount());
+		assertTrue(clock.getLongestTickNanos() >= 3_000_000);
+		assertTrue(clock.getAverageTickNanos() >= 3_000_000);
+	}
+
+	@Test
+	void pausesAndResumes() throws InterruptedException {
+		AtomicInteger count = new AtomicInteger();
+		SimulationClock clock = new SimulationClock(count::incrementAndGet, 100, 5);
+		Thread t = new Thread(clock);
+		t.start();
+		sleep(300);
+		long ran = clock.getTickCount();
+		assertTrue(ran >= 10 && ran <= 45, ran + " ticks in 300ms at 100 ticks per second");
+		
+		clock.pause();
+		sleep(50);
+		long paused = clock.getTickCount();
+		sleep(200);
+		assertEquals(paused, clock.getTickCount());
+		
+		//time spent paused is not caught up on
+		clock.resume();
+		sleep(100);
+		assertTrue(clock.getTickCount() > paused);
+		assertTrue(clock.getTickCount() - paused <= 20);
+		
+		clock.stop();
+		t.join(1000);
+		assertFalse(t.isAlive());
+		assertEquals(count.get(), clock.getTickCount());
+	}
+
+	@Test
+	void catchUpIsCapped() throws InterruptedException {
+		//every tick takes ten tick lengths, so the clock can never catch up
+		SimulationClock clock = new SimulationClock(() -> sleep(10), 1000, 2);
+		Thread t = new Thread(clock);
+		t.start();
+		sleep(200);
+		clock.stop();
+		t.join(1000);
+		assertFalse(t.isAlive());
+		assertTrue(clock.getDroppedCount() > 0);
+		assertEquals(clock.getTickCount(), clock.getOverrunCount());
+	}
+
+	@Test
+	void queuedMovesAreAppliedOnTick() throws InterruptedException {
+		Board board = new Board(4, 1);
+		for(int x = 0; x < 4; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		Player player = new Player(board.getTileAt(0, 0));
+		new Game(new Level(0, 0, board), player);
+		GameSnapshot first = Game.getSnapshot();
+		assertEquals(new Position(0, 0), first.getChap().getPosition());
+		
+		//moves are queued from another thread, and nothing moves until the next tick
+		Thread input = new Thread(() -> {
+			Game.queueMove(Direction.RIGHT);
+			Game.queueMove(Direction.RIGHT);
+		});
+		input.start();
+		input.join();
+		assertEquals(new Position(0, 0), player.getPosition());
+		assertSame(first, Game.getSnapshot());
+		
+		Game.tick();
+		assertEquals(new Position(2, 0), player.getPosition());
+		GameSnapshot second = Game.getSnapshot();
+		assertNotSame(first, second);
+		assertEquals(first.getTick() + 1, second.getTick());
+		assertEquals(new Position(2, 0), second.getChap().getPosition());
+		//the earlier snapshot is unchanged
+		assertEquals(new Position(0, 0), first.getChap().getPosition());
+		
+		//moves queued before a pause are dropped rather than made on resuming
+		Game.queueMove(Direction.RIGHT);
+		Game.setState(Game.GameState.PAUSED);
+		Game.tick();
+		Game.setState(Game.GameState.RUNNING);
+		Game.tick();
+		assertEquals(new Position(2, 0), player.getPosition());
+	}
+
+	@Test
+	void restartAfterGameOverReplacesTheStoppedClock() {
+		Board board = new Board(2, 1);
+		board.put(new FreeTile(0, 0));
+		board.put(new FreeTile(1, 0));
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(0, 0));
+		new Game(level, player);
+		Game.tick();
+		Game.tick();
+		SimulationClock ended = Game.getClock();
+		Game.gameOver(false);
+		assertFalse(ended.isRunning());
+		//a finished game cannot be resumed
+		Game.resume();
+		assertEquals(Game.GameState.FINISHED, Game.getState());
+		
+		Game.restart(level, player);
+		assertNotSame(ended, Game.getClock());
+		assertTrue(Game.getClock().isRunning());
+		assertEquals(0, Game.getSnapshot().getTick());
+		assertEquals(Game.GameState.RUNNING, Game.getState());
+	}
+
+	@Test
+	void restartWaitsForTheRunningClock() throws InterruptedException {
+		Board board = new Board(2, 1);
+		board.put(new FreeTile(0, 0));
+		board.put(new FreeTile(1, 0));
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(0, 0));
+		Game game = new Game(level, player);
+		Thread simulation = new Thread(game);
+		simulation.start();
+		while(Game.getClock().getTickCount() < 3) {
+			sleep(5);
+		}
+		
+		//the old simulation thread has finished before anything is reset
+		Game.restart(level, player);
+		assertFalse(simulation.isAlive());
+		assertEquals(0, Game.getSnapshot().getTick());
+		assertEquals(0, Game.getClock().getTickCount());
+	}
+
+	/**
+	 * Sleeps for the given number of milliseconds.
+	 */
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,193 @@
+package domain.game;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An EntityTable holds things keyed by the id their Level gave them, see GameObject.getId(). As ids
+ * are small and dense, the table is a plain array indexed by id, so finding, adding and removing an
+ * entry takes constant time and never hashes anything.
+ *
+ * <p>
+ * The table is iterated in order of id, which is the order things were registered in, so iterating
+ * gives the same order every run. Entries may be added or removed while the table is being iterated
+ * over - entries removed before they are reached are skipped, and entries added are reached if their
+ * id is higher than the current one. This lets an enemy be removed while every enemy is moving.
+ * </p>
+ *
+ * <p>
+ * Like the Level holding it, a table belongs to the simulation thread and is not safe for use by
+ * more than one thread at a time.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ * @param <T> The type of thing held.
+ */
+public final class EntityTable<T> extends AbstractCollection<T> {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The entry with each id, or null.
+	 */
+	private Object[] entries = new Object[16];
+
+	/**
+	 * The number of entries that are not null.
+	 */
+	private int size = 0;
+
+	//===================================================================
+	// Table controls
+	//===================================================================
+
+	/**
+	 * Puts the given entry in the table under the given id, replacing any entry already there.
+	 *
+	 * @param id The id of the entry.
+	 * @param entry The entry.
+	 * @return The entry previously under that id, or null.
+	 * @throws IllegalArgumentException If the id is negative, or the entry is null.
+	 */
+	public T put(int id, T entry) throws IllegalArgumentException {
+		if(id < 0) {
+			throw new IllegalArgumentException("Error - id less than 0. (id: " + id + ")");
+		}
+		if(entry == null) {
+			throw new IllegalArgumentException("Entry cannot be null.");
+		}
+		if(id >= entries.length) {
+			entries = Arrays.copyOf(entries, Math.max(id + 1, entries.length * 2));
+		}
+		T previous = get(id);
+		entries[id] = entry;
+		if(previous == null) {
+			size++;
+		}
+		return previous;
+	}
+
+	/**
+	 * Removes the entry with the given id.
+	 *
+	 * @param id The id of the entry.
+	 * @return The entry removed, or null if there was none.
+	 */
+	public T remove(int id) {
+		T previous = get(id);
+		if(previous != null) {
+			entries[id] = null;
+			size--;
+		}
+		return previous;
+	}
+
+	/**
+	 * @param id An id.
+	 * @return The entry with that id, or null if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int id) {
+		if(id < 0 || id >= entries.length) {
+			return null;
+		}
+		return (T) entries[id];
+	}
+
+	/**
+	 * @param id An id.
+	 * @return True if there is an entry with that id.
+	 */
+	public boolean containsId(int id) {
+		return get(id) != null;
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(entries, null);
+		size = 0;
+	}
+
+	//===================================================================
+	// Collection methods
+	//===================================================================
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether the given object is in the table. This scans every id, so code that knows the
+	 * id should use containsId(int) instead.
+	 */
+	@Override
+	public boolean contains(Object o) {
+		for(int id = 0; id < entries.length; id++) {
+			if(entries[id] == o && o != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+
+			/**
+			 * The id of the next entry, or entries.length if there are no more.
+			 */
+			private int next = advance(0);
+
+			/**
+			 * The id of the entry last returned, or -1.
+			 */
+			private int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				next = advance(next);
+				return next < entries.length;
+			}
+
+			@Override
+			public T next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = advance(next + 1);
+				return get(last);
+			}
+
+			@Override
+			public void remove() {
+				if(last < 0) {
+					throw new IllegalStateException();
+				}
+				EntityTable.this.remove(last);
+				last = -1;
+			}
+
+		};
+	}
+
+	/**
+	 * @return The lowest id from the given one up with an entry, or entries.length if there is none.
+	 */
+	private int advance(int id) {
+		while(id < entries.length && entries[id] == null) {
+			id++;
+		}
+		return id;
+	}
+
+}
@@ -0,0 +1,49 @@
+package domain.game;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * A FileAssetProvider reads each image from a file in a folder, named after the image. Images are
+ * decoded every time they are asked for, so this is normally wrapped in a SpriteCache.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class FileAssetProvider implements AssetProvider {
+
+	/**
+	 * Refers to the folder containing the image files.
+	 */
+	private final String resourcePath;
+
+	/**
+	 * Refers to the file type of the images.
+	 */
+	private final String filetype;
+
+	/**
+	 * Creates a provider reading images from the given folder.
+	 *
+	 * @param resourcePath The folder containing the images, ending with a slash.
+	 * @param filetype The extension of the image files, including the dot.
+	 */
+	public FileAssetProvider(String resourcePath, String filetype) {
+		this.resourcePath = resourcePath;
+		this.filetype = filetype;
+	}
+
+	@Override
+	public BufferedImage getImage(String name) {
+		File image = new File(resourcePath + name + filetype);
+		try {
+			return ImageIO.read(image);
+		} catch(IOException e) {
+			System.out.println("Error reading image " + image + ": " + e);
+			return null;
+		}
+	}
+
+}
@@ -2,7 +2,10 @@ package domain.game;
 
 import domain.tiles.Tile;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import domain.actors.BugEnemy;
 import domain.actors.NonPlayerActor;
@@ -11,6 +14,12 @@ import domain.mvc.Subject;
 /**
  * The Game class handles the internal logic of Chap's Challenge.
  *
+ * <p>
+ * Chap and the enemies are only ever moved by the simulation thread - the thread calling run(). Other
+ * threads, such as the Swing event thread, pass moves in through queueMove(Direction), which never
+ * blocks, and read the state of the Game from the GameSnapshot published at the end of every tick.
+ * </p>
+ *
  * @author Michael Dasan 300130610
  */
 public class Game extends Subject implements Runnable{
@@ -30,9 +39,35 @@ public class Game extends Subject implements Runnable{
 	private static Player player;
 	
 	/**
-	 * What state the game is currently in.
+	 * What state the game is currently in. Volatile, as it is read by the thread moving enemies.
+	 */
+	private static volatile GameState state;
+	
+	/**
+	 * Runs the simulation at a fixed rate while the game is running. Only one clock runs at a time.
+	 */
+	private static SimulationClock clock;
+	
+	/**
+	 * The enemies move once every this many ticks - three times per second at the default tick rate.
+	 */
+	public static final int ENEMY_MOVE_INTERVAL = 10;
+	
+	/**
+	 * Moves queued by queueMove(Direction), waiting for the simulation thread to apply them. 
+	 * ConcurrentLinkedQueue is lock-free, so queueing a move never blocks the thread doing so.
 	 */
-	private static GameState state;
+	private static final Queue<Direction> inputs = new ConcurrentLinkedQueue<Direction>();
+	
+	/**
+	 * The number of ticks run since the current Game was created.
+	 */
+	private static long ticks;
+	
+	/**
+	 * The state of the Game at the end of the latest tick. Replaced, never modified.
+	 */
+	private static volatile GameSnapshot snapshot;
 	
 	//===================================================================
 	// Enums
@@ -89,25 +124,83 @@ public class Game extends Subject implements Runnable{
 	 * @param p The player who explores the maze.
 	 */
 	public Game(Level l, Player p) {
-		level = l;
-		player = p;
-		state = GameState.RUNNING;
+		start(l, p);
 	}
 	
 	//===================================================================
 	// Thread controls
 	//===================================================================
 	
+	/**
+	 * Runs the simulation at a fixed rate until the game is finished, or a new Game is created.
+	 * The calling thread becomes the simulation thread. See SimulationClock.
+	 */
 	@Override
 	public void run() {
-		while(state != GameState.FINISHED) {
-			level.moveAllEnemies();
-			try {
-				Thread.sleep(1000/3); //commands execute three times per second
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+		clock.run();
+	}
+	
+	/**
+	 * Runs a single tick of the simulation - applies every queued move, moves the enemies if it is
+	 * their turn, and publishes a new GameSnapshot. Must only be called on the simulation thread,
+	 * or by hand while no clock is running.
+	 */
+	public static void tick() {
+		Direction d;
+		while((d = inputs.poll()) != null) {
+			if(state != GameState.RUNNING) {
+				inputs.clear(); //moves made before a pause or the end of the game are dropped
+				break;
 			}
+			applyMove(d);
+		}
+		if(ticks % ENEMY_MOVE_INTERVAL == 0) {
+			level.moveAllEnemies();
 		}
+		ticks++;
+		publish();
+	}
+	
+	/**
+	 * Replaces the published snapshots with ones of the Game as it is now.
+	 */
+	private static void publish() {
+		level.publishSnapshot(player, ticks);
+		snapshot = new GameSnapshot(ticks, state, level, player);
+	}
+	
+	/**
+	 * @return The state of the Game at the end of the latest tick. Safe to call from any thread.
+	 */
+	public static GameSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/**
+	 * Pauses the game. Enemies stop moving, and the Player cannot move until resume() is called.
+	 */
+	public static void pause() {
+		state = GameState.PAUSED;
+		clock.pause();
+	}
+	
+	/**
+	 * Resumes a paused game. Does nothing if the game is not paused, so a finished game stays finished.
+	 */
+	public static void resume() {
+		if(state != GameState.PAUSED) {
+			return;
+		}
+		state = GameState.RUNNING;
+		clock.resume();
+	}
+	
+	/**
+	 * @return The clock moving the enemies, which also records how many ticks have run and
+	 * 			how many ran late.
+	 */
+	public static SimulationClock getClock() {
+		return clock;
 	}
 	
 	//===================================================================
@@ -117,18 +210,55 @@ public class Game extends Subject implements Runnable{
 	/**
 	 * Resets the game to default, and initialises the given Level and Player.
 	 * This can be used to change levels without having to construct a new Game object.
+	 * The current clock is stopped and a new one created, which must be started with run() as 
+	 * for a new Game.
 	 *
 	 * @param l The new Level to play.
 	 * @param p The new Player playing.
 	 */
 	public static void restart(Level l, Player p) {
+		start(l, p);
+	}
+	
+	/**
+	 * Stops the current clock, waiting for any tick in progress to finish, then sets up the given
+	 * Level and Player with a new clock and publishes the first snapshot of them. Nothing is 
+	 * changed until the old clock has stopped, so its last tick never sees the new Level.
+	 *
+	 * @param l The Level to play.
+	 * @param p The Player playing.
+	 */
+	private static void start(Level l, Player p) {
+		if(clock != null) {
+			clock.stopAndWait(); //the previous Game's enemies must stop moving
+		}
 		level = l;
 		player = p;
+		l.resetActorIndex();
+		l.register(p.getChap());
 		state = GameState.RUNNING;
+		clock = new SimulationClock(Game::tick);
+		inputs.clear();
+		ticks = 0;
+		publish();
 	}
 	
 	/**
-	 * Moves the Player one Tile in the given direction.
+	 * Queues a move of the Player one Tile in the given direction. The move is made by the
+	 * simulation thread at the start of the next tick. Safe to call from any thread, and never blocks.
+	 *
+	 * @param d The direction to move the Player in.
+	 */
+	public static void queueMove(Direction d) {
+		if(d == null) {
+			throw new IllegalArgumentException("Cannot queue a move in no direction.");
+		}
+		inputs.offer(d);
+	}
+	
+	/**
+	 * Moves the Player one Tile in the given direction straight away. Must only be called on the
+	 * simulation thread, or while no clock is running - otherwise use queueMove(Direction).
 	 *
 	 * @param d The direction to move the Player in.
 	 */
@@ -139,6 +269,13 @@ public class Game extends Subject implements Runnable{
 		if(state == GameState.FINISHED) {
 			throw new IllegalStateException("Attempting to move Player when game is finished.");
 		}
+		applyMove(d);
+	}
+	
+	/**
+	 * Moves the Player, and lets the Observers know if they moved.
+	 */
+	private static void applyMove(Direction d) {
 		try {
 			player.move(d);
 		} catch (IllegalStateException e) {
@@ -166,6 +303,7 @@ public class Game extends Subject implements Runnable{
 			throw new IllegalStateException("Trying to end game that is already over.");
 		}
 		state = GameState.FINISHED;
+		clock.stop();
 		if(win) {
 			notifyAllWithMessage("You escaped the maze! Congratulations!");
 		}else {
@@ -197,6 +335,29 @@ public class Game extends Subject implements Runnable{
 		return level.getTileAt(pos);
 	}
 	
+	/**
+	 * As getTileAt(Position), but from coordinates, so no Position is created.
+	 *
+	 * @param x
+	 * @param y
+	 * @return The Tile at (x, y).
+	 * @throws IllegalArgumentException From Board.getTileAt(int, int).
+	 */
+	public Tile getTileAt(int x, int y) throws IllegalArgumentException {
+		return level.getTileAt(x, y);
+	}
+	
+	/**
+	 * As getTileAt(Position), but from coordinates packed by Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates.
+	 * @return The Tile at those coordinates.
+	 * @throws IllegalArgumentException From Board.getTileAt(long).
+	 */
+	public Tile getTileAt(long packed) throws IllegalArgumentException {
+		return level.getTileAt(packed);
+	}
+	
 	//===================================================================
 	// Player controls
 	//===================================================================
@@ -267,10 +428,10 @@ public class Game extends Subject implements Runnable{
 	 * this casts them from NonPlayerActor to BugEnemy. Will need to be revisited if 
 	 * new enemies are added.
 	 *
-	 * @return A HashSet of each enemy in the level.
+	 * @return A List of each enemy in the level, in order of id.
 	 */
-	public HashSet<BugEnemy> getAllEnemies() {
-		HashSet<BugEnemy> enemies = new HashSet<BugEnemy>();
+	public List<BugEnemy> getAllEnemies() {
+		List<BugEnemy> enemies = new ArrayList<BugEnemy>(level.getEnemies().size());
 		for(NonPlayerActor npa : level.getEnemies()) {
 			if(npa instanceof BugEnemy) {
 				enemies.add((BugEnemy) npa);
@@ -286,7 +447,9 @@ public class Game extends Subject implements Runnable{
 	 * 		The enemy to be added.
 	 */
 	public static void addEnemy(NonPlayerActor e) {
-		level.getEnemies().add(e);
+		if(level != null) {
+			level.addEnemy(e);
+		}
 	}
 
 }
@@ -1,10 +1,6 @@
 package domain.game;
 
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 /**
  * GameObjects are any object that can be in the maze of Chap's Challenge.
@@ -12,6 +8,13 @@ import javax.imageio.ImageIO;
  * <p>
  * Though the Colour enum is declared here, not all subclasses of GameObject will make use of it.
  * </p>
+ * 
+ * <p>
+ * GameObjects are compared by identity. Two Tiles holding the same things are still different
+ * Tiles, and an Actor stays equal to itself as it moves, so GameObjects can be kept in hashed 
+ * collections while they change. Actors, Items and Gates are also given a number by the Level 
+ * they are in, see getId(), so they can be kept in arrays and EntityTables instead.
+ * </p>
  *
  * @author Michael Dasan 300130610
  */
@@ -66,88 +69,130 @@ public abstract class GameObject {
 	//===================================================================
 	
 	/**
-	 * The image representing this GameObject.
+	 * Where every GameObject gets its image from. HEADLESS if the chaps.headless system property is
+	 * set to true, otherwise the SpriteCache shared by the whole game, so each image is only decoded once.
 	 */
-	protected BufferedImage img;
+	private static volatile AssetProvider assets = 
+			Boolean.getBoolean("chaps.headless") ? AssetProvider.HEADLESS : SpriteCache.SHARED;
 	
 	/**
-	 * Refers to the folder containing the image files.
+	 * The image representing this GameObject. Null until the image is first asked for.
 	 */
-	protected final String resourcePath = "data/";
+	protected BufferedImage img;
 	
 	/**
-	 * Refers to the file type of the images.
+	 * The id of a GameObject that has not been registered with a Level.
 	 */
-	protected final String filetype = ".png";
+	public static final int NO_ID = -1;
 	
 	/**
 	 * The name of the image representing this object, unique to each GameObject subclass.
 	 */
 	protected String filename;
 	
+	/**
+	 * The number given to this GameObject by its Level, or NO_ID.
+	 */
+	private int id = NO_ID;
+	
 	//===================================================================
 	// Image controls
 	//===================================================================
 	
 	/**
-	 * Sets the image associated with this GameObject.
+	 * Returns the name of the image associated with this GameObject.
 	 * 
 	 * <p>
 	 * NOTE: This does not account for if this GameObject has a colour. If it does (Keys, KeyGates),
 	 * this method must be overridden to account for this.
 	 * </p>
+	 *
+	 * @return The name of the image, or null if this GameObject has none.
 	 */
-	protected void setImage(){
-		File image = new File(resourcePath + filename + filetype);
-		assert image.exists();
-		try {
-			img = ImageIO.read(image);
-			assert img != null;
-		} catch(IOException e) {
-			System.out.println("Error setting image on " + this.getClass().toString() + ": " + e);
-		}
+	protected String getImageName() {
+		return filename;
 	}
 	
 	/**
 	 * Returns the image associated with this GameObject. If this GameObject is a Tile, and it contains 
 	 * a Gate or Item, this method should instead return the image associated with those. If the Tile 
 	 * contains both a Gate and an Item, this method should return the image associated with the Gate.
+	 * 
+	 * <p>
+	 * The image is loaded from the AssetProvider the first time it is asked for.
+	 * </p>
 	 *
-	 * @return The image associated with this GameObject.
+	 * @return The image associated with this GameObject, or null if there is none.
 	 */
 	public BufferedImage getImage() {
+		if(img == null && filename != null) {
+			img = loadImage(getImageName());
+		}
 		return img;
 	}
 	
+	/**
+	 * Loads the image with the given name from the AssetProvider.
+	 *
+	 * @param name The name of the image.
+	 * @return The image, or null if the AssetProvider has none.
+	 */
+	protected static BufferedImage loadImage(String name) {
+		return assets.getImage(name);
+	}
+	
+	/**
+	 * Sets where every GameObject gets its image from. Images already loaded are kept, so this
+	 * should be called before any Level is loaded.
+	 *
+	 * @param provider The new AssetProvider.
+	 */
+	public static void setAssetProvider(AssetProvider provider) {
+		if(provider == null) {
+			throw new IllegalArgumentException("AssetProvider cannot be null.");
+		}
+		assets = provider;
+	}
+	
+	/**
+	 * @return Where every GameObject gets its image from.
+	 */
+	public static AssetProvider getAssetProvider() {
+		return assets;
+	}
+	
 	//===================================================================
-	// Comparison methods
+	// Identity
 	//===================================================================
+	
+	/**
+	 * Returns the number given to this GameObject by the Level it was registered with. Numbers are
+	 * small and dense, starting from 0, and never change once given, so they can be used to index 
+	 * arrays. Tiles are not numbered, as their cell index already serves.
+	 *
+	 * @return The id of this GameObject, or NO_ID if it has not been registered.
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * Gives this GameObject its id. Only called by Level.register(GameObject).
+	 *
+	 * @param id The id given.
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
 
 	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((filename == null) ? 0 : filename.hashCode());
-		return result;
+	public final int hashCode() {
+		return System.identityHashCode(this);
 	}
 
 	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!(obj instanceof GameObject)) {
-			return false;
-		}
-		GameObject other = (GameObject) obj;
-		if (filename == null) {
-			if (other.filename != null) {
-				return false;
-			}
-		} else if (!filename.equals(other.filename)) {
-			return false;
-		}
-		return true;
+	public final boolean equals(Object obj) {
+		return this == obj;
 	}
 	
 }
@@ -0,0 +1,190 @@
+package domain.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import domain.actors.Actor;
+import domain.actors.NonPlayerActor;
+import domain.game.Game.Direction;
+import domain.game.Game.GameState;
+import domain.game.GameObject.Colour;
+
+/**
+ * A GameSnapshot is an immutable copy of everything the Renderer and GUI show about the Game, taken
+ * at the end of a simulation tick. Snapshots are built on the simulation thread and published through
+ * a volatile field, so any other thread can read the latest one without locking, and without seeing
+ * Chap or an enemy half way through a move.
+ *
+ * @author Michael Dasan 300130610
+ */
+public final class GameSnapshot {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The number of the tick this snapshot was taken at.
+	 */
+	private final long tick;
+
+	/**
+	 * The state of the Game when this snapshot was taken.
+	 */
+	private final GameState state;
+
+	/**
+	 * Chap's position.
+	 */
+	private final ActorView chap;
+
+	/**
+	 * The number of Treasures the Player has collected.
+	 */
+	private final int treasures;
+
+	/**
+	 * The number of keys of each Colour the Player holds.
+	 */
+	private final Map<Colour, Integer> keys;
+
+	/**
+	 * The position of each enemy.
+	 */
+	private final List<ActorView> enemies;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Takes a snapshot of the given Level and Player. Must be called on the thread that moves them.
+	 *
+	 * @param tick The number of the current tick.
+	 * @param state The current state of the Game.
+	 * @param level The Level being played.
+	 * @param player The Player playing it.
+	 */
+	GameSnapshot(long tick, GameState state, Level level, Player player) {
+		this.tick = tick;
+		this.state = state;
+		this.chap = new ActorView(player.getPosition(), player.getDirection());
+		this.treasures = player.getNumTreasures();
+		this.keys = Collections.unmodifiableMap(new EnumMap<Colour, Integer>(player.getAllKeys()));
+		List<ActorView> views = new ArrayList<ActorView>(level.getEnemies().size());
+		for(NonPlayerActor npa : level.getEnemies()) {
+			if(npa instanceof Actor) {
+				Actor a = (Actor) npa;
+				views.add(new ActorView(a.getPosition(), a.getDirection()));
+			}
+		}
+		this.enemies = Collections.unmodifiableList(views);
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @return The number of the tick this snapshot was taken at.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The state of the Game when this snapshot was taken.
+	 */
+	public GameState getState() {
+		return state;
+	}
+
+	/**
+	 * @return Chap's position and direction.
+	 */
+	public ActorView getChap() {
+		return chap;
+	}
+
+	/**
+	 * @return The number of Treasures the Player has collected.
+	 */
+	public int getNumTreasures() {
+		return treasures;
+	}
+
+	/**
+	 * @param c The Colour of keys to be counted.
+	 * @return The number of keys of that Colour the Player holds.
+	 */
+	public int getNumberOfKeys(Colour c) {
+		return keys.get(c);
+	}
+
+	/**
+	 * @return An unmodifiable Map of Colours to the number of keys of that Colour the Player holds.
+	 */
+	public Map<Colour, Integer> getAllKeys() {
+		return keys;
+	}
+
+	/**
+	 * @return An unmodifiable List of the position and direction of each enemy.
+	 */
+	public List<ActorView> getEnemies() {
+		return enemies;
+	}
+
+	//===================================================================
+	// Actor views
+	//===================================================================
+
+	/**
+	 * An immutable copy of where an Actor was, and which way it was facing, when the snapshot was
+	 * taken.
+	 *
+	 * @author Michael Dasan 300130610
+	 */
+	public static final class ActorView {
+
+		/**
+		 * The Actor's position.
+		 */
+		private final Position position;
+
+		/**
+		 * The direction the Actor was facing.
+		 */
+		private final Direction direction;
+
+		/**
+		 * Creates a view of an Actor.
+		 *
+		 * @param position The Actor's position.
+		 * @param direction The direction the Actor was facing.
+		 */
+		ActorView(Position position, Direction direction) {
+			this.position = position;
+			this.direction = direction;
+		}
+
+		/**
+		 * @return The Actor's position.
+		 */
+		public Position getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return The direction the Actor was facing.
+		 */
+		public Direction getDirection() {
+			return direction;
+		}
+
+	}
+
+}
@@ -1,11 +1,16 @@
 package domain.game;
 
-import java.util.HashSet;
-
+import domain.actors.Actor;
 import domain.actors.NonPlayerActor;
+import domain.astar.FlowField;
+import domain.astar.HierarchicalPathfinder;
+import domain.astar.PathCache;
+import domain.ecs.World;
 import domain.game.Game.Direction;
 import domain.game.Game.GameState;
 import domain.tiles.Tile;
+import domain.vision.FieldOfView;
+import domain.vision.OpacityMap;
 
 /**
  * Level objects store information about the current maze - How long you have to beat 
@@ -15,6 +20,18 @@ import domain.tiles.Tile;
  */
 public class Level {
 	
+	/**
+	 * How many Tiles away enemies can see. The FieldOfView of each Level is computed for this radius.
+	 */
+	public static final int VISION_RADIUS = 8;
+	
+	/**
+	 * Mazes with at least this many cells have their HierarchicalPathfinder built as soon as the 
+	 * board is set, so the first search does not pay for building it. Smaller mazes build it when
+	 * first asked for, if ever.
+	 */
+	public static final int HIERARCHY_MIN_CELLS = 256 * 256;
+	
 	/**
 	 * What number stage this is - level one, level two, etc.
 	 */
@@ -31,9 +48,86 @@ public class Level {
 	private Board board;
 	
 	/**
-	 * A set of all enemies present in the maze.
+	 * All enemies present in the maze, keyed by id.
+	 */
+	private final EntityTable<NonPlayerActor> enemies = new EntityTable<NonPlayerActor>();
+	
+	/**
+	 * Every Actor, Item and Gate registered with this Level, keyed by id.
+	 */
+	private final EntityTable<GameObject> entities = new EntityTable<GameObject>();
+	
+	/**
+	 * The id the next GameObject registered will be given. Ids are never reused, so an id always
+	 * refers to the same GameObject.
+	 */
+	private int nextId = 0;
+	
+	/**
+	 * Counts changes to the layout of the maze, such as Gates being opened. Anything that caches
+	 * which Tiles can be passed through should compare against this to know when to rebuild.
+	 */
+	private int topologyVersion = 0;
+	
+	/**
+	 * How many changes to the layout are remembered in changeLog.
+	 */
+	private static final int CHANGE_LOG_SIZE = 64;
+	
+	/**
+	 * The cell index that changed at each of the last CHANGE_LOG_SIZE layout versions, indexed by
+	 * version modulo CHANGE_LOG_SIZE, or -1 where the whole board was replaced. See 
+	 * getChangesSince(int).
+	 */
+	private final int[] changeLog = new int[CHANGE_LOG_SIZE];
+	
+	/**
+	 * Returned by getChangesSince(int) when nothing has changed, so checking every tick allocates nothing.
+	 */
+	private static final int[] NO_CHANGES = new int[0];
+	
+	/**
+	 * The distance from each Tile to Chap, shared by every enemy chasing him. Only recomputed
+	 * when Chap moves or the layout of the maze changes.
+	 */
+	private FlowField chaseField;
+	
+	/**
+	 * Which Tiles in the maze block vision, used by enemies looking for Chap.
 	 */
-	private HashSet<NonPlayerActor> enemies;
+	private OpacityMap opacityMap;
+	
+	/**
+	 * What can be seen from each Tile in the maze. Only built when first asked for.
+	 */
+	private FieldOfView fieldOfView;
+	
+	/**
+	 * Paths recently found between Tiles in the maze, reused by enemies making the same trip.
+	 */
+	private PathCache pathCache;
+	
+	/**
+	 * The cluster graph used to find long paths across large mazes. Only built when first asked for.
+	 */
+	private HierarchicalPathfinder hierarchy;
+	
+	/**
+	 * Passes a BoardSnapshot of the maze from the simulation thread to the Renderer each tick.
+	 */
+	private volatile SnapshotBuffer snapshots;
+	
+	/**
+	 * Where each Actor in the maze is, so they can be found by location. Only built when first
+	 * asked for, and kept up to date by actorMoved(Actor, Tile, Tile) afterwards.
+	 */
+	private ActorIndex actorIndex;
+	
+	/**
+	 * The components of every entity in this Level, and the systems that move them. Only built when
+	 * first asked for, and kept up to date by register(GameObject) and unregister(GameObject).
+	 */
+	private World world;
 	
 	/**
 	 * Constructor to be used if the board hasn't yet been generated. Must add the level in manually.
@@ -44,7 +138,6 @@ public class Level {
 	public Level(int stage, int time) {
 		this.stage = stage;
 		this.time = time;
-		enemies = new HashSet<NonPlayerActor>();
 	}
 	/**
 	 * Preferred constructor.
@@ -57,7 +150,8 @@ public class Level {
 		this.stage = stage;
 		this.time = time;
 		this.board = board;
-		enemies = new HashSet<NonPlayerActor>();
+		buildHierarchy();
+		registerBoard();
 	}
 	
 	/**
@@ -74,6 +168,17 @@ public class Level {
 	 */
 	public void setBoard(Board b) {
 		this.board = b;
+		this.chaseField = null;
+		this.opacityMap = null;
+		this.fieldOfView = null;
+		this.pathCache = null;
+		buildHierarchy();
+		this.snapshots = null;
+		this.actorIndex = null;
+		this.world = null;
+		topologyVersion++;
+		changeLog[Math.floorMod(topologyVersion, CHANGE_LOG_SIZE)] = -1;
+		registerBoard();
 	}
 	
 	/**
@@ -84,40 +189,269 @@ public class Level {
 	}
 	
 	/**
-	 * Calls on each enemy present in the maze to move. When the Game is initialised, a seperate
-	 * thread will be created that handles this.
+	 * Moves each enemy present in the maze once, by running the enemy systems of this Level's World.
+	 * Called by the simulation thread while the Game is running.
 	 */
 	public void moveAllEnemies() {
 		if(Game.getState() == GameState.RUNNING) {
-			for(NonPlayerActor enemy : enemies) {
-				enemy.move();
-			}
+			getWorld().moveEnemies();
 		}
 	}
 	
 	/**
-	 * @return The set of enemies in this level.
+	 * @return The enemies in this level, keyed by id and iterated in the order they were added.
 	 */
-	public HashSet<NonPlayerActor> getEnemies() {
+	public EntityTable<NonPlayerActor> getEnemies() {
 		return enemies;
 	}
 	
 	/**
-	 * Adds the specified enemy to this level.
+	 * Adds the specified enemy to this level, registering it if it has not been already. Enemies 
+	 * that are not in this Level's maze, such as those created while the next Level is being
+	 * loaded, are ignored - they are added by that Level when it is given its board.
 	 *
 	 * @param e The enemy to be added.
+	 * @throws IllegalArgumentException If the enemy is not an Actor.
 	 */
-	public void addEnemy(NonPlayerActor e) {
-		enemies.add(e);
+	public void addEnemy(NonPlayerActor e) throws IllegalArgumentException {
+		if(!(e instanceof Actor)) {
+			throw new IllegalArgumentException("Enemies must be Actors.");
+		}
+		Actor a = (Actor) e;
+		int cell = cellOf(a.getTile());
+		if(cell < 0) {
+			return;
+		}
+		enemies.put(register(a), e);
+		if(actorIndex != null && actorIndex.getActorAt(cell) != a) {
+			actorIndex.add(a, cell);
+		}
 	}
 	
 	/**
-	 * Removes the specified enemy from this level.
+	 * Removes the specified enemy from this level. Must be called while the enemy is still in its Tile.
 	 *
 	 * @param e The enemy to be removed.
 	 */
 	public void removeEnemy(NonPlayerActor e) {
-		enemies.remove(e);
+		if(!(e instanceof Actor) || enemies.remove(((Actor) e).getId()) == null) {
+			return;
+		}
+		Actor a = (Actor) e;
+		unregister(a);
+		if(actorIndex != null) {
+			int cell = cellOf(a.getTile());
+			if(cell >= 0) {
+				actorIndex.remove(a, cell);
+			}
+		}
+	}
+	
+	//===================================================================
+	// Entity ids
+	//===================================================================
+	
+	/**
+	 * Gives the GameObject an id, if it does not have one, and records it under that id so it can
+	 * be found with getEntity(int). Registering a GameObject more than once does nothing.
+	 *
+	 * @param o The GameObject to be registered.
+	 * @return The id of the GameObject.
+	 * @throws IllegalArgumentException If the GameObject was given its id by another Level.
+	 */
+	public int register(GameObject o) throws IllegalArgumentException {
+		if(o.getId() == GameObject.NO_ID) {
+			o.setId(nextId++);
+		}else if(entities.get(o.getId()) != o && (o.getId() >= nextId || entities.containsId(o.getId()))) {
+			//only a GameObject removed from this Level can come back under an id it did not hand out now
+			throw new IllegalArgumentException("GameObject registered with another Level. (id: " + o.getId() + ")");
+		}
+		entities.put(o.getId(), o);
+		if(world != null) {
+			world.addEntity(o);
+		}
+		return o.getId();
+	}
+	
+	/**
+	 * Removes a GameObject that has left the maze, such as an Item that has been picked up. Its id
+	 * is not given to anything else.
+	 *
+	 * @param o The GameObject to be removed.
+	 */
+	public void unregister(GameObject o) {
+		if(entities.get(o.getId()) != o) {
+			return;
+		}
+		entities.remove(o.getId());
+		if(world != null) {
+			world.removeEntity(o.getId());
+		}
+	}
+	
+	/**
+	 * @param id An id given by this Level.
+	 * @return The GameObject with that id, or null if there is none, or it has been removed.
+	 */
+	public GameObject getEntity(int id) {
+		return entities.get(id);
+	}
+	
+	/**
+	 * @return Every GameObject registered with this Level, keyed by id.
+	 */
+	public EntityTable<GameObject> getEntities() {
+		return entities;
+	}
+	
+	/**
+	 * Returns the World of this Level, building it from the registered GameObjects and the current
+	 * Player if it has not been built yet.
+	 *
+	 * @return The components of every entity in this Level.
+	 */
+	public World getWorld() {
+		if(world == null) {
+			world = new World(this, Game.getPlayer());
+		}
+		return world;
+	}
+	
+	/**
+	 * Registers every Item and Gate in the maze, and adds every enemy in it. Called whenever the 
+	 * board is set.
+	 */
+	private void registerBoard() {
+		for(int cell = 0; cell < board.getWidth() * board.getHeight(); cell++) {
+			Tile t = board.getTileAtIndex(cell);
+			if(t == null) {
+				continue;
+			}
+			if(t.getItem() != null) {
+				register(t.getItem());
+			}
+			if(t.getGate() != null) {
+				register(t.getGate());
+			}
+			if(t.getActor() instanceof NonPlayerActor) {
+				addEnemy((NonPlayerActor) t.getActor());
+			}
+		}
+	}
+	
+	//===================================================================
+	// Actor index
+	//===================================================================
+	
+	/**
+	 * Returns the ActorIndex of this Level, building it from the enemies and Chap if it has not
+	 * been built yet.
+	 *
+	 * @return Where each Actor in the maze is.
+	 */
+	public ActorIndex getActorIndex() {
+		if(actorIndex == null) {
+			ActorIndex index = new ActorIndex(board.getWidth(), board.getHeight());
+			for(NonPlayerActor npa : enemies) {
+				if(npa instanceof Actor) {
+					int cell = cellOf(((Actor) npa).getTile());
+					if(cell >= 0) {
+						index.add((Actor) npa, cell);
+					}
+				}
+			}
+			Player player = Game.getPlayer();
+			if(player != null) {
+				int cell = cellOf(player.getChap().getTile());
+				if(cell >= 0) {
+					index.add(player.getChap(), cell);
+				}
+			}
+			actorIndex = index;
+		}
+		return actorIndex;
+	}
+	
+	/**
+	 * Returns the Actor in the given Tile. Unlike Tile.getActor(), this is never an Actor that has
+	 * since moved on.
+	 *
+	 * @param t A Tile in this Level's maze.
+	 * @return The Actor in that Tile, or null if it is empty or not in this maze.
+	 */
+	public Actor getActorAt(Tile t) {
+		int cell = cellOf(t);
+		return cell < 0 ? null : getActorIndex().getActorAt(cell);
+	}
+	
+	/**
+	 * Called when an Actor has moved from one Tile to another, to keep the ActorIndex up to date.
+	 * Moves between Tiles that are not in this Level's maze are ignored.
+	 *
+	 * @param a The Actor that moved.
+	 * @param from The Tile it moved out of.
+	 * @param to The Tile it moved into.
+	 */
+	public void actorMoved(Actor a, Tile from, Tile to) {
+		int f = cellOf(from);
+		int t = cellOf(to);
+		SnapshotBuffer buffer = snapshots;
+		if(buffer != null) {
+			if(f >= 0) {
+				buffer.cellChanged(f);
+			}
+			if(t >= 0) {
+				buffer.cellChanged(t);
+			}
+		}
+		if(actorIndex == null) {
+			return; //picked up when the index is built
+		}
+		if(f >= 0 && t >= 0) {
+			actorIndex.move(a, f, t);
+		}
+	}
+	
+	/**
+	 * Called when the Actor, Item or Gate in a Tile has changed, so the cell is copied into the next
+	 * BoardSnapshots. Tiles that are not in this Level's maze are ignored. Must only be called by the
+	 * simulation thread.
+	 *
+	 * @param t The Tile that changed.
+	 */
+	public void cellChanged(Tile t) {
+		SnapshotBuffer buffer = snapshots;
+		if(buffer == null) {
+			return; //every cell is copied into the first snapshots
+		}
+		int cell = cellOf(t);
+		if(cell >= 0) {
+			buffer.cellChanged(cell);
+		}
+	}
+	
+	/**
+	 * Discards the ActorIndex and World, so they are rebuilt the next time they are asked for. Used
+	 * when a new Player starts playing this Level.
+	 */
+	void resetActorIndex() {
+		actorIndex = null;
+		world = null;
+	}
+	
+	/**
+	 * @return The cell index of the given Tile, or -1 if it is not in this Level's maze.
+	 */
+	private int cellOf(Tile t) {
+		if(t == null || board == null) {
+			return -1;
+		}
+		Position pos = t.getPosition();
+		if(pos.getX() < 0 || pos.getY() < 0 || pos.getX() >= board.getWidth() || pos.getY() >= board.getHeight()) {
+			return -1;
+		}
+		int cell = pos.getX() + pos.getY() * board.getWidth();
+		return board.getTileAtIndex(cell) == t ? cell : -1;
 	}
 	
 	/**
@@ -143,6 +477,223 @@ public class Level {
 		return t;
 	}
 	
+	/**
+	 * Obtains the Tile in the given direction from the given coordinates.
+	 *
+	 * @param x
+	 * @param y
+	 * @param d The direction to check in.
+	 * @return The Tile in the given direction.
+	 * @throws IllegalArgumentException If there is no Tile in the given direction.
+	 */
+	public Tile getTileInDirection(int x, int y, Direction d) throws IllegalArgumentException {
+		return board.getTileInDirection(x, y, d);
+	}
+	
+	/**
+	 * Obtains the Tile in the given direction from coordinates packed by Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates to begin at.
+	 * @param d The direction to check in.
+	 * @return The Tile in the given direction.
+	 * @throws IllegalArgumentException If there is no Tile in the given direction.
+	 */
+	public Tile getTileInDirection(long packed, Direction d) throws IllegalArgumentException {
+		return board.getTileInDirection(packed, d);
+	}
+	
+	/**
+	 * Returns the shared Position of the given coordinates, see Board.positionOf(int, int).
+	 *
+	 * @param x
+	 * @param y
+	 * @return The Position of (x, y) in the Board.
+	 */
+	public Position positionOf(int x, int y) {
+		return board.positionOf(x, y);
+	}
+	
+	/**
+	 * Returns a FlowField leading to Chap's current Position. The field is shared between all
+	 * enemies, and is only recomputed if Chap has moved or the layout of the maze has changed
+	 * since it was last computed.
+	 *
+	 * @return The FlowField leading to Chap.
+	 */
+	public FlowField getChaseField() {
+		int target = board.indexOf(Game.getPlayer().getPosition());
+		if(chaseField == null) {
+			chaseField = new FlowField(board);
+		}
+		if(chaseField.getTarget() != target || chaseField.getVersion() != topologyVersion) {
+			chaseField.compute(target, topologyVersion);
+		}
+		return chaseField;
+	}
+	
+	/**
+	 * Returns the cache of paths found in this maze. Cached paths are stamped with the topology
+	 * version, so a path found before a Gate was opened is never returned after it.
+	 *
+	 * @return The PathCache for the current board.
+	 */
+	public PathCache getPathCache() {
+		if(pathCache == null) {
+			pathCache = new PathCache(board);
+		}
+		return pathCache;
+	}
+	
+	/**
+	 * Returns the HierarchicalPathfinder for this maze. It is built when the board is set if the maze
+	 * has at least HIERARCHY_MIN_CELLS cells, and otherwise the first time it is needed. On small 
+	 * mazes a plain search is just as quick, so this is meant for very large boards.
+	 *
+	 * @return The HierarchicalPathfinder for the current board.
+	 */
+	public HierarchicalPathfinder getHierarchicalPathfinder() {
+		if(hierarchy == null) {
+			hierarchy = new HierarchicalPathfinder(board);
+		}
+		return hierarchy;
+	}
+	
+	/**
+	 * Builds the HierarchicalPathfinder for the current board if it is large enough to need one
+	 * straight away, and otherwise discards any built for a previous board.
+	 */
+	private void buildHierarchy() {
+		long cells = board == null ? 0 : (long) board.getWidth() * board.getHeight();
+		hierarchy = cells >= HIERARCHY_MIN_CELLS ? new HierarchicalPathfinder(board) : null;
+	}
+	
+	/**
+	 * Publishes a BoardSnapshot of the maze as it is now. Must only be called by the simulation
+	 * thread, at the end of a tick.
+	 *
+	 * @param player The Player playing this Level.
+	 * @param tick The number of the current tick.
+	 */
+	public void publishSnapshot(Player player, long tick) {
+		SnapshotBuffer buffer = snapshots;
+		if(buffer == null) {
+			buffer = new SnapshotBuffer(board.getWidth(), board.getHeight());
+			snapshots = buffer;
+		}
+		buffer.publish(this, player, tick);
+	}
+	
+	/**
+	 * Returns the newest BoardSnapshot of the maze. It is not written to until the next call, so it
+	 * can be read while the simulation carries on. Must only be called by one thread, the Renderer's.
+	 *
+	 * @return The newest BoardSnapshot, or null if none has been published.
+	 */
+	public BoardSnapshot getBoardSnapshot() {
+		SnapshotBuffer buffer = snapshots;
+		return buffer == null ? null : buffer.acquire();
+	}
+	
+	/**
+	 * Called when the Tile at the given Position has changed in a way that affects what can pass
+	 * through it, such as a Gate being opened.
+	 *
+	 * @param pos The Position of the Tile that changed.
+	 */
+	public void tileChanged(Position pos) {
+		tileChanged(pos.getX(), pos.getY());
+	}
+	
+	/**
+	 * As tileChanged(Position), but for the Tile at the given coordinates.
+	 *
+	 * @param x
+	 * @param y
+	 */
+	public void tileChanged(int x, int y) {
+		topologyVersion++;
+		int cell = board.indexOf(x, y);
+		changeLog[Math.floorMod(topologyVersion, CHANGE_LOG_SIZE)] = cell;
+		SnapshotBuffer buffer = snapshots;
+		if(buffer != null) {
+			buffer.cellChanged(cell);
+		}
+		if(opacityMap != null) {
+			if(opacityMap.update(cell) && fieldOfView != null) {
+				fieldOfView.cellChanged(cell);
+			}
+		}
+		if(hierarchy != null) {
+			hierarchy.tileChanged(cell);
+		}
+	}
+	
+	/**
+	 * Builds the OpacityMap and FieldOfView for the current board, the first time either is asked
+	 * for. The FieldOfView then finds what each Tile can see as enemies first look from it.
+	 */
+	private void buildVision() {
+		opacityMap = new OpacityMap(board);
+		fieldOfView = new FieldOfView(opacityMap, VISION_RADIUS);
+	}
+	
+	/**
+	 * @return What can be seen from each Tile in the maze, within VISION_RADIUS.
+	 */
+	public FieldOfView getFieldOfView() {
+		if(fieldOfView == null) {
+			buildVision();
+		}
+		return fieldOfView;
+	}
+	
+	/**
+	 * Returns a map of which Tiles in the maze block vision. The map is built when first asked for,
+	 * and kept up to date by tileChanged(Position) afterwards.
+	 *
+	 * @return The OpacityMap of the maze.
+	 */
+	public OpacityMap getOpacityMap() {
+		if(opacityMap == null) {
+			buildVision();
+		}
+		return opacityMap;
+	}
+	
+	/**
+	 * @return A number that increases every time the layout of the maze changes.
+	 */
+	public int getTopologyVersion() {
+		return topologyVersion;
+	}
+	
+	/**
+	 * Finds which cells have changed since the given layout version, so a cache of which Tiles can
+	 * be passed through only has to check those cells rather than the whole board.
+	 *
+	 * @param version An earlier value of getTopologyVersion().
+	 * @return The index of the cell changed at each version after the given one, in order, or null
+	 * 			if those changes are no longer remembered or the board has been replaced since.
+	 */
+	public int[] getChangesSince(int version) {
+		int count = topologyVersion - version;
+		if(count < 0 || count > CHANGE_LOG_SIZE) {
+			return null;
+		}
+		if(count == 0) {
+			return NO_CHANGES;
+		}
+		int[] cells = new int[count];
+		for(int i = 0; i < count; i++) {
+			int cell = changeLog[Math.floorMod(version + 1 + i, CHANGE_LOG_SIZE)];
+			if(cell < 0) {
+				return null;
+			}
+			cells[i] = cell;
+		}
+		return cells;
+	}
+	
 	/**
 	 * @return How long the player has to complete the level.
 	 */
@@ -158,8 +709,26 @@ public class Level {
 	public void setTime(int time) {
 		this.time = time;
 	}
+	
+	/**
+	 * Returns the Tile at the given coordinates in the Board, without creating a Position.
+	 *
+	 * @param x
+	 * @param y
+	 * @return The Tile at (x, y).
+	 */
 	public Tile getTileAt(int x, int y) {
 		return board.getTileAt(x, y);
 	}
+	
+	/**
+	 * Returns the Tile at coordinates packed by Position.pack(int, int).
+	 *
+	 * @param packed The packed coordinates.
+	 * @return The Tile at those coordinates.
+	 */
+	public Tile getTileAt(long packed) {
+		return board.getTileAt(packed);
+	}
 
 }
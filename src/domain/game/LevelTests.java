@@ -0,0 +1,61 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import domain.actors.BugEnemy;
+import domain.actors.NonPlayerActor;
+import domain.game.GameObject.Colour;
+import domain.item.Key;
+import domain.tiles.FreeTile;
+import domain.tiles.Tile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class LevelTests {
+
+	@Test
+	void entitiesKeepTheirIds() {
+		Board board = new Board(4, 1);
+		for(int x = 0; x < 4; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		Key key = new Key(Colour.RED);
+		board.getTileAt(0, 0).setItem(key);
+		BugEnemy first = new BugEnemy(board.getTileAt(2, 0));
+		BugEnemy second = new BugEnemy(board.getTileAt(3, 0));
+		Level level = new Level(0, 0, board);
+
+		//ids are handed out in cell order as the board is registered
+		assertEquals(0, key.getId());
+		assertEquals(1, first.getId());
+		assertEquals(2, second.getId());
+		assertSame(first, level.getEntity(first.getId()));
+		assertSame(first, level.getEnemies().get(first.getId()));
+		assertEquals(2, level.getEnemies().size());
+		assertEquals(first.getId(), level.register(first));
+
+		//changing what is in a Tile no longer changes its hash
+		Set<Tile> tiles = new HashSet<Tile>();
+		tiles.add(board.getTileAt(0, 0));
+		tiles.add(board.getTileAt(2, 0));
+		board.getTileAt(0, 0).setItem(new Key(Colour.BLUE));
+		assertTrue(tiles.contains(board.getTileAt(0, 0)));
+		assertTrue(tiles.contains(board.getTileAt(2, 0)));
+
+		//enemies can be removed while the enemies are being iterated over
+		for(NonPlayerActor npa : level.getEnemies()) {
+			level.removeEnemy(npa);
+		}
+		assertTrue(level.getEnemies().isEmpty());
+		assertNull(level.getEntity(first.getId()));
+		assertSame(key, level.getEntity(key.getId()));
+		assertThrows(IllegalArgumentException.class, () -> new Level(0, 0, new Board(1, 1)).register(key));
+	}
+
+}
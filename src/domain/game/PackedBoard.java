@@ -0,0 +1,476 @@
+package domain.game;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import domain.actors.Actor;
+import domain.gate.Gate;
+import domain.gate.KeyGate;
+import domain.gate.TreasureGate;
+import domain.item.Key;
+import domain.item.Treasure;
+import domain.tiles.ExitTile;
+import domain.tiles.FreeTile;
+import domain.tiles.HelpTile;
+import domain.tiles.TeleportTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * A PackedBoard is a compact alternative to Board for very large mazes. Rather than a Tile object for
+ * each cell, it stores the type of Tile, the Item, the Gate and the Actor in each cell in parallel
+ * arrays of primitives, indexed by x + y * width in row-major order. Types of Tile, Items and Gates
+ * are stored as the codes used by BoardSnapshot, and Actors as the ids given to them by their
+ * Level, so each cell takes BYTES_PER_CELL bytes rather than the hundreds taken by a Tile and the
+ * objects it holds. The few cells needing more - the text of a HelpTile, or the Treasures needed by
+ * an ExitTile or TreasureGate - are kept in maps.
+ *
+ * <p>
+ * Code written against Tiles can still use a PackedBoard through getTileAt(int, int), which creates
+ * a Tile on demand as a view of the cell, holding Items and Gates made from its codes. Changes made
+ * through the view, such as a Gate being opened or an Item being placed, are written back to the
+ * PackedBoard. Views are not kept, so each call returns a new Tile, and they must be compared by
+ * Position rather than by identity. Links between TeleportTiles are not stored. The Actor in a
+ * cell is found from its id through the Level set with setLevel(Level), so views hold no Actors
+ * until one is set.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class PackedBoard {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The number of bytes each cell takes in a PackedBoard, not counting the maps.
+	 */
+	public static final int BYTES_PER_CELL = 3 * Byte.BYTES + Integer.BYTES;
+
+	/**
+	 * The ID of no Actor.
+	 */
+	public static final int NO_ACTOR = GameObject.NO_ID;
+
+	/**
+	 * How wide the maze is, in cells.
+	 */
+	private final int width;
+
+	/**
+	 * How tall the maze is, in cells.
+	 */
+	private final int height;
+
+	/**
+	 * The type of Tile in each cell, as a BoardSnapshot Tile code.
+	 */
+	private final byte[] kinds;
+
+	/**
+	 * The Item in each cell, as a BoardSnapshot Item code.
+	 */
+	private final byte[] items;
+
+	/**
+	 * The Gate in each cell, as a BoardSnapshot Gate code.
+	 */
+	private final byte[] gates;
+
+	/**
+	 * The ID of the Actor in each cell, or NO_ACTOR.
+	 */
+	private final int[] actors;
+
+	/**
+	 * The number of Treasures needed by the ExitTile or TreasureGate in each cell that has one.
+	 */
+	private final Map<Integer, Integer> treasuresNeeded = new HashMap<Integer, Integer>();
+
+	/**
+	 * The text of the HelpTile in each cell that has one.
+	 */
+	private final Map<Integer, String> helpTexts = new HashMap<Integer, String>();
+
+	/**
+	 * The Level that gave the Actors in this PackedBoard their IDs, or null if none has been set.
+	 */
+	private Level level;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a PackedBoard of the given size, with no Tile in any cell.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 * @throws IllegalArgumentException If the maze has more cells than an array can hold.
+	 */
+	public PackedBoard(int width, int height) throws IllegalArgumentException {
+		long cells = (long) width * height;
+		if(width <= 0 || height <= 0 || cells > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Cannot create a PackedBoard of " + width + " by " + height + " cells.");
+		}
+		this.width = width;
+		this.height = height;
+		this.kinds = new byte[(int) cells];
+		this.items = new byte[(int) cells];
+		this.gates = new byte[(int) cells];
+		this.actors = new int[(int) cells];
+		Arrays.fill(actors, NO_ACTOR);
+	}
+
+	/**
+	 * Creates a PackedBoard holding the same maze as the given Board, including the Actors in it.
+	 *
+	 * @param board The Board to copy.
+	 * @return A new PackedBoard.
+	 * @throws IllegalArgumentException If an Actor in the Board has not been registered with a Level.
+	 */
+	public static PackedBoard of(Board board) throws IllegalArgumentException {
+		PackedBoard packed = new PackedBoard(board.getWidth(), board.getHeight());
+		for(int cell = 0; cell < packed.kinds.length; cell++) {
+			Tile t = board.getTileAtIndex(cell);
+			if(t == null) {
+				continue;
+			}
+			packed.kinds[cell] = BoardSnapshot.tileCode(t);
+			if(t instanceof ExitTile) {
+				packed.treasuresNeeded.put(cell, ((ExitTile) t).getTreasuresNeeded());
+			}else if(t instanceof HelpTile) {
+				packed.helpTexts.put(cell, ((HelpTile) t).getHelpText());
+			}
+			packed.store(cell, t);
+		}
+		return packed;
+	}
+
+	//===================================================================
+	// Cell getters
+	//===================================================================
+
+	/**
+	 * Converts coordinates into a cell index.
+	 *
+	 * @param x The X-coordinate.
+	 * @param y The Y-coordinate.
+	 * @return The cell index, x + y * width.
+	 * @throws IllegalArgumentException If the coordinates are outside the maze.
+	 */
+	public int indexOf(int x, int y) throws IllegalArgumentException {
+		if(x < 0 || y < 0 || x >= width || y >= height) {
+			throw new IllegalArgumentException("(" + x + ", " + y + ") is outside the " + width + " by " + height + " maze.");
+		}
+		return x + y * width;
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The BoardSnapshot code of the type of Tile in that cell, or BoardSnapshot.NONE.
+	 */
+	public byte getKind(int cell) {
+		return kinds[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The BoardSnapshot code of the Item in that cell, or BoardSnapshot.NONE.
+	 */
+	public byte getItem(int cell) {
+		return items[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The BoardSnapshot code of the Gate in that cell, or BoardSnapshot.NONE.
+	 */
+	public byte getGate(int cell) {
+		return gates[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The ID of the Actor in that cell, or NO_ACTOR.
+	 */
+	public int getActorId(int cell) {
+		return actors[cell];
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The Actor in that cell, or null if there is none or no Level has been set.
+	 */
+	public Actor getActor(int cell) {
+		int id = actors[cell];
+		if(id == NO_ACTOR || level == null) {
+			return null;
+		}
+		GameObject o = level.getEntity(id);
+		return o instanceof Actor ? (Actor) o : null;
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The number of Treasures needed by the ExitTile or TreasureGate in that cell, or 0.
+	 */
+	public int getTreasuresNeeded(int cell) {
+		return treasuresNeeded.getOrDefault(cell, 0);
+	}
+
+	/**
+	 * @param cell A cell index.
+	 * @return The text of the HelpTile in that cell, or null.
+	 */
+	public String getHelpText(int cell) {
+		return helpTexts.get(cell);
+	}
+
+	/**
+	 * Used for checking if NonPlayerActors can see through a cell, like Tile.blocksVision().
+	 *
+	 * @param cell A cell index.
+	 * @return True if the cell holds a WallTile or a Gate.
+	 */
+	public boolean blocksVision(int cell) {
+		return kinds[cell] == BoardSnapshot.WALL || gates[cell] != BoardSnapshot.NONE;
+	}
+
+	//===================================================================
+	// Cell setters
+	//===================================================================
+
+	/**
+	 * Sets the type of Tile in a cell.
+	 *
+	 * @param cell A cell index.
+	 * @param kind A BoardSnapshot Tile code, or BoardSnapshot.NONE for no Tile.
+	 */
+	public void setKind(int cell, byte kind) {
+		kinds[cell] = kind;
+	}
+
+	/**
+	 * Sets the Item in a cell.
+	 *
+	 * @param cell A cell index.
+	 * @param item A BoardSnapshot Item code, or BoardSnapshot.NONE for no Item.
+	 */
+	public void setItem(int cell, byte item) {
+		items[cell] = item;
+	}
+
+	/**
+	 * Sets the Gate in a cell.
+	 *
+	 * @param cell A cell index.
+	 * @param gate A BoardSnapshot Gate code, or BoardSnapshot.NONE for no Gate.
+	 */
+	public void setGate(int cell, byte gate) {
+		gates[cell] = gate;
+	}
+
+	/**
+	 * Sets the number of Treasures needed by the ExitTile or TreasureGate in a cell.
+	 *
+	 * @param cell A cell index.
+	 * @param treasures The number of Treasures needed.
+	 */
+	public void setTreasuresNeeded(int cell, int treasures) {
+		treasuresNeeded.put(cell, treasures);
+	}
+
+	/**
+	 * Sets the text of the HelpTile in a cell.
+	 *
+	 * @param cell A cell index.
+	 * @param text The help text.
+	 */
+	public void setHelpText(int cell, String text) {
+		helpTexts.put(cell, text);
+	}
+
+	/**
+	 * Places an Actor in a cell, by its ID.
+	 *
+	 * @param cell A cell index.
+	 * @param a The Actor, or null to empty the cell.
+	 * @throws IllegalArgumentException If the Actor has not been registered with a Level.
+	 */
+	public void setActor(int cell, Actor a) throws IllegalArgumentException {
+		actors[cell] = idOf(a);
+	}
+
+	/**
+	 * Sets the Level that gave the Actors in this PackedBoard their IDs, so getActor(int) and the
+	 * Tile views can find them.
+	 *
+	 * @param level The Level, or null.
+	 */
+	public void setLevel(Level level) {
+		this.level = level;
+	}
+
+	/**
+	 * Moves whatever Actor is in one cell into another.
+	 *
+	 * @param from The cell index the Actor is in.
+	 * @param to The cell index to move it to.
+	 */
+	public void moveActor(int from, int to) {
+		int id = actors[from];
+		actors[from] = NO_ACTOR;
+		actors[to] = id;
+	}
+
+	/**
+	 * Writes what the given Tile holds back into its cell. Called by Tiles that are views of this
+	 * PackedBoard whenever their Actor, Item or Gate changes.
+	 *
+	 * @param t The Tile that has changed.
+	 */
+	public void store(Tile t) {
+		Position pos = t.getPosition();
+		store(indexOf(pos.getX(), pos.getY()), t);
+	}
+
+	/**
+	 * Writes the Actor, Item and Gate of the given Tile into the given cell.
+	 */
+	private void store(int cell, Tile t) {
+		items[cell] = BoardSnapshot.itemCode(t.getItem());
+		Gate g = t.getGate();
+		gates[cell] = BoardSnapshot.gateCode(g);
+		if(g instanceof TreasureGate) {
+			treasuresNeeded.put(cell, ((TreasureGate) g).getTreasuresNeeded());
+		}
+		actors[cell] = idOf(t.getActor());
+	}
+
+	/**
+	 * @return The ID of the given Actor, or NO_ACTOR for null.
+	 * @throws IllegalArgumentException If the Actor has not been registered with a Level.
+	 */
+	private static int idOf(Actor a) throws IllegalArgumentException {
+		if(a == null) {
+			return NO_ACTOR;
+		}
+		if(a.getId() == GameObject.NO_ID) {
+			throw new IllegalArgumentException("Actors must be registered with a Level to be placed in a PackedBoard.");
+		}
+		return a.getId();
+	}
+
+	//===================================================================
+	// Tile views
+	//===================================================================
+
+	/**
+	 * Creates a Tile as a view of the given cell. See the class description.
+	 *
+	 * @param x The X-coordinate of the cell.
+	 * @param y The Y-coordinate of the cell.
+	 * @return A new Tile holding what the cell holds, or null if there is no Tile in the cell.
+	 * @throws IllegalArgumentException If the coordinates are outside the maze.
+	 */
+	public Tile getTileAt(int x, int y) throws IllegalArgumentException {
+		return getTileAtIndex(indexOf(x, y));
+	}
+
+	/**
+	 * Creates a Tile as a view of the given cell. See the class description.
+	 *
+	 * @param cell A cell index.
+	 * @return A new Tile holding what the cell holds, or null if there is no Tile in the cell.
+	 */
+	public Tile getTileAtIndex(int cell) {
+		Tile t = createTile(cell);
+		if(t == null) {
+			return null;
+		}
+		byte item = items[cell];
+		if(item == BoardSnapshot.TREASURE) {
+			new Treasure(t);
+		}else if(item != BoardSnapshot.NONE) {
+			new Key(t, BoardSnapshot.colourOf(item));
+		}
+		byte gate = gates[cell];
+		if(gate == BoardSnapshot.TREASURE_GATE) {
+			new TreasureGate(t, getTreasuresNeeded(cell));
+		}else if(gate != BoardSnapshot.NONE) {
+			new KeyGate(t, BoardSnapshot.colourOf(gate));
+		}
+		Actor a = getActor(cell);
+		if(a != null) {
+			t.setActor(a);
+		}
+		//only write back once the view holds what the cell does
+		t.setPackedBoard(this);
+		return t;
+	}
+
+	/**
+	 * @return An empty Tile of the type in the given cell, or null if there is none.
+	 */
+	private Tile createTile(int cell) {
+		int x = cell % width;
+		int y = cell / width;
+		switch(kinds[cell]) {
+			case BoardSnapshot.FREE:
+				return new FreeTile(x, y);
+			case BoardSnapshot.WALL:
+				return new WallTile(x, y);
+			case BoardSnapshot.EXIT:
+				return new ExitTile(x, y, getTreasuresNeeded(cell));
+			case BoardSnapshot.HELP:
+				return new HelpTile(x, y, getHelpText(cell));
+			case BoardSnapshot.TELEPORT:
+				return new TeleportTile(x, y);
+			default:
+				return null;
+		}
+	}
+
+	/**
+	 * Creates a Board holding the same maze as this PackedBoard, with a Tile object in every cell.
+	 * Actors are not placed, as each can only be in one Tile.
+	 *
+	 * @return A new Board.
+	 */
+	public Board toBoard() {
+		Board board = new Board(width, height);
+		for(int cell = 0; cell < kinds.length; cell++) {
+			int id = actors[cell];
+			actors[cell] = NO_ACTOR; //so the view is created empty
+			Tile t = getTileAtIndex(cell);
+			actors[cell] = id;
+			if(t != null) {
+				t.setPackedBoard(null);
+				board.put(t);
+			}
+		}
+		return board;
+	}
+
+	//===================================================================
+	// Field getters
+	//===================================================================
+
+	/**
+	 * @return The width of the maze.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The height of the maze.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+}
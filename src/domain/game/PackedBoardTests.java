@@ -0,0 +1,100 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import domain.actors.BugEnemy;
+import domain.game.GameObject.Colour;
+import domain.gate.KeyGate;
+import domain.gate.TreasureGate;
+import domain.item.Key;
+import domain.item.Treasure;
+import domain.tiles.ExitTile;
+import domain.tiles.FreeTile;
+import domain.tiles.HelpTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class PackedBoardTests {
+
+	/**
+	 * Builds a 3x2 Board holding every kind of Tile, Item and Gate stored by a PackedBoard.
+	 */
+	private static Board sampler() {
+		Board board = new Board(3, 2);
+		board.put(new FreeTile(0, 0));
+		board.put(new WallTile(1, 0));
+		board.put(new ExitTile(2, 0, 3));
+		board.put(new HelpTile(0, 1, "Collect the keys."));
+		board.put(new FreeTile(1, 1));
+		board.put(new FreeTile(2, 1));
+		new Key(board.getTileAt(0, 0), Colour.GREEN);
+		new TreasureGate(board.getTileAt(1, 1), 2);
+		new Treasure(board.getTileAt(2, 1));
+		return board;
+	}
+
+	@Test
+	void viewsMatchTheBoardCopied() {
+		Board board = sampler();
+		PackedBoard packed = PackedBoard.of(board);
+		assertEquals(BoardSnapshot.WALL, packed.getKind(packed.indexOf(1, 0)));
+		assertEquals(BoardSnapshot.KEY + Colour.GREEN.ordinal(), packed.getItem(0));
+		assertTrue(packed.blocksVision(packed.indexOf(1, 1)));
+		for(Board copy : new Board[] {board, packed.toBoard()}) {
+			for(int cell = 0; cell < 6; cell++) {
+				Tile expected = copy.getTileAtIndex(cell);
+				Tile view = packed.getTileAtIndex(cell);
+				assertSame(expected.getClass(), view.getClass());
+				assertEquals(expected.getPosition(), view.getPosition());
+				assertEquals(BoardSnapshot.itemCode(expected.getItem()), BoardSnapshot.itemCode(view.getItem()));
+				assertEquals(BoardSnapshot.gateCode(expected.getGate()), BoardSnapshot.gateCode(view.getGate()));
+			}
+		}
+		assertEquals(3, ((ExitTile) packed.getTileAt(2, 0)).getTreasuresNeeded());
+		assertEquals(2, ((TreasureGate) packed.getTileAt(1, 1).getGate()).getTreasuresNeeded());
+		assertEquals("Collect the keys.", ((HelpTile) packed.getTileAt(0, 1)).getHelpText());
+	}
+
+	@Test
+	void changesToViewsAreWrittenBack() {
+		PackedBoard packed = new PackedBoard(4, 4);
+		int cell = packed.indexOf(2, 3);
+		packed.setKind(cell, BoardSnapshot.FREE);
+		Tile view = packed.getTileAt(2, 3);
+		view.setItem(new Key(Colour.RED));
+		assertEquals(BoardSnapshot.KEY + Colour.RED.ordinal(), packed.getItem(cell));
+		assertTrue(packed.getTileAt(2, 3).getItem() instanceof Key);
+
+		packed.setGate(cell, (byte) (BoardSnapshot.KEY_GATE + Colour.BLUE.ordinal()));
+		KeyGate gate = (KeyGate) packed.getTileAt(2, 3).getGate();
+		assertEquals(Colour.BLUE, gate.getColour());
+		gate.getTile().setGate(null);
+		assertEquals(BoardSnapshot.NONE, packed.getGate(cell));
+	}
+
+	@Test
+	void actorsAreStoredByTheirLevelIds() {
+		Board board = sampler();
+		BugEnemy bug = new BugEnemy(board.getTileAt(2, 1));
+		Level level = new Level(0, 0, board);
+		PackedBoard packed = PackedBoard.of(board);
+		int cell = packed.indexOf(2, 1);
+		assertEquals(bug.getId(), packed.getActorId(cell));
+		assertEquals(PackedBoard.NO_ACTOR, packed.getActorId(0));
+		assertNull(packed.getActor(cell));
+
+		packed.setLevel(level);
+		assertSame(bug, packed.getActor(cell));
+		assertSame(bug, packed.getTileAt(2, 1).getActor());
+		packed.moveActor(cell, 0);
+		assertSame(bug, packed.getActor(0));
+		assertNull(packed.getActor(cell));
+		assertThrows(IllegalArgumentException.class, () -> packed.setActor(cell, new BugEnemy(new FreeTile(0, 0))));
+	}
+
+}
@@ -60,7 +60,8 @@ public class Player {
 	//===================================================================
 	
 	/**
-	 * Moves chap in the given direction.
+	 * Moves chap in the given direction. The move is made by the systems of the Level's World,
+	 * which open any Gate in the way and pick up any Item in the Tile chap moves into.
 	 *
 	 * @param d
 	 * 		The direction of the move. Chap will be facing in this direction after the move.
@@ -70,12 +71,7 @@ public class Player {
 	 * 		If chap has entered a tile it should not be able to.
 	 */
 	public void move(Direction d) throws IllegalArgumentException, IllegalStateException {
-		Tile t = Game.getLevel().getTileInDirection(getPosition(), d);
-		if(t.canMoveOnto()) {
-			chap.move(t, d);
-			assert getTile().equals(t);
-			t.onEntry();
-		}
+		Game.getLevel().getWorld().moveChap(d);
 	}
 	
 	/**
@@ -113,6 +109,23 @@ public class Player {
 		return getTile().getPosition();
 	}
 	
+	/**
+	 * Returns the direction the player is facing.
+	 *
+	 * @return 
+	 * 		The Direction Chap last moved in.
+	 */
+	public Direction getDirection() {
+		return chap.getDirection();
+	}
+	
+	/**
+	 * @return The Chap the player controls.
+	 */
+	public Chap getChap() {
+		return chap;
+	}
+	
 	/**
 	 * Checks if the Player is at the specified Position.
 	 *
@@ -50,6 +50,41 @@ public class Position {
 		return this.y;
 	}
 	
+	/**
+	 * @return This Position packed into a long, see pack(int, int).
+	 */
+	public long toLong() {
+		return pack(x, y);
+	}
+	
+	/**
+	 * Packs a pair of coordinates into a single long, so they can be passed around and stored 
+	 * without creating a Position. X is held in the upper 32 bits and Y in the lower.
+	 *
+	 * @param x
+	 * @param y
+	 * @return The packed coordinates.
+	 */
+	public static long pack(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+	
+	/**
+	 * @param packed Coordinates packed by pack(int, int).
+	 * @return The X coordinate.
+	 */
+	public static int unpackX(long packed) {
+		return (int) (packed >> 32);
+	}
+	
+	/**
+	 * @param packed Coordinates packed by pack(int, int).
+	 * @return The Y coordinate.
+	 */
+	public static int unpackY(long packed) {
+		return (int) packed;
+	}
+	
 	/**
 	 * Finds what direction another Tile is in. As there are no diagonal directions, attempting to find
 	 * one will throw an exception.
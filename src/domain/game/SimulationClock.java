@@ -0,0 +1,292 @@
+package domain.game;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A SimulationClock calls a tick at a fixed rate, regardless of how long each tick takes to run.
+ * Elapsed time is measured with System.nanoTime and added to an accumulator, and one tick is run for
+ * every full tick length in the accumulator. If the clock falls behind - because a tick ran long, or
+ * the thread was not scheduled - it catches up by running several ticks in a row, up to a cap. Any
+ * ticks beyond the cap are dropped, so the game slows down rather than running many ticks at once.
+ *
+ * <p>
+ * Every tick covers exactly the same length of game time, so the game behaves the same however
+ * fast the machine is. The clock can be paused and resumed, and keeps statistics on ticks that
+ * took longer than their length.
+ * </p>
+ *
+ * <p>
+ * The clock runs on whichever thread calls run(). Every other method may be called from any thread.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class SimulationClock implements Runnable {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The number of ticks per second used by the Game. Input is read every tick, and enemies move
+	 * every Game.ENEMY_MOVE_INTERVAL ticks.
+	 */
+	public static final int DEFAULT_TICK_RATE = 30;
+
+	/**
+	 * The most ticks run back to back when catching up, if no cap is given.
+	 */
+	public static final int DEFAULT_MAX_CATCH_UP = 5;
+
+	/**
+	 * What is run every tick.
+	 */
+	private final Runnable tick;
+
+	/**
+	 * The length of each tick, in nanoseconds.
+	 */
+	private final long tickNanos;
+
+	/**
+	 * The most ticks run back to back when catching up.
+	 */
+	private final int maxCatchUp;
+
+	/**
+	 * True until stop() is called.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * True while the clock is paused. No ticks are run, and paused time is not caught up on resuming.
+	 */
+	private volatile boolean paused = false;
+
+	/**
+	 * The thread running the clock, so it can be woken when paused or stopped.
+	 */
+	private volatile Thread thread;
+
+	/**
+	 * The number of ticks run.
+	 */
+	private final AtomicLong ticks = new AtomicLong();
+
+	/**
+	 * The number of ticks that took longer than the tick length to run.
+	 */
+	private final AtomicLong overruns = new AtomicLong();
+
+	/**
+	 * The number of ticks dropped because the clock fell further behind than it could catch up.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * The total time spent running ticks, in nanoseconds.
+	 */
+	private final AtomicLong busyNanos = new AtomicLong();
+
+	/**
+	 * The longest any tick has taken to run, in nanoseconds.
+	 */
+	private final AtomicLong longestNanos = new AtomicLong();
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a clock running the given tick DEFAULT_TICK_RATE times per second.
+	 *
+	 * @param tick What to run every tick.
+	 */
+	public SimulationClock(Runnable tick) {
+		this(tick, DEFAULT_TICK_RATE, DEFAULT_MAX_CATCH_UP);
+	}
+
+	/**
+	 * Creates a clock running the given tick at the given rate.
+	 *
+	 * @param tick What to run every tick.
+	 * @param ticksPerSecond How many ticks to run each second.
+	 * @param maxCatchUp The most ticks to run back to back when the clock has fallen behind.
+	 */
+	public SimulationClock(Runnable tick, int ticksPerSecond, int maxCatchUp) {
+		if(ticksPerSecond <= 0 || maxCatchUp <= 0) {
+			throw new IllegalArgumentException("Tick rate and catch up cap must be positive.");
+		}
+		this.tick = tick;
+		this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+		this.maxCatchUp = maxCatchUp;
+	}
+
+	//===================================================================
+	// Thread controls
+	//===================================================================
+
+	/**
+	 * Runs ticks at the fixed rate until stop() is called.
+	 */
+	@Override
+	public void run() {
+		thread = Thread.currentThread();
+		long previous = System.nanoTime();
+		long accumulated = 0;
+		while(running) {
+			long now = System.nanoTime();
+			if(paused) {
+				previous = now; //paused time is not caught up on
+				accumulated = 0;
+				LockSupport.park(this);
+				continue;
+			}
+			accumulated += now - previous;
+			previous = now;
+			int steps = 0;
+			while(accumulated >= tickNanos && steps < maxCatchUp && running && !paused) {
+				step();
+				accumulated -= tickNanos;
+				steps++;
+			}
+			if(accumulated >= tickNanos && steps == maxCatchUp) {
+				//too far behind, drop the rest rather than running them all at once
+				dropped.addAndGet(accumulated / tickNanos);
+				accumulated %= tickNanos;
+			}
+			LockSupport.parkNanos(this, tickNanos - accumulated);
+		}
+		thread = null;
+	}
+
+	/**
+	 * Runs a single tick straight away, and records how long it took. Used by the clock itself,
+	 * and to advance the simulation by hand while the clock is not running, such as in tests.
+	 */
+	public void step() {
+		long start = System.nanoTime();
+		tick.run();
+		long elapsed = System.nanoTime() - start;
+		ticks.incrementAndGet();
+		busyNanos.addAndGet(elapsed);
+		if(elapsed > tickNanos) {
+			overruns.incrementAndGet();
+		}
+		longestNanos.accumulateAndGet(elapsed, Math::max);
+	}
+
+	/**
+	 * Stops running ticks until resume() is called.
+	 */
+	public void pause() {
+		paused = true;
+	}
+
+	/**
+	 * Starts running ticks again after pause(). The time spent paused is not caught up on.
+	 */
+	public void resume() {
+		paused = false;
+		wake();
+	}
+
+	/**
+	 * Stops the clock for good. run() returns after any tick in progress has finished.
+	 */
+	public void stop() {
+		running = false;
+		wake();
+	}
+
+	/**
+	 * Stops the clock for good, and waits for run() to return, so no tick is in progress once this
+	 * returns. Called from a tick, it cannot wait for that tick, so it only stops the clock.
+	 */
+	public void stopAndWait() {
+		stop();
+		Thread t = thread;
+		if(t == null || t == Thread.currentThread()) {
+			return; //run() was never called, has returned, or will see running is false on starting
+		}
+		try {
+			t.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Wakes the clock's thread if it is waiting.
+	 */
+	private void wake() {
+		Thread t = thread;
+		if(t != null) {
+			LockSupport.unpark(t);
+		}
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @return True if the clock is paused.
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * @return True if stop() has not been called.
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return The length of each tick, in nanoseconds.
+	 */
+	public long getTickNanos() {
+		return tickNanos;
+	}
+
+	/**
+	 * @return The number of ticks run so far.
+	 */
+	public long getTickCount() {
+		return ticks.get();
+	}
+
+	/**
+	 * @return The number of ticks that took longer than the tick length to run.
+	 */
+	public long getOverrunCount() {
+		return overruns.get();
+	}
+
+	/**
+	 * @return The number of ticks dropped because the clock fell too far behind to catch up.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * @return The longest any tick has taken to run, in nanoseconds.
+	 */
+	public long getLongestTickNanos() {
+		return longestNanos.get();
+	}
+
+	/**
+	 * @return The average time taken to run a tick, in nanoseconds.
+	 */
+	public long getAverageTickNanos() {
+		long n = ticks.get();
+		return n == 0 ? 0 : busyNanos.get() / n;
+	}
+
+}
@@ -0,0 +1,221 @@
+package domain.game;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import domain.actors.Actor;
+import domain.actors.BugEnemy;
+import domain.actors.NonPlayerActor;
+
+/**
+ * A SnapshotBuffer passes BoardSnapshots from the simulation thread to a reader, such as the
+ * Renderer, without either of them ever waiting on the other. It holds three snapshots: the back
+ * one being written by the simulation thread, the front one being read, and a middle one holding
+ * the newest finished snapshot the reader has not yet picked up.
+ *
+ * <p>
+ * Publishing swaps the back snapshot with the middle one, and acquiring swaps the middle one with
+ * the front, each with a single atomic exchange. The writer and reader therefore never touch the
+ * same snapshot, and as all three are created up front, neither side allocates. If the writer
+ * publishes faster than the reader acquires, the snapshots in between are simply skipped.
+ * </p>
+ *
+ * <p>
+ * The Level reports each cell whose contents change through cellChanged(int), and the buffer keeps,
+ * for each of the three snapshots, the cells reported since that snapshot was last written. Only
+ * those cells, and the cells the Actors are in and have left, are copied when it is next written,
+ * so a tick in which little happens costs little however large the maze is. Each snapshot copies
+ * every cell the first time it is written.
+ * </p>
+ *
+ * <p>
+ * One thread may publish, and one thread may acquire. They may be different threads.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class SnapshotBuffer {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * Set in middle when the middle snapshot is newer than the front one.
+	 */
+	private static final int FRESH = 4;
+
+	/**
+	 * The three snapshots.
+	 */
+	private final BoardSnapshot[] snapshots = new BoardSnapshot[3];
+
+	/**
+	 * The index of the middle snapshot, with FRESH set if it has not been acquired yet.
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+
+	/**
+	 * The index of the snapshot being written. Only used by the writer.
+	 */
+	private int back = 0;
+
+	/**
+	 * The index of the snapshot being read. Only used by the reader.
+	 */
+	private int front = 2;
+
+	/**
+	 * The index of the snapshot published last, or -1 if none has been. Only used by the writer,
+	 * which compares against it to find what has changed.
+	 */
+	private int latest = -1;
+
+	/**
+	 * The cells reported changed since each snapshot was last written. Only the writer uses these.
+	 */
+	private final int[][] stale = new int[3][64];
+
+	/**
+	 * The number of cells used in each array of stale.
+	 */
+	private final int[] staleCount = new int[3];
+
+	/**
+	 * The cells in each array of stale, so no cell is listed twice.
+	 */
+	private final BitSet[] staleMarks = {new BitSet(), new BitSet(), new BitSet()};
+
+	/**
+	 * The tick each cell last changed at. Only used by the writer.
+	 */
+	private final long[] lastChanged;
+
+	/**
+	 * The cells the Actors were in when the last snapshot was written, so the cells they leave are
+	 * copied too. Only the first actorCount are used.
+	 */
+	private int[] actorCells = new int[16];
+
+	/**
+	 * The number of cells used in actorCells.
+	 */
+	private int actorCount = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a buffer of snapshots of a maze of the given size.
+	 *
+	 * @param width The width of the maze.
+	 * @param height The height of the maze.
+	 */
+	public SnapshotBuffer(int width, int height) {
+		for(int i = 0; i < snapshots.length; i++) {
+			snapshots[i] = new BoardSnapshot(width, height);
+		}
+		lastChanged = new long[width * height];
+	}
+
+	//===================================================================
+	// Writing
+	//===================================================================
+
+	/**
+	 * Captures the maze into the back snapshot, then publishes it. Must only be called by the writer.
+	 * The snapshot published last is never the back one, so it can be compared against while being
+	 * read.
+	 *
+	 * @param level The Level being played.
+	 * @param player The Player playing it.
+	 * @param tick The number of the current tick.
+	 */
+	public void publish(Level level, Player player, long tick) {
+		markActors(level, player);
+		BoardSnapshot snapshot = snapshots[back];
+		BoardSnapshot previous = latest == -1 ? null : snapshots[latest];
+		if(snapshot.getTick() == -1) {
+			snapshot.capture(level, player, tick, previous, null, 0, lastChanged);
+		}else {
+			snapshot.capture(level, player, tick, previous, stale[back], staleCount[back], lastChanged);
+		}
+		for(int i = 0; i < staleCount[back]; i++) {
+			staleMarks[back].clear(stale[back][i]);
+		}
+		staleCount[back] = 0;
+		latest = back;
+		back = middle.getAndSet(back | FRESH) & 3;
+	}
+
+	/**
+	 * Records that the contents of a cell have changed, so it is copied into each snapshot the next
+	 * time that snapshot is written. Must only be called by the writer.
+	 *
+	 * @param cell The index of the cell that changed.
+	 */
+	public void cellChanged(int cell) {
+		for(int i = 0; i < stale.length; i++) {
+			if(staleMarks[i].get(cell)) {
+				continue;
+			}
+			staleMarks[i].set(cell);
+			if(staleCount[i] == stale[i].length) {
+				stale[i] = Arrays.copyOf(stale[i], staleCount[i] * 2);
+			}
+			stale[i][staleCount[i]++] = cell;
+		}
+	}
+
+	/**
+	 * Marks the cells the Actors were in at the last publish, and the cells they are in now, as
+	 * changed. Actors can turn without moving, and Tiles do not reliably forget Actors that have left
+	 * them, so these are always copied.
+	 */
+	private void markActors(Level level, Player player) {
+		Board board = level.getBoard();
+		for(int i = 0; i < actorCount; i++) {
+			cellChanged(actorCells[i]);
+		}
+		actorCount = 0;
+		for(NonPlayerActor npa : level.getEnemies()) {
+			if(npa instanceof BugEnemy) {
+				addActorCell(board.indexOf(((Actor) npa).getPosition()));
+			}
+		}
+		if(player != null) {
+			addActorCell(board.indexOf(player.getPosition()));
+		}
+	}
+
+	/**
+	 * Records that an Actor is in the given cell, and marks it as changed.
+	 */
+	private void addActorCell(int cell) {
+		if(actorCount == actorCells.length) {
+			actorCells = Arrays.copyOf(actorCells, actorCount * 2);
+		}
+		actorCells[actorCount++] = cell;
+		cellChanged(cell);
+	}
+
+	//===================================================================
+	// Reading
+	//===================================================================
+
+	/**
+	 * Returns the newest published snapshot. It stays unchanged until the next call to acquire(),
+	 * so the reader must not keep it past then. Must only be called by the reader.
+	 *
+	 * @return The newest snapshot. Its tick is -1 if nothing has been published yet.
+	 */
+	public BoardSnapshot acquire() {
+		if((middle.get() & FRESH) != 0) {
+			front = middle.getAndSet(front) & 3;
+		}
+		return snapshots[front];
+	}
+
+}
@@ -0,0 +1,149 @@
+package domain.game;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import domain.actors.BugEnemy;
+import domain.game.Game.Direction;
+import domain.game.GameObject.Colour;
+import domain.gate.KeyGate;
+import domain.item.Key;
+import domain.tiles.FreeTile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class SnapshotTests {
+
+	/**
+	 * Builds a 5x1 corridor of Chap, an empty Tile, a Wall, a blue KeyGate and a blue Key, and
+	 * starts a Game on it.
+	 */
+	private static Level corridor() {
+		Board board = new Board(5, 1);
+		board.put(new FreeTile(0, 0));
+		board.put(new FreeTile(1, 0));
+		board.put(new WallTile(2, 0));
+		board.put(new FreeTile(3, 0));
+		board.put(new FreeTile(4, 0));
+		new Key(board.getTileAt(4, 0), Colour.BLUE);
+		new KeyGate(board.getTileAt(3, 0), Colour.BLUE);
+		Level level = new Level(0, 0, board);
+		new Game(level, new Player(board.getTileAt(0, 0)));
+		return level;
+	}
+
+	@Test
+	void capturesEachLayer() {
+		Level level = corridor();
+		BoardSnapshot s = level.getBoardSnapshot();
+		assertEquals(0, s.getTick());
+		assertEquals(0, s.getChap());
+		assertEquals(BoardSnapshot.CHAP, BoardSnapshot.actorKind(s.getActor(0)));
+		assertEquals(BoardSnapshot.FREE, s.getTile(1));
+		assertEquals(BoardSnapshot.NONE, s.getItem(1));
+		assertEquals(BoardSnapshot.WALL, s.getTile(2));
+		assertEquals(BoardSnapshot.KEY_GATE + Colour.BLUE.ordinal(), s.getGate(3));
+		assertEquals(Colour.BLUE, BoardSnapshot.colourOf(s.getGate(3)));
+		assertEquals(Colour.BLUE, BoardSnapshot.colourOf(s.getItem(4)));
+
+		//Chap moving shows in the next snapshot, but not in the one already held
+		Game.queueMove(Direction.RIGHT);
+		Game.tick();
+		assertEquals(BoardSnapshot.NONE, s.getActor(1));
+		BoardSnapshot next = level.getBoardSnapshot();
+		assertNotSame(s, next);
+		assertEquals(1, next.getTick());
+		assertEquals(1, next.getChap());
+		assertEquals(Direction.RIGHT, BoardSnapshot.actorDirection(next.getActor(1)));
+		assertEquals(BoardSnapshot.NONE, next.getActor(0));
+	}
+
+	@Test
+	void changesAreTrackedAcrossSkippedSnapshots() {
+		Level level = corridor();
+		BoardSnapshot first = level.getBoardSnapshot();
+		//everything is new in the first snapshot
+		assertEquals(5, first.getChangeCount());
+		
+		Game.queueMove(Direction.RIGHT);
+		Game.tick();
+		BoardSnapshot moved = level.getBoardSnapshot();
+		assertEquals(2, moved.getChangeCount());
+		assertEquals(0, moved.getChangedCell(0));
+		assertEquals(1, moved.getChangedCell(1));
+		
+		Game.queueMove(Direction.RIGHT); //into the Wall, so nothing changes
+		Game.tick();
+		Game.tick();
+		//the reader missed a tick, but can still see when each cell last changed
+		BoardSnapshot latest = level.getBoardSnapshot();
+		assertEquals(3, latest.getTick());
+		assertEquals(0, latest.getChangeCount());
+		assertEquals(1, latest.getChangeTick(0));
+		assertEquals(1, latest.getChangeTick(1));
+		assertEquals(0, latest.getChangeTick(2));
+		assertEquals(0, latest.getChangeTick(4));
+		assertThrows(IndexOutOfBoundsException.class, () -> latest.getChangedCell(0));
+	}
+
+	@Test
+	void onlyChangedCellsAreCopied() {
+		Board board = new Board(8, 8);
+		for(int x = 0; x < 8; x++) {
+			for(int y = 0; y < 8; y++) {
+				board.put(new FreeTile(x, y));
+				if((x + y) % 3 == 0 && x + y > 0) {
+					new Key(board.getTileAt(x, y), Colour.values()[(x + y) % Colour.values().length]);
+				}
+			}
+		}
+		new BugEnemy(board.getTileAt(7, 7));
+		Level level = new Level(0, 0, board);
+		Player player = new Player(board.getTileAt(0, 0));
+		new Game(level, player);
+		Direction[] walk = {Direction.RIGHT, Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.DOWN};
+		//Chap picks up Keys and the bug chases him, while the reader skips every other snapshot
+		for(int tick = 0; tick < 40; tick++) {
+			Game.queueMove(walk[tick % walk.length]);
+			Game.tick();
+			if(tick % 2 == 1) {
+				continue;
+			}
+			BoardSnapshot s = level.getBoardSnapshot();
+			BoardSnapshot full = new BoardSnapshot(8, 8);
+			full.capture(level, player, s.getTick(), null, null, 0, new long[64]);
+			for(int cell = 0; cell < 64; cell++) {
+				assertEquals(full.getTile(cell), s.getTile(cell));
+				assertEquals(full.getItem(cell), s.getItem(cell));
+				assertEquals(full.getGate(cell), s.getGate(cell));
+				assertEquals(full.getActor(cell), s.getActor(cell));
+			}
+		}
+		//a quiet tick copies only the cells the Actors are in
+		Game.tick();
+		board.put(new WallTile(3, 3)); //not reported, so not copied
+		Game.tick();
+		BoardSnapshot quiet = level.getBoardSnapshot();
+		assertEquals(BoardSnapshot.FREE, quiet.getTile(board.indexOf(3, 3)));
+	}
+
+	@Test
+	void heldSnapshotIsNeverOverwritten() {
+		Level level = corridor();
+		BoardSnapshot held = level.getBoardSnapshot();
+		long tick = held.getTick();
+		//the writer runs on while the reader holds its snapshot, and only ever uses the other two
+		for(int i = 0; i < 10; i++) {
+			Game.tick();
+			assertEquals(tick, held.getTick());
+		}
+		//the reader skips straight to the newest snapshot, and the same one is returned until another is published
+		BoardSnapshot newest = level.getBoardSnapshot();
+		assertEquals(tick + 10, newest.getTick());
+		assertSame(newest, level.getBoardSnapshot());
+	}
+
+}
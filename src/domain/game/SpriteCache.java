@@ -0,0 +1,143 @@
+package domain.game;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A SpriteCache is an AssetProvider that loads each image from another provider only once, and hands
+ * out the same image to every GameObject that asks for it. Every FreeTile in a maze shares a single
+ * open tile image, rather than decoding and holding a copy each.
+ *
+ * <p>
+ * When a screen is available, each image is converted to the screen's own format as it is loaded,
+ * so drawing it needs no conversion. Images are shared, so they must never be drawn on.
+ * </p>
+ *
+ * <p>
+ * A SpriteCache is safe for use by many threads at once. Each image is loaded at most once, even if
+ * several threads ask for it together.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class SpriteCache implements AssetProvider {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * The cache used by every GameObject unless another AssetProvider is set, reading images from
+	 * the data folder.
+	 */
+	public static final SpriteCache SHARED = new SpriteCache(AssetProvider.FILES);
+
+	/**
+	 * Stands in for images the source does not have, as the cache cannot hold null.
+	 */
+	private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+	/**
+	 * Where images are loaded from.
+	 */
+	private final AssetProvider source;
+
+	/**
+	 * Every image loaded so far, by name.
+	 */
+	private final ConcurrentHashMap<String, BufferedImage> sprites = new ConcurrentHashMap<String, BufferedImage>();
+
+	/**
+	 * The number of images loaded from the source.
+	 */
+	private final AtomicLong loads = new AtomicLong();
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates an empty cache of images from the given provider.
+	 *
+	 * @param source Where to load images from.
+	 */
+	public SpriteCache(AssetProvider source) {
+		this.source = source;
+	}
+
+	//===================================================================
+	// Loading
+	//===================================================================
+
+	@Override
+	public BufferedImage getImage(String name) {
+		BufferedImage image = sprites.get(name);
+		if(image == null) {
+			image = sprites.computeIfAbsent(name, this::load);
+		}
+		return image == MISSING ? null : image;
+	}
+
+	/**
+	 * Loads the named image from the source, and converts it for the screen.
+	 */
+	private BufferedImage load(String name) {
+		loads.incrementAndGet();
+		BufferedImage image = source.getImage(name);
+		return image == null ? MISSING : toCompatible(image);
+	}
+
+	/**
+	 * Copies the given image into the format of the screen, if there is a screen and the image is
+	 * not already in its format.
+	 *
+	 * @param image The image to convert.
+	 * @return An image that can be drawn to the screen without conversion.
+	 */
+	private static BufferedImage toCompatible(BufferedImage image) {
+		if(GraphicsEnvironment.isHeadless()) {
+			return image;
+		}
+		GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration();
+		if(image.getColorModel().equals(gc.getColorModel(image.getTransparency()))) {
+			return image;
+		}
+		BufferedImage compatible = gc.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+		Graphics2D g = compatible.createGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+		return compatible;
+	}
+
+	/**
+	 * Forgets every image, so they are loaded again when next asked for. GameObjects keep the
+	 * images they already hold.
+	 */
+	public void clear() {
+		sprites.clear();
+	}
+
+	//===================================================================
+	// Getters
+	//===================================================================
+
+	/**
+	 * @return The number of images loaded from the source so far.
+	 */
+	public long getLoadCount() {
+		return loads.get();
+	}
+
+	/**
+	 * @return The number of images in the cache.
+	 */
+	public int size() {
+		return sprites.size();
+	}
+
+}
@@ -1,5 +1,6 @@
 package domain.gate;
 
+import domain.game.Game;
 import domain.game.GameObject;
 import domain.tiles.Tile;
 
@@ -42,18 +43,6 @@ public abstract class Gate extends GameObject{
 		assert t.getGate().equals(this);
 	}
 	
-	//===================================================================
-	// Movement controls
-	//===================================================================
-	
-	/**
-	 * Allows the player to open the gate and progress, if they meet the gates condition
-	 * (a key of the matching colour for KeyGates, having enough treasures for TreasureGates).
-	 *
-	 * @return True if the gate was opened, otherwise false;
-	 */
-	public abstract boolean open();
-	
 	//===================================================================
 	// Tile controls
 	//===================================================================
@@ -78,44 +67,18 @@ public abstract class Gate extends GameObject{
 	}
 	
 	/**
-	 * Removes this gate from the Tile containing it.
+	 * Removes this gate from the Tile containing it. Gates are opened by the GateSystem, once the
+	 * Player meets their condition (a key of the matching colour for KeyGates, having enough
+	 * treasures for TreasureGates).
 	 */
-	protected void destruct() {
+	public void destruct() {
 		tile.setGate(null);
+		if(Game.getLevel() != null) {
+			Game.getLevel().tileChanged(tile.getPosition());
+		}
 		assert tile.getGate() == null;
 		tile = null;
 		assert tile == null;
 	}
 	
-	//===================================================================
-	// Comparison methods
-	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((tile == null) ? 0 : tile.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!(obj instanceof Gate)) {
-			return false;
-		}
-		Gate other = (Gate) obj;
-		if (tile == null) {
-			if (other.tile != null) {
-				return false;
-			}
-		} else if (!tile.equals(other.tile)) {
-			return false;
-		}
-		return true;
-	}
-
 }
@@ -1,12 +1,5 @@
 package domain.gate;
 
-import domain.game.Game;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
-
 import domain.tiles.Tile;
 
 /**
@@ -34,36 +27,19 @@ public class KeyGate extends Gate {
 		super(t);
 		this.COLOUR = c;
 		filename = "lock";
-		setImage();
 	}
 	
 	public KeyGate(Colour c) {
 		super();
 		this.COLOUR = c;
 		filename = "lock";
-		setImage();
 	}
 	
 	@Override
-	protected void setImage() {
-		File image = new File(resourcePath + filename + COLOUR.getFilename() + filetype);
-		try {
-			img = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on KeyGate: " + e);
-		}
+	protected String getImageName() {
+		return filename + COLOUR.getFilename();
 	}
 
-	@Override
-	public boolean open() {
-		if(Game.getPlayer().hasKey(COLOUR)) {
-			Game.getPlayer().removeKey(COLOUR);
-			destruct();
-			return true;
-		}
-		return false;
-	}
-	
 	/**
 	 * Returns the colour of this Gate.
 	 *
@@ -73,9 +49,4 @@ public class KeyGate extends Gate {
 		return COLOUR;
 	}
 
-	@Override
-	public BufferedImage getImage() {
-		return img;
-	}
-
 }
@@ -1,6 +1,5 @@
 package domain.gate;
 
-import domain.game.Game;
 import domain.tiles.Tile;
 
 /**
@@ -35,27 +34,12 @@ public class TreasureGate extends Gate {
 		super(t);
 		this.treasuresNeeded = treasuresNeeded;
 		filename = "gate_closed";
-		setImage();
 	}
 	
 	public TreasureGate(int treasuresNeeded) {
 		super();
 		this.treasuresNeeded = treasuresNeeded;
 		filename = "gate_closed";
-		setImage();
-	}
-	
-	//===================================================================
-	// Opening controls
-	//===================================================================
-
-	@Override
-	public boolean open() {
-		if(Game.getPlayer().getNumTreasures() >= treasuresNeeded) {
-			destruct();
-			return true;
-		}
-		return false;
 	}
 	
 	//===================================================================
@@ -71,34 +55,4 @@ public class TreasureGate extends Gate {
 		return treasuresNeeded;
 	}
 	
-	//===================================================================
-	// Comparison methods
-	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + treasuresNeeded;
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!super.equals(obj)) {
-			return false;
-		}
-		if (!(obj instanceof TreasureGate)) {
-			return false;
-		}
-		TreasureGate other = (TreasureGate) obj;
-		if (treasuresNeeded != other.treasuresNeeded) {
-			return false;
-		}
-		return true;
-	}
-
 }
\ No newline at end of file
@@ -1,10 +1,5 @@
 package domain.item;
 
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
-
 import domain.tiles.Tile;
 
 /**
@@ -37,7 +32,6 @@ public class Key extends Item {
 		super();
 		this.COLOUR = c;
 		filename = "key";
-		setImage();
 	}
 	
 	/**
@@ -50,7 +44,6 @@ public class Key extends Item {
 		super(t);
 		this.COLOUR = c;
 		filename = "key";
-		setImage();
 	}
 	
 	//===================================================================
@@ -58,13 +51,8 @@ public class Key extends Item {
 	//===================================================================
 	
 	@Override
-	protected void setImage(){
-		File image = new File(resourcePath + filename + COLOUR.getFilename() + filetype);
-		try {
-			img = ImageIO.read(image);
-		} catch(IOException e) {
-			System.out.println("Error setting image on " + this.getClass().toString() + ": " + e);
-		}
+	protected String getImageName() {
+		return filename + COLOUR.getFilename();
 	}
 	
 	//===================================================================
@@ -78,36 +66,4 @@ public class Key extends Item {
 		return COLOUR;
 	}
 	
-	//===================================================================
-	// Comparison methods
-	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((COLOUR == null) ? 0 : COLOUR.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!super.equals(obj)) {
-			return false;
-		}
-		if (!(obj instanceof Key)) {
-			return false;
-		}
-		Key other = (Key) obj;
-		if (COLOUR != other.COLOUR) {
-			return false;
-		}
-		return true;
-	}
-	
-	
-	
 }
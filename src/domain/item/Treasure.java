@@ -1,7 +1,5 @@
 package domain.item;
 
-import java.awt.image.BufferedImage;
-
 import domain.tiles.Tile;
 
 /**
@@ -20,6 +18,7 @@ public class Treasure extends Item {
 	 */
 	public Treasure() {
 		super();
+		filename = "treasure";
 	}
 
 	/**
@@ -30,15 +29,6 @@ public class Treasure extends Item {
 	public Treasure(Tile t) {
 		super(t);
 		filename = "treasure";
-		setImage();
 	}
-	
-	//===================================================================
-	// Image controls
-	//===================================================================
 
-	@Override
-	public BufferedImage getImage() {
-		return img;
-	}
 }
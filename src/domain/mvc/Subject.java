@@ -27,7 +27,7 @@ public class Subject {
 	/**
 	 * Called when a change in this Subjects state has occurred, notifying all Observers monitoring this Subject.
 	 */
-	public void notifyAllObservers() {
+	public static void notifyAllObservers() {
 		for(Observer obs : observers) {
 			obs.update();
 		}
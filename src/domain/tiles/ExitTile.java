@@ -38,7 +38,6 @@ public class ExitTile extends Tile {
 		super(pos);
 		this.treasuresNeeded = treasuresNeeded;
 		filename = "exit";
-		setImage();
 	}
 	
 	/**
@@ -52,7 +51,6 @@ public class ExitTile extends Tile {
 		super(x, y);
 		this.treasuresNeeded = treasuresNeeded;
 		filename = "exit";
-		setImage();
 	}
 	
 	//===================================================================
@@ -87,6 +85,7 @@ public class ExitTile extends Tile {
 			return false;
 		}
 		actor = a;
+		contentsChanged();
 		return true;
 	}
 
@@ -101,32 +100,14 @@ public class ExitTile extends Tile {
 	}
 	
 	//===================================================================
-	// Comparison methods
+	// Treasure controls
 	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + treasuresNeeded;
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!super.equals(obj)) {
-			return false;
-		}
-		if (!(obj instanceof ExitTile)) {
-			return false;
-		}
-		ExitTile other = (ExitTile) obj;
-		if (treasuresNeeded != other.treasuresNeeded) {
-			return false;
-		}
-		return true;
+	
+	/**
+	 * @return The number of Treasures the Player needs to have collected in order to beat the Level.
+	 */
+	public int getTreasuresNeeded() {
+		return treasuresNeeded;
 	}
+	
 }
@@ -2,12 +2,9 @@ package domain.tiles;
 
 import java.awt.image.BufferedImage;
 import domain.actors.Actor;
-import domain.game.Game;
 import domain.game.GameObject;
 import domain.game.Position;
 import domain.item.Item;
-import domain.item.Key;
-import domain.item.Treasure;
 import domain.gate.Gate;
 
 /**
@@ -33,7 +30,6 @@ public class FreeTile extends Tile {
 	public FreeTile(Position pos) {
 		super(pos);
 		filename = "open_tile";
-		setImage();
 	}
 	
 	/**
@@ -46,7 +42,6 @@ public class FreeTile extends Tile {
 	public FreeTile(Position pos, GameObject obj) throws IllegalArgumentException {
 		super(pos, obj);
 		filename = "open_tile";
-		setImage();
 	}
 	
 	//**Coordinate-based constructors**
@@ -61,7 +56,6 @@ public class FreeTile extends Tile {
 	public FreeTile(int x, int y) {
 		super(x, y);
 		filename = "open_tile";
-		setImage();
 	}
 	
 	/**
@@ -76,7 +70,6 @@ public class FreeTile extends Tile {
 	public FreeTile(int x, int y, GameObject obj) throws IllegalArgumentException {
 		super(x, y, obj);
 		filename = "open_tile";
-		setImage();
 	}
 	
 	//===================================================================
@@ -88,14 +81,8 @@ public class FreeTile extends Tile {
 		if(this.actor != null) {
 			return false;
 		}
-		if(this.gate != null) {
-			if(gate.open()) {
-				assert gate == null;
-			}else {
-				return false;
-			}
-		}
-		return true;
+		//Gates are opened by the GateSystem before anything tries to move on
+		return this.gate == null;
 	}
 	
 	@Override
@@ -103,17 +90,7 @@ public class FreeTile extends Tile {
 		if(gate != null) {
 			throw new IllegalStateException("Actor overlapping with gate.");
 		}
-		if(hasItem()) {
-			if(item instanceof Key) {
-				Key k = (Key) item;
-				Game.getPlayer().addKey(k.getColour());
-				removeItem();
-			}
-			if(item instanceof Treasure) {
-				Game.getPlayer().addTreasure();
-				removeItem();
-			}
-		}
+		//Items are picked up by the PickupSystem
 	}
 	
 	//===================================================================
@@ -122,8 +99,9 @@ public class FreeTile extends Tile {
 
 	@Override
 	public boolean setActor(Actor a) {
-		if(this.actor == null && this.gate == null) {
+		if(a == null || this.actor == null && this.gate == null) {
 			this.actor = a;
+			contentsChanged();
 			return true;
 		}
 		return false;
@@ -131,12 +109,15 @@ public class FreeTile extends Tile {
 	
 	@Override
 	public boolean setItem(Item i) {
-		if(item != null && actor != null) {
+		if(i != null && item != null && actor != null) {
 			return false;
 		}
 		item = i;
-		i.setTile(this);
-		assert i.getTile().equals(this);
+		if(i != null) {
+			i.setTile(this);
+			assert i.getTile().equals(this);
+		}
+		contentsChanged();
 		return true;
 	}
 
@@ -146,6 +127,7 @@ public class FreeTile extends Tile {
 			return false;
 		}
 		gate = g;
+		contentsChanged();
 		return true;
 	}
 	
@@ -161,7 +143,7 @@ public class FreeTile extends Tile {
 		if(item != null) {
 			return item.getImage();
 		}
-		return img;
+		return super.getImage();
 	}
 
 	
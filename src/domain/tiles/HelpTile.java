@@ -7,8 +7,6 @@ import domain.game.GameObject;
 import domain.game.Position;
 import domain.gate.Gate;
 import domain.item.Item;
-import domain.item.Key;
-import domain.item.Treasure;
 
 /**
  * A HelpTile is essentially a FreeTile, with one difference - when the Player moves onto a HelpTile,
@@ -43,14 +41,12 @@ public class HelpTile extends Tile {
 		super(pos);
 		this.helptext = helptext;
 		filename = "help_tile";
-		setImage();
 	}
 	
 	public HelpTile(int x, int y, String helptext) {
 		super(x, y);
 		this.helptext = helptext;
 		filename = "help_tile";
-		setImage();
 	}
 	
 	/**
@@ -66,7 +62,6 @@ public class HelpTile extends Tile {
 		super(pos, obj);
 		this.helptext = helptext;
 		filename = "help_tile";
-		setImage();
 	}
 	
 	//===================================================================
@@ -78,12 +73,8 @@ public class HelpTile extends Tile {
 		if(this.actor != null) {
 			return false;
 		}
-		if(this.gate != null) {
-			if(gate.open()) {
-				assert gate == null;
-			}
-		}
-		return true;
+		//Gates are opened by the GateSystem before anything tries to move on
+		return this.gate == null;
 	}
 
 	@Override
@@ -91,16 +82,7 @@ public class HelpTile extends Tile {
 		if(gate != null) {
 			throw new IllegalStateException("Actor overlapping with gate.");
 		}
-		if(hasItem()) {
-			if(item instanceof Key) {
-				Key k = (Key) item;
-				Game.getPlayer().addKey(k.getColour());
-				item.destruct();
-			}else if(item instanceof Treasure) {
-				Game.getPlayer().addTreasure();
-				item.destruct();
-			}
-		}
+		//Items are picked up by the PickupSystem
 		Game.notifyAllWithMessage(helptext);
 	}
 	
@@ -110,8 +92,9 @@ public class HelpTile extends Tile {
 
 	@Override
 	public boolean setActor(Actor a) {
-		if(this.actor == null && this.gate == null) {
+		if(a == null || this.actor == null && this.gate == null) {
 			this.actor = a;
+			contentsChanged();
 			return true;
 		}
 		return false;
@@ -119,10 +102,11 @@ public class HelpTile extends Tile {
 
 	@Override
 	public boolean setItem(Item i) {
-		if(item != null && actor != null) {
+		if(i != null && item != null && actor != null) {
 			return false;
 		}
 		item = i;
+		contentsChanged();
 		return true;
 	}
 
@@ -132,6 +116,7 @@ public class HelpTile extends Tile {
 			return false;
 		}
 		gate = g;
+		contentsChanged();
 		return true;
 	}
 	
@@ -171,41 +156,7 @@ public class HelpTile extends Tile {
 		if(item != null) {
 			return item.getImage();
 		}
-		return img;
+		return super.getImage();
 	}
 	
-	//===================================================================
-	// Comparison methods
-	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((helptext == null) ? 0 : helptext.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!super.equals(obj)) {
-			return false;
-		}
-		if (!(obj instanceof HelpTile)) {
-			return false;
-		}
-		HelpTile other = (HelpTile) obj;
-		if (helptext == null) {
-			if (other.helptext != null) {
-				return false;
-			}
-		} else if (!helptext.equals(other.helptext)) {
-			return false;
-		}
-		return true;
-	}
-
 }
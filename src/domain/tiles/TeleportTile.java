@@ -49,6 +49,7 @@ public class TeleportTile extends Tile {
 	public boolean setActor(Actor a) {
 		actor = a;
 		assert actor.equals(a);
+		contentsChanged();
 		return true;
 	}
 
@@ -4,8 +4,9 @@ import java.util.HashSet;
 
 import domain.actors.Actor;
 import domain.game.Game;
-import domain.game.Game.Direction;
 import domain.game.GameObject;
+import domain.game.Level;
+import domain.game.PackedBoard;
 import domain.game.Position;
 import domain.item.Item;
 import domain.gate.Gate;
@@ -44,9 +45,10 @@ public abstract class Tile extends GameObject{
 	protected final Position pos;
 	
 	/**
-	 * The previous Tile in an A* search.
+	 * The PackedBoard this Tile is a view of, if any. Whenever the Actor, Item or Gate in this Tile
+	 * changes, the change is written back to it.
 	 */
-	protected Tile prev = null;
+	private PackedBoard packed;
 	
 	//===================================================================
 	// Constructors
@@ -262,104 +264,54 @@ public abstract class Tile extends GameObject{
 	}
 	
 	//===================================================================
-	// A* controls
+	// Packed board controls
 	//===================================================================
 	
 	/**
-	 * Used for checking if NonPlayerActors can see through this Tile.
+	 * Makes this Tile a view of its cell in the given PackedBoard, so changes to what it holds are
+	 * written back to the PackedBoard. Used by PackedBoard when it creates a view.
 	 *
-	 * @return True if this Tile is a WallTile or contains a Gate, otherwise false.
+	 * @param board The PackedBoard this Tile is a view of.
 	 */
-	public boolean blocksVision() {
-		return this instanceof WallTile || hasGate();
+	public void setPackedBoard(PackedBoard board) {
+		this.packed = board;
 	}
 	
 	/**
-	 * Sets the given Tile as the previous one visited in an A* search.
-	 *
-	 * @param prev
+	 * Must be called by subclasses whenever the Actor, Item or Gate in this Tile has been changed.
+	 * Tells the Level being played, so the change is copied into its next BoardSnapshot.
 	 */
-	public void setPrev(Tile prev) {
-		this.prev = prev;
+	protected void contentsChanged() {
+		if(packed != null) {
+			packed.store(this);
+		}
+		Level level = Game.getLevel();
+		if(level != null) {
+			level.cellChanged(this);
+		}
 	}
 	
+	//===================================================================
+	// A* controls
+	//===================================================================
+	
 	/**
-	 * @return The previously visited Tile in an A* search.
+	 * Used for checking if NonPlayerActors can see through this Tile.
+	 *
+	 * @return True if this Tile is a WallTile or contains a Gate, otherwise false.
 	 */
-	public Tile getPrev() {
-		return prev;
+	public boolean blocksVision() {
+		return this instanceof WallTile || hasGate();
 	}
 	
 	/**
-	 * @return A HashSet of each Tile orthogonally adjacent to this one.
+	 * @return A HashSet of each Tile orthogonally adjacent to this one. Tiles on the edge of the
+	 * 			maze have fewer. See Board.forEachAdjacentTile for a version that does not allocate.
 	 */
 	public HashSet<Tile> getAllAdjacentTiles() {
 		HashSet<Tile> adj = new HashSet<Tile>();
-		for(Direction d : Direction.values()) {
-			Tile t = Game.getLevel().getTileInDirection(pos, d);
-			if(t != null) {
-				adj.add(t);
-			}
-		}
+		Game.getLevel().getBoard().forEachAdjacentTile(pos, adj::add);
 		return adj;
 	}
 	
-	//===================================================================
-	// Comparison methods
-	//===================================================================
-
-	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((actor == null) ? 0 : actor.hashCode());
-		result = prime * result + ((gate == null) ? 0 : gate.hashCode());
-		result = prime * result + ((item == null) ? 0 : item.hashCode());
-		result = prime * result + ((pos == null) ? 0 : pos.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		if (this == obj) {
-			return true;
-		}
-		if (!super.equals(obj)) {
-			return false;
-		}
-		if (!(obj instanceof Tile)) {
-			return false;
-		}
-		Tile other = (Tile) obj;
-		if (actor == null) {
-			if (other.actor != null) {
-				return false;
-			}
-		} else if (!actor.equals(other.actor)) {
-			return false;
-		}
-		if (gate == null) {
-			if (other.gate != null) {
-				return false;
-			}
-		} else if (!gate.equals(other.gate)) {
-			return false;
-		}
-		if (item == null) {
-			if (other.item != null) {
-				return false;
-			}
-		} else if (!item.equals(other.item)) {
-			return false;
-		}
-		if (pos == null) {
-			if (other.pos != null) {
-				return false;
-			}
-		} else if (!pos.equals(other.pos)) {
-			return false;
-		}
-		return true;
-	}
-	
 }
@@ -25,7 +25,6 @@ public class WallTile extends Tile {
 	public WallTile(Position pos){
 		super(pos);
 		filename = "wall";
-		setImage();
 	}
 	
 	/**
@@ -37,7 +36,6 @@ public class WallTile extends Tile {
 	public WallTile(int x, int y) {
 		super(x, y);
 		filename = "wall";
-		setImage();
 	}
 	
 	//===================================================================
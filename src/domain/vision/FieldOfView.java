@@ -0,0 +1,244 @@
+package domain.vision;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A FieldOfView stores, for every cell that does not block vision, the set of cells that can be seen
+ * from it within a fixed radius. Each set is found with recursive shadowcasting the first time its
+ * cell is looked from, so checking if one cell can see another is then a single bit test, and cells
+ * nothing ever looks from cost no more than a slot index.
+ *
+ * <p>
+ * Each set is a bitset covering the (2 * radius + 1) square window centred on its origin. When a
+ * cell changes opacity, the sets of the origins close enough to see that cell are found again the
+ * next time they are looked from. As sets are filled in by isVisible, a FieldOfView must not be used
+ * by more than one thread at a time.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class FieldOfView {
+
+	//===================================================================
+	// Fields
+	//===================================================================
+
+	/**
+	 * Multipliers used to transform the first octant into each of the eight octants around an origin.
+	 */
+	private static final int[][] OCTANTS = {
+			{1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+			{-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+	};
+
+	/**
+	 * The opacity of each cell.
+	 */
+	private final OpacityMap map;
+
+	/**
+	 * How far each cell can see.
+	 */
+	private final int radius;
+
+	/**
+	 * The width of the square window around each origin, equal to 2 * radius + 1.
+	 */
+	private final int side;
+
+	/**
+	 * The number of longs needed to store one visibility set.
+	 */
+	private final int words;
+
+	/**
+	 * The slot in sets holding each cell's visibility set, or -1 if the cell blocks vision or has
+	 * not been looked from.
+	 */
+	private final int[] slots;
+
+	/**
+	 * The cells whose visibility sets are up to date.
+	 */
+	private final BitSet current;
+
+	/**
+	 * The visibility sets of each origin, stored one after another.
+	 */
+	private long[] sets;
+
+	/**
+	 * The number of slots in use.
+	 */
+	private int used = 0;
+
+	//===================================================================
+	// Constructors
+	//===================================================================
+
+	/**
+	 * Creates a FieldOfView of the given map. No visibility set is found until it is needed.
+	 *
+	 * @param map The opacity of each cell.
+	 * @param radius How far each cell can see.
+	 */
+	public FieldOfView(OpacityMap map, int radius) {
+		this.map = map;
+		this.radius = radius;
+		this.side = 2 * radius + 1;
+		this.words = (side * side + 63) >>> 6;
+		int size = map.getWidth() * map.getHeight();
+		this.slots = new int[size];
+		Arrays.fill(slots, -1);
+		this.current = new BitSet(size);
+		this.sets = new long[64 * words];
+	}
+
+	//===================================================================
+	// Queries
+	//===================================================================
+
+	/**
+	 * Checks if the cell at (x0, y0) can see the cell at (x1, y1).
+	 *
+	 * @param x0 X-coordinate of the cell doing the looking.
+	 * @param y0 Y-coordinate of the cell doing the looking.
+	 * @param x1 X-coordinate of the cell being looked at.
+	 * @param y1 Y-coordinate of the cell being looked at.
+	 * @return True if the target is within radius and not hidden behind a cell that blocks vision.
+	 */
+	public boolean isVisible(int x0, int y0, int x1, int y1) {
+		int dx = x1 - x0 + radius;
+		int dy = y1 - y0 + radius;
+		if(dx < 0 || dy < 0 || dx >= side || dy >= side) {
+			return false;
+		}
+		int origin = x0 + y0 * map.getWidth();
+		if(!current.get(origin)) {
+			compute(origin);
+		}
+		int slot = slots[origin];
+		if(slot == -1) {
+			return false;
+		}
+		int bit = dx + dy * side;
+		return (sets[slot * words + (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * @return How far each cell can see.
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	//===================================================================
+	// Updates
+	//===================================================================
+
+	/**
+	 * Marks every visibility set that could be affected by the given cell changing opacity - that
+	 * is, those of every origin within radius of it - to be found again when next needed.
+	 *
+	 * @param cell The index of the cell that changed.
+	 */
+	public void cellChanged(int cell) {
+		int width = map.getWidth();
+		int cx = cell % width;
+		int cy = cell / width;
+		int x0 = Math.max(0, cx - radius);
+		int x1 = Math.min(width - 1, cx + radius);
+		for(int y = Math.max(0, cy - radius); y <= Math.min(map.getHeight() - 1, cy + radius); y++) {
+			current.clear(x0 + y * width, x1 + y * width + 1);
+		}
+	}
+
+	/**
+	 * Finds the visibility set of a single origin.
+	 */
+	private void compute(int origin) {
+		current.set(origin);
+		if(map.isOpaque(origin)) {
+			slots[origin] = -1; //the slot is not reused, as gates are only ever removed
+			return;
+		}
+		int slot = slots[origin];
+		if(slot == -1) {
+			slot = used++;
+			if(slot * words >= sets.length) {
+				sets = Arrays.copyOf(sets, sets.length * 2);
+			}
+			slots[origin] = slot;
+		}
+		int base = slot * words;
+		Arrays.fill(sets, base, base + words, 0L);
+		int width = map.getWidth();
+		int ox = origin % width;
+		int oy = origin / width;
+		mark(base, 0, 0);
+		for(int[] o : OCTANTS) {
+			castLight(base, ox, oy, 1, 1.0, 0.0, o[0], o[1], o[2], o[3]);
+		}
+	}
+
+	/**
+	 * Scans one octant outward from the origin, row by row, marking every lit cell. When a run of
+	 * cells that block vision is found, the part of the octant beyond it is scanned by a recursive
+	 * call with a narrower range of slopes.
+	 */
+	private void castLight(int base, int ox, int oy, int row, double start, double end, int xx, int xy, int yx, int yy) {
+		if(start < end) {
+			return;
+		}
+		int r2 = radius * radius;
+		double newStart = 0;
+		for(int j = row; j <= radius; j++) {
+			boolean blocked = false;
+			int dy = -j;
+			for(int dx = -j; dx <= 0; dx++) {
+				double leftSlope = (dx - 0.5) / (dy + 0.5);
+				double rightSlope = (dx + 0.5) / (dy - 0.5);
+				if(start < rightSlope) {
+					continue;
+				}
+				if(end > leftSlope) {
+					break;
+				}
+				int relX = dx * xx + dy * xy;
+				int relY = dx * yx + dy * yy;
+				int x = ox + relX;
+				int y = oy + relY;
+				boolean inside = x >= 0 && y >= 0 && x < map.getWidth() && y < map.getHeight();
+				boolean opaque = !inside || map.isOpaque(x, y);
+				if(inside && dx * dx + dy * dy <= r2) {
+					mark(base, relX, relY);
+				}
+				if(blocked) {
+					if(opaque) {
+						newStart = rightSlope;
+					}else {
+						blocked = false;
+						start = newStart;
+					}
+				}else if(opaque && j < radius) {
+					blocked = true;
+					castLight(base, ox, oy, j + 1, start, leftSlope, xx, xy, yx, yy);
+					newStart = rightSlope;
+				}
+			}
+			if(blocked) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Marks the cell at the given offset from the origin as visible.
+	 */
+	private void mark(int base, int relX, int relY) {
+		int bit = (relX + radius) + (relY + radius) * side;
+		sets[base + (bit >>> 6)] |= 1L << bit;
+	}
+
+}
@@ -0,0 +1,72 @@
+package domain.vision;
+
+/**
+ * The LineOfSight class casts rays across an OpacityMap to check if one cell can see another.
+ * 
+ * <p>
+ * This class is declared abstract to prevent creation of instances. All methods are static
+ * and should be accessed that way.
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public abstract class LineOfSight {
+	
+	/**
+	 * Checks if the straight line between two cells is clear, by stepping along it with Bresenham's
+	 * line algorithm. The two end cells are not checked, only the cells between them.
+	 *
+	 * @param map The opacity of each cell.
+	 * @param x0 X-coordinate of the cell doing the looking.
+	 * @param y0 Y-coordinate of the cell doing the looking.
+	 * @param x1 X-coordinate of the cell being looked at.
+	 * @param y1 Y-coordinate of the cell being looked at.
+	 * @return True if no cell between the two blocks vision.
+	 */
+	public static boolean isClear(OpacityMap map, int x0, int y0, int x1, int y1) {
+		if(x0 == x1 && y0 == y1) {
+			return true;
+		}
+		int dx = Math.abs(x1 - x0);
+		int dy = -Math.abs(y1 - y0);
+		int sx = x0 < x1 ? 1 : -1;
+		int sy = y0 < y1 ? 1 : -1;
+		int err = dx + dy;
+		int x = x0;
+		int y = y0;
+		while(true) {
+			int e2 = 2 * err;
+			if(e2 >= dy) {
+				err += dy;
+				x += sx;
+			}
+			if(e2 <= dx) {
+				err += dx;
+				y += sy;
+			}
+			if(x == x1 && y == y1) {
+				return true;
+			}
+			if(map.isOpaque(x, y)) {
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * Checks if two cells are within the given radius of each other, without taking a square root.
+	 *
+	 * @param x0
+	 * @param y0
+	 * @param x1
+	 * @param y1
+	 * @param radius The greatest distance allowed between the cells.
+	 * @return True if the straight line distance between the cells is no more than radius.
+	 */
+	public static boolean withinRange(int x0, int y0, int x1, int y1, int radius) {
+		int dx = x1 - x0;
+		int dy = y1 - y0;
+		return dx * dx + dy * dy <= radius * radius;
+	}
+
+}
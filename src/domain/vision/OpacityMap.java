@@ -0,0 +1,141 @@
+package domain.vision;
+
+import domain.game.Board;
+import domain.tiles.Tile;
+
+/**
+ * An OpacityMap records which cells of a Board block vision, packed into one bit per cell. Cells are
+ * identified by their index, x + y * width, as in the domain.astar package.
+ * 
+ * <p>
+ * The map does not watch the Board for changes - whoever changes a Tile in a way that affects
+ * whether it blocks vision must call update(int) for that cell. The Level does this from
+ * tileChanged(Position).
+ * </p>
+ *
+ * @author Michael Dasan 300130610
+ */
+public class OpacityMap {
+	
+	//===================================================================
+	// Fields
+	//===================================================================
+	
+	/**
+	 * The Board this map was built from.
+	 */
+	private final Board board;
+	
+	/**
+	 * How wide the map is, in cells.
+	 */
+	private final int width;
+	
+	/**
+	 * How tall the map is, in cells.
+	 */
+	private final int height;
+	
+	/**
+	 * One bit per cell, set if that cell blocks vision.
+	 */
+	private final long[] bits;
+	
+	/**
+	 * Increases every time a cell changes opacity.
+	 */
+	private volatile int version = 0;
+	
+	//===================================================================
+	// Constructors
+	//===================================================================
+	
+	/**
+	 * Builds an OpacityMap of the given Board. Walls, Gates and missing Tiles block vision.
+	 *
+	 * @param board The Board to build the map from.
+	 */
+	public OpacityMap(Board board) {
+		this.board = board;
+		this.width = board.getWidth();
+		this.height = board.getHeight();
+		this.bits = new long[(width * height + 63) >>> 6];
+		for(int cell = 0; cell < width * height; cell++) {
+			if(readOpacity(cell)) {
+				bits[cell >>> 6] |= 1L << cell;
+			}
+		}
+	}
+	
+	//===================================================================
+	// Opacity controls
+	//===================================================================
+	
+	/**
+	 * @param cell A cell index.
+	 * @return True if the cell blocks vision.
+	 */
+	public boolean isOpaque(int cell) {
+		return (bits[cell >>> 6] & (1L << cell)) != 0;
+	}
+	
+	/**
+	 * @param x
+	 * @param y
+	 * @return True if the cell at (x, y) blocks vision.
+	 */
+	public boolean isOpaque(int x, int y) {
+		return isOpaque(x + y * width);
+	}
+	
+	/**
+	 * Re-reads whether the Tile in the given cell blocks vision. The version is only increased if 
+	 * the opacity of the cell actually changed.
+	 *
+	 * @param cell The index of the cell that may have changed.
+	 * @return True if the opacity of the cell changed.
+	 */
+	public boolean update(int cell) {
+		boolean opaque = readOpacity(cell);
+		if(opaque == isOpaque(cell)) {
+			return false;
+		}
+		bits[cell >>> 6] ^= 1L << cell;
+		version++;
+		return true;
+	}
+	
+	/**
+	 * Checks the Tile in the given cell of the Board.
+	 */
+	private boolean readOpacity(int cell) {
+		Tile t = board.getTileAtIndex(cell);
+		return t == null || t.blocksVision();
+	}
+	
+	//===================================================================
+	// Field getters
+	//===================================================================
+	
+	/**
+	 * @return A number that increases every time a cell in this map changes opacity.
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * @return The width of the map.
+	 */
+	public int getWidth() {
+		return width;
+	}
+	
+	/**
+	 * @return The height of the map.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+}
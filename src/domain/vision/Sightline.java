@@ -0,0 +1,69 @@
+package domain.vision;
+
+/**
+ * A Sightline remembers the result of the last line of sight check made by one NonPlayerActor. The 
+ * check is only repeated if the looker or its target has moved, or a cell in the OpacityMap has 
+ * changed, since the last time it was made.
+ *
+ * @author Michael Dasan 300130610
+ */
+public class Sightline {
+	
+	/**
+	 * The cell index the last check was made from.
+	 */
+	private int from = -1;
+	
+	/**
+	 * The cell index the last check was made to.
+	 */
+	private int to = -1;
+	
+	/**
+	 * The vision radius the last check was made with.
+	 */
+	private int radius = -1;
+	
+	/**
+	 * The map the last check was made on.
+	 */
+	private OpacityMap map;
+	
+	/**
+	 * The version of the map when the last check was made.
+	 */
+	private int version = -1;
+	
+	/**
+	 * The result of the last check.
+	 */
+	private boolean visible = false;
+	
+	/**
+	 * Checks if the cell at (x0, y0) can see the cell at (x1, y1) - that is, they are within radius
+	 * of each other and no cell between them blocks vision.
+	 *
+	 * @param map The opacity of each cell.
+	 * @param x0 X-coordinate of the cell doing the looking.
+	 * @param y0 Y-coordinate of the cell doing the looking.
+	 * @param x1 X-coordinate of the cell being looked at.
+	 * @param y1 Y-coordinate of the cell being looked at.
+	 * @param radius How far the looker can see.
+	 * @return True if the target is visible.
+	 */
+	public boolean canSee(OpacityMap map, int x0, int y0, int x1, int y1, int radius) {
+		int f = x0 + y0 * map.getWidth();
+		int t = x1 + y1 * map.getWidth();
+		int v = map.getVersion();
+		if(f != from || t != to || radius != this.radius || map != this.map || v != version) {
+			visible = LineOfSight.withinRange(x0, y0, x1, y1, radius) && LineOfSight.isClear(map, x0, y0, x1, y1);
+			from = f;
+			to = t;
+			this.radius = radius;
+			this.map = map;
+			version = v;
+		}
+		return visible;
+	}
+
+}
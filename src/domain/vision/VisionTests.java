@@ -0,0 +1,129 @@
+package domain.vision;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import domain.game.Board;
+import domain.game.GameObject.Colour;
+import domain.game.Level;
+import domain.game.Position;
+import domain.gate.KeyGate;
+import domain.tiles.FreeTile;
+import domain.tiles.Tile;
+import domain.tiles.WallTile;
+
+/**
+ * @author Michael Dasan 300130610
+ */
+class VisionTests {
+	
+	/**
+	 * Creates a 7x7 Board of FreeTiles, with a WallTile at (3, 1) and a red KeyGate at (3, 5).
+	 */
+	private static Board makeBoard() {
+		Board board = new Board(7, 7);
+		for(int x = 0; x < 7; x++) {
+			for(int y = 0; y < 7; y++) {
+				if(x == 3 && y == 1) {
+					board.put(new WallTile(x, y));
+				}else {
+					board.put(new FreeTile(x, y));
+				}
+			}
+		}
+		new KeyGate(board.getTileAt(3, 5), Colour.RED);
+		return board;
+	}
+
+	@Test
+	void wallsAndGatesBlockSight() {
+		OpacityMap map = new OpacityMap(makeBoard());
+		assertTrue(map.isOpaque(3, 1));
+		assertTrue(map.isOpaque(3, 5));
+		assertFalse(map.isOpaque(3, 3));
+		assertFalse(LineOfSight.isClear(map, 0, 1, 6, 1));
+		assertFalse(LineOfSight.isClear(map, 0, 5, 6, 5));
+		assertTrue(LineOfSight.isClear(map, 0, 3, 6, 3));
+		assertTrue(LineOfSight.isClear(map, 0, 0, 6, 6));
+		//the end cells themselves are never checked
+		assertTrue(LineOfSight.isClear(map, 3, 0, 3, 1));
+		assertTrue(LineOfSight.isClear(map, 2, 2, 2, 2));
+	}
+	
+	@Test
+	void rangeIsChecked() {
+		assertTrue(LineOfSight.withinRange(0, 0, 3, 4, 5));
+		assertFalse(LineOfSight.withinRange(0, 0, 4, 4, 5));
+	}
+	
+	@Test
+	void openingGateUpdatesSightline() {
+		Board board = makeBoard();
+		Level level = new Level(0, 0, board);
+		OpacityMap map = level.getOpacityMap();
+		Sightline sightline = new Sightline();
+		assertFalse(sightline.canSee(map, 0, 5, 6, 5, 8));
+		
+		Tile t = board.getTileAt(3, 5);
+		t.setGate(null);
+		level.tileChanged(new Position(3, 5));
+		assertFalse(map.isOpaque(3, 5));
+		assertTrue(sightline.canSee(map, 0, 5, 6, 5, 8));
+		
+		//out of range, even with nothing in the way
+		assertFalse(sightline.canSee(map, 0, 5, 6, 5, 5));
+	}
+
+	@Test
+	void fieldOfViewMatchesLayout() {
+		Board board = makeBoard();
+		Level level = new Level(0, 0, board);
+		FieldOfView fov = level.getFieldOfView();
+		assertEquals(Level.VISION_RADIUS, fov.getRadius());
+		//open row
+		assertTrue(fov.isVisible(0, 3, 6, 3));
+		assertTrue(fov.isVisible(6, 3, 0, 3));
+		//straight behind the wall and the gate
+		assertFalse(fov.isVisible(0, 1, 6, 1));
+		assertFalse(fov.isVisible(0, 5, 6, 5));
+		//the wall itself can be seen, but cannot see
+		assertTrue(fov.isVisible(0, 1, 3, 1));
+		assertFalse(fov.isVisible(3, 1, 0, 1));
+		
+		//opening the gate only marks the cells around it to be found again, which can now see past it
+		Tile t = board.getTileAt(3, 5);
+		t.setGate(null);
+		level.tileChanged(new Position(3, 5));
+		assertTrue(fov.isVisible(0, 5, 6, 5));
+		assertTrue(fov.isVisible(3, 5, 3, 2));
+		assertFalse(fov.isVisible(3, 5, 3, 0));
+	}
+	
+	@Test
+	void visionIsBuiltWhenFirstNeeded() {
+		Board board = makeBoard();
+		Level level = new Level(0, 0, board);
+		//nothing has looked yet, so there is nothing to update
+		board.getTileAt(3, 5).setGate(null);
+		level.tileChanged(new Position(3, 5));
+		FieldOfView fov = level.getFieldOfView();
+		assertSame(fov, level.getFieldOfView());
+		assertFalse(level.getOpacityMap().isOpaque(3, 5));
+		assertTrue(fov.isVisible(0, 5, 6, 5));
+		assertFalse(fov.isVisible(0, 1, 6, 1));
+	}
+	
+	@Test
+	void fieldOfViewIsLimitedByRadius() {
+		Board board = new Board(12, 1);
+		for(int x = 0; x < 12; x++) {
+			board.put(new FreeTile(x, 0));
+		}
+		FieldOfView fov = new FieldOfView(new OpacityMap(board), 8);
+		assertTrue(fov.isVisible(0, 0, 8, 0));
+		assertFalse(fov.isVisible(0, 0, 9, 0));
+		assertTrue(fov.isVisible(11, 0, 3, 0));
+	}
+
+}
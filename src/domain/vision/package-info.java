@@ -0,0 +1,7 @@
+/**
+ * The vision package contains classes used to determine what NonPlayerActors can see. Line of sight
+ * is checked against an OpacityMap of the Board, rather than by searching the Board itself.
+ * 
+ * @author Michael Dasan 300130610
+ */
+package domain.vision;
@@ -114,7 +114,7 @@ public class LevelReader {
 	private void populateBoard(Board b) {
 		for(int x = 0; x < b.getWidth(); x++) {
 			for(int y = 0; y < b.getHeight(); y++) {
-				b.put(new FreeTile(x, y));
+				b.put(new FreeTile(b.positionOf(x, y)));
 			}
 		}
 	}
@@ -131,7 +131,7 @@ public class LevelReader {
 		for(Element elem : exits) {
 			scan = new Scanner(elem.getText());
 			try {
-				b.put(new ExitTile(scan.nextInt(), scan.nextInt(), scan.nextInt()));
+				b.put(new ExitTile(b.positionOf(scan.nextInt(), scan.nextInt()), scan.nextInt()));
 			}catch(NoSuchElementException e) {
 				throw new IllegalArgumentException("Error when constructing ExitTile - XML file improperly formatted.");
 			}finally {
@@ -158,7 +158,7 @@ public class LevelReader {
 						s.append(" ");
 					}
 				}
-				b.put(new HelpTile(x, y, s.toString()));
+				b.put(new HelpTile(b.positionOf(x, y), s.toString()));
 			}catch(NoSuchElementException e) {
 				throw new IllegalArgumentException("Error when constructing HelpTile - XML file improperly formatted.");
 			}finally {
@@ -176,7 +176,7 @@ public class LevelReader {
 		for(Element elem : walls) {
 			scan = new Scanner(elem.getText());
 			try {
-				b.put(new WallTile(scan.nextInt(), scan.nextInt()));
+				b.put(new WallTile(b.positionOf(scan.nextInt(), scan.nextInt())));
 			}catch(NoSuchElementException e) {
 				throw new IllegalArgumentException("Error when constructing WallTile - XML file improperly formatted.");
 			}finally {
@@ -279,7 +279,9 @@ public class LevelReader {
 			scan = new Scanner(elem.getText());
 			try {
 				Tile t = b.getTileAt(scan.nextInt(), scan.nextInt());
-				if(!t.setActor(new BugEnemy(t))) {
+				//the BugEnemy places itself in its Tile, so setActor would always fail afterwards
+				boolean occupied = t.hasActor();
+				if(occupied || new BugEnemy(t) != t.getActor()) {
 					throw new IllegalArgumentException("Error when constructing BugEnemy - Attempting to assign to invalid Tile.");
 				}
 			}catch(NoSuchElementException e) {
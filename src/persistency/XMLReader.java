@@ -145,7 +145,7 @@ public class XMLReader {
     /* Default Board Tiles */
     for (int x = 0; x < WIDTH; x++) {
       for (int y = 0; y < HEIGHT; y++) {
-        Position pos = new Position(x, y);
+        Position pos = board.positionOf(x, y);
         board.put(pos, new FreeTile(pos));
       }
     }
@@ -164,7 +164,7 @@ public class XMLReader {
         continue;
       }
       /* Assign the Tiles to the Board */
-      Position pos = new Position(WIDTH, HEIGHT);
+      Position pos = board.positionOf(WIDTH, HEIGHT);
       switch (name) {
       case "Wall":
         board.put(pos, new WallTile(pos));
@@ -191,7 +191,7 @@ public class XMLReader {
     }
 
     if (WIDTH < board.getWidth() && HEIGHT < board.getHeight()) {
-      Position pos = new Position(WIDTH, HEIGHT);
+      Position pos = board.positionOf(WIDTH, HEIGHT);
       Tile t = null;
       if (board.getTileAt(pos) == null) {
         t = new FreeTile(pos);
@@ -234,7 +234,7 @@ public class XMLReader {
           continue;
         }
 
-        Position pos = new Position(WIDTH, HEIGHT);
+        Position pos = board.positionOf(WIDTH, HEIGHT);
         switch (name) {
         case "BugEnemy":
           actor = new BugEnemy(board.getTileAt(pos));
@@ -260,7 +260,7 @@ public class XMLReader {
         continue;
       }
 
-      Position pos = new Position(WIDTH, HEIGHT);
+      Position pos = board.positionOf(WIDTH, HEIGHT);
       Colour col = null;
       if (!keytype.isEmpty()) {
         col = resolveStringToColour(keytype);
@@ -300,7 +300,7 @@ public class XMLReader {
       if (!colstr.isEmpty()) {
         col = resolveStringToColour(colstr);
       }
-      Position pos = new Position(WIDTH, HEIGHT);
+      Position pos = board.positionOf(WIDTH, HEIGHT);
       switch (name) {
       case "Key":
         item = new Key(board.getTileAt(pos), col);
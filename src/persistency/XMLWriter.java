@@ -86,7 +86,7 @@ public class XMLWriter {
 		Element actors 	= new Element("Actors"); 
 		for(int x = 0; x < Width; x++) {
 			for(int y = 0; y < Height; y++) {
-				Position pos 	= new Position(x,y);
+				Position pos 	= board.positionOf(x,y);
 				Tile tile 		= board.getTileAt(pos);
 				if(tile == null) { continue; }
 				String text 	= null;
@@ -0,0 +1,152 @@
+package rendering;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Draws the maze onto a canvas from a dedicated render thread, rather than when Swing gets round to it.
+ * Each frame is drawn into a BufferStrategy and shown in one go, so a half drawn frame is never seen.
+ *
+ * Frames are paced to a target rate against fixed deadlines, sleeping rather than spinning between them,
+ * so a frame that runs long is made up for by the next rather than pushing every later frame back.
+ * With no target the thread draws as fast as showing the buffer allows, which is the vsync rate where
+ * the platform waits for it. The view slides between simulation ticks, see Renderer.draw.
+ * @author Sam Lockhart
+ */
+
+public class ActiveRenderer extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The frame rate used if none is set.
+     */
+    public static final int DEFAULT_TARGET_FPS = 60;
+
+    private final Renderer renderer;
+    private final FrameStats stats = new FrameStats();
+
+    private volatile int targetFps = DEFAULT_TARGET_FPS;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Creates a canvas that draws the view of the given renderer. Nothing is drawn until start is called.
+     * @param renderer the renderer to draw with. Must not be drawn by any other thread while this runs.
+     */
+    public ActiveRenderer(Renderer renderer) {
+        this.renderer = renderer;
+        setSize(Renderer.VIEW_SIZE, Renderer.VIEW_SIZE);
+        setBackground(Color.darkGray);
+        setIgnoreRepaint(true); //every frame comes from the render thread
+        setFocusable(false);
+    }
+
+    /**
+     * Starts the render thread. The canvas must already be showing.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        createBufferStrategy(2);
+        running = true;
+        thread = new Thread(this::renderLoop, "Renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the render thread, and waits for the frame being drawn to finish.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * Draws frames until stopped.
+     */
+    private void renderLoop() {
+        BufferStrategy strategy = getBufferStrategy();
+        long previous = System.nanoTime();
+        long deadline = previous;
+        while (running) {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        g.setColor(getBackground());
+                        g.fillRect(0, 0, getWidth(), getHeight());
+                        renderer.draw(g, 0, 0, true);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync(); //flush to the screen now, rather than when the window system chooses
+
+            int fps = targetFps;
+            if (fps > 0) {
+                long frameNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+                deadline += frameNanos;
+                long now = System.nanoTime();
+                if (now - deadline > frameNanos) {
+                    deadline = now; //too far behind to catch up, so start pacing again from here
+                }
+                while (running && (now = System.nanoTime()) < deadline) {
+                    LockSupport.parkNanos(this, deadline - now);
+                }
+            }
+            long now = System.nanoTime();
+            stats.record(now - previous);
+            previous = now;
+        }
+    }
+
+    /**
+     * Sets the frame rate to aim for.
+     * @param fps frames per second, or 0 to draw as fast as showing each frame allows.
+     */
+    public void setTargetFps(int fps) {
+        if (fps < 0) {
+            throw new IllegalArgumentException("Target frame rate cannot be negative.");
+        }
+        targetFps = fps;
+    }
+
+    /**
+     * @return the frame rate aimed for, or 0 if there is none.
+     */
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * @return the times of recent frames.
+     */
+    public FrameStats getFrameStats() {
+        return stats;
+    }
+
+    /**
+     * @return whether the render thread is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,102 @@
+package rendering;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the times of the most recent frames drawn, and reports percentiles of them, so the frame
+ * rate can be tuned on slow machines. Frames are recorded by the render thread, and the statistics
+ * may be read from any thread.
+ * @author Sam Lockhart
+ */
+
+public class FrameStats {
+
+    /**
+     * How many of the most recent frames are kept if no window is given.
+     */
+    public static final int DEFAULT_WINDOW = 600;
+
+    //the most recent frame times, in nanoseconds, written round in a ring
+    private final long[] frameNanos;
+    private int next;
+    private int count;
+    private long totalFrames;
+
+    /**
+     * Creates stats covering the last DEFAULT_WINDOW frames.
+     */
+    public FrameStats() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates stats covering the given number of most recent frames.
+     * @param window how many frames to keep.
+     */
+    public FrameStats(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Frame window must be positive.");
+        }
+        this.frameNanos = new long[window];
+    }
+
+    /**
+     * Records the time taken by one frame.
+     * @param nanos the time from the start of the frame to the start of the next, in nanoseconds.
+     */
+    public synchronized void record(long nanos) {
+        frameNanos[next] = nanos;
+        next = (next + 1) % frameNanos.length;
+        count = Math.min(count + 1, frameNanos.length);
+        totalFrames++;
+    }
+
+    /**
+     * @param percentile a percentile from 0 to 100.
+     * @return the frame time, in nanoseconds, that the given percentage of recent frames took no longer than.
+     *         0 if no frames have been recorded.
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be from 0 to 100.");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(frameNanos, count);
+        Arrays.sort(sorted);
+        //nearest rank
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * @param percentile a percentile from 0 to 100.
+     * @return the same as getPercentileNanos, in milliseconds.
+     */
+    public double getPercentileMillis(double percentile) {
+        return getPercentileNanos(percentile) / 1e6;
+    }
+
+    /**
+     * @return the number of frames recorded since these stats were created or reset.
+     */
+    public synchronized long getFrameCount() {
+        return totalFrames;
+    }
+
+    /**
+     * Forgets every frame recorded so far.
+     */
+    public synchronized void reset() {
+        next = 0;
+        count = 0;
+        totalFrames = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames, p50 %.2fms, p95 %.2fms, p99 %.2fms, max %.2fms", getFrameCount(),
+                getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getPercentileMillis(100));
+    }
+}
@@ -1,17 +1,21 @@
 package rendering;
 
 
-import domain.actors.Actor;
-import domain.actors.BugEnemy;
-import domain.actors.NonPlayerActor;
+import domain.game.BoardSnapshot;
 import domain.game.Game;
+import domain.game.Game.Direction;
+import domain.game.GameObject;
+import domain.game.GameObject.Colour;
+import domain.game.Level;
 import domain.game.Player;
-import domain.game.Position;
+import domain.game.SimulationClock;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The renderer module is responsible for drawing the maze onto the JPane
@@ -20,115 +24,281 @@ import java.util.HashSet;
 
 public class Renderer extends JPanel {
 
+    /**
+     * The width and height of the 9x9 view, in pixels.
+     */
+    public static final int VIEW_SIZE = 9 * 50;
+
+    //the back buffer holds a margin of cells around the view, so the view can slide part way to a neighbouring cell
+    private static final int MARGIN = 1;
+    private static final int SPAN = 9 + 2 * MARGIN;
+
     private final Game game;
     private final Player player;
-    private HashSet<BugEnemy> enemies;
+
+    //the level being drawn, fixed when the renderer is built, so a new game's snapshots are never read with these dimensions
+    private final Level level;
 
     private final int boardWidth, boardHeight;
 
+    //every sprite packed into one image, and the atlas region for each code in a BoardSnapshot
+    private SpriteAtlas atlas;
+    private final int[] tileSprites = new int[BoardSnapshot.TELEPORT + 1];
+    private final int[] itemSprites = new int[BoardSnapshot.KEY + Colour.values().length];
+    private final int[] gateSprites = new int[BoardSnapshot.KEY_GATE + Colour.values().length];
+    private final int[] chapSprites = new int[Direction.values().length];
+    private final int[] bugSprites = new int[Direction.values().length];
+
+    //the view as last drawn, kept between frames so only what changed needs redrawing
+    private static final Color CLEAR = new Color(0, 0, 0, 0);
+    private BufferedImage backBuffer;
+    private long drawnTick = -1;
+    private int drawnXMin = -SPAN, drawnYMin = -SPAN;
+    private int cellsDrawn;
+
+    //the view slides from where it was at the previous tick to where it is at the latest one
+    private long cameraTick = -1;
+    private int cameraFromX, cameraFromY, cameraToX, cameraToY;
+
     /**
      * Constructor for the renderer.
-     * @param game the game currently being played.
+     * @param game the game currently being played, whose current level is the one drawn.
      * @param player the object representing the player.
      * @param g the graphics object representing the JPane
      */
     public Renderer(Game game, Player player) {
         this.game = game;
         this.player = player;
-        int[] dimensions = game.getBoardDimension();
-        this.boardWidth = dimensions[0];
-        this.boardHeight = dimensions[1];
-        this.enemies = game.getAllEnemies();
-        System.out.println(enemies.size());
+        this.level = Game.getLevel();
+        this.boardWidth = level.getBoard().getWidth();
+        this.boardHeight = level.getBoard().getHeight();
+        buildAtlas();
+    }
+
+    /**
+     * Packs the sprite for every tile, item, gate and actor code that can appear in a snapshot into
+     * the atlas, and records the region of each. Sprites come from the same asset provider the domain uses.
+     */
+    private void buildAtlas() {
+        String[] tiles = new String[tileSprites.length];
+        tiles[BoardSnapshot.FREE] = "open_tile";
+        tiles[BoardSnapshot.WALL] = "wall";
+        tiles[BoardSnapshot.EXIT] = "exit";
+        tiles[BoardSnapshot.HELP] = "help_tile";
+        String[] items = new String[itemSprites.length];
+        String[] gates = new String[gateSprites.length];
+        items[BoardSnapshot.TREASURE] = "treasure";
+        gates[BoardSnapshot.TREASURE_GATE] = "gate_closed";
+        for (Colour c : Colour.values()) {
+            items[BoardSnapshot.KEY + c.ordinal()] = "key" + c.getFilename();
+            gates[BoardSnapshot.KEY_GATE + c.ordinal()] = "lock" + c.getFilename();
+        }
+        String[] chaps = new String[chapSprites.length];
+        String[] bugs = new String[bugSprites.length];
+        for (Direction d : Direction.values()) {
+            String suffix = "_" + d.name().toLowerCase();
+            chaps[d.ordinal()] = "player" + suffix;
+            bugs[d.ordinal()] = "bug" + suffix;
+        }
+
+        List<String> names = new ArrayList<>();
+        for (String[] group : new String[][] {tiles, items, gates, chaps, bugs}) {
+            for (String name : group) {
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+        }
+        atlas = new SpriteAtlas(GameObject.getAssetProvider(), names.toArray(new String[0]));
+        findRegions(tiles, tileSprites);
+        findRegions(items, itemSprites);
+        findRegions(gates, gateSprites);
+        findRegions(chaps, chapSprites);
+        findRegions(bugs, bugSprites);
+    }
+
+    /**
+     * Looks up the atlas region of each named sprite. Unnamed or missing sprites get -1, which draws nothing.
+     */
+    private void findRegions(String[] names, int[] regions) {
+        for (int i = 0; i < names.length; i++) {
+            regions[i] = names[i] == null ? -1 : atlas.getRegion(names[i]);
+        }
     }
 
     /**
      * This function draws the maze around the player, as well as the player themselves.
+     * Everything is drawn from the level's latest board snapshot, so nothing is ever seen mid-move,
+     * and the game can carry on moving while this draws.
      * @param g the graphics object representing the JPane.
      */
 
     public void draw(Graphics g) {
+        draw(g, 36, 82, false);
+    }
+
+    /**
+     * Draws the 9x9 view around the player at the given point.
+     *
+     * The view, and a margin around it, is kept in a back buffer between frames, and only the cells that changed
+     * since the last frame are redrawn into it. When the view scrolls, the buffer is shifted and only the newly
+     * uncovered cells are drawn. The buffer is then copied onto the graphics in one go.
+     *
+     * When interpolating, a view that scrolled by a cell at the latest tick slides there over the length of a tick,
+     * rather than jumping, so the maze moves smoothly however far apart the frame and tick rates are. Actors still
+     * move a whole cell at a time, as snapshots only record which cell each is in.
+     * @param g the graphics to draw on.
+     * @param x the left edge of the view.
+     * @param y the top edge of the view.
+     * @param interpolate whether to slide the view between ticks.
+     */
+    public void draw(Graphics g, int x, int y, boolean interpolate) {
+        BoardSnapshot snapshot = level.getBoardSnapshot();
+        if (snapshot == null || snapshot.getChap() == -1) {
+            return; //nothing has been published yet
+        }
+
         //find the player's position
-        Position chapPos = player.getPosition();
-        int xPos = chapPos.getX();
-        int yPos = chapPos.getY();
-
-        //calculate the minimum and maximum for tiles to be drawn (positions in the board)
-        int xMin = boardWidth - xPos < 5 ? boardWidth - 9 : Math.max(xPos - 4, 0);
-        int yMin = boardHeight - yPos < 5 ? boardHeight - 9 : Math.max(yPos - 4, 0);
-        int xMax = Math.min(xMin + 9, boardWidth);
-        int yMax = Math.min(yMin + 9, boardHeight);
-
-        //initialise x and y values on the pane
-        int x = 36;
-        int y = 82;
-
-        //draw each tile in a 9x9 area around the player
-        BufferedImage image;
-        for (int i = xMin; i < xMax; i++) {
-            for (int j = yMin; j < yMax; j++) {
-                Position tilePos = new Position(i, j);
-                try {
-                    image = game.getTileAt(tilePos).getImage(); //loads the image for the current tile
-                    g.drawImage(image, x, y, this);     //and draws it
-                } catch (IllegalArgumentException e) {
-                    e.printStackTrace();
-                }
-                for (BugEnemy enemy : enemies){
-                    if (enemy.getPosition().equals(tilePos)){
-                        //System.out.println(enemy.getPosition().getX() + " " + enemy.getPosition().getY());
-                        try {
-                            image = enemy.getImage();
-                            g.drawImage(image, x, y, this);
-                        }
-                        catch (IllegalArgumentException e){
-                            e.printStackTrace();
-                        }
+        int xPos = snapshot.getChap() % boardWidth;
+        int yPos = snapshot.getChap() / boardWidth;
+
+        //calculate the minimum for tiles to be drawn (positions in the board), then the area the buffer covers
+        int xMin = Math.max(boardWidth - xPos < 5 ? boardWidth - 9 : xPos - 4, 0);
+        int yMin = Math.max(boardHeight - yPos < 5 ? boardHeight - 9 : yPos - 4, 0);
+        int bufXMin = xMin - MARGIN;
+        int bufYMin = yMin - MARGIN;
+
+        if (backBuffer == null) {
+            backBuffer = createBuffer(SPAN * 50, SPAN * 50);
+            drawnTick = -1;
+        }
+        Graphics2D b = backBuffer.createGraphics();
+        b.setComposite(AlphaComposite.Src);
+
+        //a snapshot older than the last one drawn means a new game, so start again
+        boolean full = drawnTick == -1 || snapshot.getTick() < drawnTick;
+        int shiftX = drawnXMin - bufXMin;
+        int shiftY = drawnYMin - bufYMin;
+        if (!full && (shiftX != 0 || shiftY != 0)) {
+            if (Math.abs(shiftX) < SPAN && Math.abs(shiftY) < SPAN) {
+                //the view has scrolled, so move what is already drawn along with it
+                b.copyArea(0, 0, SPAN * 50, SPAN * 50, shiftX * 50, shiftY * 50);
+            }
+            else {
+                full = true;
+            }
+        }
+
+        //draw each tile in and around the view that has changed, or has just come into the buffer
+        cellsDrawn = 0;
+        for (int i = bufXMin; i < bufXMin + SPAN; i++) {
+            for (int j = bufYMin; j < bufYMin + SPAN; j++) {
+                boolean uncovered = i < drawnXMin || i >= drawnXMin + SPAN || j < drawnYMin || j >= drawnYMin + SPAN;
+                if (i < 0 || j < 0 || i >= boardWidth || j >= boardHeight) {
+                    if (full || uncovered) {
+                        //off the board, so leave nothing showing if the view slides over it
+                        b.setColor(CLEAR);
+                        b.fillRect((i - bufXMin) * 50, (j - bufYMin) * 50, 50, 50);
                     }
+                    continue;
+                }
+                int cell = i + j * boardWidth;
+                if (full || uncovered || snapshot.getChangeTick(cell) > drawnTick) {
+                    drawCell(b, snapshot, cell, (i - bufXMin) * 50, (j - bufYMin) * 50);
+                    cellsDrawn++;
                 }
-                y += 50;
             }
-            y = 82;
-            x += 50;
         }
+        b.dispose();
+        drawnTick = snapshot.getTick();
+        drawnXMin = bufXMin;
+        drawnYMin = bufYMin;
 
-        //find the limit of the centre of view, and initialise the player's drawing position (centre of the board)
-        int xDrawMax = boardWidth - 5;
-        int yDrawMax = boardHeight - 5;
-        int drawX = 236;
-        int drawY = 282;
-
-        //adjust the player's drawing position if necessary (ie, drawing them centred would require shaving off parts of the board)
-        if (xPos < 4) {
-            for (int i = xPos; i < 4; i++) {
-                drawX -= 50;
-            }
+        //work out how far the view has still to slide from where it was at the previous tick
+        if (snapshot.getTick() != cameraTick) {
+            boolean step = cameraTick != -1 && snapshot.getTick() > cameraTick
+                    && Math.abs(xMin - cameraToX) <= MARGIN && Math.abs(yMin - cameraToY) <= MARGIN;
+            cameraFromX = step ? cameraToX : xMin;
+            cameraFromY = step ? cameraToY : yMin;
+            cameraToX = xMin;
+            cameraToY = yMin;
+            cameraTick = snapshot.getTick();
         }
-        else if (xPos > xDrawMax){
-            for (int i = xDrawMax; i < xPos; i++){
-                drawX += 50;
-            }
+        int offsetX = 0, offsetY = 0;
+        if (interpolate) {
+            double remaining = 1 - tickProgress(snapshot);
+            offsetX = (int) Math.round((cameraToX - cameraFromX) * 50 * remaining);
+            offsetY = (int) Math.round((cameraToY - cameraFromY) * 50 * remaining);
         }
 
-        if (yPos < 4) {
-            for (int i = yPos; i < 4; i++) {
-                drawY -= 50;
-            }
+        Graphics view = g.create(x, y, VIEW_SIZE, VIEW_SIZE);
+        view.drawImage(backBuffer, offsetX - MARGIN * 50, offsetY - MARGIN * 50, this);
+        view.dispose();
+        setOpaque(false);
+    }
+
+    /**
+     * @return how far, from 0 to 1, the simulation has got through the tick after the given snapshot.
+     */
+    private static double tickProgress(BoardSnapshot snapshot) {
+        SimulationClock clock = Game.getClock();
+        long tickNanos = clock == null ? TimeUnit.SECONDS.toNanos(1) / SimulationClock.DEFAULT_TICK_RATE : clock.getTickNanos();
+        double progress = (double) (System.nanoTime() - snapshot.getCaptureNanos()) / tickNanos;
+        return Math.max(0, Math.min(1, progress));
+    }
+
+    /**
+     * Draws a single cell into the back buffer: its tile, or the item or gate in it, then any actor on it.
+     * The player is drawn like any other actor, as the view always contains them.
+     */
+    private void drawCell(Graphics2D b, BoardSnapshot snapshot, int cell, int x, int y) {
+        //clear the cell first, as a tile with no sprite would otherwise leave the old one showing
+        b.setColor(CLEAR);
+        b.fillRect(x, y, 50, 50);
+
+        //a gate is drawn in place of an item, and an item in place of the tile itself
+        int sprite;
+        if (snapshot.getGate(cell) != BoardSnapshot.NONE) {
+            sprite = gateSprites[snapshot.getGate(cell)];
         }
-        else if (yPos > yDrawMax){
-            for (int i = yDrawMax; i < yPos; i++){
-                drawY += 50;
-            }
+        else if (snapshot.getItem(cell) != BoardSnapshot.NONE) {
+            sprite = itemSprites[snapshot.getItem(cell)];
+        }
+        else {
+            sprite = tileSprites[snapshot.getTile(cell)];
         }
+        atlas.draw(b, sprite, x, y, this);
 
-        //draws the player
-        try {
-            image = player.getPlayerImage();
-            g.drawImage(image, drawX, drawY, this);
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
+        byte actor = snapshot.getActor(cell);
+        if (actor != BoardSnapshot.NONE) {
+            int[] sprites = BoardSnapshot.actorKind(actor) == BoardSnapshot.CHAP ? chapSprites : bugSprites;
+            atlas.draw(b, sprites[BoardSnapshot.actorDirection(actor).ordinal()], x, y, this);
         }
-        setOpaque(false);
+    }
+
+    /**
+     * Creates a transparent image in the screen's own format, or a plain one if there is no screen.
+     */
+    private static BufferedImage createBuffer(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * @return the number of cells redrawn in the last frame, including the margin around the view.
+     */
+    public int getCellsDrawn() {
+        return cellsDrawn;
+    }
+
+    /**
+     * @return the back buffer holding the view as last drawn, with a margin of one cell around it.
+     */
+    public BufferedImage getBackBuffer() {
+        return backBuffer;
     }
 
 
@@ -137,4 +307,3 @@ public class Renderer extends JPanel {
     	super.paintComponent(g);
     }
 }
-
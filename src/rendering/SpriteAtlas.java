@@ -0,0 +1,152 @@
+package rendering;
+
+import domain.game.AssetProvider;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The sprite atlas packs every sprite the renderer needs into a single image, made in the screen's
+ * own format, and keeps a table of where each sprite is. Drawing a sprite copies a rectangle out of
+ * that one image, so Java2D can keep it accelerated and never has to switch between images.
+ *
+ * Sprites are packed onto shelves - rows as tall as their tallest sprite - tallest first.
+ * @author Sam Lockhart
+ */
+public class SpriteAtlas {
+
+    //the space left between sprites, so scaled drawing never bleeds into a neighbour
+    private static final int PADDING = 1;
+
+    private final BufferedImage atlas;
+    private final Map<String, Integer> regions = new HashMap<>();
+
+    //the rectangle of each sprite in the atlas, indexed by region number
+    private final int[] regionX, regionY, regionWidth, regionHeight;
+
+    /**
+     * Loads each of the named sprites from the given provider and packs them into one image.
+     * Sprites the provider does not have are left out.
+     * @param assets where to load the sprites from.
+     * @param names the names of the sprites to pack.
+     */
+    public SpriteAtlas(AssetProvider assets, String... names) {
+        BufferedImage[] sprites = new BufferedImage[names.length];
+        Integer[] order = new Integer[names.length];
+        long area = 0;
+        int widest = 1;
+        for (int i = 0; i < names.length; i++) {
+            sprites[i] = assets.getImage(names[i]);
+            order[i] = i;
+            if (sprites[i] != null) {
+                area += (long) (sprites[i].getWidth() + PADDING) * (sprites[i].getHeight() + PADDING);
+                widest = Math.max(widest, sprites[i].getWidth() + PADDING);
+            }
+        }
+        //pack the tallest sprites first, so each shelf wastes as little height as possible
+        Arrays.sort(order, (a, b) -> height(sprites[b]) - height(sprites[a]));
+
+        //aim for a roughly square atlas, but always wide enough for the widest sprite
+        int atlasWidth = Math.max(widest, (int) Math.ceil(Math.sqrt(area)));
+        regionX = new int[names.length];
+        regionY = new int[names.length];
+        regionWidth = new int[names.length];
+        regionHeight = new int[names.length];
+        int x = 0, y = 0, shelfHeight = 0;
+        for (int i : order) {
+            if (sprites[i] == null) {
+                continue;
+            }
+            int w = sprites[i].getWidth();
+            int h = sprites[i].getHeight();
+            if (x + w > atlasWidth) {
+                //start a new shelf
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            regionX[i] = x;
+            regionY[i] = y;
+            regionWidth[i] = w;
+            regionHeight[i] = h;
+            x += w + PADDING;
+            shelfHeight = Math.max(shelfHeight, h + PADDING);
+        }
+
+        atlas = createImage(atlasWidth, Math.max(1, y + shelfHeight));
+        Graphics2D g = atlas.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        for (int i = 0; i < names.length; i++) {
+            if (sprites[i] != null) {
+                g.drawImage(sprites[i], regionX[i], regionY[i], null);
+                regions.put(names[i], i);
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * @return the height of the given sprite, or 0 if it is missing.
+     */
+    private static int height(BufferedImage sprite) {
+        return sprite == null ? 0 : sprite.getHeight();
+    }
+
+    /**
+     * Creates a transparent image in the screen's own format, or a plain one if there is no screen.
+     */
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Finds the region number of the named sprite, to be passed to draw.
+     * @param name the name of the sprite.
+     * @return the region number, or -1 if the sprite is not in the atlas.
+     */
+    public int getRegion(String name) {
+        Integer region = regions.get(name);
+        return region == null ? -1 : region;
+    }
+
+    /**
+     * Draws a sprite from the atlas at its full size.
+     * @param g the graphics object to draw on.
+     * @param region the region number of the sprite, or -1 to draw nothing.
+     * @param x the x position to draw at.
+     * @param y the y position to draw at.
+     * @param observer the component being drawn on.
+     */
+    public void draw(Graphics g, int region, int x, int y, ImageObserver observer) {
+        if (region < 0) {
+            return;
+        }
+        int sx = regionX[region];
+        int sy = regionY[region];
+        int w = regionWidth[region];
+        int h = regionHeight[region];
+        g.drawImage(atlas, x, y, x + w, y + h, sx, sy, sx + w, sy + h, observer);
+    }
+
+    /**
+     * @return the rectangle the given region covers in the atlas image.
+     */
+    public Rectangle getBounds(int region) {
+        return new Rectangle(regionX[region], regionY[region], regionWidth[region], regionHeight[region]);
+    }
+
+    /**
+     * @return the packed atlas image. Must not be drawn on.
+     */
+    public BufferedImage getImage() {
+        return atlas;
+    }
+}